@@ -0,0 +1,25 @@
+package com.redhat.contentspec.processor.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks and writes the results as JSON, so that the results from different runs can be compared.
+ * <p/>
+ * Usage: java -jar benchmarks.jar [results file] [benchmark regex]
+ */
+public class BenchmarkRunner {
+    private static final String DEFAULT_RESULTS_FILE = "benchmark-results.json";
+
+    public static void main(final String[] args) throws RunnerException {
+        final String resultsFile = args.length > 0 ? args[0] : DEFAULT_RESULTS_FILE;
+        final String include = args.length > 1 ? args[1] : BenchmarkRunner.class.getPackage().getName() + ".*";
+
+        final ChainedOptionsBuilder options = new OptionsBuilder().include(include).forks(1).resultFormat(ResultFormatType.JSON).result(
+                resultsFile);
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,695 @@
+package com.redhat.contentspec.processor.benchmark;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates synthetic Content Specifications for load and scale testing, along with the dataset that a stand-in REST
+ * server needs to process them.
+ * <p/>
+ * The generated specs use the full grammar that the ContentSpecParser accepts: metadata (including a multi-line
+ * publican.cfg), global options, Part, Chapter, Section, Appendix, Preface and Process levels, new, existing, cloned and
+ * duplicated topics, tags, tag groups and other options (some of which are continued over multiple lines), targets and
+ * R:/P:/L: relationships. The same seed and size always produce the same spec, so results can be compared across runs.
+ * <p/>
+ * Specs are valid unless defects are requested, in which case each defect is injected once at a random point in the
+ * spec and the line it was injected on is recorded.
+ */
+public class CorpusGenerator {
+    public static final int MIN_LINES = 100;
+    public static final int MAX_LINES = 1000000;
+
+    private static final int INDENT = 2;
+    private static final int FIRST_EXISTING_ID = 10000;
+    private static final int TAG_COUNT = 50;
+    private static final int CATEGORY_COUNT = 5;
+    private static final int WRITER_COUNT = 5;
+    private static final int SHARED_TOPIC_COUNT = 10;
+    private static final String TYPE_CATEGORY = "Type";
+    private static final int TYPE_CATEGORY_ID = 4;
+    private static final String WRITER_CATEGORY = "Assigned Writer";
+    private static final int WRITER_CATEGORY_ID = 12;
+    private static final String[] TYPES = {"Concept", "Task", "Reference"};
+    private static final String[] WORDS = {"Installing", "Configuring", "Upgrading", "Monitoring", "Securing", "Deploying",
+            "Troubleshooting", "the", "a", "Server", "Client", "Cluster", "Repository", "Storage", "Network", "Database", "Cache",
+            "Console", "Service", "Agent", "Policies", "Logging", "Certificates", "Overview", "Reference", "Options"};
+
+    /**
+     * The defects that can be injected into a generated spec.
+     */
+    public static enum Defect {
+        /**
+         * A topic's variable set is never closed. Fails parsing.
+         */
+        MISSING_END_BRACKET,
+        /**
+         * A topic is indented by an odd number of spaces. Fails parsing, and parsing stops at the line.
+         */
+        INVALID_INDENTATION,
+        /**
+         * A new topic reuses the id of an earlier new topic. Fails parsing.
+         */
+        DUPLICATE_NEW_ID,
+        /**
+         * A topic has an id that isn't a new, existing, cloned or duplicated id. Fails parsing.
+         */
+        INVALID_TOPIC_ID,
+        /**
+         * An existing topic has a revision that isn't a number. Fails parsing.
+         */
+        INVALID_REVISION,
+        /**
+         * A relationship is missing the separator between two related topics. Fails parsing.
+         */
+        MISSING_SEPARATOR,
+        /**
+         * A relationship refers to a target that doesn't exist. Parses, but fails validation.
+         */
+        UNKNOWN_RELATIONSHIP_TARGET,
+        /**
+         * The Product metadata is missing. Parses, but fails validation.
+         */
+        MISSING_PRODUCT
+    }
+
+    private final long seed;
+    private final int lineCount;
+    private final Set<Defect> defects;
+
+    private Random random;
+    private StringBuilder spec;
+    private int line;
+    private FixtureDataset fixtures;
+    private Map<Integer, Defect> injectedDefects;
+    private LinkedList<Defect> pendingDefects;
+    private LinkedList<Integer> pendingDefectLines;
+    private int nextExistingId;
+    private int nextNewId;
+    private int nextTargetId;
+    private int nextLevelId;
+    private List<String> relatableIds;
+    private List<String> targetIds;
+    private List<Integer> newIds;
+    private List<Integer> clonedIds;
+    private List<Integer> sharedIds;
+
+    /**
+     * Creates a generator for a valid spec.
+     *
+     * @param seed      The seed for the random choices made when generating the spec.
+     * @param lineCount The number of lines the spec should have, between {@link #MIN_LINES} and {@link #MAX_LINES}.
+     */
+    public CorpusGenerator(final long seed, final int lineCount) {
+        this(seed, lineCount, Collections.<Defect>emptySet());
+    }
+
+    /**
+     * Creates a generator for a spec that has deliberate defects.
+     *
+     * @param seed      The seed for the random choices made when generating the spec.
+     * @param lineCount The number of lines the spec should have, between {@link #MIN_LINES} and {@link #MAX_LINES}.
+     * @param defects   The defects to inject into the spec.
+     */
+    public CorpusGenerator(final long seed, final int lineCount, final Collection<Defect> defects) {
+        if (lineCount < MIN_LINES || lineCount > MAX_LINES) {
+            throw new IllegalArgumentException("The line count must be between " + MIN_LINES + " and " + MAX_LINES);
+        }
+
+        this.seed = seed;
+        this.lineCount = lineCount;
+        this.defects = defects.isEmpty() ? EnumSet.noneOf(Defect.class) : EnumSet.copyOf(defects);
+    }
+
+    /**
+     * Generates the spec and its fixture dataset. The spec has at least the requested number of lines, and only goes over
+     * by the few lines needed to finish the current level.
+     *
+     * @return The generated spec and fixture dataset.
+     */
+    public Corpus generate() {
+        random = new Random(seed);
+        spec = new StringBuilder(lineCount * 40);
+        line = 0;
+        fixtures = new FixtureDataset();
+        injectedDefects = new LinkedHashMap<Integer, Defect>();
+        pendingDefects = new LinkedList<Defect>();
+        pendingDefectLines = new LinkedList<Integer>();
+        nextExistingId = FIRST_EXISTING_ID;
+        nextNewId = 1;
+        nextTargetId = 1;
+        nextLevelId = 1;
+        relatableIds = new ArrayList<String>();
+        targetIds = new ArrayList<String>();
+        newIds = new ArrayList<Integer>();
+        clonedIds = new ArrayList<Integer>();
+        sharedIds = new ArrayList<Integer>();
+
+        addTagFixtures();
+        emitHeader();
+        scheduleDefects();
+        emitBody();
+
+        return new Corpus(spec.toString(), line, fixtures, injectedDefects);
+    }
+
+    private void addTagFixtures() {
+        for (int i = 0; i < TAG_COUNT; i++) {
+            final int category = i % CATEGORY_COUNT;
+            fixtures.addTag(i + 1, "Tag" + i, 100 + category, "Category" + category);
+        }
+        for (int i = 0; i < TYPES.length; i++) {
+            fixtures.addTag(TAG_COUNT + i + 1, TYPES[i], TYPE_CATEGORY_ID, TYPE_CATEGORY);
+        }
+        for (int i = 0; i < WRITER_COUNT; i++) {
+            fixtures.addTag(TAG_COUNT + TYPES.length + i + 1, "writer" + i, WRITER_CATEGORY_ID, WRITER_CATEGORY);
+        }
+    }
+
+    private void emitHeader() {
+        appendLine("# Generated Content Specification (seed: " + seed + ", lines: " + lineCount + ")");
+        appendLine("Title = Generated Book " + seed);
+        appendLine("Subtitle = A generated book for load testing");
+        if (defects.contains(Defect.MISSING_PRODUCT)) {
+            injectedDefects.put(line + 1, Defect.MISSING_PRODUCT);
+        } else {
+            appendLine("Product = PressGang CCMS");
+        }
+        appendLine("Version = 1.0");
+        appendLine("DTD = Docbook 4.5");
+        appendLine("Copyright Holder = Red Hat");
+        appendLine("Copyright Year = 2013");
+        appendLine("Abstract = This book was generated from the seed " + seed + " \\[for load testing\\]");
+        appendLine("Bug Links = OFF");
+        appendLine("publican.cfg = [xml_lang: en-US");
+        appendLine("brand: common");
+        appendLine("git_branch: docs-" + seed + "]");
+        appendLine("[Tag0, Writer = writer0]");
+        appendLine("");
+    }
+
+    /**
+     * Picks the lines that each defect will be injected at. Defects are injected into the first topic at or after the
+     * line that was picked for them.
+     */
+    private void scheduleDefects() {
+        final List<Defect> topicDefects = new ArrayList<Defect>(defects);
+        topicDefects.remove(Defect.MISSING_PRODUCT);
+
+        final int bodyLines = Math.max(1, lineCount - line - 10);
+        final List<Integer> lines = new ArrayList<Integer>();
+        for (int i = 0; i < topicDefects.size(); i++) {
+            lines.add(line + 1 + random.nextInt(bodyLines));
+        }
+        Collections.sort(lines);
+        Collections.shuffle(topicDefects, random);
+
+        pendingDefects.addAll(topicDefects);
+        pendingDefectLines.addAll(lines);
+    }
+
+    private void emitBody() {
+        if (lineCount >= 500) {
+            emitLeafLevel("Preface", 0);
+        }
+
+        while (line < lineCount) {
+            if (random.nextInt(100) < 15) {
+                emitPart(0);
+            } else {
+                emitChapter(0);
+            }
+            appendLine("");
+        }
+
+        if (lineCount >= 300) {
+            emitLeafLevel("Appendix", 0);
+        }
+    }
+
+    private void emitPart(final int depth) {
+        appendLine(indent(depth) + "Part: " + levelTitle() + levelOptions());
+        final int chapters = 1 + random.nextInt(3);
+        for (int i = 0; i < chapters && (i == 0 || line < lineCount); i++) {
+            emitChapter(depth + 1);
+        }
+    }
+
+    private void emitChapter(final int depth) {
+        appendLine(indent(depth) + "Chapter: " + levelTitle() + levelOptions());
+        maybeEmitComment(depth + 1);
+
+        final int introTopics = random.nextInt(3);
+        for (int i = 0; i < introTopics; i++) {
+            emitTopic(depth + 1, false);
+        }
+
+        final int sections = 1 + random.nextInt(4);
+        for (int i = 0; i < sections && (i == 0 || line < lineCount); i++) {
+            emitSection(depth + 1, 0);
+        }
+
+        if (line < lineCount && random.nextInt(100) < 15) {
+            emitProcess(depth + 1);
+        }
+    }
+
+    private void emitSection(final int depth, final int nesting) {
+        appendLine(indent(depth) + "Section: " + levelTitle() + levelOptions());
+
+        final int topics = 1 + random.nextInt(6);
+        for (int i = 0; i < topics && (i == 0 || line < lineCount); i++) {
+            maybeEmitComment(depth + 1);
+            emitTopic(depth + 1, false);
+        }
+
+        if (nesting < 2 && line < lineCount && random.nextInt(100) < 20) {
+            emitSection(depth + 1, nesting + 1);
+        }
+    }
+
+    private void emitLeafLevel(final String levelType, final int depth) {
+        appendLine(indent(depth) + levelType + ": " + levelTitle());
+        final int topics = 1 + random.nextInt(3);
+        for (int i = 0; i < topics; i++) {
+            emitTopic(depth + 1, false);
+        }
+    }
+
+    private void emitProcess(final int depth) {
+        appendLine(indent(depth) + "Process: " + levelTitle());
+        final int topics = 2 + random.nextInt(4);
+        for (int i = 0; i < topics; i++) {
+            emitTopic(depth + 1, true);
+        }
+    }
+
+    private String levelTitle() {
+        return title() + " " + nextLevelId++;
+    }
+
+    private String levelOptions() {
+        if (random.nextInt(100) < 20) {
+            final String targetId = "T-level" + nextTargetId++;
+            targetIds.add(targetId);
+            return " [" + targetId + "]";
+        }
+        return "";
+    }
+
+    private void maybeEmitComment(final int depth) {
+        if (random.nextInt(100) < 3) {
+            appendLine(indent(depth) + "# TODO Review this " + WORDS[random.nextInt(WORDS.length)].toLowerCase());
+        }
+    }
+
+    private void emitTopic(final int depth, final boolean inProcess) {
+        if (!pendingDefects.isEmpty() && pendingDefectLines.getFirst() <= line + 1 && emitDefect(depth, pendingDefects.getFirst())) {
+            pendingDefects.removeFirst();
+            pendingDefectLines.removeFirst();
+            return;
+        }
+
+        final String title = title();
+        final List<String> variables = new ArrayList<String>();
+        String relatableId = null;
+        boolean hasOptions = false;
+
+        if (inProcess) {
+            if (random.nextBoolean()) {
+                final int id = addExistingTopic("Task");
+                variables.add(Integer.toString(id));
+            } else {
+                final int id = nextNewId++;
+                newIds.add(id);
+                variables.add("N" + id);
+                variables.add("Task");
+                hasOptions = true;
+            }
+        } else {
+            final int kind = random.nextInt(100);
+            if (kind < 40) {
+                // A unique existing topic, sometimes at a specific revision
+                final int id = addExistingTopic(randomType());
+                variables.add(Integer.toString(id));
+                if (random.nextInt(100) < 15) {
+                    variables.add("rev: " + (1 + random.nextInt(fixtures.getTopic(id).getRevision())));
+                }
+                relatableId = Integer.toString(id);
+            } else if (kind < 50) {
+                // An existing topic that is used in multiple places
+                if (sharedIds.size() < SHARED_TOPIC_COUNT) {
+                    sharedIds.add(addExistingTopic(randomType()));
+                }
+                variables.add(Integer.toString(sharedIds.get(random.nextInt(sharedIds.size()))));
+            } else if (kind < 78) {
+                final int id = nextNewId++;
+                newIds.add(id);
+                variables.add("N" + id);
+                variables.add(randomType());
+                relatableId = "N" + id;
+                hasOptions = true;
+            } else if (kind < 83) {
+                variables.add("N");
+                variables.add(randomType());
+                hasOptions = true;
+            } else if (kind < 88 || (kind < 95 && newIds.isEmpty()) || clonedIds.isEmpty()) {
+                final int id = addExistingTopic(randomType());
+                clonedIds.add(id);
+                if (random.nextBoolean()) {
+                    variables.add("C" + id);
+                } else {
+                    variables.add("N");
+                    variables.add("C: " + id);
+                }
+                hasOptions = true;
+            } else if (kind < 95) {
+                variables.add("X" + newIds.get(random.nextInt(newIds.size())));
+            } else {
+                variables.add("XC" + clonedIds.get(random.nextInt(clonedIds.size())));
+            }
+        }
+
+        if (hasOptions) {
+            variables.addAll(randomOptions());
+        }
+
+        final String indent = indent(depth);
+        final StringBuilder topicLine = new StringBuilder(indent).append(title).append(" [");
+        // Continue some of the longer variable sets onto the next line
+        final int splitAt = variables.size() > 2 && random.nextInt(100) < 25 ? 1 + random.nextInt(variables.size() - 1) : -1;
+        for (int i = 0; i < variables.size(); i++) {
+            if (i == splitAt) {
+                topicLine.append(",");
+                appendLine(topicLine.toString());
+                topicLine.setLength(0);
+                topicLine.append(indent).append(indent(2));
+            } else if (i != 0) {
+                topicLine.append(", ");
+            }
+            topicLine.append(variables.get(i));
+        }
+        topicLine.append("]");
+
+        if (!inProcess && random.nextInt(100) < 8) {
+            final String targetId = "T-topic" + nextTargetId++;
+            topicLine.append(" [").append(targetId).append("]");
+            targetIds.add(targetId);
+        }
+        appendLine(topicLine.toString());
+
+        if (!inProcess && random.nextInt(100) < 20) {
+            emitRelationships(indent + indent(2));
+        }
+
+        if (relatableId != null) {
+            relatableIds.add(relatableId);
+        }
+    }
+
+    private void emitRelationships(final String indent) {
+        final String[] types = {"R", "P", "L"};
+        for (final String type : types) {
+            if (random.nextInt(100) >= 50) continue;
+
+            final Set<String> related = new LinkedHashSet<String>();
+            final int count = 1 + random.nextInt(3);
+            for (int i = 0; i < count; i++) {
+                final String relatedId = randomRelatedId();
+                if (relatedId != null) {
+                    related.add(relatedId);
+                }
+            }
+            if (related.isEmpty()) continue;
+
+            final StringBuilder relationshipLine = new StringBuilder(indent).append("[").append(type).append(": ");
+            int i = 0;
+            for (final String relatedId : related) {
+                if (i != 0) {
+                    // Continue some of the relationships onto the next line
+                    if (random.nextInt(100) < 20) {
+                        relationshipLine.append(",");
+                        appendLine(relationshipLine.toString());
+                        relationshipLine.setLength(0);
+                        relationshipLine.append(indent).append(indent(1));
+                    } else {
+                        relationshipLine.append(", ");
+                    }
+                }
+                relationshipLine.append(relatedId);
+                i++;
+            }
+            relationshipLine.append("]");
+            appendLine(relationshipLine.toString());
+        }
+    }
+
+    private String randomRelatedId() {
+        if (!targetIds.isEmpty() && random.nextInt(100) < 15) {
+            return targetIds.get(random.nextInt(targetIds.size()));
+        } else if (!relatableIds.isEmpty()) {
+            final String id = relatableIds.get(random.nextInt(relatableIds.size()));
+            // Use the long form that includes a title for some relationships
+            return random.nextInt(100) < 10 ? "See " + title() + " [" + id + "]" : id;
+        }
+        return null;
+    }
+
+    private List<String> randomOptions() {
+        final List<String> options = new ArrayList<String>();
+        final Set<Integer> usedTags = new LinkedHashSet<Integer>();
+        final int count = random.nextInt(4);
+        for (int i = 0; i < count; i++) {
+            final int kind = random.nextInt(100);
+            if (kind < 35) {
+                final int tag = unusedTag(usedTags);
+                options.add("Tag" + tag);
+            } else if (kind < 50) {
+                final int tag = unusedTag(usedTags);
+                options.add("Category" + (tag % CATEGORY_COUNT) + ": Tag" + tag);
+            } else if (kind < 70) {
+                // A tag group, where all the tags are from the same category
+                final int category = random.nextInt(CATEGORY_COUNT);
+                final List<String> group = new ArrayList<String>();
+                for (int tag = category; tag < TAG_COUNT && group.size() < 3; tag += CATEGORY_COUNT) {
+                    if (!usedTags.contains(tag) && random.nextBoolean()) {
+                        usedTags.add(tag);
+                        group.add("Tag" + tag);
+                    }
+                }
+                if (!group.isEmpty()) {
+                    options.add("Category" + category + ": (" + join(group) + ")");
+                }
+            } else if (kind < 80 && !containsOption(options, "URL")) {
+                options.add("URL = http://docs.example.com/" + seed + "/" + random.nextInt(1000));
+            } else if (kind < 90 && !containsOption(options, "Writer")) {
+                options.add("Writer = writer" + random.nextInt(WRITER_COUNT));
+            } else if (!containsOption(options, "Description")) {
+                options.add("Description = " + title());
+            }
+        }
+        return options;
+    }
+
+    private int unusedTag(final Set<Integer> usedTags) {
+        int tag = random.nextInt(TAG_COUNT);
+        while (usedTags.contains(tag)) {
+            tag = (tag + 1) % TAG_COUNT;
+        }
+        usedTags.add(tag);
+        return tag;
+    }
+
+    private static boolean containsOption(final List<String> options, final String name) {
+        for (final String option : options) {
+            if (option.startsWith(name + " =")) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Emits a defective topic.
+     *
+     * @return True if the defect was emitted, or false if it can't be emitted yet.
+     */
+    private boolean emitDefect(final int depth, final Defect defect) {
+        final int defectLine = line + 1;
+        final String indent = indent(depth);
+        final String title = title();
+        switch (defect) {
+            case MISSING_END_BRACKET:
+                appendLine(indent + title + " [N" + nextNewId++ + ", " + randomType());
+                break;
+            case INVALID_INDENTATION:
+                appendLine(indent + " " + title + " [" + addExistingTopic(randomType()) + "]");
+                break;
+            case DUPLICATE_NEW_ID:
+                if (newIds.isEmpty()) return false;
+                appendLine(indent + title + " [N" + newIds.get(random.nextInt(newIds.size())) + ", " + randomType() + "]");
+                break;
+            case INVALID_TOPIC_ID:
+                appendLine(indent + title + " [Q" + nextNewId++ + ", " + randomType() + "]");
+                break;
+            case INVALID_REVISION:
+                appendLine(indent + title + " [" + addExistingTopic(randomType()) + ", rev: latest]");
+                break;
+            case MISSING_SEPARATOR:
+                appendLine(indent + title + " [" + addExistingTopic(randomType()) + "]");
+                appendLine(indent + indent(2) + "[R: " + FIRST_EXISTING_ID + " " + (FIRST_EXISTING_ID + 1) + "]");
+                break;
+            case UNKNOWN_RELATIONSHIP_TARGET:
+                appendLine(indent + title + " [" + addExistingTopic(randomType()) + "]");
+                appendLine(indent + indent(2) + "[R: T-missing" + nextTargetId++ + "]");
+                break;
+            default:
+                return false;
+        }
+        injectedDefects.put(defectLine, defect);
+        return true;
+    }
+
+    private int addExistingTopic(final String type) {
+        final int id = nextExistingId++;
+        final List<String> tags = new ArrayList<String>();
+        final int tagCount = random.nextInt(3);
+        for (int i = 0; i < tagCount; i++) {
+            final String tag = "Tag" + random.nextInt(TAG_COUNT);
+            if (!tags.contains(tag)) {
+                tags.add(tag);
+            }
+        }
+        fixtures.addTopic(id, 1 + random.nextInt(50), title(), type, tags);
+        return id;
+    }
+
+    private String randomType() {
+        return TYPES[random.nextInt(TYPES.length)];
+    }
+
+    private String title() {
+        final StringBuilder title = new StringBuilder(WORDS[random.nextInt(7)]);
+        final int words = 1 + random.nextInt(3);
+        for (int i = 0; i < words; i++) {
+            title.append(" ").append(WORDS[7 + random.nextInt(WORDS.length - 7)]);
+        }
+        // Use some of the escaped characters in titles
+        if (random.nextInt(100) < 5) {
+            title.append(" \\(Optional\\)");
+        }
+        return title.toString();
+    }
+
+    private static String indent(final int depth) {
+        final char[] spaces = new char[depth * INDENT];
+        Arrays.fill(spaces, ' ');
+        return new String(spaces);
+    }
+
+    private static String join(final List<String> values) {
+        final StringBuilder output = new StringBuilder();
+        for (final String value : values) {
+            if (output.length() != 0) {
+                output.append(", ");
+            }
+            output.append(value);
+        }
+        return output.toString();
+    }
+
+    private void appendLine(final String value) {
+        spec.append(value).append('\n');
+        line++;
+    }
+
+    /**
+     * Writes a generated spec and its fixture dataset to a directory.
+     * <p/>
+     * Usage: CorpusGenerator &lt;seed&gt; &lt;lines&gt; &lt;output dir&gt; [defect,...]
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: CorpusGenerator <seed> <lines> <output dir> [defect,...]");
+            System.err.println("Defects: " + Arrays.toString(Defect.values()));
+            System.exit(1);
+        }
+
+        final long seed = Long.parseLong(args[0]);
+        final int lines = Integer.parseInt(args[1]);
+        final File outputDir = new File(args[2]);
+        final List<Defect> defects = new ArrayList<Defect>();
+        if (args.length > 3) {
+            for (final String defect : args[3].split(",")) {
+                defects.add(Defect.valueOf(defect.trim().toUpperCase()));
+            }
+        }
+
+        final Corpus corpus = new CorpusGenerator(seed, lines, defects).generate();
+        if (!outputDir.exists() && !outputDir.mkdirs()) {
+            throw new IOException("Unable to create " + outputDir.getAbsolutePath());
+        }
+
+        final File specFile = new File(outputDir, "corpus-" + seed + "-" + lines + ".contentspec");
+        final Writer writer = new OutputStreamWriter(new FileOutputStream(specFile), "UTF-8");
+        try {
+            writer.write(corpus.getSpec());
+        } finally {
+            writer.close();
+        }
+        corpus.getFixtures().writeTo(new File(outputDir, "fixtures"));
+
+        System.out.println("Wrote " + corpus.getLineCount() + " lines to " + specFile.getAbsolutePath());
+        for (final Map.Entry<Integer, Defect> entry : corpus.getDefects().entrySet()) {
+            System.out.println("Line " + entry.getKey() + ": " + entry.getValue());
+        }
+    }
+
+    /**
+     * A generated spec, along with its fixture dataset and the defects that were injected into it.
+     */
+    public static class Corpus {
+        private final String spec;
+        private final int lineCount;
+        private final FixtureDataset fixtures;
+        private final Map<Integer, Defect> defects;
+
+        private Corpus(final String spec, final int lineCount, final FixtureDataset fixtures, final Map<Integer, Defect> defects) {
+            this.spec = spec;
+            this.lineCount = lineCount;
+            this.fixtures = fixtures;
+            this.defects = Collections.unmodifiableMap(defects);
+        }
+
+        public String getSpec() {
+            return spec;
+        }
+
+        public int getLineCount() {
+            return lineCount;
+        }
+
+        public FixtureDataset getFixtures() {
+            return fixtures;
+        }
+
+        /**
+         * @return The defects that were injected, mapped from the line they were injected on.
+         */
+        public Map<Integer, Defect> getDefects() {
+            return defects;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.redhat.contentspec.processor.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.redhat.contentspec.processor.utils.ProcessorUtilities;
+import org.jboss.pressgang.ccms.contentspec.SpecTopic;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares finding the existing topics that are used with different revisions by grouping them, against the nested loop
+ * that ContentSpecValidator.checkTopicsForInvalidDuplicates used previously.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DuplicateRevisionBenchmark {
+    @Param({"1000", "5000", "20000"})
+    public int topicCount;
+
+    private List<SpecTopic> specTopics;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(42);
+        specTopics = new ArrayList<SpecTopic>(topicCount);
+        for (int i = 0; i < topicCount; i++) {
+            // Roughly one topic in ten reuses an earlier topic, and a third of those use a specific revision
+            final int dbId = random.nextInt(10) == 0 ? 1000 + random.nextInt(i / 10 + 1) : 1000 + i;
+            final SpecTopic specTopic = new SpecTopic(dbId, i + 1, "Topic " + i + " [" + dbId + "]", null);
+            specTopic.setId(Integer.toString(dbId));
+            if (random.nextInt(30) == 0) {
+                specTopic.setRevision(random.nextInt(3) + 1);
+            }
+            specTopics.add(specTopic);
+        }
+    }
+
+    @Benchmark
+    public Map<Integer, Map<Integer, Set<SpecTopic>>> nestedLoop() {
+        final Map<Integer, Map<Integer, Set<SpecTopic>>> invalidSpecTopics = new HashMap<Integer, Map<Integer, Set<SpecTopic>>>();
+        for (final SpecTopic specTopic1 : specTopics) {
+            if (!specTopic1.isTopicAnExistingTopic()) continue;
+
+            for (final SpecTopic specTopic2 : specTopics) {
+                if (specTopic1 == specTopic2 || !specTopic2.isTopicAnExistingTopic() || !specTopic1.getDBId().equals(specTopic2.getDBId()))
+                    continue;
+
+                if (specTopic1.getRevision() == null && specTopic2.getRevision() != null || specTopic1.getRevision() != null &&
+                        specTopic2.getRevision() == null || specTopic1.getRevision() != null && !specTopic1.getRevision().equals(
+                        specTopic2.getRevision())) {
+                    if (!invalidSpecTopics.containsKey(specTopic1.getDBId())) {
+                        invalidSpecTopics.put(specTopic1.getDBId(), new HashMap<Integer, Set<SpecTopic>>());
+                    }
+
+                    final Map<Integer, Set<SpecTopic>> revisionsToSpecTopic = invalidSpecTopics.get(specTopic1.getDBId());
+                    if (!revisionsToSpecTopic.containsKey(specTopic1.getRevision())) {
+                        revisionsToSpecTopic.put(specTopic1.getRevision(), new HashSet<SpecTopic>());
+                    }
+
+                    revisionsToSpecTopic.get(specTopic1.getRevision()).add(specTopic1);
+                }
+            }
+        }
+        return invalidSpecTopics;
+    }
+
+    @Benchmark
+    public Map<Integer, Map<Integer, Set<SpecTopic>>> grouped() {
+        return ProcessorUtilities.findTopicsWithDifferentRevisions(specTopics);
+    }
+}
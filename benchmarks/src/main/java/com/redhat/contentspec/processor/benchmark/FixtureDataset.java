@@ -0,0 +1,291 @@
+package com.redhat.contentspec.processor.benchmark;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The topics, tags and categories that a generated Content Specification refers to. The dataset is served by the
+ * {@link LocalRESTServer} in place of a real REST server, so that full processing runs can be benchmarked offline.
+ * <p/>
+ * The JSON produced mirrors the shape of the REST v1 entities and collections, but only includes the fields that the
+ * processor reads.
+ */
+public class FixtureDataset {
+    private final Map<Integer, TopicFixture> topics = new LinkedHashMap<Integer, TopicFixture>();
+    private final Map<String, TagFixture> tagsByName = new LinkedHashMap<String, TagFixture>();
+    private final Map<Integer, TagFixture> tagsById = new LinkedHashMap<Integer, TagFixture>();
+
+    /**
+     * Adds a tag to the dataset.
+     *
+     * @param id           The id of the tag.
+     * @param name         The name of the tag.
+     * @param categoryId   The id of the category the tag belongs to.
+     * @param categoryName The name of the category the tag belongs to.
+     */
+    public void addTag(final int id, final String name, final int categoryId, final String categoryName) {
+        final TagFixture tag = new TagFixture(id, name, categoryId, categoryName);
+        tagsByName.put(name, tag);
+        tagsById.put(id, tag);
+    }
+
+    /**
+     * Adds a topic to the dataset, replacing any topic that already exists with the same id.
+     *
+     * @param id       The id of the topic.
+     * @param revision The latest revision of the topic.
+     * @param title    The title of the topic.
+     * @param type     The name of the topic's type.
+     * @param tags     The names of the tags applied to the topic.
+     */
+    public void addTopic(final int id, final int revision, final String title, final String type, final List<String> tags) {
+        topics.put(id, new TopicFixture(id, revision, title, type, tags));
+    }
+
+    public TopicFixture getTopic(final int id) {
+        return topics.get(id);
+    }
+
+    public Collection<TopicFixture> getTopics() {
+        return Collections.unmodifiableCollection(topics.values());
+    }
+
+    public TagFixture getTag(final String name) {
+        return tagsByName.get(name);
+    }
+
+    public TagFixture getTag(final int id) {
+        return tagsById.get(id);
+    }
+
+    public Collection<TagFixture> getTags() {
+        return Collections.unmodifiableCollection(tagsByName.values());
+    }
+
+    /**
+     * Builds the JSON for a single topic.
+     *
+     * @param topic    The topic to build the JSON for.
+     * @param revision The revision that was requested, or null for the latest revision.
+     * @return The topic as a REST v1 JSON entity.
+     */
+    public String toJSON(final TopicFixture topic, final Integer revision) {
+        final StringBuilder json = new StringBuilder("{");
+        json.append("\"id\":").append(topic.id);
+        json.append(",\"revision\":").append(revision == null ? topic.revision : revision);
+        json.append(",\"title\":").append(quote(topic.title));
+        json.append(",\"locale\":\"en-US\"");
+        json.append(",\"xml\":").append(quote("<section>\n\t<title>" + topic.title + "</title>\n\t<para></para>\n</section>"));
+
+        final List<TagFixture> tags = new ArrayList<TagFixture>();
+        final TagFixture type = tagsByName.get(topic.type);
+        if (type != null) {
+            tags.add(type);
+        }
+        for (final String tagName : topic.tags) {
+            final TagFixture tag = tagsByName.get(tagName);
+            if (tag != null) {
+                tags.add(tag);
+            }
+        }
+        json.append(",\"tags\":").append(toTagCollectionJSON(tags));
+        json.append("}");
+        return json.toString();
+    }
+
+    /**
+     * Builds the JSON for a collection of topics.
+     *
+     * @param topics The topics to include in the collection.
+     * @return The topics as a REST v1 JSON collection.
+     */
+    public String toTopicCollectionJSON(final List<TopicFixture> topics) {
+        final List<String> items = new ArrayList<String>();
+        for (final TopicFixture topic : topics) {
+            items.add(toJSON(topic, null));
+        }
+        return toCollectionJSON("topics", items);
+    }
+
+    /**
+     * Builds the JSON for a single tag, including the category it belongs to.
+     *
+     * @param tag The tag to build the JSON for.
+     * @return The tag as a REST v1 JSON entity.
+     */
+    public String toJSON(final TagFixture tag) {
+        final StringBuilder json = new StringBuilder("{");
+        json.append("\"id\":").append(tag.id);
+        json.append(",\"name\":").append(quote(tag.name));
+
+        final String category = "{\"id\":" + tag.categoryId + ",\"name\":" + quote(tag.categoryName) + ",\"relationshipId\":" + tag.id +
+                ",\"mutuallyExclusive\":false}";
+        json.append(",\"categories\":").append(toCollectionJSON("categories", Collections.singletonList(category)));
+        json.append("}");
+        return json.toString();
+    }
+
+    /**
+     * Builds the JSON for a collection of tags.
+     *
+     * @param tags The tags to include in the collection.
+     * @return The tags as a REST v1 JSON collection.
+     */
+    public String toTagCollectionJSON(final List<TagFixture> tags) {
+        final List<String> items = new ArrayList<String>();
+        for (final TagFixture tag : tags) {
+            items.add(toJSON(tag));
+        }
+        return toCollectionJSON("tags", items);
+    }
+
+    /**
+     * Writes the dataset to a directory, as one file for the topics and one for the tags.
+     *
+     * @param dir The directory to write the dataset to.
+     * @throws IOException Thrown if the files can't be written.
+     */
+    public void writeTo(final File dir) throws IOException {
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Unable to create " + dir.getAbsolutePath());
+        }
+
+        write(new File(dir, "topics.json"), toTopicCollectionJSON(new ArrayList<TopicFixture>(topics.values())));
+        write(new File(dir, "tags.json"), toTagCollectionJSON(new ArrayList<TagFixture>(tagsByName.values())));
+    }
+
+    private static void write(final File file, final String contents) throws IOException {
+        final Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            writer.write(contents);
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static String toCollectionJSON(final String expandKey, final List<String> items) {
+        final StringBuilder json = new StringBuilder("{\"size\":").append(items.size());
+        json.append(",\"expandKey\":").append(quote(expandKey));
+        json.append(",\"items\":[");
+        for (int i = 0; i < items.size(); i++) {
+            if (i != 0) {
+                json.append(",");
+            }
+            json.append("{\"item\":").append(items.get(i)).append(",\"state\":0}");
+        }
+        json.append("]}");
+        return json.toString();
+    }
+
+    private static String quote(final String value) {
+        final StringBuilder json = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        return json.append('"').toString();
+    }
+
+    /**
+     * A topic that exists on the stand-in server.
+     */
+    public static class TopicFixture {
+        private final int id;
+        private final int revision;
+        private final String title;
+        private final String type;
+        private final List<String> tags;
+
+        private TopicFixture(final int id, final int revision, final String title, final String type, final List<String> tags) {
+            this.id = id;
+            this.revision = revision;
+            this.title = title;
+            this.type = type;
+            this.tags = Collections.unmodifiableList(new ArrayList<String>(tags));
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public int getRevision() {
+            return revision;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public List<String> getTags() {
+            return tags;
+        }
+    }
+
+    /**
+     * A tag that exists on the stand-in server, along with the category it belongs to.
+     */
+    public static class TagFixture {
+        private final int id;
+        private final String name;
+        private final int categoryId;
+        private final String categoryName;
+
+        private TagFixture(final int id, final String name, final int categoryId, final String categoryName) {
+            this.id = id;
+            this.name = name;
+            this.categoryId = categoryId;
+            this.categoryName = categoryName;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getCategoryId() {
+            return categoryId;
+        }
+
+        public String getCategoryName() {
+            return categoryName;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.redhat.contentspec.processor.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import com.redhat.contentspec.processor.constants.ProcessorConstants;
+import com.redhat.contentspec.processor.utils.LineLexer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares classifying the lines of a Content Specification with the LineLexer against the regex based dispatch that
+ * ContentSpecParser.parseLine used previously.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LineLexerBenchmark {
+    private static final Pattern LEVEL_PATTERN = Pattern.compile(ProcessorConstants.LEVEL_REGEX);
+    private static final Pattern META_DATA_LINE_PATTERN = Pattern.compile("^\\w[\\w\\.\\s]+=.*");
+
+    private static final String[] SAMPLE_LINES = {"Product = PressGang CCMS", "Chapter: Getting Started", "  Section: Installing",
+            "    Installation Overview [N, Concept, R: 123, T-install]", "    Running the Installer [1245]", "",
+            "# A comment about the installer", "    Configuring the Installer [1246, rev: 5431]", "Appendix: Revision History [T-rh]",
+            "  CS: External Content [CS12:5]", "[Writer=writer, Tech Preview]", "    Installer Options [N2, Reference, Tag1, Tag2]"};
+
+    @Param({"50000"})
+    public int lineCount;
+
+    private List<String> lines;
+
+    @Setup
+    public void setup() {
+        lines = new ArrayList<String>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            lines.add(SAMPLE_LINES[i % SAMPLE_LINES.length]);
+        }
+    }
+
+    @Benchmark
+    public void regexDispatch(final Blackhole blackhole) {
+        for (final String line : lines) {
+            final char[] chars = line.toCharArray();
+            int spaceCount = 0;
+            for (final char c : chars) {
+                if (Character.isWhitespace(c)) {
+                    spaceCount++;
+                } else break;
+            }
+            blackhole.consume(spaceCount);
+
+            final String input = line.trim();
+            if (input.equals("")) {
+                blackhole.consume(LineLexer.TokenType.BLANK);
+            } else if (input.startsWith("#")) {
+                blackhole.consume(LineLexer.TokenType.COMMENT);
+            } else if (META_DATA_LINE_PATTERN.matcher(input.trim()).matches()) {
+                blackhole.consume(LineLexer.TokenType.METADATA);
+            } else if (LEVEL_PATTERN.matcher(input.trim().toUpperCase(Locale.ENGLISH)).find()) {
+                blackhole.consume(LineLexer.TokenType.LEVEL);
+            } else if (input.toUpperCase().matches("^CS[ ]*:.*")) {
+                blackhole.consume(LineLexer.TokenType.CS_INCLUDE);
+            } else if (input.indexOf('[') == 0) {
+                blackhole.consume(LineLexer.TokenType.BASE_OPTIONS);
+            } else {
+                blackhole.consume(LineLexer.TokenType.TOPIC);
+            }
+        }
+    }
+
+    @Benchmark
+    public void lexer(final Blackhole blackhole) {
+        final LineLexer lexer = new LineLexer();
+        for (final String line : lines) {
+            blackhole.consume(lexer.lex(line));
+            blackhole.consume(lexer.getIndentation());
+        }
+    }
+}
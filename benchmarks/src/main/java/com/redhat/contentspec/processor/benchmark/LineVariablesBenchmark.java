@@ -0,0 +1,60 @@
+package com.redhat.contentspec.processor.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.redhat.contentspec.processor.ContentSpecParser;
+import org.jboss.pressgang.ccms.contentspec.rest.RESTManager;
+import org.jboss.pressgang.ccms.contentspec.utils.logging.ErrorLoggerManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures ContentSpecParser.getLineVariables on topic lines that have had several continuation lines joined to them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LineVariablesBenchmark {
+    private static final int LINE_COUNT = 1000;
+
+    private final List<String> lines = new ArrayList<String>();
+    private LocalRESTServer server;
+    private ContentSpecParser parser;
+
+    @Setup
+    public void setup() throws IOException {
+        for (int i = 0; i < LINE_COUNT; i++) {
+            final StringBuilder line = new StringBuilder("Topic ").append(i).append(" \\[escaped\\] [N").append(i).append(
+                    ", Concept, Tag1, Tag2]");
+            line.append("\n[R: ").append(i + 1).append(", ").append(i + 2).append(",\n ").append(i + 3).append("]");
+            line.append("\n[P: ").append(i + 4).append("]");
+            line.append("\n[L: ").append(i + 5).append(", ").append(i + 6).append("] [T-target").append(i).append("]");
+            lines.add(line.toString());
+        }
+
+        server = LocalRESTServer.start();
+        parser = new ContentSpecParser(new ErrorLoggerManager(), new RESTManager(server.getUrl()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Benchmark
+    public void getLineVariables(final Blackhole blackhole) throws Exception {
+        for (final String line : lines) {
+            blackhole.consume(parser.getLineVariables(line, '[', ']', ',', false));
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.redhat.contentspec.processor.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A loopback HTTP server that stands in for the REST server during benchmarks.
+ * <p/>
+ * Without a fixture dataset every request is answered with a 404 and counted, so that code paths that shouldn't make any
+ * remote calls can be checked. With a dataset the topic and tag lookups are answered from the dataset, and any request
+ * that can't be answered is counted as unserved.
+ */
+public class LocalRESTServer {
+    private static final String REST_VERSION_PREFIX = "/1/";
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final FixtureDataset fixtures;
+    private final AtomicInteger requestCount = new AtomicInteger(0);
+    private final AtomicInteger unservedRequestCount = new AtomicInteger(0);
+
+    private LocalRESTServer(final FixtureDataset fixtures) throws IOException {
+        this.fixtures = fixtures;
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                requestCount.incrementAndGet();
+                final String response = fixtures == null ? null : getResponse(exchange.getRequestURI().getRawPath());
+                if (response == null) {
+                    unservedRequestCount.incrementAndGet();
+                    exchange.sendResponseHeaders(404, -1);
+                } else {
+                    final byte[] body = response.getBytes("UTF-8");
+                    exchange.getResponseHeaders().add("Content-Type", "application/json; charset=UTF-8");
+                    exchange.sendResponseHeaders(200, body.length);
+                    final OutputStream os = exchange.getResponseBody();
+                    os.write(body);
+                    os.close();
+                }
+                exchange.close();
+            }
+        });
+        server.setExecutor(executor);
+    }
+
+    /**
+     * Starts a new server on a free loopback port, that doesn't answer any requests.
+     *
+     * @return The started server.
+     * @throws IOException Thrown if the server can't be started.
+     */
+    public static LocalRESTServer start() throws IOException {
+        return start(null);
+    }
+
+    /**
+     * Starts a new server on a free loopback port, that answers topic and tag lookups from a fixture dataset.
+     *
+     * @param fixtures The dataset to answer requests from.
+     * @return The started server.
+     * @throws IOException Thrown if the server can't be started.
+     */
+    public static LocalRESTServer start(final FixtureDataset fixtures) throws IOException {
+        final LocalRESTServer server = new LocalRESTServer(fixtures);
+        server.server.start();
+        return server;
+    }
+
+    /**
+     * Builds the response for a REST v1 request path, if the request can be answered from the dataset.
+     *
+     * @param rawPath The raw path that was requested.
+     * @return The JSON response, or null if the request can't be answered.
+     */
+    protected String getResponse(final String rawPath) throws IOException {
+        final int versionStart = rawPath.indexOf(REST_VERSION_PREFIX);
+        if (versionStart == -1) return null;
+
+        final String path = URLDecoder.decode(rawPath.substring(versionStart + REST_VERSION_PREFIX.length()), "UTF-8");
+        final String[] segments = path.split("/");
+        if (segments.length < 4 || !segments[2].equals("json")) return null;
+
+        try {
+            if (segments[0].equals("topic") && segments[1].equals("get")) {
+                // topic/get/json/{id} or topic/get/json/{id}/r/{rev}
+                final FixtureDataset.TopicFixture topic = fixtures.getTopic(Integer.parseInt(segments[3]));
+                if (topic == null) return null;
+                final Integer revision = segments.length >= 6 && segments[4].equals("r") ? Integer.valueOf(segments[5]) : null;
+                return fixtures.toJSON(topic, revision);
+            } else if (segments[0].equals("topics") && segments[1].equals("get")) {
+                // topics/get/json/query;topicIds=1,2,3
+                final String topicIds = getMatrixParam(segments[3], "topicIds");
+                if (topicIds == null) return null;
+                final List<FixtureDataset.TopicFixture> topics = new ArrayList<FixtureDataset.TopicFixture>();
+                for (final String topicId : topicIds.split(",")) {
+                    final FixtureDataset.TopicFixture topic = fixtures.getTopic(Integer.parseInt(topicId.trim()));
+                    if (topic != null) {
+                        topics.add(topic);
+                    }
+                }
+                return fixtures.toTopicCollectionJSON(topics);
+            } else if (segments[0].equals("tag") && segments[1].equals("get")) {
+                // tag/get/json/{id}
+                final FixtureDataset.TagFixture tag = fixtures.getTag(Integer.parseInt(segments[3]));
+                return tag == null ? null : fixtures.toJSON(tag);
+            } else if (segments[0].equals("tags") && segments[1].equals("get")) {
+                // tags/get/json/query;tagName=name
+                final String tagName = getMatrixParam(segments[3], "tagName");
+                if (tagName == null) return null;
+                final FixtureDataset.TagFixture tag = fixtures.getTag(tagName);
+                return fixtures.toTagCollectionJSON(tag == null ? Collections.<FixtureDataset.TagFixture>emptyList() : Collections
+                        .singletonList(tag));
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        return null;
+    }
+
+    private static String getMatrixParam(final String segment, final String name) {
+        for (final String param : segment.split(";")) {
+            if (param.startsWith(name + "=")) {
+                return param.substring(name.length() + 1);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The URL to use to connect to the server.
+     */
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/TopicIndex/seam/resource/rest";
+    }
+
+    /**
+     * @return The number of requests the server has received.
+     */
+    public int getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @return The number of requests the server couldn't answer.
+     */
+    public int getUnservedRequestCount() {
+        return unservedRequestCount.get();
+    }
+
+    /**
+     * Stops the server.
+     */
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
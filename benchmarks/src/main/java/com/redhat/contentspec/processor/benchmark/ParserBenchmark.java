@@ -0,0 +1,58 @@
+package com.redhat.contentspec.processor.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import com.redhat.contentspec.processor.ContentSpecParser;
+import org.jboss.pressgang.ccms.contentspec.rest.RESTManager;
+import org.jboss.pressgang.ccms.contentspec.utils.logging.ErrorLoggerManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures parsing generated Content Specifications of different sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParserBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int lineCount;
+
+    private String spec;
+    private LocalRESTServer server;
+    private RESTManager restManager;
+
+    @Setup
+    public void setup() throws IOException {
+        final CorpusGenerator.Corpus corpus = new CorpusGenerator(42, lineCount).generate();
+        spec = corpus.getSpec();
+        // Processes look up their topics while parsing, so the topics need to be served
+        server = LocalRESTServer.start(corpus.getFixtures());
+        restManager = new RESTManager(server.getUrl());
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.stop();
+        if (server.getUnservedRequestCount() != 0) {
+            throw new IllegalStateException(server.getUnservedRequestCount() + " request(s) couldn't be answered from the fixtures");
+        }
+    }
+
+    @Benchmark
+    public ContentSpecParser parse() throws Exception {
+        final ContentSpecParser parser = new ContentSpecParser(new ErrorLoggerManager(), restManager);
+        if (!parser.parse(spec, "benchmark", ContentSpecParser.ParsingMode.EITHER)) {
+            throw new IllegalStateException("The generated spec failed to parse");
+        }
+        return parser;
+    }
+}
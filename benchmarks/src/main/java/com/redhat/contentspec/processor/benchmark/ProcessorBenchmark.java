@@ -0,0 +1,61 @@
+package com.redhat.contentspec.processor.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import com.redhat.contentspec.processor.ContentSpecParser;
+import com.redhat.contentspec.processor.ContentSpecProcessor;
+import com.redhat.contentspec.processor.structures.ProcessingOptions;
+import org.jboss.pressgang.ccms.contentspec.rest.RESTManager;
+import org.jboss.pressgang.ccms.contentspec.utils.logging.ErrorLoggerManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures a full validation run of a generated Content Specification, with the REST server replaced by a loopback server
+ * that answers from the generated fixture dataset.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ProcessorBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int lineCount;
+
+    private String spec;
+    private LocalRESTServer server;
+    private RESTManager restManager;
+
+    @Setup
+    public void setup() throws IOException {
+        final CorpusGenerator.Corpus corpus = new CorpusGenerator(42, lineCount).generate();
+        spec = corpus.getSpec();
+        server = LocalRESTServer.start(corpus.getFixtures());
+        restManager = new RESTManager(server.getUrl());
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.stop();
+        if (server.getUnservedRequestCount() != 0) {
+            throw new IllegalStateException(server.getUnservedRequestCount() + " request(s) couldn't be answered from the fixtures");
+        }
+    }
+
+    @Benchmark
+    public boolean validate() throws Exception {
+        final ProcessingOptions processingOptions = new ProcessingOptions();
+        processingOptions.setValidating(true);
+        processingOptions.setOffline(true);
+
+        final ContentSpecProcessor processor = new ContentSpecProcessor(restManager, new ErrorLoggerManager(), processingOptions);
+        return processor.processContentSpec(spec, "benchmark", ContentSpecParser.ParsingMode.EITHER);
+    }
+}
@@ -0,0 +1,54 @@
+package com.redhat.contentspec.processor.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.redhat.contentspec.processor.utils.ProcessorUtilities;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the string utilities that are run over every line or value in a Content Specification.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProcessorUtilitiesBenchmark {
+    private static final int VALUE_COUNT = 10000;
+
+    private final List<String> values = new ArrayList<String>();
+    private String postProcessedSpec;
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            // Most values don't contain any escaped characters
+            if (i % 20 == 0) {
+                values.add("Configuring \\[Part " + i + "\\] \\(optional\\)\\, with a\\: b \\= c \\+ d \\- e");
+            } else {
+                values.add("Configuring the installer for part " + i);
+            }
+        }
+
+        postProcessedSpec = SpecBuilder.buildPostProcessed(10000, 42);
+    }
+
+    @Benchmark
+    public void replaceEscapeChars(final Blackhole blackhole) {
+        for (final String value : values) {
+            blackhole.consume(ProcessorUtilities.replaceEscapeChars(value));
+        }
+    }
+
+    @Benchmark
+    public boolean validatePostProcessedSpec() {
+        return ProcessorUtilities.validatePostProcessedSpec(postProcessedSpec);
+    }
+}
@@ -0,0 +1,61 @@
+package com.redhat.contentspec.processor.benchmark;
+
+import java.util.Random;
+
+/**
+ * Builds synthetic post processed Content Specifications for benchmarking, where every topic is an existing topic. Use
+ * {@link CorpusGenerator} for specs that use the full grammar.
+ */
+public class SpecBuilder {
+    private static final int TOPICS_PER_SECTION = 5;
+    private static final int SECTIONS_PER_CHAPTER = 4;
+
+    /**
+     * Builds a Content Specification as it would look after it has been processed, so it only contains existing topics.
+     *
+     * @param topicCount The number of topics to include.
+     * @param seed       The seed used to vary the topics, so the same spec is built each time.
+     * @return The Content Specification text.
+     */
+    public static String buildPostProcessed(final int topicCount, final long seed) {
+        final Random random = new Random(seed);
+        final StringBuilder spec = new StringBuilder(topicCount * 48);
+        spec.append("Title = Benchmark Book\n");
+        spec.append("Subtitle = A synthetic book\n");
+        spec.append("Product = PressGang CCMS\n");
+        spec.append("Version = 1.0\n");
+        spec.append("DTD = Docbook 4.5\n");
+        spec.append("Copyright Holder = Red Hat\n");
+        spec.append("Abstract = A book that is used for benchmarking\n");
+        spec.append("\n");
+
+        for (int topic = 1; topic <= topicCount; topic++) {
+            if ((topic - 1) % (TOPICS_PER_SECTION * SECTIONS_PER_CHAPTER) == 0) {
+                spec.append("Chapter: Chapter ").append(topic / (TOPICS_PER_SECTION * SECTIONS_PER_CHAPTER) + 1).append("\n");
+            }
+            if ((topic - 1) % TOPICS_PER_SECTION == 0) {
+                spec.append("  Section: Section ").append(topic / TOPICS_PER_SECTION + 1).append("\n");
+            }
+
+            spec.append("    Topic ").append(topic).append(" \\[Part ").append(topic % 7).append("\\] [");
+            spec.append(10000 + topic);
+            if (random.nextInt(5) == 0) {
+                spec.append(", rev: ").append(random.nextInt(1000) + 1);
+            }
+            spec.append("]");
+
+            if (random.nextInt(10) == 0) {
+                spec.append(" [T-target").append(topic).append("]");
+            }
+
+            // Relate some topics to earlier existing topics, with the relationship on a continuation line
+            if (topic > 1 && random.nextInt(5) == 0) {
+                final int related = 1 + random.nextInt(topic - 1);
+                spec.append("\n      [R: ").append(10000 + related).append(",\n        ").append(10000 + (related + 1) / 2).append("]");
+            }
+            spec.append("\n");
+        }
+
+        return spec.toString();
+    }
+}
@@ -0,0 +1,75 @@
+package com.redhat.contentspec.processor.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.redhat.contentspec.processor.ContentSpecParser;
+import com.redhat.contentspec.processor.ContentSpecValidator;
+import com.redhat.contentspec.processor.structures.ProcessingOptions;
+import org.jboss.pressgang.ccms.contentspec.rest.RESTManager;
+import org.jboss.pressgang.ccms.contentspec.utils.logging.ErrorLoggerManager;
+import org.jboss.pressgang.ccms.rest.v1.entities.RESTTopicV1;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures the validation passes that are run before any data is downloaded from the REST server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ValidatorBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int lineCount;
+
+    private LocalRESTServer server;
+    private RESTManager restManager;
+    private ContentSpecParser parser;
+    private int requestsAfterParsing;
+
+    @Setup
+    public void setup() throws Exception {
+        final CorpusGenerator.Corpus corpus = new CorpusGenerator(42, lineCount).generate();
+        server = LocalRESTServer.start(corpus.getFixtures());
+        restManager = new RESTManager(server.getUrl());
+        parser = new ContentSpecParser(new ErrorLoggerManager(), restManager);
+        if (!parser.parse(corpus.getSpec(), "benchmark", ContentSpecParser.ParsingMode.EITHER)) {
+            throw new IllegalStateException("The generated spec failed to parse");
+        }
+        // Only count the requests made by the validation passes
+        requestsAfterParsing = server.getRequestCount();
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.stop();
+        final int validationRequests = server.getRequestCount() - requestsAfterParsing;
+        if (validationRequests != 0) {
+            throw new IllegalStateException("Validation made " + validationRequests + " remote call(s)");
+        }
+    }
+
+    @Benchmark
+    public boolean preValidateContentSpec() {
+        return createValidator().preValidateContentSpec(parser.getContentSpec(), parser.getSpecTopics());
+    }
+
+    @Benchmark
+    public boolean preValidateRelationships() {
+        return createValidator().preValidateRelationships(parser.getProcessedRelationships(), parser.getSpecTopics(),
+                parser.getTopicIdIndex(), parser.getTargetLevels(), parser.getTargetTopics());
+    }
+
+    /**
+     * Creates a new validator for each invocation, so that the logged messages don't build up between invocations.
+     */
+    private ContentSpecValidator<RESTTopicV1> createValidator() {
+        return new ContentSpecValidator<RESTTopicV1>(RESTTopicV1.class, new ErrorLoggerManager(), restManager, new ProcessingOptions());
+    }
+}
@@ -0,0 +1,138 @@
+package com.redhat.contentspec.processor.benchmark;
+
+import java.util.EnumSet;
+import java.util.Map;
+
+import com.redhat.contentspec.processor.ContentSpecParser;
+import com.redhat.contentspec.processor.ContentSpecValidator;
+import com.redhat.contentspec.processor.structures.ProcessingOptions;
+import junit.framework.TestCase;
+import org.jboss.pressgang.ccms.contentspec.rest.RESTManager;
+import org.jboss.pressgang.ccms.contentspec.utils.logging.ErrorLoggerManager;
+import org.jboss.pressgang.ccms.rest.v1.entities.RESTTopicV1;
+
+/**
+ * Tests that the generated specs parse and validate, and that each defect fails at the stage it is documented to fail at.
+ */
+public class CorpusGeneratorTest extends TestCase {
+    private static final long[] SEEDS = {1, 42, 1337};
+    private static final int[] LINE_COUNTS = {CorpusGenerator.MIN_LINES, 1000, 10000};
+
+    public void testValidCorporaParseAndValidate() throws Exception {
+        for (final long seed : SEEDS) {
+            for (final int lineCount : LINE_COUNTS) {
+                final CorpusGenerator.Corpus corpus = new CorpusGenerator(seed, lineCount).generate();
+                final String name = "seed " + seed + ", " + lineCount + " lines";
+
+                assertTrue(name, corpus.getLineCount() >= lineCount);
+                assertTrue(name, corpus.getDefects().isEmpty());
+                assertEquals(name, Result.VALID, process(corpus));
+            }
+        }
+    }
+
+    public void testSameSeedGeneratesTheSameSpec() {
+        for (final long seed : SEEDS) {
+            assertEquals(new CorpusGenerator(seed, 1000).generate().getSpec(), new CorpusGenerator(seed, 1000).generate().getSpec());
+        }
+    }
+
+    public void testParsingDefectsFailParsing() throws Exception {
+        final CorpusGenerator.Defect[] parsingDefects = {CorpusGenerator.Defect.MISSING_END_BRACKET,
+                CorpusGenerator.Defect.INVALID_INDENTATION, CorpusGenerator.Defect.DUPLICATE_NEW_ID,
+                CorpusGenerator.Defect.INVALID_TOPIC_ID, CorpusGenerator.Defect.INVALID_REVISION,
+                CorpusGenerator.Defect.MISSING_SEPARATOR};
+        for (final CorpusGenerator.Defect defect : parsingDefects) {
+            assertDefectFails(defect, Result.PARSE_FAILED);
+        }
+    }
+
+    public void testValidationDefectsFailValidation() throws Exception {
+        assertDefectFails(CorpusGenerator.Defect.UNKNOWN_RELATIONSHIP_TARGET, Result.VALIDATION_FAILED);
+        assertDefectFails(CorpusGenerator.Defect.MISSING_PRODUCT, Result.VALIDATION_FAILED);
+    }
+
+    public void testDefectsAreInjectedOnTheRecordedLine() {
+        for (final long seed : SEEDS) {
+            final CorpusGenerator.Corpus corpus = new CorpusGenerator(seed, 1000, EnumSet.allOf(CorpusGenerator.Defect.class))
+                    .generate();
+            final String[] lines = corpus.getSpec().split("\n", -1);
+
+            assertEquals(CorpusGenerator.Defect.values().length, corpus.getDefects().size());
+            for (final Map.Entry<Integer, CorpusGenerator.Defect> entry : corpus.getDefects().entrySet()) {
+                final String line = lines[entry.getKey() - 1];
+                final String nextLine = lines[entry.getKey()];
+                final String message = entry.getValue() + " on line " + entry.getKey() + ": " + line;
+                switch (entry.getValue()) {
+                    case MISSING_END_BRACKET:
+                        assertFalse(message, line.endsWith("]"));
+                        break;
+                    case INVALID_INDENTATION:
+                        assertEquals(message, 1, (line.length() - line.trim().length()) % 2);
+                        break;
+                    case DUPLICATE_NEW_ID:
+                        final String newId = line.substring(line.indexOf("[N"), line.indexOf(',') + 1);
+                        assertTrue(message, corpus.getSpec().indexOf(newId) < corpus.getSpec().indexOf("\n" + line + "\n"));
+                        break;
+                    case INVALID_TOPIC_ID:
+                        assertTrue(message, line.contains("[Q"));
+                        break;
+                    case INVALID_REVISION:
+                        assertTrue(message, line.contains("rev: latest"));
+                        break;
+                    case MISSING_SEPARATOR:
+                        assertTrue(message, nextLine.trim().matches("\\[R: \\d+ \\d+\\]"));
+                        break;
+                    case UNKNOWN_RELATIONSHIP_TARGET:
+                        assertTrue(message, nextLine.contains("[R: T-missing"));
+                        break;
+                    case MISSING_PRODUCT:
+                        assertFalse(corpus.getSpec().contains("\nProduct = "));
+                        break;
+                    default:
+                        fail("Unknown defect " + entry.getValue());
+                }
+            }
+        }
+    }
+
+    private void assertDefectFails(final CorpusGenerator.Defect defect, final Result expected) throws Exception {
+        for (final long seed : SEEDS) {
+            for (final int lineCount : LINE_COUNTS) {
+                final CorpusGenerator.Corpus corpus = new CorpusGenerator(seed, lineCount, EnumSet.of(defect)).generate();
+                final String name = defect + " with seed " + seed + ", " + lineCount + " lines";
+
+                assertEquals(name, 1, corpus.getDefects().size());
+                assertEquals(name, defect, corpus.getDefects().values().iterator().next());
+                assertEquals(name, expected, process(corpus));
+            }
+        }
+    }
+
+    /**
+     * Parses the generated spec and runs the validation passes that don't need any topics to be downloaded.
+     */
+    private Result process(final CorpusGenerator.Corpus corpus) throws Exception {
+        final LocalRESTServer server = LocalRESTServer.start(corpus.getFixtures());
+        try {
+            final RESTManager restManager = new RESTManager(server.getUrl());
+            final ContentSpecParser parser = new ContentSpecParser(new ErrorLoggerManager(), restManager);
+            if (!parser.parse(corpus.getSpec(), "test", ContentSpecParser.ParsingMode.EITHER)) {
+                return Result.PARSE_FAILED;
+            }
+
+            final ContentSpecValidator<RESTTopicV1> validator = new ContentSpecValidator<RESTTopicV1>(RESTTopicV1.class,
+                    new ErrorLoggerManager(), restManager, new ProcessingOptions());
+            final boolean valid = validator.preValidateContentSpec(parser.getContentSpec(), parser.getSpecTopics());
+            final boolean validRelationships = validator.preValidateRelationships(parser.getProcessedRelationships(),
+                    parser.getSpecTopics(), parser.getTopicIdIndex(), parser.getTargetLevels(), parser.getTargetTopics());
+            return valid && validRelationships ? Result.VALID : Result.VALIDATION_FAILED;
+        } finally {
+            server.stop();
+        }
+    }
+
+    private static enum Result {
+        VALID, PARSE_FAILED, VALIDATION_FAILED
+    }
+}
@@ -3,24 +3,45 @@ package com.redhat.contentspec.processor;
 import static java.lang.String.format;
 
 import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.regex.PatternSyntaxException;
 
 import com.google.code.regexp.Matcher;
 import com.google.code.regexp.Pattern;
 import com.redhat.contentspec.processor.constants.ProcessorConstants;
+import com.redhat.contentspec.processor.enums.MetaDataKey;
+import com.redhat.contentspec.processor.enums.TopicIdKind;
+import com.redhat.contentspec.processor.structures.ParseResult;
 import com.redhat.contentspec.processor.structures.VariableSet;
+import com.redhat.contentspec.processor.utils.LineDiff;
+import com.redhat.contentspec.processor.utils.LineLexer;
+import com.redhat.contentspec.processor.utils.LineVariablesBuffer;
+import com.redhat.contentspec.processor.utils.LogBuffer;
+import com.redhat.contentspec.processor.utils.LookaheadLineReader;
 import com.redhat.contentspec.processor.utils.ProcessorUtilities;
+import com.redhat.contentspec.processor.utils.RelationshipLexer;
+import com.redhat.contentspec.processor.utils.VariableSetScanner;
 import org.jboss.pressgang.ccms.contentspec.Appendix;
 import org.jboss.pressgang.ccms.contentspec.Chapter;
 import org.jboss.pressgang.ccms.contentspec.Comment;
@@ -56,15 +77,23 @@ import org.jboss.pressgang.ccms.utils.structures.Pair;
  * A class that parses a Content Specification and stores the parsed data into a ContentSpec Object. The Object then
  * contains all of the
  * Levels, Topics and relationships to be passed for validation or saving.
+ * <p/>
+ * The parseContentSpec methods keep all of their working state in a context that is local to the call, so a single parser
+ * can be shared between threads. The boolean parse methods keep the state of the last parse for the getters, so they
+ * aren't thread safe.
  *
  * @author lnewson
  * @author alabbas
  */
 public class ContentSpecParser {
-    private static final Pattern LEVEL_PATTERN = Pattern.compile(ProcessorConstants.LEVEL_REGEX);
-    private static final Pattern SQUARE_BRACKET_PATTERN = Pattern.compile(format(ProcessorConstants.BRACKET_NAMED_PATTERN, '[', ']'));
-    private static final Pattern RELATIONSHIP_ID_LONG_PATTERN = Pattern.compile(ProcessorConstants.RELATION_ID_LONG_PATTERN);
-    private static final Pattern META_DATA_LINE_PATTERN = Pattern.compile("^\\w[\\w\\.\\s]+=.*");
+    private static final Pattern CLONED_TYPE_PATTERN = Pattern.compile("^C:[ ]*(?<ClonedId>[0-9]+)$");
+    private static final Pattern REVISION_PATTERN = Pattern.compile("rev[ ]*:[ ]*\\d+");
+    private static final Pattern EXTERNAL_TARGET_PATTERN = Pattern.compile("(?i)\\[[ ]*ET[0-9]+[ ]*\\]");
+    /**
+     * The number of level chunks that can be waiting to be merged for each thread that parses them, before no more lines are
+     * read until the oldest chunk has been merged.
+     */
+    private static final int PENDING_LEVEL_CHUNKS_PER_THREAD = 2;
 
     /**
      * An Enumerator used to specify the parsing mode of the Parser.
@@ -76,21 +105,12 @@ public class ContentSpecParser {
     private final ErrorLogger log;
     private final ErrorLoggerManager elm;
     private final RESTManager restManager;
+    private volatile ExecutorService parseExecutor = null;
 
-    private int spaces = 2;
-    private ContentSpec spec = new ContentSpec();
-    private int level = 0;
-    private HashMap<String, SpecTopic> specTopics = new HashMap<String, SpecTopic>();
-    private HashMap<String, Level> targetLevels = new HashMap<String, Level>();
-    private HashMap<String, Level> externalTargetLevels = new HashMap<String, Level>();
-    private HashMap<String, SpecTopic> targetTopics = new HashMap<String, SpecTopic>();
-    private HashMap<String, List<Relationship>> relationships = new HashMap<String, List<Relationship>>();
-    private ArrayList<Process> processes = new ArrayList<Process>();
-    private Level lvl = null;
-    private int lineCounter = 0;
-    private boolean error = false;
-    private LinkedList<String> lines = new LinkedList<String>();
-    private boolean processProcesses;
+    /**
+     * The context of the last parse that used one of the boolean parse methods, that the getters read from.
+     */
+    private ParserContext context;
 
     /**
      * Constructor
@@ -101,6 +121,7 @@ public class ContentSpecParser {
         elm = new ErrorLoggerManager();
         log = elm.getLogger(ContentSpecParser.class);
         restManager = new RESTManager(serverUrl);
+        context = new ParserContext(elm, false);
     }
 
     /**
@@ -114,6 +135,17 @@ public class ContentSpecParser {
         this.elm = elm;
         log = elm.getLogger(ContentSpecParser.class);
         this.restManager = restManager;
+        context = new ParserContext(elm, false);
+    }
+
+    /**
+     * Sets the executor that is used to parse the top level levels of a Content Specification at the same time. The
+     * executor is used by every parse that is started after it is set, and isn't shut down by the parser.
+     *
+     * @param parseExecutor The executor to parse the levels with, or null to parse the levels on the calling thread.
+     */
+    public void setParseExecutor(final ExecutorService parseExecutor) {
+        this.parseExecutor = parseExecutor;
     }
 
     /**
@@ -171,24 +203,759 @@ public class ContentSpecParser {
      */
     public boolean parse(final String contentSpec, final String username, final ParsingMode mode,
             final boolean processProcesses) throws Exception {
-        // Reset the variables
-        spaces = 2;
-        spec = new ContentSpec();
-        level = 0;
-        specTopics = new HashMap<String, SpecTopic>();
-        targetLevels = new HashMap<String, Level>();
-        externalTargetLevels = new HashMap<String, Level>();
-        targetTopics = new HashMap<String, SpecTopic>();
-        relationships = new HashMap<String, List<Relationship>>();
-        processes = new ArrayList<Process>();
-        lines = new LinkedList<String>();
-        lvl = null;
-        lineCounter = 0;
-        error = false;
-        this.processProcesses = processProcesses;
+        context = new ParserContext(elm, processProcesses);
+
+        final BufferedReader br = new BufferedReader(new StringReader(contentSpec));
+        return readFileData(context, br, username, mode);
+    }
+
+    /**
+     * Parse a Content Specification by streaming it from a Reader, so that the input doesn't have to be read into a
+     * String first. The parser only looks ahead a small window of lines, however the memory used still grows with the
+     * size of the Content Specification, as every line is kept in the pre processed text of the parsed Content
+     * Specification. If an executor has been set with {@link #setParseExecutor(ExecutorService)}, then the text of up to
+     * two top level levels for each of its threads is also held while they are parsed.
+     * <p/>
+     * Note: Relationships in Processes won't be added as they require access to a TopicIndex REST Interface.
+     *
+     * @param reader The reader to stream the Content Specification from.
+     * @return True if everything was parsed successfully otherwise false.
+     * @throws Exception Any unexpected exception that occurred when parsing.
+     */
+    public boolean parse(final Reader reader) throws Exception {
+        return parse(reader, null, ParsingMode.EITHER, false);
+    }
+
+    /**
+     * Parse a Content Specification by streaming it from a Reader, so that the input doesn't have to be read into a
+     * String first. The parser only looks ahead a small window of lines, however the memory used still grows with the
+     * size of the Content Specification, as every line is kept in the pre processed text of the parsed Content
+     * Specification. If an executor has been set with {@link #setParseExecutor(ExecutorService)}, then the text of up to
+     * two top level levels for each of its threads is also held while they are parsed.
+     * <p/>
+     * Note: Relationships in Processes won't be added as they require access to a TopicIndex REST Interface.
+     *
+     * @param reader           The reader to stream the Content Specification from.
+     * @param username         The user who requested the parse.
+     * @param mode             The mode in which the Content Specification should be parsed.
+     * @param processProcesses If processes should be processed to create their relationships.
+     * @return True if everything was parsed successfully otherwise false.
+     * @throws Exception Any unexpected exception that occurred when parsing.
+     */
+    public boolean parse(final Reader reader, final String username, final ParsingMode mode,
+            final boolean processProcesses) throws Exception {
+        context = new ParserContext(elm, processProcesses);
+
+        final BufferedReader br = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        return readFileData(context, br, username, mode);
+    }
+
+    /**
+     * Parse a Content Specification by streaming it from a UTF-8 encoded file. The same memory limits apply as for
+     * {@link #parse(Reader)}.
+     * <p/>
+     * Note: Relationships in Processes won't be added as they require access to a TopicIndex REST Interface.
+     *
+     * @param file The file that contains the Content Specification.
+     * @return True if everything was parsed successfully otherwise false.
+     * @throws Exception Any unexpected exception that occurred when parsing.
+     */
+    public boolean parse(final File file) throws Exception {
+        return parse(file, null, ParsingMode.EITHER, false);
+    }
+
+    /**
+     * Parse a Content Specification by streaming it from a UTF-8 encoded file. The same memory limits apply as for
+     * {@link #parse(Reader)}.
+     * <p/>
+     * Note: Relationships in Processes won't be added as they require access to a TopicIndex REST Interface.
+     *
+     * @param file             The file that contains the Content Specification.
+     * @param username         The user who requested the parse.
+     * @param mode             The mode in which the Content Specification should be parsed.
+     * @param processProcesses If processes should be processed to create their relationships.
+     * @return True if everything was parsed successfully otherwise false.
+     * @throws Exception Any unexpected exception that occurred when parsing.
+     */
+    public boolean parse(final File file, final String username, final ParsingMode mode,
+            final boolean processProcesses) throws Exception {
+        final Reader reader = new InputStreamReader(new FileInputStream(file), "UTF-8");
+        try {
+            return parse(reader, username, mode, processProcesses);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Parse a Content Specification into a ParseResult. Unlike the boolean parse methods, all of the working state is
+     * kept in a context that is local to the call, so a single parser can be used by many threads at the same time.
+     * Any log messages are added to the parser's logger, so use
+     * {@link #parseContentSpec(String, String, ParsingMode, boolean, ErrorLoggerManager)} to keep the messages for each
+     * call separate.
+     * <p/>
+     * Note: Relationships in Processes won't be added as they require access to a TopicIndex REST Interface.
+     *
+     * @param contentSpec      A string representation of the Content Specification.
+     * @param username         The user who requested the parse.
+     * @param mode             The mode in which the Content Specification should be parsed.
+     * @param processProcesses If processes should be processed to create their relationships.
+     * @return The result of the parse.
+     * @throws Exception Any unexpected exception that occurred when parsing.
+     */
+    public ParseResult parseContentSpec(final String contentSpec, final String username, final ParsingMode mode,
+            final boolean processProcesses) throws Exception {
+        return parseContentSpec(new StringReader(contentSpec), username, mode, processProcesses, elm);
+    }
+
+    /**
+     * Parse a Content Specification into a ParseResult, using a context that is local to the call.
+     * <p/>
+     * Note: Relationships in Processes won't be added as they require access to a TopicIndex REST Interface.
+     *
+     * @param contentSpec      A string representation of the Content Specification.
+     * @param username         The user who requested the parse.
+     * @param mode             The mode in which the Content Specification should be parsed.
+     * @param processProcesses If processes should be processed to create their relationships.
+     * @param elm              The Error Logger Manager that the log messages for this parse should be stored in.
+     * @return The result of the parse.
+     * @throws Exception Any unexpected exception that occurred when parsing.
+     */
+    public ParseResult parseContentSpec(final String contentSpec, final String username, final ParsingMode mode,
+            final boolean processProcesses, final ErrorLoggerManager elm) throws Exception {
+        return parseContentSpec(new StringReader(contentSpec), username, mode, processProcesses, elm);
+    }
+
+    /**
+     * Parse a Content Specification into a ParseResult by streaming it from a Reader, using a context that is local to
+     * the call.
+     * <p/>
+     * Note: Relationships in Processes won't be added as they require access to a TopicIndex REST Interface.
+     *
+     * @param reader           The reader to stream the Content Specification from.
+     * @param username         The user who requested the parse.
+     * @param mode             The mode in which the Content Specification should be parsed.
+     * @param processProcesses If processes should be processed to create their relationships.
+     * @param elm              The Error Logger Manager that the log messages for this parse should be stored in.
+     * @return The result of the parse.
+     * @throws Exception Any unexpected exception that occurred when parsing.
+     */
+    public ParseResult parseContentSpec(final Reader reader, final String username, final ParsingMode mode,
+            final boolean processProcesses, final ErrorLoggerManager elm) throws Exception {
+        return parseContentSpec(new ParserContext(elm, processProcesses), reader, username, mode);
+    }
+
+    /**
+     * Parse a Content Specification into a ParseResult, using a context that is local to the call and logging any
+     * messages to a buffer instead of the Error Logger Manager's logger.
+     *
+     * @param contentSpec      A string representation of the Content Specification.
+     * @param username         The user who requested the parse.
+     * @param mode             The mode in which the Content Specification should be parsed.
+     * @param processProcesses If processes should be processed to create their relationships.
+     * @param elm              The Error Logger Manager that the logging settings for this parse should be applied to.
+     * @param log              The buffer to log the messages to.
+     * @return The result of the parse.
+     * @throws Exception Any unexpected exception that occurred when parsing.
+     */
+    ParseResult parseContentSpec(final String contentSpec, final String username, final ParsingMode mode,
+            final boolean processProcesses, final ErrorLoggerManager elm, final LogBuffer log) throws Exception {
+        return parseContentSpec(new ParserContext(log, elm, processProcesses), new StringReader(contentSpec), username, mode);
+    }
+
+    private ParseResult parseContentSpec(final ParserContext ctx, final Reader reader, final String username,
+            final ParsingMode mode) throws Exception {
+        final BufferedReader br = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        final boolean success = readFileData(ctx, br, username, mode);
+        return new ParseResult(success, ctx.spec, ctx.specTopics, ctx.topicIdIndex, ctx.targetLevels, ctx.targetTopics,
+                ctx.relationships, ctx.processes);
+    }
+
+    /**
+     * Parse an edited Content Specification into a ParseResult, reusing the unchanged parts of the result of a previous
+     * parse. Any log messages are added to the parser's logger, so use
+     * {@link #reparseContentSpec(ParseResult, String, String, ParsingMode, boolean, ErrorLoggerManager)} to keep the
+     * messages for each call separate.
+     *
+     * @param previousResult   The result of parsing the Content Specification before it was edited.
+     * @param contentSpec      A string representation of the edited Content Specification.
+     * @param username         The user who requested the parse.
+     * @param mode             The mode in which the Content Specification should be parsed.
+     * @param processProcesses If processes should be processed to create their relationships.
+     * @return The result of the parse.
+     * @throws Exception Any unexpected exception that occurred when parsing.
+     */
+    public ParseResult reparseContentSpec(final ParseResult previousResult, final String contentSpec, final String username,
+            final ParsingMode mode, final boolean processProcesses) throws Exception {
+        return reparseContentSpec(previousResult, contentSpec, username, mode, processProcesses, elm);
+    }
+
+    /**
+     * Parse an edited Content Specification into a ParseResult, reusing the unchanged parts of the result of a previous
+     * parse. The lines of the previous and edited Content Specifications are compared, and any level at the base level,
+     * or directly inside a level at the base level, that hasn't changed is copied into the new result instead of being
+     * parsed again, with the line numbers and unique topic ID's of the lines it has moved to. Everything else is parsed as
+     * normal. If the relationships of a reused level could resolve differently in the edited Content Specification, then it
+     * is parsed again in full.
+     * <p/>
+     * Only the messages for the lines that are parsed again are logged, as the messages for the reused lines were logged
+     * when the previous result was parsed. The previous result isn't changed, so it can still be used, or reparsed again.
+     *
+     * @param previousResult   The result of parsing the Content Specification before it was edited.
+     * @param contentSpec      A string representation of the edited Content Specification.
+     * @param username         The user who requested the parse.
+     * @param mode             The mode in which the Content Specification should be parsed.
+     * @param processProcesses If processes should be processed to create their relationships.
+     * @param elm              The Error Logger Manager that the log messages for this parse should be stored in.
+     * @return The result of the parse.
+     * @throws Exception Any unexpected exception that occurred when parsing.
+     */
+    public ParseResult reparseContentSpec(final ParseResult previousResult, final String contentSpec, final String username,
+            final ParsingMode mode, final boolean processProcesses, final ErrorLoggerManager elm) throws Exception {
+        ParserContext ctx = new ParserContext(elm, processProcesses);
+        findReusableLevels(ctx, previousResult, readLines(contentSpec));
+
+        boolean success = readFileData(ctx, new BufferedReader(new StringReader(contentSpec)), username, mode);
+        if (!ctx.reusedTopicIds.isEmpty() && hasStaleRelationships(ctx, previousResult)) {
+            // The messages for the lines that were parsed have already been logged, so don't log them a second time
+            ctx = new ParserContext(new ErrorLoggerManager(), processProcesses);
+            success = readFileData(ctx, new BufferedReader(new StringReader(contentSpec)), username, mode);
+        }
+
+        return new ParseResult(success, ctx.spec, ctx.specTopics, ctx.topicIdIndex, ctx.targetLevels, ctx.targetTopics,
+                ctx.relationships, ctx.processes);
+    }
+
+    /**
+     * Creates a deep copy of a parse result, that shares none of its ContentSpec, Level or SpecTopic nodes with the result, so
+     * that the copy can be validated and changed without changing the result. The copy is made by reparsing the result's own
+     * lines, so every level is copied by {@link #copyLevel(Level, int, Map)} instead of being parsed, and only the metadata
+     * and the topics outside of any level are parsed again. A result with processes can't have its levels reused, so it is
+     * parsed again in full. No messages are logged, as they were logged when the result was parsed.
+     *
+     * @param parseResult      The result to copy.
+     * @param username         The user who requested the parse of the result.
+     * @param mode             The mode the result was parsed in.
+     * @param processProcesses If processes should be processed to create their relationships.
+     * @return The copy of the result.
+     * @throws Exception Any unexpected exception that occurred when parsing.
+     */
+    public ParseResult copyParseResult(final ParseResult parseResult, final String username, final ParsingMode mode,
+            final boolean processProcesses) throws Exception {
+        final StringBuilder contentSpec = new StringBuilder();
+        for (final String line : parseResult.getContentSpec().getPreProcessedText()) {
+            contentSpec.append(line).append("\n");
+        }
+        return reparseContentSpec(parseResult, contentSpec.toString(), username, mode, processProcesses, new ErrorLoggerManager());
+    }
 
+    /**
+     * Splits a string into lines, in the same way that the lines are read when the string is parsed.
+     *
+     * @param contentSpec A string representation of a Content Specification.
+     * @return The lines of the Content Specification.
+     * @throws IOException Thrown if a problem occurs reading the lines.
+     */
+    private static List<String> readLines(final String contentSpec) throws IOException {
         final BufferedReader br = new BufferedReader(new StringReader(contentSpec));
-        return readFileData(br, username, mode);
+        final List<String> lines = new ArrayList<String>();
+        String line;
+        while ((line = br.readLine()) != null) {
+            lines.add(line);
+        }
+        return lines;
+    }
+
+    /**
+     * Finds the levels in a previous result that can be reused when parsing the edited lines of a Content Specification.
+     * The lines of a reusable level and all of its children must be unchanged, but may have moved to different line numbers
+     * if lines were inserted or deleted before the level.
+     *
+     * @param ctx            The context of the current parse.
+     * @param previousResult The result of parsing the Content Specification before it was edited.
+     * @param lines          The lines of the edited Content Specification.
+     */
+    private void findReusableLevels(final ParserContext ctx, final ParseResult previousResult, final List<String> lines) {
+        // Failed parses may be missing topics or relationships, and processes create relationships between all of their topics
+        if (!previousResult.isSuccessful() || !previousResult.getProcesses().isEmpty()) return;
+
+        // Find where each unchanged line has moved to
+        final List<String> previousLines = previousResult.getContentSpec().getPreProcessedText();
+        final int[] lineMap = LineDiff.mapUnchangedLines(previousLines, lines);
+        if (lineMap == null) return;
+
+        // Changing the number of spaces changes how every following line is parsed
+        final boolean[] unchangedLines = new boolean[lines.size()];
+        for (final int line : lineMap) {
+            if (line >= 0) unchangedLines[line] = true;
+        }
+        if (containsChangedSpacesMetaData(ctx, previousLines, lineMap) || containsChangedSpacesMetaData(ctx, lines,
+                unchangedLines)) {
+            return;
+        }
+
+        // The reusable levels are also mapped by the line number they were on in the previous parse
+        final TreeMap<Integer, ParserContext.ReusableLevel> previousLevels = new TreeMap<Integer, ParserContext.ReusableLevel>();
+        for (final Node node : previousResult.getContentSpec().getBaseLevel().getChildNodes()) {
+            if (node instanceof Level && !addReusableLevel(ctx, previousLevels, (Level) node, previousLines, lines, lineMap)) {
+                for (final Node childNode : ((Level) node).getChildNodes()) {
+                    if (childNode instanceof Level) {
+                        addReusableLevel(ctx, previousLevels, (Level) childNode, previousLines, lines, lineMap);
+                    }
+                }
+            }
+        }
+        if (previousLevels.isEmpty()) return;
+
+        // Group the topics, targets and relationships by the level that they were parsed in
+        for (final Map.Entry<String, SpecTopic> entry : previousResult.getSpecTopics().entrySet()) {
+            final ParserContext.ReusableLevel reusableLevel = findReusableLevel(previousLevels, entry.getValue().getLineNumber());
+            if (reusableLevel != null) {
+                reusableLevel.specTopics.put(entry.getKey(), entry.getValue());
+                final List<Relationship> topicRelationships = previousResult.getProcessedRelationships().get(entry.getKey());
+                if (topicRelationships != null) {
+                    reusableLevel.relationships.put(entry.getKey(), topicRelationships);
+                }
+            }
+        }
+        for (final Map.Entry<String, SpecTopic> entry : previousResult.getTargetTopics().entrySet()) {
+            final ParserContext.ReusableLevel reusableLevel = findReusableLevel(previousLevels, entry.getValue().getLineNumber());
+            if (reusableLevel != null) {
+                reusableLevel.targetTopics.put(entry.getKey(), entry.getValue());
+            }
+        }
+        for (final Map.Entry<String, Level> entry : previousResult.getTargetLevels().entrySet()) {
+            final ParserContext.ReusableLevel reusableLevel = findReusableLevel(previousLevels, entry.getValue().getLineNumber());
+            if (reusableLevel != null) {
+                reusableLevel.targetLevels.put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Adds a level from a previous parse to the reusable levels, if its lines are unchanged and have all moved by the same
+     * number of lines.
+     *
+     * @param ctx            The context of the current parse.
+     * @param previousLevels The reusable levels mapped by the line number they were on in the previous parse.
+     * @param level          The level from the previous parse.
+     * @param previousLines  The lines of the Content Specification before it was edited.
+     * @param lines          The lines of the edited Content Specification.
+     * @param lineMap        The index of each previous line in the edited lines, or -1 if the line was changed or deleted.
+     * @return True if the level can be reused, otherwise false.
+     */
+    private boolean addReusableLevel(final ParserContext ctx, final TreeMap<Integer, ParserContext.ReusableLevel> previousLevels,
+            final Level level, final List<String> previousLines, final List<String> lines, final int[] lineMap) {
+        // Relationships on a level line are added to the inner topic of its parent, which won't be reused
+        if (level.getParent() != null && level.getParent().getInnerTopic() != null) return false;
+
+        final int start = level.getLineNumber() - 1;
+        final int end = findLevelEnd(ctx, previousLines, start);
+        if (end < 0 || lineMap[start] < 0) return false;
+
+        // External targets aren't kept in the parse result, so levels that use them have to be parsed again
+        final int lineOffset = lineMap[start] - start;
+        for (int i = start; i < end; i++) {
+            if (lineMap[i] != i + lineOffset || EXTERNAL_TARGET_PATTERN.matcher(previousLines.get(i)).find()) return false;
+        }
+
+        // Check that the level doesn't continue on to a line that has been added after it
+        if (findLevelEnd(ctx, lines, start + lineOffset) != end + lineOffset) return false;
+
+        final ParserContext.ReusableLevel reusableLevel = new ParserContext.ReusableLevel(level, end + lineOffset + 1, lineOffset);
+        ctx.reusableLevels.put(start + lineOffset + 1, reusableLevel);
+        previousLevels.put(start + 1, reusableLevel);
+        return true;
+    }
+
+    /**
+     * Finds the end of a level, which is the first line after the level that isn't indented further than the level.
+     *
+     * @param ctx   The context of the current parse.
+     * @param lines The lines of a Content Specification.
+     * @param start The index of the line that the level is on.
+     * @return The index of the first line after the level, or -1 if the level can't be parsed on its own because a set of
+     *         brackets continues past the end of the level, or content from another Content Specification is injected.
+     */
+    private int findLevelEnd(final ParserContext ctx, final List<String> lines, final int start) {
+        ctx.lexer.lex(lines.get(start));
+        final int indentation = ctx.lexer.getIndentation();
+        int openBrackets = countOpenBrackets(lines.get(start));
+
+        int end = start + 1;
+        for (; end < lines.size(); end++) {
+            final String line = lines.get(end);
+            final LineLexer.TokenType tokenType = ctx.lexer.lex(line);
+            if (tokenType == LineLexer.TokenType.BLANK || tokenType == LineLexer.TokenType.COMMENT) {
+                continue;
+            } else if (ctx.lexer.getIndentation() <= indentation) {
+                break;
+            } else if (tokenType == LineLexer.TokenType.CS_INCLUDE) {
+                return -1;
+            }
+            openBrackets += countOpenBrackets(line);
+        }
+
+        return openBrackets == 0 ? end : -1;
+    }
+
+    /**
+     * Counts the number of brackets that are opened and not closed in a line, ignoring any escaped brackets.
+     *
+     * @param line The line to count the brackets in.
+     * @return The number of opening brackets minus the number of closing brackets.
+     */
+    private static int countOpenBrackets(final String line) {
+        int openBrackets = 0;
+        for (int i = 0; i < line.length(); i++) {
+            final char c = line.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                openBrackets++;
+            } else if (c == ']') {
+                openBrackets--;
+            }
+        }
+        return openBrackets;
+    }
+
+    /**
+     * Checks if any of the changed lines of a Content Specification is the spaces metadata.
+     *
+     * @param ctx     The context of the current parse.
+     * @param lines   The lines of a Content Specification before it was edited.
+     * @param lineMap The index of each line in the edited lines, or -1 if the line was changed or deleted.
+     * @return True if one of the changed lines is the spaces metadata, otherwise false.
+     */
+    private boolean containsChangedSpacesMetaData(final ParserContext ctx, final List<String> lines, final int[] lineMap) {
+        for (int i = 0; i < lines.size(); i++) {
+            if (lineMap[i] < 0 && isSpacesMetaData(ctx, lines.get(i))) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks if any of the changed lines of a Content Specification is the spaces metadata.
+     *
+     * @param ctx            The context of the current parse.
+     * @param lines          The lines of the edited Content Specification.
+     * @param unchangedLines Whether each line was in the Content Specification before it was edited.
+     * @return True if one of the changed lines is the spaces metadata, otherwise false.
+     */
+    private boolean containsChangedSpacesMetaData(final ParserContext ctx, final List<String> lines, final boolean[] unchangedLines) {
+        for (int i = 0; i < lines.size(); i++) {
+            if (!unchangedLines[i] && isSpacesMetaData(ctx, lines.get(i))) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks if a line is the spaces metadata.
+     *
+     * @param ctx  The context of the current parse.
+     * @param line The line to check.
+     * @return True if the line is the spaces metadata, otherwise false.
+     */
+    private boolean isSpacesMetaData(final ParserContext ctx, final String line) {
+        if (ctx.lexer.lex(line) == LineLexer.TokenType.METADATA) {
+            final String key = StringUtilities.split(line, '=', 2)[0].trim();
+            return MetaDataKey.getMetaDataKey(key) == MetaDataKey.SPACES;
+        }
+        return false;
+    }
+
+    /**
+     * Finds the reusable level that contained a line in the previous parse.
+     *
+     * @param previousLevels The reusable levels mapped by the line number they were on in the previous parse.
+     * @param lineNumber     The line number in the previous parse to find the level for.
+     * @return The reusable level that contains the line, or null if the line isn't in a reusable level.
+     */
+    private static ParserContext.ReusableLevel findReusableLevel(final TreeMap<Integer, ParserContext.ReusableLevel> previousLevels,
+            final Integer lineNumber) {
+        if (lineNumber == null) return null;
+
+        final Map.Entry<Integer, ParserContext.ReusableLevel> entry = previousLevels.floorEntry(lineNumber);
+        return entry != null && lineNumber + entry.getValue().lineOffset < entry.getValue().endLine ? entry.getValue() : null;
+    }
+
+    /**
+     * Copies a level from a previous parse into the content specification, in place of parsing the level's lines. The level
+     * is only reused if the next line would be parsed into the same place, and none of its targets or unique topic ID's
+     * have already been used. The level and its topics are copied, so that the previous result isn't changed, and are
+     * given the line numbers that they have moved to.
+     *
+     * @param ctx           The context of the current parse.
+     * @param reusableLevel The level from the previous parse, that starts on the next line.
+     * @return True if the level was reused, otherwise false if the next line should be parsed as normal.
+     * @throws IOException Thrown if a problem occurs reading the level's lines.
+     */
+    private boolean reuseLevel(final ParserContext ctx, final ParserContext.ReusableLevel reusableLevel) throws IOException {
+        // Check that the level would be added at the same depth, using the same indentation checks as parseLine
+        ctx.lexer.lex(ctx.lines.peek());
+        final int spaceCount = ctx.lexer.getIndentation();
+        final int curLevel = spaceCount / ctx.spaces;
+        if (spaceCount % ctx.spaces != 0 || curLevel > ctx.level) return false;
+
+        final Map<Node, Node> copies = new IdentityHashMap<Node, Node>();
+        final Level level = copyLevel(reusableLevel.level, reusableLevel.lineOffset, copies);
+        if (level == null) return false;
+
+        // Check that the targets and new topic ID's don't duplicate any that have already been parsed
+        final HashMap<String, SpecTopic> specTopics = new HashMap<String, SpecTopic>();
+        for (final SpecTopic specTopic : reusableLevel.specTopics.values()) {
+            final SpecTopic copy = (SpecTopic) copies.get(specTopic);
+            if (copy == null || ctx.specTopics.containsKey(copy.getUniqueId())) return false;
+            specTopics.put(copy.getUniqueId(), copy);
+        }
+        for (final Map.Entry<String, SpecTopic> entry : reusableLevel.targetTopics.entrySet()) {
+            final String targetId = entry.getKey();
+            if (!copies.containsKey(entry.getValue()) || ctx.targetTopics.containsKey(targetId) || ctx.targetLevels.containsKey(
+                    targetId)) {
+                return false;
+            }
+        }
+        for (final Map.Entry<String, Level> entry : reusableLevel.targetLevels.entrySet()) {
+            final String targetId = entry.getKey();
+            if (!copies.containsKey(entry.getValue()) || ctx.targetTopics.containsKey(targetId) || ctx.targetLevels.containsKey(
+                    targetId)) {
+                return false;
+            }
+        }
+
+        // Move back to the level's parent and add the level
+        for (int i = (ctx.level - curLevel); i > 0; i--) {
+            if (ctx.lvl.getParent() != null) ctx.lvl = ctx.lvl.getParent();
+        }
+        ctx.lvl.appendChild(level);
+        ctx.level = curLevel + 1;
+        ctx.lvl = level;
+
+        ctx.specTopics.putAll(specTopics);
+        for (final Map.Entry<String, SpecTopic> entry : reusableLevel.targetTopics.entrySet()) {
+            ctx.targetTopics.put(entry.getKey(), (SpecTopic) copies.get(entry.getValue()));
+        }
+        for (final Map.Entry<String, Level> entry : reusableLevel.targetLevels.entrySet()) {
+            ctx.targetLevels.put(entry.getKey(), (Level) copies.get(entry.getValue()));
+        }
+        // The relationships are added to the copied topics when the relationships are processed, using their new unique ID's
+        for (final Map.Entry<String, List<Relationship>> entry : reusableLevel.relationships.entrySet()) {
+            final String uniqueId = ((SpecTopic) copies.get(reusableLevel.specTopics.get(entry.getKey()))).getUniqueId();
+            final List<Relationship> topicRelationships = new ArrayList<Relationship>();
+            for (final Relationship relationship : entry.getValue()) {
+                final String relatedId = relationship.getSecondaryRelationshipTopicId();
+                if (relationship.getRelationshipTitle() == null) {
+                    topicRelationships.add(new Relationship(uniqueId, relatedId, relationship.getType()));
+                } else {
+                    topicRelationships.add(new Relationship(uniqueId, relatedId, relationship.getType(),
+                            relationship.getRelationshipTitle()));
+                }
+            }
+            ctx.relationships.put(uniqueId, topicRelationships);
+        }
+        ctx.reusedTopicIds.addAll(specTopics.keySet());
+        reusableLevel.reused = true;
+
+        // Skip over the level's lines
+        while (ctx.lineCounter + 1 < reusableLevel.endLine) {
+            ctx.lineCounter++;
+            ctx.spec.appendPreProcessedLine(ctx.lines.poll());
+        }
+
+        return true;
+    }
+
+    /**
+     * Copies a level from a previous parse and all of its children, moving them by a number of lines.
+     *
+     * @param level      The level from the previous parse.
+     * @param lineOffset The number of lines that the level has moved by.
+     * @param copies     The copy of each level and topic, mapped by the level or topic that was copied.
+     * @return The copy of the level, or null if the level contains a node that can't be copied.
+     */
+    private Level copyLevel(final Level level, final int lineOffset, final Map<Node, Node> copies) {
+        final Level copy = createEmptyLevelFromType(level.getLineNumber() + lineOffset, level.getLevelType(), level.getText());
+        copy.setTitle(level.getTitle());
+        copy.setTargetId(level.getTargetId());
+        copyOptions(level, copy);
+        if (level.getInnerTopic() != null) {
+            copy.setInnerTopic(copyTopic(level.getInnerTopic(), lineOffset, copies));
+        }
+        copies.put(level, copy);
+
+        for (final Node node : level.getChildNodes()) {
+            if (node instanceof Level) {
+                final Level childCopy = copyLevel((Level) node, lineOffset, copies);
+                if (childCopy == null) return null;
+                copy.appendChild(childCopy);
+            } else if (node instanceof SpecTopic) {
+                copy.appendSpecTopic(copyTopic((SpecTopic) node, lineOffset, copies));
+            } else if (node instanceof Comment) {
+                copy.appendComment(node.getText());
+            } else if (node instanceof TextNode) {
+                copy.appendChild(new TextNode(node.getText()));
+            } else {
+                return null;
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Copies a topic from a previous parse, moving it by a number of lines. The relationships of the topic aren't copied, as
+     * they are added when the relationships are processed.
+     *
+     * @param specTopic  The topic from the previous parse.
+     * @param lineOffset The number of lines that the topic has moved by.
+     * @param copies     The copy of each level and topic, mapped by the level or topic that was copied.
+     * @return The copy of the topic.
+     */
+    private SpecTopic copyTopic(final SpecTopic specTopic, final int lineOffset, final Map<Node, Node> copies) {
+        final int lineNumber = specTopic.getLineNumber() + lineOffset;
+        final SpecTopic copy = new SpecTopic(null, lineNumber, specTopic.getText(), specTopic.getType());
+        copy.setTitle(specTopic.getTitle());
+        copy.setId(specTopic.getId());
+        copy.setRevision(specTopic.getRevision());
+        copy.setTopicType(specTopic.getTopicType());
+        copy.setTargetId(specTopic.getTargetId());
+        copyOptions(specTopic, copy);
+
+        // Unique ID's other than new topic ID's (ie N1) start with the line number of the topic
+        final String uniqueId = specTopic.getUniqueId();
+        final String linePrefix = specTopic.getLineNumber() + "-";
+        copy.setUniqueId(uniqueId.startsWith(linePrefix) ? lineNumber + "-" + uniqueId.substring(linePrefix.length()) : uniqueId);
+
+        copies.put(specTopic, copy);
+        return copy;
+    }
+
+    /**
+     * Copies the options that are set by {@link #addOptions(ParserContext, SpecNode, String[], int, String)} from one node
+     * to another.
+     *
+     * @param node The node to copy the options from.
+     * @param copy The node to copy the options to.
+     */
+    private void copyOptions(final SpecNode node, final SpecNode copy) {
+        for (final String tag : node.getTags(false)) {
+            copy.addTag(tag);
+        }
+        for (final String tag : node.getRemoveTags(false)) {
+            copy.addTag("-" + tag);
+        }
+        for (final String sourceUrl : node.getSourceUrls(false)) {
+            copy.addSourceUrl(sourceUrl);
+        }
+        copy.setDescription(node.getDescription(false));
+        copy.setAssignedWriter(node.getAssignedWriter(false));
+        copy.setConditionStatement(node.getConditionStatement(false));
+    }
+
+    /**
+     * Checks if any of the relationships of the reused topics could resolve differently to when they were first parsed. This
+     * is the case if a relationship points to a topic ID or target that is used by a topic or level that wasn't reused, or a
+     * topic that wasn't reused has a relationship that could create a target for a reused topic.
+     *
+     * @param ctx            The context of the current parse.
+     * @param previousResult The result of parsing the Content Specification before it was edited.
+     * @return True if the relationships of a reused topic may be out of date, otherwise false.
+     */
+    private boolean hasStaleRelationships(final ParserContext ctx, final ParseResult previousResult) {
+        // The unique ID's of the reused topics may have changed, so find the ID's that they had in the previous parse
+        final Set<String> previousReusedTopicIds = new HashSet<String>();
+        final Set<String> reusedTargetIds = new HashSet<String>();
+        for (final ParserContext.ReusableLevel reusableLevel : ctx.reusableLevels.values()) {
+            if (reusableLevel.reused) {
+                previousReusedTopicIds.addAll(reusableLevel.specTopics.keySet());
+                reusedTargetIds.addAll(reusableLevel.targetLevels.keySet());
+            }
+        }
+
+        final Set<String> changedIds = new HashSet<String>();
+        if (addChangedIds(changedIds, previousReusedTopicIds, reusedTargetIds, previousResult.getSpecTopics(),
+                previousResult.getTargetLevels(), previousResult.getProcessedRelationships()) || addChangedIds(changedIds,
+                ctx.reusedTopicIds, reusedTargetIds, ctx.specTopics, ctx.targetLevels, ctx.relationships)) {
+            return true;
+        }
+
+        for (final String uniqueId : ctx.reusedTopicIds) {
+            final List<Relationship> topicRelationships = ctx.relationships.get(uniqueId);
+            if (topicRelationships == null) continue;
+
+            for (final Relationship relationship : topicRelationships) {
+                if (changedIds.contains(relationship.getSecondaryRelationshipTopicId())) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds the unique ID's, topic ID's and targets of the topics and levels that weren't reused to a set of ID's. A
+     * duplicated new topic (ie X1) changes how relationships to the new topic (ie N1) are resolved, so the ID of the new
+     * topic is added as well.
+     *
+     * @param changedIds      The set to add the ID's to.
+     * @param reusedTopicIds  The unique ID's of the topics that were reused.
+     * @param reusedTargetIds The target ID's of the levels that were reused.
+     * @param specTopics      The topics mapped by their unique ID.
+     * @param targetLevels    The levels mapped by their target ID.
+     * @param relationships   The relationships mapped by the unique ID of the topic they belong to.
+     * @return True if a topic that wasn't reused has a relationship to a new reused topic, which can create a target for the
+     *         reused topic when the new topic has been duplicated, otherwise false.
+     */
+    private boolean addChangedIds(final Set<String> changedIds, final Set<String> reusedTopicIds, final Set<String> reusedTargetIds,
+            final Map<String, SpecTopic> specTopics, final Map<String, Level> targetLevels,
+            final Map<String, List<Relationship>> relationships) {
+        for (final Map.Entry<String, SpecTopic> entry : specTopics.entrySet()) {
+            final String uniqueId = entry.getKey();
+            if (reusedTopicIds.contains(uniqueId)) continue;
+
+            final String topicId = uniqueId.substring(uniqueId.indexOf('-') + 1);
+            changedIds.add(uniqueId);
+            changedIds.add(topicId);
+            if (topicId.startsWith("X")) {
+                changedIds.add("N" + topicId.substring(1));
+            }
+            if (entry.getValue().getTargetId() != null) {
+                changedIds.add(entry.getValue().getTargetId());
+            }
+
+            final List<Relationship> topicRelationships = relationships.get(uniqueId);
+            if (topicRelationships != null) {
+                for (final Relationship relationship : topicRelationships) {
+                    final String relatedId = relationship.getSecondaryRelationshipTopicId();
+                    if (reusedTopicIds.contains(relatedId) && TopicIdKind.classify(relatedId) == TopicIdKind.NEW) return true;
+                }
+            }
+        }
+        for (final String targetId : targetLevels.keySet()) {
+            if (!reusedTargetIds.contains(targetId)) {
+                changedIds.add(targetId);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sets the result that the getters read from, as if it had just been parsed by one of the boolean parse methods. The
+     * getters return the result's own ContentSpec and nodes, in new maps and lists.
+     *
+     * @param parseResult The result for the getters to read from.
+     */
+    void setLastParseResult(final ParseResult parseResult) {
+        final ParserContext ctx = new ParserContext(new LogBuffer(), elm, true, parseResult.getContentSpec());
+        ctx.specTopics.putAll(parseResult.getSpecTopics());
+        for (final Map.Entry<String, List<String>> entry : parseResult.getTopicIdIndex().entrySet()) {
+            ctx.topicIdIndex.put(entry.getKey(), new ArrayList<String>(entry.getValue()));
+        }
+        ctx.targetLevels.putAll(parseResult.getTargetLevels());
+        ctx.targetTopics.putAll(parseResult.getTargetTopics());
+        for (final Map.Entry<String, List<Relationship>> entry : parseResult.getProcessedRelationships().entrySet()) {
+            ctx.relationships.put(entry.getKey(), new ArrayList<Relationship>(entry.getValue()));
+        }
+        ctx.processes.addAll(parseResult.getProcesses());
+        context = ctx;
     }
 
     /**
@@ -197,13 +964,7 @@ public class ContentSpecParser {
      * @return A List of topic ID's.
      */
     public List<Integer> getReferencedTopicIds() {
-        final Set<Integer> ids = new HashSet<Integer>();
-        for (final String topicId : specTopics.keySet()) {
-            final SpecTopic specTopic = specTopics.get(topicId);
-            if (specTopic.getDBId() != null) ids.add(specTopic.getDBId());
-        }
-
-        return CollectionUtilities.toArrayList(ids);
+        return ProcessorUtilities.getReferencedTopicIds(context.specTopics);
     }
 
     /**
@@ -214,13 +975,7 @@ public class ContentSpecParser {
      * @return A List of topic ID's.
      */
     public List<Integer> getReferencedLatestTopicIds() {
-        final Set<Integer> ids = new HashSet<Integer>();
-        for (final String topicId : specTopics.keySet()) {
-            final SpecTopic specTopic = specTopics.get(topicId);
-            if (specTopic.getDBId() != null && specTopic.getRevision() == null) ids.add(specTopic.getDBId());
-        }
-
-        return CollectionUtilities.toArrayList(ids);
+        return ProcessorUtilities.getReferencedLatestTopicIds(context.specTopics);
     }
 
     /**
@@ -231,14 +986,7 @@ public class ContentSpecParser {
      * @return A List of topic ID's.
      */
     public List<Pair<Integer, Integer>> getReferencedRevisionTopicIds() {
-        final Set<Pair<Integer, Integer>> ids = new HashSet<Pair<Integer, Integer>>();
-        for (final String topicId : specTopics.keySet()) {
-            final SpecTopic specTopic = specTopics.get(topicId);
-            if (specTopic.getDBId() != null && specTopic.getRevision() != null)
-                ids.add(new Pair<Integer, Integer>(specTopic.getDBId(), specTopic.getRevision()));
-        }
-
-        return CollectionUtilities.toArrayList(ids);
+        return ProcessorUtilities.getReferencedRevisionTopicIds(context.specTopics);
     }
 
     /**
@@ -247,7 +995,7 @@ public class ContentSpecParser {
      * @return The Content Specification object representation.
      */
     public ContentSpec getContentSpec() {
-        return spec;
+        return context.spec;
     }
 
     /**
@@ -256,7 +1004,17 @@ public class ContentSpecParser {
      * @return The mapping of topics to their unique Content Specification Topic ID's
      */
     public HashMap<String, SpecTopic> getSpecTopics() {
-        return specTopics;
+        return context.specTopics;
+    }
+
+    /**
+     * Gets the index of topic IDs to the unique IDs of the Content Specification Topics that use them. The index is
+     * built once all of the topics have been parsed and the processes have been processed.
+     *
+     * @return The mapping of topic IDs to their unique Content Specification Topic ID's, ordered by line number.
+     */
+    public HashMap<String, List<String>> getTopicIdIndex() {
+        return context.topicIdIndex;
     }
 
     /**
@@ -265,7 +1023,7 @@ public class ContentSpecParser {
      * @return A List of Processes
      */
     public List<Process> getProcesses() {
-        return processes;
+        return context.processes;
     }
 
     /**
@@ -274,7 +1032,7 @@ public class ContentSpecParser {
      * @return A list of Content Specification Topics mapped by their Target ID.
      */
     public HashMap<String, SpecTopic> getTargetTopics() {
-        return targetTopics;
+        return context.targetTopics;
     }
 
     /**
@@ -283,7 +1041,7 @@ public class ContentSpecParser {
      * @return A List of Levels mapped by their Target ID.
      */
     public HashMap<String, Level> getTargetLevels() {
-        return targetLevels;
+        return context.targetLevels;
     }
 
     /**
@@ -292,12 +1050,13 @@ public class ContentSpecParser {
      * @return The map of Unique id's to relationships
      */
     public HashMap<String, List<Relationship>> getProcessedRelationships() {
-        return relationships;
+        return context.relationships;
     }
 
     /**
      * Reads the data from a file that is passed into a BufferedReader and processes it accordingly.
      *
+     * @param ctx      The context of the current parse.
      * @param br       A BufferedReader object that has been initialised with a file's data.
      * @param username The database User entity object for the user who loaded the content specification.
      * @param mode     The mode to process the Content Spec in (edited, either or new).
@@ -305,24 +1064,22 @@ public class ContentSpecParser {
      * @throws Exception Any uncaught exception that occurs when parsing.
      */
     @SuppressWarnings("deprecation")
-    protected boolean readFileData(final BufferedReader br, final String username, final ParsingMode mode) throws Exception {
-        // Read in the entire file so we can peek ahead later on
-        String line;
-        while ((line = br.readLine()) != null) {
-            lines.add(line);
-        }
+    protected boolean readFileData(final ParserContext ctx, final BufferedReader br, final String username,
+            final ParsingMode mode) throws Exception {
+        // Stream the lines from the reader, keeping a small lookahead window so we can peek ahead later on
+        ctx.lines = new LookaheadLineReader(br);
 
         boolean editing = false;
-        while (lines.peek() != null) {
-            final String input = lines.poll();
-            lineCounter++;
-            spec.appendPreProcessedLine(input);
+        while (ctx.lines.peek() != null) {
+            final String input = ctx.lines.poll();
+            ctx.lineCounter++;
+            ctx.spec.appendPreProcessedLine(input);
 
             if (input.trim().startsWith("#")) {
-                spec.appendComment(input);
+                ctx.spec.appendComment(input);
                 continue;
             } else if (input.trim().equals("")) {
-                spec.appendChild(new TextNode("\n"));
+                ctx.spec.appendChild(new TextNode("\n"));
                 continue;
             }
 
@@ -331,45 +1088,46 @@ public class ContentSpecParser {
                 // Content Specification
                 if (lineVars[0].equals("Title")) {
                     if (mode == ParsingMode.NEW && editing) {
-                        log.error(ProcessorConstants.ERROR_INCORRECT_NEW_MODE_MSG);
+                        ctx.log.error(ProcessorConstants.ERROR_INCORRECT_NEW_MODE_MSG);
                         return false;
                     } else if (mode == ParsingMode.EDITED && !editing) {
-                        log.error(ProcessorConstants.ERROR_INCORRECT_EDIT_MODE_MSG);
+                        ctx.log.error(ProcessorConstants.ERROR_INCORRECT_EDIT_MODE_MSG);
                         return false;
                     }
-                    spec.setTitle(lineVars[1]);
-                    lvl = spec.getBaseLevel();
-                    spec.setCreatedBy(username);
-                    lvl.setAssignedWriter(username);
-                    while (lines.peek() != null) {
-                        lineCounter++;
-                        // Process the content specification and print an error message if an error occurs
-                        try {
-                            if (!parseLine(lines.poll())) {
-                                error = true;
-                            }
-                        } catch (IndentationException e) {
-                            log.error(ProcessorConstants.ERROR_INVALID_CS_MSG);
-                            return false;
-                        }
+                    ctx.spec.setTitle(lineVars[1]);
+                    ctx.lvl = ctx.spec.getBaseLevel();
+                    ctx.spec.setCreatedBy(username);
+                    ctx.lvl.setAssignedWriter(username);
+                    // Parse the top level levels at the same time if an executor has been set, unless levels are being reused
+                    final ExecutorService executor = parseExecutor;
+                    if (executor != null && ctx.reusableLevels.isEmpty() && !parseLevelsInParallel(ctx, executor)) {
+                        return false;
+                    }
+
+                    while (ctx.lines.peek() != null) {
+                        // Move any unchanged levels from a previous parse into the content specification, instead of parsing them again
+                        final ParserContext.ReusableLevel reusableLevel = ctx.reusableLevels.get(ctx.lineCounter + 1);
+                        if (reusableLevel != null && reuseLevel(ctx, reusableLevel)) continue;
+
+                        if (!parseNextLine(ctx)) return false;
                     }
 
                     // Before validating the content specification, processes should be loaded first so that the
                     // relationships and targets are created
-                    if (processProcesses) {
-                        for (final Process process : processes) {
-                            if (process.processTopics(specTopics, targetTopics, restManager.getReader())) {
+                    if (ctx.processProcesses) {
+                        for (final Process process : ctx.processes) {
+                            if (process.processTopics(ctx.specTopics, ctx.targetTopics, restManager.getReader())) {
                                 // Add all of the process topic targets
                                 for (final String targetId : process.getProcessTargets().keySet()) {
-                                    targetTopics.put(targetId, process.getProcessTargets().get(targetId));
+                                    ctx.targetTopics.put(targetId, process.getProcessTargets().get(targetId));
                                 }
 
                                 // Add all of the relationships in the process to the list of content spec relationships
                                 for (String uniqueTopicId : process.getProcessRelationships().keySet()) {
-                                    if (relationships.containsKey(uniqueTopicId)) {
-                                        relationships.get(uniqueTopicId).addAll(process.getProcessRelationships().get(uniqueTopicId));
+                                    if (ctx.relationships.containsKey(uniqueTopicId)) {
+                                        ctx.relationships.get(uniqueTopicId).addAll(process.getProcessRelationships().get(uniqueTopicId));
                                     } else {
-                                        relationships.put(uniqueTopicId, process.getProcessRelationships().get(uniqueTopicId));
+                                        ctx.relationships.put(uniqueTopicId, process.getProcessRelationships().get(uniqueTopicId));
                                     }
                                 }
                             }
@@ -377,10 +1135,11 @@ public class ContentSpecParser {
                     }
 
                     // Setup the relationships
-                    processRelationships();
+                    ctx.topicIdIndex = ProcessorUtilities.buildTopicIdIndex(ctx.specTopics);
+                    processRelationships(ctx);
                 } else if (lineVars[0].equals("ID")) {
                     if (mode == ParsingMode.NEW) {
-                        log.error(ProcessorConstants.ERROR_INCORRECT_NEW_MODE_MSG);
+                        ctx.log.error(ProcessorConstants.ERROR_INCORRECT_NEW_MODE_MSG);
                         return false;
                     }
 
@@ -389,181 +1148,453 @@ public class ContentSpecParser {
                     try {
                         contentSpecId = Integer.parseInt(lineVars[1].trim());
                     } catch (NumberFormatException e) {
-                        log.error(format(ProcessorConstants.ERROR_INVALID_CS_ID_FORMAT_MSG, input.trim()));
-                        error = true;
+                        ctx.log.error(format(ProcessorConstants.ERROR_INVALID_CS_ID_FORMAT_MSG, input.trim()));
+                        ctx.error = true;
                         continue;
                     }
-                    spec.setId(contentSpecId);
+                    ctx.spec.setId(contentSpecId);
+
+                    // Read in the revision number
+                    final String rev = ctx.lines.poll();
+                    ctx.lineCounter++;
+                    if (rev != null) {
+                        ctx.spec.appendPreProcessedLine(rev);
+
+                        final String[] revVars = CollectionUtilities.trimStringArray(StringUtilities.split(rev, '='));
+                        if (revVars.length >= 2) {
+                            if (revVars[0].equalsIgnoreCase("SpecRevision")) {
+                                // Read in the amount of spaces that were used for the content specification
+                                int specRev;
+                                try {
+                                    specRev = Integer.parseInt(revVars[1]);
+                                } catch (Exception e) {
+                                    ctx.log.error(format(ProcessorConstants.ERROR_INVALID_NUMBER_MSG, ctx.lineCounter, rev.trim()));
+                                    return false;
+                                }
+                                ctx.spec.setSpecRevision(specRev);
+                            } else {
+                                ctx.log.error(ProcessorConstants.ERROR_CS_NO_CHECKSUM_MSG);
+                                return false;
+                            }
+                        } else {
+                            ctx.log.error(format(ProcessorConstants.ERROR_INVALID_ATTRIB_FORMAT_MSG, ctx.lineCounter, rev.trim()));
+                            return false;
+                        }
+                    } else {
+                        ctx.log.error(ProcessorConstants.ERROR_INCORRECT_FILE_FORMAT_MSG);
+                        return false;
+                    }
+                } else if (lineVars[0].equals("CHECKSUM")) {
+                    if (mode == ParsingMode.NEW) {
+                        ctx.log.error(ProcessorConstants.ERROR_INCORRECT_NEW_MODE_MSG);
+                        return false;
+                    }
+
+                    editing = true;
+                    String checksum = lineVars[1];
+                    ctx.spec.setChecksum(checksum);
+
+                    // Read in the Content Spec ID
+                    final String specId = ctx.lines.poll();
+                    ctx.lineCounter++;
+                    if (specId != null) {
+                        ctx.spec.appendPreProcessedLine(specId);
+
+                        final String[] specIdVars = CollectionUtilities.trimStringArray(StringUtilities.split(specId, '='));
+                        if (specIdVars.length >= 2) {
+                            if (specIdVars[0].equalsIgnoreCase("ID")) {
+                                int contentSpecId;
+                                try {
+                                    contentSpecId = Integer.parseInt(specIdVars[1].trim());
+                                } catch (NumberFormatException e) {
+                                    ctx.log.error(format(ProcessorConstants.ERROR_INVALID_CS_ID_FORMAT_MSG, specId.trim()));
+                                    ctx.error = true;
+                                    continue;
+                                }
+                                ctx.spec.setId(contentSpecId);
+                            } else {
+                                ctx.log.error(ProcessorConstants.ERROR_CS_NO_CHECKSUM_MSG);
+                                return false;
+                            }
+                        } else {
+                            ctx.log.error(format(ProcessorConstants.ERROR_INVALID_ATTRIB_FORMAT_MSG, ctx.lineCounter, specId.trim()));
+                            return false;
+                        }
+                    } else {
+                        ctx.log.error(ProcessorConstants.ERROR_INCORRECT_FILE_FORMAT_MSG);
+                        return false;
+                    }
+                } else {
+                    ctx.log.error(ProcessorConstants.ERROR_INCORRECT_FILE_FORMAT_MSG);
+                    return false;
+                }
+            } else {
+                ctx.log.error(ProcessorConstants.ERROR_INCORRECT_FILE_FORMAT_MSG);
+                return false;
+            }
+        }
+        return !ctx.error;
+    }
+
+    /**
+     * Parses the next line of the Content Specification, logging an error if the line has invalid indentation.
+     *
+     * @param ctx The context of the current parse.
+     * @return False if the line has invalid indentation and the parse can't continue, otherwise true.
+     * @throws Exception Any unexpected exception that occurred when parsing.
+     */
+    private boolean parseNextLine(final ParserContext ctx) throws Exception {
+        ctx.lineCounter++;
+        // Process the content specification and print an error message if an error occurs
+        try {
+            if (!parseLine(ctx, ctx.lines.poll())) {
+                ctx.error = true;
+            }
+        } catch (IndentationException e) {
+            ctx.log.error(ProcessorConstants.ERROR_INVALID_CS_MSG);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Parses the top level levels of the Content Specification at the same time. The lines before the first top level level
+     * are parsed first. The remaining lines are then split up as they are read, so that each chunk contains one top level
+     * level, and each chunk is submitted to be parsed in its own context as soon as the next top level level is found. The
+     * contexts are merged in order along with their log messages, and once two chunks for each thread are waiting to be
+     * merged no more lines are read until the oldest has been merged, so only a few chunks are held at once. If a chunk uses a target or new topic ID that an
+     * earlier chunk used, it is parsed again in the main context so the same duplicate errors are logged as a serial parse
+     * would.
+     * <p/>
+     * If a line is found that stops the lines from being split up, because it is something other than a level at the base
+     * level, a level that starts inside a set of brackets from the level before it, or content from another Content
+     * Specification, then the chunks before it are still parsed at the same time and the rest of the lines are left to be
+     * parsed serially.
+     *
+     * @param ctx      The context of the current parse.
+     * @param executor The executor to parse the chunks with.
+     * @return False if a line has invalid indentation and the parse can't continue, otherwise true.
+     * @throws Exception Any unexpected exception that occurred when parsing.
+     */
+    private boolean parseLevelsInParallel(final ParserContext ctx, final ExecutorService executor) throws Exception {
+        // The metadata has to be parsed first, as it changes how the levels are parsed
+        while (ctx.lines.peek() != null) {
+            if (ctx.lexer.lex(ctx.lines.peek()) == LineLexer.TokenType.LEVEL && ctx.lexer.getIndentation() == 0) break;
+            if (!parseNextLine(ctx)) return false;
+        }
+
+        final int maxPendingChunks = PENDING_LEVEL_CHUNKS_PER_THREAD * (executor instanceof ThreadPoolExecutor
+                ? ((ThreadPoolExecutor) executor).getMaximumPoolSize() : Runtime.getRuntime().availableProcessors());
+        final List<LevelChunk> chunks = new ArrayList<LevelChunk>();
+        final List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+        int mergedChunks = 0;
+        try {
+            // Read up to the end of the lines that can be split up, submitting each chunk once the next one starts
+            StringBuilder chunkText = new StringBuilder();
+            int chunkStart = ctx.lineCounter + 1;
+            int lineNumber = chunkStart;
+            int openBrackets = 0;
+            boolean splittable = true;
+            String line;
+            while ((line = ctx.lines.peek()) != null) {
+                final LineLexer.TokenType tokenType = ctx.lexer.lex(line);
+                if (tokenType == LineLexer.TokenType.CS_INCLUDE) {
+                    splittable = false;
+                    break;
+                } else if (tokenType != LineLexer.TokenType.BLANK && tokenType != LineLexer.TokenType.COMMENT
+                        && ctx.lexer.getIndentation() == 0) {
+                    // Only levels can be split up, and the brackets must be closed before the next level starts
+                    if (tokenType != LineLexer.TokenType.LEVEL || openBrackets != 0) {
+                        splittable = false;
+                        break;
+                    }
+                    if (lineNumber != chunkStart) {
+                        // Merge the oldest chunk before reading any further, so that only a few chunks are held at once
+                        if (chunks.size() - mergedChunks >= maxPendingChunks) {
+                            if (!completeLevelChunk(ctx, chunks, futures, mergedChunks++)) return false;
+                        }
+                        submitLevelChunk(ctx, executor, chunks, futures, chunkStart, chunkText.toString());
+                        chunkText = new StringBuilder();
+                        chunkStart = lineNumber;
+                    }
+                }
+                openBrackets += countOpenBrackets(line);
+                chunkText.append(ctx.lines.poll()).append("\n");
+                lineNumber++;
+            }
+
+            // The last chunk is only parsed on its own if it can be split from the rest, and there was a chunk before it
+            final String remainingText;
+            if (splittable && openBrackets == 0 && !chunks.isEmpty()) {
+                submitLevelChunk(ctx, executor, chunks, futures, chunkStart, chunkText.toString());
+                remainingText = null;
+            } else {
+                remainingText = chunkText.toString();
+            }
+
+            while (mergedChunks < chunks.size()) {
+                if (!completeLevelChunk(ctx, chunks, futures, mergedChunks++)) return false;
+            }
+
+            if (remainingText == null) {
+                ctx.lineCounter = lineNumber - 1;
+            } else if (!chunks.isEmpty()) {
+                // Parse the lines that couldn't be split up serially, carrying on from the last chunk
+                ctx.lines = LookaheadLineReader.prepend(remainingText, ctx.lines);
+                ctx.lineCounter = chunkStart - 1;
+                ctx.lvl = ctx.spec.getBaseLevel();
+                ctx.level = 0;
+            } else {
+                // Nothing was split up, so parse all of the lines serially as if they had never been read
+                ctx.lines = LookaheadLineReader.prepend(remainingText, ctx.lines);
+            }
+        } finally {
+            for (final Future<Boolean> future : futures) {
+                future.cancel(true);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Waits for a chunk to be parsed and merges it into the main context. If the chunk used a target or new topic ID that an
+     * earlier chunk used, it is parsed again in the main context instead. The chunk is then released, so that its lines and
+     * context aren't held for the rest of the parse.
+     *
+     * @param ctx     The context of the current parse.
+     * @param chunks  The chunks that have been submitted.
+     * @param futures The results of the chunks that have been submitted.
+     * @param index   The index of the chunk to merge, which must be the first chunk that hasn't been merged yet.
+     * @return False if a line has invalid indentation and the parse can't continue, otherwise true.
+     * @throws Exception Any unexpected exception that occurred when parsing the chunk.
+     */
+    private boolean completeLevelChunk(final ParserContext ctx, final List<LevelChunk> chunks, final List<Future<Boolean>> futures,
+            final int index) throws Exception {
+        final LevelChunk chunk = chunks.set(index, null);
+        final boolean completed;
+        try {
+            completed = futures.get(index).get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+
+        if (usesParsedIds(ctx, chunk.ctx)) {
+            // Parse the chunk again after the earlier chunks, so that the duplicates are found on the same lines
+            final LookaheadLineReader remainingLines = ctx.lines;
+            ctx.lines = new LookaheadLineReader(new StringReader(chunk.text));
+            ctx.lineCounter = chunk.startLine - 1;
+            ctx.lvl = ctx.spec.getBaseLevel();
+            ctx.level = 0;
+            while (ctx.lines.peek() != null) {
+                if (!parseNextLine(ctx)) return false;
+            }
+            ctx.lines = remainingLines;
+        } else {
+            mergeLevelChunk(ctx, chunk.ctx);
+            if (!completed) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Submits a chunk of lines that contains one top level level to be parsed.
+     *
+     * @param ctx       The context of the current parse.
+     * @param executor  The executor to parse the chunk with.
+     * @param chunks    The chunks that have been submitted, which the chunk is added to.
+     * @param futures   The results of the chunks that have been submitted, which the chunk's result is added to.
+     * @param startLine The line number of the first line in the chunk.
+     * @param text      The lines of the chunk.
+     */
+    private void submitLevelChunk(final ParserContext ctx, final ExecutorService executor, final List<LevelChunk> chunks,
+            final List<Future<Boolean>> futures, final int startLine, final String text) {
+        final LevelChunk chunk = new LevelChunk(ctx, startLine, text);
+        chunks.add(chunk);
+        futures.add(executor.submit(chunk));
+    }
+
+    /**
+     * Checks if a chunk has used any targets or new topic ID's that have already been used in the main context.
+     *
+     * @param ctx      The context of the current parse.
+     * @param chunkCtx The context the chunk was parsed in.
+     * @return True if the chunk used a target or new topic ID that was already used, otherwise false.
+     */
+    private boolean usesParsedIds(final ParserContext ctx, final ParserContext chunkCtx) {
+        for (final String uniqueId : chunkCtx.specTopics.keySet()) {
+            if (ctx.specTopics.containsKey(uniqueId)) return true;
+        }
+        for (final String targetId : chunkCtx.targetTopics.keySet()) {
+            if (ctx.targetTopics.containsKey(targetId) || ctx.targetLevels.containsKey(targetId)) return true;
+        }
+        for (final String targetId : chunkCtx.targetLevels.keySet()) {
+            if (ctx.targetTopics.containsKey(targetId) || ctx.targetLevels.containsKey(targetId)) return true;
+        }
+        return false;
+    }
 
-                    // Read in the revision number
-                    final String rev = lines.poll();
-                    lineCounter++;
-                    if (rev != null) {
-                        spec.appendPreProcessedLine(rev);
+    /**
+     * Merges the results of parsing a chunk into the main context, and flushes the chunk's log messages.
+     *
+     * @param ctx      The context of the current parse.
+     * @param chunkCtx The context the chunk was parsed in.
+     */
+    private void mergeLevelChunk(final ParserContext ctx, final ParserContext chunkCtx) {
+        for (final Node node : chunkCtx.spec.getBaseLevel().getChildNodes()) {
+            if (node instanceof SpecNode) {
+                ctx.spec.getBaseLevel().appendChild(node);
+            } else if (node instanceof Comment) {
+                ctx.spec.getBaseLevel().appendComment((Comment) node);
+            }
+        }
+        for (final String line : chunkCtx.spec.getPreProcessedText()) {
+            ctx.spec.appendPreProcessedLine(line);
+        }
 
-                        final String[] revVars = CollectionUtilities.trimStringArray(StringUtilities.split(rev, '='));
-                        if (revVars.length >= 2) {
-                            if (revVars[0].equalsIgnoreCase("SpecRevision")) {
-                                // Read in the amount of spaces that were used for the content specification
-                                int specRev;
-                                try {
-                                    specRev = Integer.parseInt(revVars[1]);
-                                } catch (Exception e) {
-                                    log.error(format(ProcessorConstants.ERROR_INVALID_NUMBER_MSG, lineCounter, rev.trim()));
-                                    return false;
-                                }
-                                spec.setSpecRevision(specRev);
-                            } else {
-                                log.error(ProcessorConstants.ERROR_CS_NO_CHECKSUM_MSG);
-                                return false;
-                            }
-                        } else {
-                            log.error(format(ProcessorConstants.ERROR_INVALID_ATTRIB_FORMAT_MSG, lineCounter, rev.trim()));
-                            return false;
-                        }
-                    } else {
-                        log.error(ProcessorConstants.ERROR_INCORRECT_FILE_FORMAT_MSG);
-                        return false;
-                    }
-                } else if (lineVars[0].equals("CHECKSUM")) {
-                    if (mode == ParsingMode.NEW) {
-                        log.error(ProcessorConstants.ERROR_INCORRECT_NEW_MODE_MSG);
-                        return false;
-                    }
+        // Add the topics and relationships in line order, so the maps are iterated in the same order as a serial parse
+        for (final String uniqueId : sortByLineNumber(chunkCtx.specTopics)) {
+            ctx.specTopics.put(uniqueId, chunkCtx.specTopics.get(uniqueId));
+            if (chunkCtx.relationships.containsKey(uniqueId)) {
+                ctx.relationships.put(uniqueId, chunkCtx.relationships.get(uniqueId));
+            }
+        }
+        ctx.targetLevels.putAll(chunkCtx.targetLevels);
+        ctx.externalTargetLevels.putAll(chunkCtx.externalTargetLevels);
+        ctx.targetTopics.putAll(chunkCtx.targetTopics);
+        ctx.processes.addAll(chunkCtx.processes);
+        ctx.error |= chunkCtx.error;
+        chunkCtx.log.flush(ctx.log);
+    }
 
-                    editing = true;
-                    String checksum = lineVars[1];
-                    spec.setChecksum(checksum);
+    /**
+     * Sorts the unique ID's of a set of topics by the line number the topics were parsed from.
+     *
+     * @param specTopics The topics mapped by their unique ID's.
+     * @return The unique ID's in line order.
+     */
+    private static List<String> sortByLineNumber(final Map<String, SpecTopic> specTopics) {
+        final List<String> uniqueIds = new ArrayList<String>(specTopics.keySet());
+        Collections.sort(uniqueIds, new Comparator<String>() {
+            @Override
+            public int compare(final String uniqueId1, final String uniqueId2) {
+                final int lineNumber1 = specTopics.get(uniqueId1).getLineNumber();
+                final int lineNumber2 = specTopics.get(uniqueId2).getLineNumber();
+                return lineNumber1 < lineNumber2 ? -1 : (lineNumber1 == lineNumber2 ? 0 : 1);
+            }
+        });
+        return uniqueIds;
+    }
 
-                    // Read in the Content Spec ID
-                    final String specId = lines.poll();
-                    lineCounter++;
-                    if (specId != null) {
-                        spec.appendPreProcessedLine(specId);
+    /**
+     * A chunk of lines that contains one top level level, which is parsed in its own context so that it can be parsed at
+     * the same time as the other chunks.
+     */
+    private class LevelChunk implements Callable<Boolean> {
+        private final int startLine;
+        private final String text;
+        private final ParserContext ctx;
+
+        private LevelChunk(final ParserContext parentCtx, final int startLine, final String text) {
+            this.startLine = startLine;
+            this.text = text;
+            ctx = new ParserContext(new LogBuffer(), parentCtx.elm, parentCtx.processProcesses);
+            ctx.spaces = parentCtx.spaces;
+            ctx.lvl = ctx.spec.getBaseLevel();
+            ctx.lineCounter = startLine - 1;
+            ctx.lines = new LookaheadLineReader(new StringReader(text));
+        }
 
-                        final String[] specIdVars = CollectionUtilities.trimStringArray(StringUtilities.split(specId, '='));
-                        if (specIdVars.length >= 2) {
-                            if (specIdVars[0].equalsIgnoreCase("ID")) {
-                                int contentSpecId;
-                                try {
-                                    contentSpecId = Integer.parseInt(specIdVars[1].trim());
-                                } catch (NumberFormatException e) {
-                                    log.error(format(ProcessorConstants.ERROR_INVALID_CS_ID_FORMAT_MSG, specId.trim()));
-                                    error = true;
-                                    continue;
-                                }
-                                spec.setId(contentSpecId);
-                            } else {
-                                log.error(ProcessorConstants.ERROR_CS_NO_CHECKSUM_MSG);
-                                return false;
-                            }
-                        } else {
-                            log.error(format(ProcessorConstants.ERROR_INVALID_ATTRIB_FORMAT_MSG, lineCounter, specId.trim()));
-                            return false;
-                        }
-                    } else {
-                        log.error(ProcessorConstants.ERROR_INCORRECT_FILE_FORMAT_MSG);
-                        return false;
-                    }
-                } else {
-                    log.error(ProcessorConstants.ERROR_INCORRECT_FILE_FORMAT_MSG);
-                    return false;
-                }
-            } else {
-                log.error(ProcessorConstants.ERROR_INCORRECT_FILE_FORMAT_MSG);
-                return false;
+        /**
+         * @return False if a line has invalid indentation and the parse can't continue, otherwise true.
+         */
+        @Override
+        public Boolean call() throws Exception {
+            while (ctx.lines.peek() != null) {
+                if (!parseNextLine(ctx)) return false;
             }
+            return true;
         }
-        return !error;
     }
 
     /**
      * Processes a line of the content specification and stores it in objects
      *
+     * @param ctx  The context of the current parse.
      * @param line A line of input from the content specification
      * @return True if the line of input was processed successfully otherwise false.
      */
-    protected boolean parseLine(final String line) throws IndentationException {
-        spec.appendPreProcessedLine(line);
-        char[] tempInputChar = line.toCharArray();
-        int spaceCount = 0;
-
-        // Trim the whitespace
-        final String input = line.trim();
-        if (input.equals("")) {
-            if (lvl.getLevelType() == LevelType.BASE) {
-                spec.appendChild(new TextNode("\n"));
+    protected boolean parseLine(final ParserContext ctx, final String line) throws IndentationException, IOException {
+        ctx.spec.appendPreProcessedLine(line);
+
+        // Classify the line and trim the whitespace
+        LineLexer.TokenType tokenType = ctx.lexer.lex(line);
+        final String input = line.substring(ctx.lexer.getContentStart(), ctx.lexer.getContentEnd());
+        if (tokenType == LineLexer.TokenType.BLANK) {
+            if (ctx.lvl.getLevelType() == LevelType.BASE) {
+                ctx.spec.appendChild(new TextNode("\n"));
             } else {
-                lvl.appendChild(new TextNode("\n"));
+                ctx.lvl.appendChild(new TextNode("\n"));
             }
             return true;
-        } else if (input.startsWith("#")) {
-            if (lvl.getLevelType() == LevelType.BASE) {
-                spec.appendComment(line);
+        } else if (tokenType == LineLexer.TokenType.COMMENT) {
+            if (ctx.lvl.getLevelType() == LevelType.BASE) {
+                ctx.spec.appendComment(line);
             } else {
-                lvl.appendComment(line);
+                ctx.lvl.appendComment(line);
             }
             return true;
         }
 
-        // Count the amount of whitespace characters before any text to determine the level
-        if (Character.isWhitespace(tempInputChar[0])) {
-            for (char c : tempInputChar) {
-                if (Character.isWhitespace(c)) {
-                    spaceCount++;
-                } else break;
-            }
-            if (spaceCount % spaces != 0) {
-                log.error(format(ProcessorConstants.ERROR_INCORRECT_INDENTATION_MSG, lineCounter, input));
-                throw new IndentationException();
-            }
+        // Use the amount of whitespace characters before any text to determine the level
+        final int spaceCount = ctx.lexer.getIndentation();
+        if (spaceCount % ctx.spaces != 0) {
+            ctx.log.error(format(ProcessorConstants.ERROR_INCORRECT_INDENTATION_MSG, ctx.lineCounter, input));
+            throw new IndentationException();
         }
 
         // Move the level back one if the current level is less than the level last line
-        int curLevel = spaceCount / spaces;
-        if (curLevel > level) {
-            log.error(format(ProcessorConstants.ERROR_INCORRECT_INDENTATION_MSG, lineCounter, input));
+        int curLevel = spaceCount / ctx.spaces;
+        if (curLevel > ctx.level) {
+            ctx.log.error(format(ProcessorConstants.ERROR_INCORRECT_INDENTATION_MSG, ctx.lineCounter, input));
             throw new IndentationException();
         }
-        if (curLevel < level && !input.startsWith("#")) {
-            for (int i = (level - curLevel); i > 0; i--) {
-                if (lvl.getParent() != null) lvl = lvl.getParent();
+        if (curLevel < ctx.level) {
+            for (int i = (ctx.level - curLevel); i > 0; i--) {
+                if (ctx.lvl.getParent() != null) ctx.lvl = ctx.lvl.getParent();
             }
-            level = curLevel;
+            ctx.level = curLevel;
         }
 
-        // Process the input depending on what is parsed
-        if (isMetaDataLine(input)) {
-            return parseMetaData(input);
-        } else if (isLevelLine(input)) {
-            String tempInput[] = StringUtilities.split(input, ':', 2);
-            // Remove the whitespace from each value in the split array
-            tempInput = CollectionUtilities.trimStringArray(tempInput);
-
-            if (tempInput.length >= 1) {
-                final LevelType levelType = LevelType.getLevelType(tempInput[0]);
+        // Metadata and options are only valid at the base level, anywhere else they are treated as a topic
+        if ((tokenType == LineLexer.TokenType.METADATA || tokenType == LineLexer.TokenType.BASE_OPTIONS) && ctx.lvl.getLevelType() !=
+                LevelType.BASE) {
+            tokenType = LineLexer.TokenType.TOPIC;
+        }
 
-                // Parse the level
-                Level newLevel = parseLevel(lineCounter, levelType, input);
-                if (newLevel == null) {
-                    // Create a basic level so the rest of the spec can be processed
-                    newLevel = createEmptyLevelFromType(lineCounter, levelType, input);
-                }
+        // Process the input depending on what is parsed
+        if (tokenType == LineLexer.TokenType.METADATA) {
+            return parseMetaData(ctx, input);
+        } else if (tokenType == LineLexer.TokenType.LEVEL) {
+            final LevelType levelType = ctx.lexer.getLevelType();
+
+            // Parse the level
+            Level newLevel = parseLevel(ctx, ctx.lineCounter, levelType, input);
+            if (newLevel == null) {
+                // Create a basic level so the rest of the spec can be processed
+                newLevel = createEmptyLevelFromType(ctx.lineCounter, levelType, input);
+            }
 
-                // Change the current level
-                level = curLevel + 1;
-                lvl.appendChild(newLevel);
-                lvl = newLevel;
+            // Change the current level
+            ctx.level = curLevel + 1;
+            ctx.lvl.appendChild(newLevel);
+            ctx.lvl = newLevel;
 
-                // If the level is a process then add it to the list of processes
-                if (levelType == LevelType.PROCESS) {
-                    processes.add((Process) newLevel);
-                }
-            } else {
-                log.error(format(ProcessorConstants.ERROR_LEVEL_FORMAT_MSG, lineCounter, input));
-                return false;
+            // If the level is a process then add it to the list of processes
+            if (levelType == LevelType.PROCESS) {
+                ctx.processes.add((Process) newLevel);
             }
-        } else if (input.toUpperCase().matches("^CS[ ]*:.*")) {
+        } else if (tokenType == LineLexer.TokenType.CS_INCLUDE) {
             String splitVars[] = StringUtilities.split(input, ':', 2);
             // Remove the whitespace from each value in the split array
             splitVars = CollectionUtilities.trimStringArray(splitVars);
@@ -571,47 +1602,47 @@ public class ContentSpecParser {
             // Get the mapping of variables
             HashMap<RelationshipType, String[]> variableMap;
             try {
-                variableMap = getLineVariables(splitVars[1], '[', ']', ',', false);
+                variableMap = getLineVariables(ctx, splitVars[1], '[', ']', ',', false);
                 final String title = ProcessorUtilities.replaceEscapeChars(getTitle(splitVars[1], '['));
-                processExternalLevel(lvl, variableMap.get(RelationshipType.EXTERNAL_CONTENT_SPEC)[0], title, input);
+                processExternalLevel(ctx, ctx.lvl, variableMap.get(RelationshipType.EXTERNAL_CONTENT_SPEC)[0], title, input);
             } catch (Exception e) {
-                log.error(e.getMessage());
+                ctx.log.error(e.getMessage());
                 return false;
             }
-        } else if (StringUtilities.indexOf(input, '[') == 0 && lvl.getLevelType() == LevelType.BASE) {
+        } else if (tokenType == LineLexer.TokenType.BASE_OPTIONS) {
             // Read in the variables from the line
             String[] variables;
             try {
-                final HashMap<RelationshipType, String[]> variableMap = getLineVariables(input, '[', ']', ',', false);
+                final HashMap<RelationshipType, String[]> variableMap = getLineVariables(ctx, input, '[', ']', ',', false);
                 // Check the read in values are valid
                 if (!variableMap.containsKey(RelationshipType.NONE)) {
-                    log.error(format(ProcessorConstants.ERROR_INVALID_ATTRIB_FORMAT_MSG, lineCounter, input));
+                    ctx.log.error(format(ProcessorConstants.ERROR_INVALID_ATTRIB_FORMAT_MSG, ctx.lineCounter, input));
                     return false;
                 } else if (variableMap.size() > 1) {
-                    log.error(format(ProcessorConstants.ERROR_RELATIONSHIP_BASE_LEVEL_MSG, lineCounter, input));
+                    ctx.log.error(format(ProcessorConstants.ERROR_RELATIONSHIP_BASE_LEVEL_MSG, ctx.lineCounter, input));
                     return false;
                 }
                 variables = variableMap.get(RelationshipType.NONE);
             } catch (Exception e) {
-                log.error(e.getMessage());
+                ctx.log.error(e.getMessage());
                 return false;
             }
 
             // Check that some options were found, if so then parse them
             if (variables.length > 0) {
-                if (!addOptions(lvl, variables, 0, input)) return false;
+                if (!addOptions(ctx, ctx.lvl, variables, 0, input)) return false;
             } else {
-                log.warn(format(ProcessorConstants.WARN_EMPTY_BRACKETS_MSG, lineCounter));
+                ctx.log.warn(format(ProcessorConstants.WARN_EMPTY_BRACKETS_MSG, ctx.lineCounter));
             }
         } else {
             // Process a new topic
-            final SpecTopic tempTopic = parseTopic(input);
+            final SpecTopic tempTopic = parseTopic(ctx, input);
             if (tempTopic == null) {
                 return false;
             }
 
             // Adds the topic to the current level
-            lvl.appendSpecTopic(tempTopic);
+            ctx.lvl.appendSpecTopic(tempTopic);
         }
         return true;
     }
@@ -619,25 +1650,26 @@ public class ContentSpecParser {
     /**
      * Processes the input to create a new topic
      *
+     * @param ctx   The context of the current parse.
      * @param input The line of input to be processed
      * @return A topics object initialised with the data from the input line.
      */
-    protected SpecTopic parseTopic(final String input) {
-        final SpecTopic tempTopic = new SpecTopic(null, lineCounter, input, null);
+    protected SpecTopic parseTopic(final ParserContext ctx, final String input) {
+        final SpecTopic tempTopic = new SpecTopic(null, ctx.lineCounter, input, null);
 
         // Process a new topic
         String[] variables;
         // Read in the variables inside of the brackets
         HashMap<RelationshipType, String[]> variableMap;
         try {
-            variableMap = getLineVariables(input, '[', ']', ',', false);
+            variableMap = getLineVariables(ctx, input, '[', ']', ',', false);
             if (!variableMap.containsKey(RelationshipType.NONE)) {
-                log.error(format(ProcessorConstants.ERROR_INVALID_ATTRIB_FORMAT_MSG, lineCounter, input));
+                ctx.log.error(format(ProcessorConstants.ERROR_INVALID_ATTRIB_FORMAT_MSG, ctx.lineCounter, input));
                 return null;
             }
             variables = variableMap.get(RelationshipType.NONE);
         } catch (Exception e) {
-            log.error(e.getMessage());
+            ctx.log.error(e.getMessage());
             return null;
         }
         int varStartPos = 2;
@@ -645,29 +1677,31 @@ public class ContentSpecParser {
         // Process and validate the Types & ID
         if (variables.length >= 2) {
             // Check the type and the set it
-            if (variables[0].matches(CSConstants.NEW_TOPIC_ID_REGEX)) {
-                if (variables[1].matches("^C:[ ]*[0-9]+$")) {
-                    variables[0] = "C" + variables[1].replaceAll("^C:[ ]*", "");
+            final TopicIdKind idKind = TopicIdKind.classify(variables[0]);
+            if (idKind == TopicIdKind.NEW) {
+                final Matcher clonedTypeMatcher = CLONED_TYPE_PATTERN.matcher(variables[1]);
+                if (clonedTypeMatcher.matches()) {
+                    variables[0] = "C" + clonedTypeMatcher.group("ClonedId");
                 } else {
                     tempTopic.setType(ProcessorUtilities.replaceEscapeChars(variables[1]));
                 }
             }
             // If we have two variables for a existing topic then check to see if the second variable is the revision
-            else if (variables[0].matches(CSConstants.EXISTING_TOPIC_ID_REGEX)) {
+            else if (idKind == TopicIdKind.EXISTING) {
                 if (variables[1].toLowerCase().startsWith("rev")) {
                     // Ensure that the attribute syntax is correct
-                    if (variables[1].toLowerCase().matches("rev[ ]*:[ ]*\\d+")) {
+                    if (REVISION_PATTERN.matcher(variables[1].toLowerCase()).matches()) {
                         String[] vars = variables[1].split(":");
                         vars = CollectionUtilities.trimStringArray(vars);
 
                         try {
                             tempTopic.setRevision(Integer.parseInt(vars[1]));
                         } catch (NumberFormatException ex) {
-                            log.error(format(ProcessorConstants.ERROR_TOPIC_INVALID_REVISION_FORMAT, lineCounter, input));
+                            ctx.log.error(format(ProcessorConstants.ERROR_TOPIC_INVALID_REVISION_FORMAT, ctx.lineCounter, input));
                             return null;
                         }
                     } else {
-                        log.error(format(ProcessorConstants.ERROR_INVALID_ATTRIB_FORMAT_MSG, lineCounter, input));
+                        ctx.log.error(format(ProcessorConstants.ERROR_INVALID_ATTRIB_FORMAT_MSG, ctx.lineCounter, input));
                         return null;
                     }
                 } else {
@@ -677,18 +1711,17 @@ public class ContentSpecParser {
                 varStartPos = 1;
             }
         } else if (variables.length == 1) {
-            if (!variables[0].matches("(" + CSConstants.DUPLICATE_TOPIC_ID_REGEX + ")|(" + CSConstants.CLONED_TOPIC_ID_REGEX + ")|(" +
-                    CSConstants.EXISTING_TOPIC_ID_REGEX + ")|(" + CSConstants.NEW_TOPIC_ID_REGEX + ")|(" +
-                    CSConstants.CLONED_DUPLICATE_TOPIC_ID_REGEX + ")")) {
-                log.error(format(ProcessorConstants.ERROR_INVALID_TITLE_ID_MSG, lineCounter, input));
+            final TopicIdKind idKind = TopicIdKind.classify(variables[0]);
+            if (!idKind.isValid()) {
+                ctx.log.error(format(ProcessorConstants.ERROR_INVALID_TITLE_ID_MSG, ctx.lineCounter, input));
                 return null;
-            } else if (variables[0].matches(CSConstants.NEW_TOPIC_ID_REGEX)) {
-                log.error(format(ProcessorConstants.ERROR_INVALID_TYPE_TITLE_ID_MSG, lineCounter, input));
+            } else if (idKind == TopicIdKind.NEW) {
+                ctx.log.error(format(ProcessorConstants.ERROR_INVALID_TYPE_TITLE_ID_MSG, ctx.lineCounter, input));
                 return null;
             }
             varStartPos = 1;
         } else {
-            log.error(format(ProcessorConstants.ERROR_INVALID_TITLE_ID_MSG, lineCounter, input));
+            ctx.log.error(format(ProcessorConstants.ERROR_INVALID_TITLE_ID_MSG, ctx.lineCounter, input));
             return null;
         }
 
@@ -704,38 +1737,35 @@ public class ContentSpecParser {
          * duplicated then just set the id (e.g. N1). Otherwise create the Unique ID
          * using the line number and topic ID.
          */
+        final TopicIdKind idKind = TopicIdKind.classify(variables[0]);
         String uniqueId = variables[0];
-        if (variables[0].matches(CSConstants.NEW_TOPIC_ID_REGEX) && !variables[0].equals("N") && !specTopics.containsKey(variables[0])) {
-            specTopics.put(uniqueId, tempTopic);
-        } else if (variables[0].equals("N") || variables[0].matches(CSConstants.DUPLICATE_TOPIC_ID_REGEX) ||
-                variables[0].matches(CSConstants.CLONED_DUPLICATE_TOPIC_ID_REGEX) || variables[0].matches(
-                CSConstants.CLONED_TOPIC_ID_REGEX) || variables[0].matches(CSConstants.EXISTING_TOPIC_ID_REGEX)) {
-            uniqueId = Integer.toString(lineCounter) + "-" + variables[0];
-            specTopics.put(uniqueId, tempTopic);
+        if (idKind == TopicIdKind.NEW && !variables[0].equals("N") && !ctx.specTopics.containsKey(variables[0])) {
+            ctx.specTopics.put(uniqueId, tempTopic);
+        } else if (variables[0].equals("N") || (idKind.isValid() && idKind != TopicIdKind.NEW)) {
+            uniqueId = Integer.toString(ctx.lineCounter) + "-" + variables[0];
+            ctx.specTopics.put(uniqueId, tempTopic);
         } else if (variables[0].startsWith("N")) {
-            log.error(format(ProcessorConstants.ERROR_DUPLICATE_ID_MSG, lineCounter, variables[0], input));
+            ctx.log.error(format(ProcessorConstants.ERROR_DUPLICATE_ID_MSG, ctx.lineCounter, variables[0], input));
             return null;
         } else {
-            log.error(format(ProcessorConstants.ERROR_INVALID_TOPIC_ID_MSG, lineCounter, input));
+            ctx.log.error(format(ProcessorConstants.ERROR_INVALID_TOPIC_ID_MSG, ctx.lineCounter, input));
             return null;
         }
         tempTopic.setUniqueId(uniqueId);
 
         // Get the options if the topic is a new or cloned topic
-        if (variables[0].matches("(" + CSConstants.NEW_TOPIC_ID_REGEX + ")|(" + CSConstants.CLONED_TOPIC_ID_REGEX +
-                ")|(" + CSConstants.EXISTING_TOPIC_ID_REGEX + ")")) {
-            if (!addOptions(tempTopic, variables, varStartPos, input)) {
+        if (idKind == TopicIdKind.NEW || idKind == TopicIdKind.CLONED || idKind == TopicIdKind.EXISTING) {
+            if (!addOptions(ctx, tempTopic, variables, varStartPos, input)) {
                 return null;
             }
             // Display warnings if options are specified for existing or duplicated topics
         } else if (variables.length > varStartPos) {
-            if (variables[0].matches(CSConstants.DUPLICATE_TOPIC_ID_REGEX) || variables[0].matches(
-                    CSConstants.CLONED_DUPLICATE_TOPIC_ID_REGEX)) {
-                log.warn(format(ProcessorConstants.WARN_IGNORE_DUP_INFO_MSG, lineCounter, input));
+            if (idKind == TopicIdKind.DUPLICATE || idKind == TopicIdKind.CLONED_DUPLICATE) {
+                ctx.log.warn(format(ProcessorConstants.WARN_IGNORE_DUP_INFO_MSG, ctx.lineCounter, input));
             }
         }
 
-        if (!processTopicRelationships(tempTopic, variableMap, input)) {
+        if (!processTopicRelationships(ctx, tempTopic, variableMap, input)) {
             return null;
         }
 
@@ -743,35 +1773,31 @@ public class ContentSpecParser {
     }
 
     /**
+     * @param ctx
      * @param tempTopic
      * @param variableMap
      * @param input
      * @return
      */
-    protected boolean processTopicRelationships(final SpecTopic tempTopic, final HashMap<RelationshipType, String[]> variableMap,
-            final String input) {
+    protected boolean processTopicRelationships(final ParserContext ctx, final SpecTopic tempTopic,
+            final HashMap<RelationshipType, String[]> variableMap, final String input) {
         // Process the relationships
         final String uniqueId = tempTopic.getUniqueId();
         final ArrayList<Relationship> topicRelationships = new ArrayList<Relationship>();
         if (variableMap.containsKey(RelationshipType.REFER_TO)) {
             final String[] related = variableMap.get(RelationshipType.REFER_TO);
             for (final String relatedId : related) {
-                if (relatedId.matches(ProcessorConstants.RELATION_ID_REGEX)) {
+                final String[] longId;
+                if (RelationshipLexer.isRelationshipId(relatedId)) {
                     topicRelationships.add(new Relationship(uniqueId, relatedId, RelationshipType.REFER_TO));
-                } else if (relatedId.matches(ProcessorConstants.RELATION_ID_LONG_REGEX)) {
-                    final Matcher matcher = RELATIONSHIP_ID_LONG_PATTERN.matcher(relatedId);
-
-                    matcher.find();
-                    final String id = matcher.group("TopicID");
-                    final String relationshipTitle = matcher.group("TopicTitle").trim();
-
-                    topicRelationships.add(new Relationship(uniqueId, id, RelationshipType.REFER_TO, relationshipTitle));
+                } else if ((longId = RelationshipLexer.splitLongRelationshipId(relatedId)) != null) {
+                    final String relationshipTitle = longId[0].trim();
+                    topicRelationships.add(new Relationship(uniqueId, longId[1], RelationshipType.REFER_TO, relationshipTitle));
                 } else {
-                    if (relatedId.matches("^(" + ProcessorConstants.TARGET_BASE_REGEX + "|[0-9]+).*?(" +
-                            ProcessorConstants.TARGET_BASE_REGEX + "|[0-9]+).*")) {
-                        log.error(format(ProcessorConstants.ERROR_MISSING_SEPARATOR_MSG, lineCounter, ','));
+                    if (RelationshipLexer.containsMultipleRelationshipIds(relatedId)) {
+                        ctx.log.error(format(ProcessorConstants.ERROR_MISSING_SEPARATOR_MSG, ctx.lineCounter, ','));
                     } else {
-                        log.error(format(ProcessorConstants.ERROR_INVALID_REFERS_TO_RELATIONSHIP, lineCounter));
+                        ctx.log.error(format(ProcessorConstants.ERROR_INVALID_REFERS_TO_RELATIONSHIP, ctx.lineCounter));
                     }
                     return false;
                 }
@@ -781,22 +1807,17 @@ public class ContentSpecParser {
         if (variableMap.containsKey(RelationshipType.PREREQUISITE)) {
             final String[] prerequisites = variableMap.get(RelationshipType.PREREQUISITE);
             for (final String prerequisiteId : prerequisites) {
-                if (prerequisiteId.matches(ProcessorConstants.RELATION_ID_REGEX)) {
+                final String[] longId;
+                if (RelationshipLexer.isRelationshipId(prerequisiteId)) {
                     topicRelationships.add(new Relationship(uniqueId, prerequisiteId, RelationshipType.PREREQUISITE));
-                } else if (prerequisiteId.matches(ProcessorConstants.RELATION_ID_LONG_REGEX)) {
-                    final Matcher matcher = RELATIONSHIP_ID_LONG_PATTERN.matcher(prerequisiteId);
-
-                    matcher.find();
-                    final String id = matcher.group("TopicID");
-                    final String relationshipTitle = matcher.group("TopicTitle");
-
-                    topicRelationships.add(new Relationship(uniqueId, id, RelationshipType.PREREQUISITE, relationshipTitle.trim()));
+                } else if ((longId = RelationshipLexer.splitLongRelationshipId(prerequisiteId)) != null) {
+                    final String relationshipTitle = longId[0].trim();
+                    topicRelationships.add(new Relationship(uniqueId, longId[1], RelationshipType.PREREQUISITE, relationshipTitle));
                 } else {
-                    if (prerequisiteId.matches("^(" + ProcessorConstants.TARGET_BASE_REGEX + "|[0-9]+).*?(" +
-                            ProcessorConstants.TARGET_BASE_REGEX + "|[0-9]+).*")) {
-                        log.error(format(ProcessorConstants.ERROR_MISSING_SEPARATOR_MSG, lineCounter, ','));
+                    if (RelationshipLexer.containsMultipleRelationshipIds(prerequisiteId)) {
+                        ctx.log.error(format(ProcessorConstants.ERROR_MISSING_SEPARATOR_MSG, ctx.lineCounter, ','));
                     } else {
-                        log.error(format(ProcessorConstants.ERROR_INVALID_PREREQUISITE_RELATIONSHIP, lineCounter));
+                        ctx.log.error(format(ProcessorConstants.ERROR_INVALID_PREREQUISITE_RELATIONSHIP, ctx.lineCounter));
                     }
                     return false;
                 }
@@ -806,22 +1827,17 @@ public class ContentSpecParser {
         if (variableMap.containsKey(RelationshipType.LINKLIST)) {
             final String[] linkLists = variableMap.get(RelationshipType.LINKLIST);
             for (final String linkListId : linkLists) {
-                if (linkListId.matches(ProcessorConstants.RELATION_ID_REGEX)) {
+                final String[] longId;
+                if (RelationshipLexer.isRelationshipId(linkListId)) {
                     topicRelationships.add(new Relationship(uniqueId, linkListId, RelationshipType.LINKLIST));
-                } else if (linkListId.matches(ProcessorConstants.RELATION_ID_LONG_REGEX)) {
-                    final Matcher matcher = RELATIONSHIP_ID_LONG_PATTERN.matcher(linkListId);
-
-                    matcher.find();
-                    final String id = matcher.group("TopicID");
-                    final String relationshipTitle = matcher.group("TopicTitle");
-
-                    topicRelationships.add(new Relationship(uniqueId, id, RelationshipType.LINKLIST, relationshipTitle.trim()));
+                } else if ((longId = RelationshipLexer.splitLongRelationshipId(linkListId)) != null) {
+                    final String relationshipTitle = longId[0].trim();
+                    topicRelationships.add(new Relationship(uniqueId, longId[1], RelationshipType.LINKLIST, relationshipTitle));
                 } else {
-                    if (linkListId.matches("^(" + ProcessorConstants.TARGET_BASE_REGEX + "|[0-9]+).*?(" +
-                            ProcessorConstants.TARGET_BASE_REGEX + "|[0-9]+).*")) {
-                        log.error(format(ProcessorConstants.ERROR_MISSING_SEPARATOR_MSG, lineCounter, ','));
+                    if (RelationshipLexer.containsMultipleRelationshipIds(linkListId)) {
+                        ctx.log.error(format(ProcessorConstants.ERROR_MISSING_SEPARATOR_MSG, ctx.lineCounter, ','));
                     } else {
-                        log.error(format(ProcessorConstants.ERROR_INVALID_LINK_LIST_RELATIONSHIP, lineCounter));
+                        ctx.log.error(format(ProcessorConstants.ERROR_INVALID_LINK_LIST_RELATIONSHIP, ctx.lineCounter));
                     }
                     return false;
                 }
@@ -830,7 +1846,7 @@ public class ContentSpecParser {
 
         // Next and Previous relationships should only be created internally and shouldn't be specified by the user
         if (variableMap.containsKey(RelationshipType.NEXT) || variableMap.containsKey(RelationshipType.PREVIOUS)) {
-            log.error(format(ProcessorConstants.ERROR_TOPIC_NEXT_PREV_MSG, lineCounter, input));
+            ctx.log.error(format(ProcessorConstants.ERROR_TOPIC_NEXT_PREV_MSG, ctx.lineCounter, input));
             return false;
         }
 
@@ -850,22 +1866,22 @@ public class ContentSpecParser {
 
         // Add the relationships to the global list if any exist
         if (!topicRelationships.isEmpty()) {
-            relationships.put(uniqueId, topicRelationships);
+            ctx.relationships.put(uniqueId, topicRelationships);
         }
 
         // Process targets
         if (variableMap.containsKey(RelationshipType.TARGET)) {
             final String targetId = variableMap.get(RelationshipType.TARGET)[0];
-            if (targetTopics.containsKey(targetId)) {
-                log.error(format(ProcessorConstants.ERROR_DUPLICATE_TARGET_ID_MSG, targetTopics.get(targetId).getLineNumber(),
-                        targetTopics.get(targetId).getText(), lineCounter, input));
+            if (ctx.targetTopics.containsKey(targetId)) {
+                ctx.log.error(format(ProcessorConstants.ERROR_DUPLICATE_TARGET_ID_MSG, ctx.targetTopics.get(targetId).getLineNumber(),
+                        ctx.targetTopics.get(targetId).getText(), ctx.lineCounter, input));
                 return false;
-            } else if (targetLevels.containsKey(targetId)) {
-                log.error(format(ProcessorConstants.ERROR_DUPLICATE_TARGET_ID_MSG, targetLevels.get(targetId).getLineNumber(),
-                        targetLevels.get(targetId).getText(), lineCounter, input));
+            } else if (ctx.targetLevels.containsKey(targetId)) {
+                ctx.log.error(format(ProcessorConstants.ERROR_DUPLICATE_TARGET_ID_MSG, ctx.targetLevels.get(targetId).getLineNumber(),
+                        ctx.targetLevels.get(targetId).getText(), ctx.lineCounter, input));
                 return false;
             } else {
-                targetTopics.put(targetId, tempTopic);
+                ctx.targetTopics.put(targetId, tempTopic);
                 tempTopic.setTargetId(targetId);
             }
         }
@@ -873,14 +1889,14 @@ public class ContentSpecParser {
         // Throw an error for external targets
         if (variableMap.containsKey(RelationshipType.EXTERNAL_TARGET)) {
             // TODO Log an error
-            log.error("Unable to use external targets on topics.");
+            ctx.log.error("Unable to use external targets on topics.");
             return false;
         }
 
         // Throw an error for external content spec injections
         if (variableMap.containsKey(RelationshipType.EXTERNAL_CONTENT_SPEC)) {
             // TODO Log an error
-            log.error("Unable to use external content specs as topics.");
+            ctx.log.error("Unable to use external content specs as topics.");
             return false;
         }
 
@@ -890,11 +1906,12 @@ public class ContentSpecParser {
     /**
      * Checks to see if a line is represents a Content Specifications Meta Data.
      *
+     * @param ctx  The context of the current parse.
      * @param line The line to be checked.
      * @return True if the line is meta data, otherwise false.
      */
-    protected boolean isMetaDataLine(String line) {
-        return lvl.getLevelType() == LevelType.BASE && META_DATA_LINE_PATTERN.matcher(line.trim()).matches();
+    protected boolean isMetaDataLine(final ParserContext ctx, String line) {
+        return ctx.lvl.getLevelType() == LevelType.BASE && LineLexer.isMetaData(line);
     }
 
     /**
@@ -904,252 +1921,303 @@ public class ContentSpecParser {
      * @return True if the line is meta data, otherwise false.
      */
     protected boolean isLevelLine(String line) {
-        final Matcher matcher = LEVEL_PATTERN.matcher(line.trim().toUpperCase(Locale.ENGLISH));
-        return matcher.find();
+        return LineLexer.getLevelType(line) != null;
     }
 
     /**
      * Parse the metadata and set the appropriate value.
      *
+     * @param ctx   The context of the current parse.
      * @param input The MetaData input line to be parsed.
      * @return True if the input line was parsed successfully, otherwise false.
+     * @throws IOException Thrown if a problem occurs reading a new line.
      */
-    protected boolean parseMetaData(final String input) {
-        final String upperCaseInput = input.toUpperCase();
+    protected boolean parseMetaData(final ParserContext ctx, final String input) throws IOException {
         // Split the input to get the key value pair and remove the whitespace from each value in the split array
         final String tempInput[] = CollectionUtilities.trimStringArray(StringUtilities.split(input, '=', 2));
         if (tempInput.length >= 2) {
+            final MetaDataKey key = MetaDataKey.getMetaDataKey(tempInput[0]);
+            if (key == null) {
+                // Unknown metadata is ignored
+                return true;
+            }
+
             final String escapedValue = ProcessorUtilities.replaceEscapeChars(tempInput[1]);
-            if (ProcessorConstants.CHECKSUM_PATTERN.matcher(upperCaseInput).matches()) {
-                log.error(format(ProcessorConstants.ERROR_CS_INVALID_CHECKSUM_MSG, lineCounter));
-                return false;
-            } else if (ProcessorConstants.SUBTITLE_PATTERN.matcher(upperCaseInput).matches()) {
-                spec.setSubtitle(escapedValue);
-            } else if (ProcessorConstants.EDITION_PATTERN.matcher(upperCaseInput).matches()) {
-                spec.setEdition(escapedValue);
-            } else if (ProcessorConstants.PUBSNUMBER_PATTERN.matcher(upperCaseInput).matches()) {
-                try {
-                    spec.setPubsNumber(Integer.parseInt(tempInput[1]));
-                } catch (NumberFormatException e) {
-                    log.error(format(ProcessorConstants.ERROR_INVALID_NUMBER_MSG, lineCounter, input));
-                    return false;
-                }
-            } else if (ProcessorConstants.PRODUCT_PATTERN.matcher(upperCaseInput).matches()) {
-                spec.setProduct(escapedValue);
-            } else if (ProcessorConstants.ABSTRACT_PATTERN.matcher(upperCaseInput).matches()) {
-                spec.setAbstract(escapedValue);
-            } else if (ProcessorConstants.COPYRIGHT_HOLDER_PATTERN.matcher(upperCaseInput).matches()) {
-                spec.setCopyrightHolder(escapedValue);
-            } else if (ProcessorConstants.COPYRIGHT_YEAR_PATTERN.matcher(upperCaseInput).matches()) {
-                spec.setCopyrightYear(escapedValue);
-            } else if (ProcessorConstants.VERSION_PATTERN.matcher(upperCaseInput).matches()) {
-                spec.setVersion(escapedValue);
-            } else if (ProcessorConstants.BRAND_PATTERN.matcher(upperCaseInput).matches()) {
-                spec.setBrand(escapedValue);
-            } else if (ProcessorConstants.BUG_LINKS_PATTERN.matcher(upperCaseInput).matches()) {
-                if (tempInput[1].equalsIgnoreCase("OFF")) {
-                    spec.setInjectBugLinks(false);
-                } else if (!tempInput[1].equalsIgnoreCase("ON")) {
-                    log.error(format(ProcessorConstants.ERROR_INVALID_BUG_LINKS_MSG, lineCounter, input));
-                    return false;
-                }
-            } else if (ProcessorConstants.BUGZILLA_PRODUCT_PATTERN.matcher(upperCaseInput).matches()) {
-                spec.setBugzillaProduct(escapedValue);
-            } else if (ProcessorConstants.BUGZILLA_COMPONENT_PATTERN.matcher(upperCaseInput).matches()) {
-                spec.setBugzillaComponent(escapedValue);
-            } else if (ProcessorConstants.BUGZILLA_VERSION_PATTERN.matcher(upperCaseInput).matches()) {
-                spec.setBugzillaVersion(escapedValue);
-            } else if (ProcessorConstants.BUGZILLA_KEYWORDS_PATTERN.matcher(upperCaseInput).matches()) {
-                spec.setBugzillaKeywords(escapedValue);
-            } else if (ProcessorConstants.BUGZILLA_ASSIGNEE_PATTERN.matcher(upperCaseInput).matches()) {
-                if (tempInput[1].equalsIgnoreCase("OFF")) {
-                    spec.setInjectBugzillaAssignee(false);
-                } else if (!tempInput[1].equalsIgnoreCase("ON")) {
-                    log.error(format(ProcessorConstants.ERROR_INVALID_BUGZILLA_ASSIGNEE_MSG, lineCounter, input));
-                    return false;
-                }
-            } else if (ProcessorConstants.BOOK_TYPE_PATTERN.matcher(upperCaseInput).matches()) {
-                if (ProcessorConstants.VALID_BOOK_TYPE_PATTERN.matcher(escapedValue.toUpperCase()).matches()) {
-                    spec.setBookType(BookType.getBookType(escapedValue));
-                } else {
-                    log.error(ProcessorConstants.ERROR_INVALID_BOOK_TYPE_MSG);
-                    return false;
-                }
-            } else if (ProcessorConstants.BRAND_LOGO_PATTERN.matcher(upperCaseInput).matches()) {
-                spec.setBrandLogo(escapedValue);
-            } else if (ProcessorConstants.REV_HISTORY_PATTERN.matcher(upperCaseInput).matches()) {
-                final SpecTopic specTopic = getSpecTopicMetaData(tempInput[1], CSConstants.REV_HISTORY_TITLE);
-                if (specTopic != null) {
-                    specTopic.setTopicType(TopicType.REVISION_HISTORY);
-                    spec.setRevisionHistory(specTopic);
-                } else {
-                    return false;
-                }
-            } else if (ProcessorConstants.FEEDBACK_PATTERN.matcher(upperCaseInput).matches()) {
-                final SpecTopic specTopic = getSpecTopicMetaData(tempInput[1], CSConstants.FEEDBACK_TITLE);
-                if (specTopic != null) {
-                    specTopic.setTopicType(TopicType.FEEDBACK);
-                    spec.setFeedback(specTopic);
-                } else {
-                    return false;
-                }
-            } else if (ProcessorConstants.LEGAL_NOTICE_PATTERN.matcher(upperCaseInput).matches()) {
-                final SpecTopic specTopic = getSpecTopicMetaData(tempInput[1], CSConstants.LEGAL_NOTICE);
-                if (specTopic != null) {
-                    specTopic.setTopicType(TopicType.LEGAL_NOTICE);
-                    spec.setLegalNotice(specTopic);
-                } else {
-                    return false;
-                }
-            } else if (ProcessorConstants.MAVEN_ARTIFACT_ID_PATTERN.matcher(upperCaseInput).matches()) {
-                spec.setArtifactId(escapedValue);
-            } else if (ProcessorConstants.MAVEN_GROUP_ID_PATTERN.matcher(upperCaseInput).matches()) {
-                spec.setGroupId(escapedValue);
-            } else if (ProcessorConstants.BOOK_VERSION_PATTERN.matcher(upperCaseInput).matches()) {
-                spec.setBookVersion(escapedValue);
-            } else if (ProcessorConstants.SURVEY_LINK_PATTERN.matcher(upperCaseInput).matches()) {
-                if (tempInput[1].equalsIgnoreCase("ON")) {
-                    spec.setInjectSurveyLinks(true);
-                } else if (!tempInput[1].equalsIgnoreCase("OFF")) {
-                    log.error(format(ProcessorConstants.ERROR_INVALID_SURVEY_LINKS_MSG, lineCounter, input));
+            switch (key) {
+                case CHECKSUM:
+                    ctx.log.error(format(ProcessorConstants.ERROR_CS_INVALID_CHECKSUM_MSG, ctx.lineCounter));
                     return false;
-                }
-            } else if (ProcessorConstants.PUBLICAN_CFG_PATTERN.matcher(upperCaseInput).matches()) {
-                int startingPos = StringUtilities.indexOf(tempInput[1], '[');
-                if (startingPos != -1) {
-                    final StringBuilder cfg = new StringBuilder(tempInput[1]);
-                    int startLineCount = lineCounter;
-                    // If the ']' character isn't on this line try the next line
-                    if (StringUtilities.indexOf(cfg.toString(), ']') == -1) {
-                        cfg.append("\n");
-
-                        // Read the next line and increment counters
-                        String newLine = lines.poll();
-                        while (newLine != null) {
-                            cfg.append(newLine).append("\n");
-                            lineCounter++;
-                            spec.appendPreProcessedLine(newLine);
-                            // If the ']' character still isn't found keep trying
-                            if (StringUtilities.lastIndexOf(cfg.toString(), ']') == -1) {
-                                newLine = lines.poll();
-                            } else {
-                                break;
-                            }
-                        }
+                case SUBTITLE:
+                    ctx.spec.setSubtitle(escapedValue);
+                    break;
+                case EDITION:
+                    ctx.spec.setEdition(escapedValue);
+                    break;
+                case PUBSNUMBER:
+                    try {
+                        ctx.spec.setPubsNumber(Integer.parseInt(tempInput[1]));
+                    } catch (NumberFormatException e) {
+                        ctx.log.error(format(ProcessorConstants.ERROR_INVALID_NUMBER_MSG, ctx.lineCounter, input));
+                        return false;
                     }
-
-                    final String finalCfg = cfg.toString().trim();
-
-                    // Check that the ']' character was found and that it was found before another '[' character
-                    if (StringUtilities.lastIndexOf(finalCfg, ']') == -1 || StringUtilities.lastIndexOf(finalCfg, '[') != startingPos) {
-                        log.error(format(ProcessorConstants.ERROR_INVALID_PUBLICAN_CFG_MSG, startLineCount,
-                                tempInput[0] + " = " + finalCfg.replaceAll("\n", "\n          ")));
+                    break;
+                case PRODUCT:
+                    ctx.spec.setProduct(escapedValue);
+                    break;
+                case ABSTRACT:
+                    ctx.spec.setAbstract(escapedValue);
+                    break;
+                case COPYRIGHT_HOLDER:
+                    ctx.spec.setCopyrightHolder(escapedValue);
+                    break;
+                case COPYRIGHT_YEAR:
+                    ctx.spec.setCopyrightYear(escapedValue);
+                    break;
+                case VERSION:
+                    ctx.spec.setVersion(escapedValue);
+                    break;
+                case BRAND:
+                    ctx.spec.setBrand(escapedValue);
+                    break;
+                case BUG_LINKS:
+                    if (tempInput[1].equalsIgnoreCase("OFF")) {
+                        ctx.spec.setInjectBugLinks(false);
+                    } else if (!tempInput[1].equalsIgnoreCase("ON")) {
+                        ctx.log.error(format(ProcessorConstants.ERROR_INVALID_BUG_LINKS_MSG, ctx.lineCounter, input));
+                        return false;
+                    }
+                    break;
+                case BUGZILLA_PRODUCT:
+                    ctx.spec.setBugzillaProduct(escapedValue);
+                    break;
+                case BUGZILLA_COMPONENT:
+                    ctx.spec.setBugzillaComponent(escapedValue);
+                    break;
+                case BUGZILLA_VERSION:
+                    ctx.spec.setBugzillaVersion(escapedValue);
+                    break;
+                case BUGZILLA_KEYWORDS:
+                    ctx.spec.setBugzillaKeywords(escapedValue);
+                    break;
+                case BUGZILLA_ASSIGNEE:
+                    if (tempInput[1].equalsIgnoreCase("OFF")) {
+                        ctx.spec.setInjectBugzillaAssignee(false);
+                    } else if (!tempInput[1].equalsIgnoreCase("ON")) {
+                        ctx.log.error(format(ProcessorConstants.ERROR_INVALID_BUGZILLA_ASSIGNEE_MSG, ctx.lineCounter, input));
+                        return false;
+                    }
+                    break;
+                case BOOK_TYPE:
+                    if (ProcessorConstants.VALID_BOOK_TYPE_PATTERN.matcher(escapedValue.toUpperCase()).matches()) {
+                        ctx.spec.setBookType(BookType.getBookType(escapedValue));
+                    } else {
+                        ctx.log.error(ProcessorConstants.ERROR_INVALID_BOOK_TYPE_MSG);
                         return false;
+                    }
+                    break;
+                case BRAND_LOGO:
+                    ctx.spec.setBrandLogo(escapedValue);
+                    break;
+                case REVISION_HISTORY: {
+                    final SpecTopic specTopic = getSpecTopicMetaData(ctx, tempInput[1], CSConstants.REV_HISTORY_TITLE);
+                    if (specTopic != null) {
+                        specTopic.setTopicType(TopicType.REVISION_HISTORY);
+                        ctx.spec.setRevisionHistory(specTopic);
                     } else {
-                        spec.setPublicanCfg(ProcessorUtilities.replaceEscapeChars(finalCfg).substring(1, finalCfg.length() - 1));
+                        return false;
                     }
-                } else {
-                    log.error(format(ProcessorConstants.ERROR_INVALID_PUBLICAN_CFG_MSG, lineCounter, input));
-                    return false;
+                    break;
                 }
-            } else if (ProcessorConstants.INLINE_INJECTION_PATTERN.matcher(upperCaseInput).matches()) {
-                final InjectionOptions injectionOptions = new InjectionOptions();
-                String[] types = null;
-                if (StringUtilities.indexOf(tempInput[1], '[') != -1) {
-                    if (StringUtilities.indexOf(tempInput[1], ']') != -1) {
-                        final Matcher matcher = SQUARE_BRACKET_PATTERN.matcher(tempInput[1]);
-
-                        // Find all of the variables inside of the brackets defined by the regex
-                        while (matcher.find()) {
-                            final String topicTypes = matcher.group(ProcessorConstants.BRACKET_CONTENTS);
-                            types = StringUtilities.split(topicTypes, ',');
-                            for (final String type : types) {
-                                injectionOptions.addStrictTopicType(type.trim());
-                            }
-                        }
+                case FEEDBACK: {
+                    final SpecTopic specTopic = getSpecTopicMetaData(ctx, tempInput[1], CSConstants.FEEDBACK_TITLE);
+                    if (specTopic != null) {
+                        specTopic.setTopicType(TopicType.FEEDBACK);
+                        ctx.spec.setFeedback(specTopic);
                     } else {
-                        log.error(format(ProcessorConstants.ERROR_NO_ENDING_BRACKET_MSG + ProcessorConstants.CSLINE_MSG, lineCounter, ']',
-                                input));
                         return false;
                     }
+                    break;
                 }
-                String injectionSetting = getTitle(tempInput[1], '[');
-                if (injectionSetting.trim().equalsIgnoreCase("on")) {
-                    if (types != null) {
-                        injectionOptions.setContentSpecType(InjectionOptions.UserType.STRICT);
+                case LEGAL_NOTICE: {
+                    final SpecTopic specTopic = getSpecTopicMetaData(ctx, tempInput[1], CSConstants.LEGAL_NOTICE);
+                    if (specTopic != null) {
+                        specTopic.setTopicType(TopicType.LEGAL_NOTICE);
+                        ctx.spec.setLegalNotice(specTopic);
                     } else {
-                        injectionOptions.setContentSpecType(InjectionOptions.UserType.ON);
+                        return false;
                     }
-                } else if (injectionSetting.trim().equalsIgnoreCase("off")) {
-                    injectionOptions.setContentSpecType(InjectionOptions.UserType.OFF);
-                } else {
-                    log.error(format(ProcessorConstants.ERROR_INVALID_INJECTION_MSG, lineCounter, input));
-                    return false;
+                    break;
                 }
-                spec.setInjectionOptions(injectionOptions);
-            // TODO Fix empty chapter processing
-            /*} else if (input.toUpperCase().matches("^ALLOW EMPTY LEVELS[ ]*((=.*)|$)")) {
-                try {
-                    spec.setAllowEmptyLevels(Boolean.parseBoolean(StringUtilities.replaceEscapeChars(tempInput[1])));
-                } catch (Exception ex) {
-                    log.error(String.format(ProcessorConstants.ERROR_INVALID_ATTRIB_FORMAT_MSG, lineCounter, input));
-                    return false;
-                }*/
-             // TODO Fix the CSP to allow for an spec to not have duplicate topics
-            /*} else if (input.toUpperCase().matches("^DUPLICATE TOPICS[ ]*((=.*)|$)")) {
-                try {
-                    spec.setAllowDuplicateTopics(Boolean.parseBoolean(StringUtilities.replaceEscapeChars(tempInput[1])));
-                } catch (Exception ex) {
-                    log.error(String.format(ProcessorConstants.ERROR_INVALID_ATTRIB_FORMAT_MSG, lineCounter, input));
-                    return false;
-                }*/
-            } else if (ProcessorConstants.OUTPUT_STYLE_PATTERN.matcher(upperCaseInput).matches()) {
-                spec.setOutputStyle(escapedValue);
-            } else if (upperCaseInput.matches("^TRANSLATION LOCALE[ ]*((=.*)|$)")) {
-                // TODO Look at removing Translation Locale as it should be a command line property (maybe?)
-                spec.setLocale(escapedValue);
-            } else if (ProcessorConstants.SPEC_REVISION_PATTERN.matcher(upperCaseInput).matches()) {
-                log.error(format(ProcessorConstants.ERROR_CS_INVALID_SPEC_REVISION_MSG, lineCounter));
-                return false;
-            } else if (ProcessorConstants.SPACES_PATTERN.matcher(upperCaseInput).matches()) {
-                // Read in the amount of spaces that were used for the content specification
-                try {
-                    spaces = Integer.parseInt(tempInput[1]);
-                    if (spaces <= 0) {
-                        spaces = 2;
+                case MAVEN_ARTIFACT_ID:
+                    ctx.spec.setArtifactId(escapedValue);
+                    break;
+                case MAVEN_GROUP_ID:
+                    ctx.spec.setGroupId(escapedValue);
+                    break;
+                case BOOK_VERSION:
+                    ctx.spec.setBookVersion(escapedValue);
+                    break;
+                case SURVEY_LINKS:
+                    if (tempInput[1].equalsIgnoreCase("ON")) {
+                        ctx.spec.setInjectSurveyLinks(true);
+                    } else if (!tempInput[1].equalsIgnoreCase("OFF")) {
+                        ctx.log.error(format(ProcessorConstants.ERROR_INVALID_SURVEY_LINKS_MSG, ctx.lineCounter, input));
+                        return false;
                     }
-                } catch (NumberFormatException e) {
-                    log.error(format(ProcessorConstants.ERROR_INVALID_NUMBER_MSG, lineCounter, input));
+                    break;
+                case PUBLICAN_CFG:
+                    return parsePublicanCfg(ctx, tempInput, input);
+                case INLINE_INJECTION:
+                    return parseInlineInjection(ctx, tempInput, input);
+                case OUTPUT_STYLE:
+                    ctx.spec.setOutputStyle(escapedValue);
+                    break;
+                case TRANSLATION_LOCALE:
+                    // TODO Look at removing Translation Locale as it should be a command line property (maybe?)
+                    ctx.spec.setLocale(escapedValue);
+                    break;
+                case SPEC_REVISION:
+                    ctx.log.error(format(ProcessorConstants.ERROR_CS_INVALID_SPEC_REVISION_MSG, ctx.lineCounter));
                     return false;
+                case SPACES:
+                    // Read in the amount of spaces that were used for the content specification
+                    try {
+                        ctx.spaces = Integer.parseInt(tempInput[1]);
+                        if (ctx.spaces <= 0) {
+                            ctx.spaces = 2;
+                        }
+                    } catch (NumberFormatException e) {
+                        ctx.log.error(format(ProcessorConstants.ERROR_INVALID_NUMBER_MSG, ctx.lineCounter, input));
+                        return false;
+                    }
+                    break;
+                case DEBUG:
+                    if (tempInput[1].equals("1")) {
+                        ctx.elm.setVerboseDebug(1);
+                    } else if (tempInput[1].equals("2")) {
+                        ctx.elm.setVerboseDebug(2);
+                    } else if (!tempInput[1].equals("0")) {
+                        ctx.log.warn(ProcessorConstants.WARN_DEBUG_IGNORE_MSG);
+                    }
+                    break;
+                case DTD:
+                    ctx.spec.setDtd(escapedValue);
+                    break;
+                // TODO Fix empty chapter processing ("Allow Empty Levels") and allow a spec to not have duplicate topics
+                // ("Duplicate Topics")
+            }
+        } else {
+            ctx.log.error(format(ProcessorConstants.ERROR_INVALID_ATTRIB_FORMAT_MSG, ctx.lineCounter, input));
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Parse the publican.cfg metadata, which may span multiple lines.
+     *
+     * @param ctx       The context of the current parse.
+     * @param tempInput The key value pair for the metadata.
+     * @param input     The MetaData input line to be parsed.
+     * @return True if the metadata was parsed successfully, otherwise false.
+     * @throws IOException Thrown if a problem occurs reading a new line.
+     */
+    private boolean parsePublicanCfg(final ParserContext ctx, final String[] tempInput, final String input) throws IOException {
+        int startingPos = StringUtilities.indexOf(tempInput[1], '[');
+        if (startingPos != -1) {
+            final StringBuilder cfg = new StringBuilder(tempInput[1]);
+            int startLineCount = ctx.lineCounter;
+            // If the ']' character isn't on this line try the next line
+            if (StringUtilities.indexOf(cfg.toString(), ']') == -1) {
+                cfg.append("\n");
+
+                // Read the next line and increment counters
+                String newLine = ctx.lines.poll();
+                while (newLine != null) {
+                    cfg.append(newLine).append("\n");
+                    ctx.lineCounter++;
+                    ctx.spec.appendPreProcessedLine(newLine);
+                    // If the ']' character still isn't found keep trying
+                    if (StringUtilities.lastIndexOf(cfg.toString(), ']') == -1) {
+                        newLine = ctx.lines.poll();
+                    } else {
+                        break;
+                    }
                 }
-            } else if (ProcessorConstants.DEBUG_PATTERN.matcher(upperCaseInput).matches()) {
-                if (tempInput[1].equals("1")) {
-                    elm.setVerboseDebug(1);
-                } else if (tempInput[1].equals("2")) {
-                    elm.setVerboseDebug(2);
-                } else if (!tempInput[1].equals("0")) {
-                    log.warn(ProcessorConstants.WARN_DEBUG_IGNORE_MSG);
+            }
+
+            final String finalCfg = cfg.toString().trim();
+
+            // Check that the ']' character was found and that it was found before another '[' character
+            if (StringUtilities.lastIndexOf(finalCfg, ']') == -1 || StringUtilities.lastIndexOf(finalCfg, '[') != startingPos) {
+                ctx.log.error(format(ProcessorConstants.ERROR_INVALID_PUBLICAN_CFG_MSG, startLineCount,
+                        tempInput[0] + " = " + finalCfg.replaceAll("\n", "\n          ")));
+                return false;
+            } else {
+                ctx.spec.setPublicanCfg(ProcessorUtilities.replaceEscapeChars(finalCfg).substring(1, finalCfg.length() - 1));
+            }
+        } else {
+            ctx.log.error(format(ProcessorConstants.ERROR_INVALID_PUBLICAN_CFG_MSG, ctx.lineCounter, input));
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Parse the inline injection metadata.
+     *
+     * @param ctx       The context of the current parse.
+     * @param tempInput The key value pair for the metadata.
+     * @param input     The MetaData input line to be parsed.
+     * @return True if the metadata was parsed successfully, otherwise false.
+     */
+    private boolean parseInlineInjection(final ParserContext ctx, final String[] tempInput, final String input) {
+        final InjectionOptions injectionOptions = new InjectionOptions();
+        String[] types = null;
+        if (StringUtilities.indexOf(tempInput[1], '[') != -1) {
+            if (StringUtilities.indexOf(tempInput[1], ']') != -1) {
+                // Find all of the variables inside of the brackets
+                for (final String topicTypes : ProcessorUtilities.findBracketContents(tempInput[1], '[', ']')) {
+                    types = StringUtilities.split(topicTypes, ',');
+                    for (final String type : types) {
+                        injectionOptions.addStrictTopicType(type.trim());
+                    }
                 }
-            } else if (ProcessorConstants.DTD_PATTERN.matcher(upperCaseInput).matches()) {
-                spec.setDtd(escapedValue);
+            } else {
+                ctx.log.error(format(ProcessorConstants.ERROR_NO_ENDING_BRACKET_MSG + ProcessorConstants.CSLINE_MSG, ctx.lineCounter, ']',
+                        input));
+                return false;
+            }
+        }
+        String injectionSetting = getTitle(tempInput[1], '[');
+        if (injectionSetting.trim().equalsIgnoreCase("on")) {
+            if (types != null) {
+                injectionOptions.setContentSpecType(InjectionOptions.UserType.STRICT);
+            } else {
+                injectionOptions.setContentSpecType(InjectionOptions.UserType.ON);
             }
+        } else if (injectionSetting.trim().equalsIgnoreCase("off")) {
+            injectionOptions.setContentSpecType(InjectionOptions.UserType.OFF);
         } else {
-            log.error(format(ProcessorConstants.ERROR_INVALID_ATTRIB_FORMAT_MSG, lineCounter, input));
+            ctx.log.error(format(ProcessorConstants.ERROR_INVALID_INJECTION_MSG, ctx.lineCounter, input));
             return false;
         }
+        ctx.spec.setInjectionOptions(injectionOptions);
 
         return true;
     }
 
-    private SpecTopic getSpecTopicMetaData(final String value, final String key) {
+    private SpecTopic getSpecTopicMetaData(final ParserContext ctx, final String value, final String key) {
         if (value.trim().startsWith("[") && value.trim().endsWith("]")) {
             final String topicString = key + " " + value;
-            return parseTopic(topicString);
+            return parseTopic(ctx, topicString);
         } else {
             if (value.trim().startsWith("[")) {
-                log.error(format(ProcessorConstants.ERROR_NO_ENDING_BRACKET_MSG, lineCounter, ']'));
+                ctx.log.error(format(ProcessorConstants.ERROR_NO_ENDING_BRACKET_MSG, ctx.lineCounter, ']'));
             } else {
-                log.error(format(ProcessorConstants.ERROR_NO_BRACKET_MSG, lineCounter, '[', ']'));
+                ctx.log.error(format(ProcessorConstants.ERROR_NO_BRACKET_MSG, ctx.lineCounter, '[', ']'));
             }
             return null;
         }
@@ -1186,12 +2254,13 @@ public class ContentSpecParser {
     /**
      * Processes and creates a level based on the level type.
      *
+     * @param ctx       The context of the current parse.
      * @param line      The line number the level is on.
      * @param levelType The type the level will represent. ie. A Chapter or Appendix
      * @param input     The chapter string in the content specification.
      * @return The created level or null if an error occurred.
      */
-    protected Level parseLevel(final int line, final LevelType levelType, final String input) {
+    protected Level parseLevel(final ParserContext ctx, final int line, final LevelType levelType, final String input) {
         String splitVars[] = StringUtilities.split(input, ':', 2);
         // Remove the whitespace from each value in the split array
         splitVars = CollectionUtilities.trimStringArray(splitVars);
@@ -1205,20 +2274,21 @@ public class ContentSpecParser {
             newLvl.setTitle(title);
             try {
                 // Get the mapping of variables
-                final HashMap<RelationshipType, List<String[]>> variableMap = getLineVariables(splitVars[1], '[', ']', ',', false, true);
+                final HashMap<RelationshipType, List<String[]>> variableMap = getLineVariables(ctx, splitVars[1], '[', ']', ',', false,
+                        true);
                 if (variableMap.containsKey(RelationshipType.NONE)) {
                     for (final String[] variables : variableMap.get(RelationshipType.NONE)) {
                         if (variables.length >= 1) {
-                            if (variables[0].matches(CSConstants.ALL_TOPIC_ID_REGEX)) {
+                            if (TopicIdKind.classify(variables[0]).isValid()) {
                                 final String topicString = title + " [" + StringUtilities.buildString(variables, ", ") + "]";
-                                final SpecTopic innerTopic = parseTopic(topicString);
+                                final SpecTopic innerTopic = parseTopic(ctx, topicString);
                                 if (innerTopic != null) {
                                     innerTopic.setTopicType(TopicType.LEVEL);
                                     newLvl.setInnerTopic(innerTopic);
                                 }
                             } else {
                                 // Process the options
-                                if (!addOptions(newLvl, variables, 0, input)) {
+                                if (!addOptions(ctx, newLvl, variables, 0, input)) {
                                     return null;
                                 }
                             }
@@ -1229,16 +2299,18 @@ public class ContentSpecParser {
                 // Add targets for the level
                 if (variableMap.containsKey(RelationshipType.TARGET)) {
                     final String targetId = variableMap.get(RelationshipType.TARGET).get(0)[0];
-                    if (targetTopics.containsKey(targetId)) {
-                        log.error(format(ProcessorConstants.ERROR_DUPLICATE_TARGET_ID_MSG, targetTopics.get(targetId).getLineNumber(),
-                                targetTopics.get(targetId).getText(), lineCounter, input));
+                    if (ctx.targetTopics.containsKey(targetId)) {
+                        ctx.log.error(format(ProcessorConstants.ERROR_DUPLICATE_TARGET_ID_MSG,
+                                ctx.targetTopics.get(targetId).getLineNumber(), ctx.targetTopics.get(targetId).getText(), ctx.lineCounter,
+                                input));
                         return null;
-                    } else if (targetLevels.containsKey(targetId)) {
-                        log.error(format(ProcessorConstants.ERROR_DUPLICATE_TARGET_ID_MSG, targetLevels.get(targetId).getLineNumber(),
-                                targetLevels.get(targetId).getText(), lineCounter, input));
+                    } else if (ctx.targetLevels.containsKey(targetId)) {
+                        ctx.log.error(format(ProcessorConstants.ERROR_DUPLICATE_TARGET_ID_MSG,
+                                ctx.targetLevels.get(targetId).getLineNumber(), ctx.targetLevels.get(targetId).getText(), ctx.lineCounter,
+                                input));
                         return null;
                     } else {
-                        targetLevels.put(targetId, newLvl);
+                        ctx.targetLevels.put(targetId, newLvl);
                         newLvl.setTargetId(targetId);
                     }
                 }
@@ -1246,7 +2318,7 @@ public class ContentSpecParser {
                 // Check for external targets
                 if (variableMap.containsKey(RelationshipType.EXTERNAL_TARGET)) {
                     final String externalTargetId = variableMap.get(RelationshipType.EXTERNAL_TARGET).get(0)[0];
-                    externalTargetLevels.put(externalTargetId, newLvl);
+                    ctx.externalTargetLevels.put(externalTargetId, newLvl);
                     newLvl.setExternalTargetId(externalTargetId);
                 }
 
@@ -1259,9 +2331,9 @@ public class ContentSpecParser {
                         RelationshipType.PREREQUISITE) || variableMap.containsKey(RelationshipType.NEXT) || variableMap.containsKey(
                         RelationshipType.PREVIOUS)) {
                     // Check that no relationships were specified for the level
-                    if (lvl.getInnerTopic() == null) {
-                        log.error(format(ProcessorConstants.ERROR_LEVEL_RELATIONSHIP_MSG, lineCounter, CSConstants.CHAPTER, CSConstants.CHAPTER,
-                                input));
+                    if (ctx.lvl.getInnerTopic() == null) {
+                        ctx.log.error(format(ProcessorConstants.ERROR_LEVEL_RELATIONSHIP_MSG, ctx.lineCounter, CSConstants.CHAPTER,
+                                CSConstants.CHAPTER, input));
                         return null;
                     } else {
                         final HashMap<RelationshipType, String[]> flattenedVariableMap = new HashMap<RelationshipType, String[]>();
@@ -1269,13 +2341,13 @@ public class ContentSpecParser {
                             flattenedVariableMap.put(lineVariable.getKey(), lineVariable.getValue().get(0));
                         }
 
-                        if (!processTopicRelationships(lvl.getInnerTopic(), flattenedVariableMap, input)) {
+                        if (!processTopicRelationships(ctx, ctx.lvl.getInnerTopic(), flattenedVariableMap, input)) {
                             return null;
                         }
                     }
                 }
             } catch (Exception e) {
-                log.error(e.getMessage());
+                ctx.log.error(e.getMessage());
                 return null;
             }
         }
@@ -1284,7 +2356,8 @@ public class ContentSpecParser {
 
     /**
      * Gets the variables from a string. The variables are inside of the starting and ending delimiter and are
-     * separated by the separator.
+     * separated by the separator. As the string isn't part of a Content Specification that is being parsed, no
+     * continuation lines are read.
      *
      * @param input       The line of input to get the variables for.
      * @param startDelim  The starting delimiter of the variables.
@@ -1297,7 +2370,26 @@ public class ContentSpecParser {
      */
     public HashMap<RelationshipType, String[]> getLineVariables(String input, char startDelim, char endDelim, char separator,
             boolean ignoreTypes) throws ParsingException, IOException {
-        final HashMap<RelationshipType, List<String[]>> lineVariables = getLineVariables(input, startDelim, endDelim, separator,
+        return getLineVariables(new ParserContext(elm, false), input, startDelim, endDelim, separator, ignoreTypes);
+    }
+
+    /**
+     * Gets the variables from a string. The variables are inside of the starting and ending delimiter and are
+     * separated by the separator.
+     *
+     * @param ctx         The context of the current parse.
+     * @param input       The line of input to get the variables for.
+     * @param startDelim  The starting delimiter of the variables.
+     * @param endDelim    The ending delimiter of the variables.
+     * @param separator   The separator used to separate the variables.
+     * @param ignoreTypes Used if all variables are to be stored inside of the Relationship NONE type.
+     * @return A Map of String arrays for different relationship. Inside each string array is the singular variables.
+     * @throws ParsingException Thrown if the line can't be successfully parsed.
+     * @throws IOException      Thrown if a problem occurs reading a new line.
+     */
+    protected HashMap<RelationshipType, String[]> getLineVariables(final ParserContext ctx, String input, char startDelim,
+            char endDelim, char separator, boolean ignoreTypes) throws ParsingException, IOException {
+        final HashMap<RelationshipType, List<String[]>> lineVariables = getLineVariables(ctx, input, startDelim, endDelim, separator,
                 ignoreTypes, false);
 
         final HashMap<RelationshipType, String[]> retValue = new HashMap<RelationshipType, String[]>();
@@ -1311,6 +2403,7 @@ public class ContentSpecParser {
      * Gets the variables from a string. The variables are inside of the starting and ending delimiter and are
      * separated by the separator.
      *
+     * @param ctx         The context of the current parse.
      * @param input       The line of input to get the variables for.
      * @param startDelim  The starting delimiter of the variables.
      * @param endDelim    The ending delimiter of the variables.
@@ -1319,38 +2412,37 @@ public class ContentSpecParser {
      * @param groupTypes  Used if the relationship types should be group if two or more of the same types are found.
      * @return A Map of String arrays for different relationship. Inside each string array is the singular variables.
      * @throws ParsingException Thrown if the line can't be successfully parsed.
+     * @throws IOException      Thrown if a problem occurs reading a new line.
      */
-    public HashMap<RelationshipType, List<String[]>> getLineVariables(final String input, final char startDelim, final char endDelim,
-            final char separator, final boolean ignoreTypes, final boolean groupTypes) throws ParsingException {
+    protected HashMap<RelationshipType, List<String[]>> getLineVariables(final ParserContext ctx, final String input,
+            final char startDelim, final char endDelim, final char separator, final boolean ignoreTypes,
+            final boolean groupTypes) throws ParsingException, IOException {
         final HashMap<RelationshipType, List<String[]>> output = new HashMap<RelationshipType, List<String[]>>();
 
-        final int lastStartDelimPos = StringUtilities.lastIndexOf(input, startDelim);
-        final int lastEndDelimPos = StringUtilities.lastIndexOf(input, endDelim);
+        final LineVariablesBuffer buffer = new LineVariablesBuffer(input, startDelim, endDelim, separator);
 
         // Check that we have variables to process
-        if (lastStartDelimPos == -1) return output;
-
-        int initialCount = lineCounter;
-        final String nextLine = lines.peek();
+        if (!buffer.hasVariables()) return output;
 
         /*
            * Check to see if the line doesn't match the regex even once. Also check to see if the next
            * line is a continuation of the current line. If so then attempt to read the next line.
            */
-        if (lastEndDelimPos < lastStartDelimPos || (nextLine != null && nextLine.trim().toUpperCase().matches("^\\" +
-                startDelim + "[ ]*(R|L|P|T|B).*")) || input.trim().matches("(.|\n|\r\n)*(?<!\\\\)" + separator + "$")) {
+        while (buffer.isUnclosed() || LineLexer.isContinuationLine(ctx.lines.peek(), startDelim) || buffer.endsWithSeparator()) {
             // Read in a new line and increment relevant counters
-            String temp = lines.poll();
-            if (temp != null) {
-                lineCounter++;
-                spec.appendPreProcessedLine(temp);
+            final String temp = ctx.lines.poll();
+            if (temp == null) break;
 
-                return getLineVariables(input + "\n" + temp, startDelim, endDelim, separator, ignoreTypes, groupTypes);
-            }
+            ctx.lineCounter++;
+            ctx.spec.appendPreProcessedLine(temp);
+            buffer.appendLine(temp);
         }
 
+        final int initialCount = ctx.lineCounter;
+        final String varLine = buffer.toString();
+
         /* Get the variables from the line */
-        final List<VariableSet> varSets = findVariableSets(input, startDelim, endDelim);
+        final List<VariableSet> varSets = findVariableSets(ctx, varLine, startDelim, endDelim);
 
         /* Process the variables that were found */
         for (final VariableSet set : varSets) {
@@ -1374,7 +2466,7 @@ public class ContentSpecParser {
                 if (splitString.length > 1) {
                     splitString = StringUtilities.split(splitString[1], separator);
                     for (final String s : splitString) {
-                        final String var = s.replaceAll("(^\\s*(\r?\n)*)|((\r?\n)*\\s*$)", "");
+                        final String var = ProcessorUtilities.trimVariable(s);
                         // Check that a separator wasn't missed.
                         if (StringUtilities.lastIndexOf(var, startDelim) != StringUtilities.indexOf(var, startDelim) || var.indexOf(
                                 '\n') != -1) {
@@ -1384,7 +2476,7 @@ public class ContentSpecParser {
                         }
                     }
                 } else {
-                    throw new ParsingException(format(ProcessorConstants.ERROR_INVALID_ATTRIB_FORMAT_MSG, initialCount, input));
+                    throw new ParsingException(format(ProcessorConstants.ERROR_INVALID_ATTRIB_FORMAT_MSG, initialCount, varLine));
                 }
             } else if (!ignoreTypes && type == RelationshipType.TARGET) {
                 variables.add(variableSet.replaceAll("\\s", ""));
@@ -1405,7 +2497,7 @@ public class ContentSpecParser {
                 if (ignoreTypes || groupTypes) {
                     output.get(type).add(variables.toArray(new String[variables.size()]));
                 } else {
-                    throw new ParsingException(format(ProcessorConstants.ERROR_DUPLICATED_RELATIONSHIP_TYPE_MSG, initialCount, input));
+                    throw new ParsingException(format(ProcessorConstants.ERROR_DUPLICATED_RELATIONSHIP_TYPE_MSG, initialCount, varLine));
                 }
             } else {
                 final ArrayList<String[]> list = new ArrayList<String[]>();
@@ -1426,28 +2518,7 @@ public class ContentSpecParser {
      *         a NONE relationship type is returned.
      */
     protected RelationshipType getRelationshipType(final String variableString) {
-        final String uppercaseVarSet = variableString.trim().toUpperCase();
-        if (uppercaseVarSet.matches(ProcessorConstants.RELATED_REGEX)) {
-            return RelationshipType.REFER_TO;
-        } else if (uppercaseVarSet.matches(ProcessorConstants.PREREQUISITE_REGEX)) {
-            return RelationshipType.PREREQUISITE;
-        } else if (uppercaseVarSet.matches(ProcessorConstants.NEXT_REGEX)) {
-            return RelationshipType.NEXT;
-        } else if (uppercaseVarSet.matches(ProcessorConstants.PREV_REGEX)) {
-            return RelationshipType.PREVIOUS;
-        } else if (uppercaseVarSet.matches(ProcessorConstants.TARGET_REGEX)) {
-            return RelationshipType.TARGET;
-//        } else if (uppercaseVarSet.matches(ProcessorConstants.BRANCH_REGEX)) {
-//            return RelationshipType.BRANCH;
-        } else if (uppercaseVarSet.matches(ProcessorConstants.EXTERNAL_TARGET_REGEX)) {
-            return RelationshipType.EXTERNAL_TARGET;
-        } else if (uppercaseVarSet.matches(ProcessorConstants.EXTERNAL_CSP_REGEX)) {
-            return RelationshipType.EXTERNAL_CONTENT_SPEC;
-        } else if (uppercaseVarSet.matches(ProcessorConstants.LINK_LIST_REGEX)) {
-            return RelationshipType.LINKLIST;
-        } else {
-            return RelationshipType.NONE;
-        }
+        return RelationshipLexer.getRelationshipType(variableString.trim().toUpperCase());
     }
 
     /**
@@ -1455,13 +2526,15 @@ public class ContentSpecParser {
      * the startPos position of the
      * variable array, then check to see if the variable is a tag or attribute and processes it.
      *
+     * @param ctx           The context of the current parse.
      * @param node          The node to add the options to.
      * @param vars          An array of variables to get the options for.
      * @param startPos      The starting position in the variable array to start checking.
      * @param originalInput The original string used to create these options.
      * @return Returns true if the options were parsed successfully or false if an error occurred.
      */
-    protected boolean addOptions(final SpecNode node, final String[] vars, final int startPos, final String originalInput) {
+    protected boolean addOptions(final ParserContext ctx, final SpecNode node, final String[] vars, final int startPos,
+            final String originalInput) {
         // Process each variable in vars starting from the start position
         for (int i = startPos; i < vars.length; i++) {
             String str = vars[i];
@@ -1482,15 +2555,15 @@ public class ContentSpecParser {
                         try {
                             Pattern.compile(condition);
                         } catch (PatternSyntaxException exception) {
-                            log.error(format(ProcessorConstants.ERROR_INVALID_CONDITION_MSG, lineCounter, originalInput));
+                            ctx.log.error(format(ProcessorConstants.ERROR_INVALID_CONDITION_MSG, ctx.lineCounter, originalInput));
                             return false;
                         }
                     } else {
-                        log.error(format(ProcessorConstants.ERROR_INVALID_OPTION_MSG, lineCounter, originalInput));
+                        ctx.log.error(format(ProcessorConstants.ERROR_INVALID_OPTION_MSG, ctx.lineCounter, originalInput));
                         return false;
                     }
                 } else {
-                    log.error(format(ProcessorConstants.ERROR_INVALID_ATTRIB_FORMAT_MSG, lineCounter, originalInput));
+                    ctx.log.error(format(ProcessorConstants.ERROR_INVALID_ATTRIB_FORMAT_MSG, ctx.lineCounter, originalInput));
                     return false;
                 }
             }
@@ -1517,12 +2590,12 @@ public class ContentSpecParser {
 
                         try {
                             // Get the mapping of variables
-                            HashMap<RelationshipType, String[]> variableMap = getLineVariables(input.toString(), '(', ')', ',', false);
+                            HashMap<RelationshipType, String[]> variableMap = getLineVariables(ctx, input.toString(), '(', ')', ',', false);
                             if (variableMap.containsKey(RelationshipType.NONE)) {
                                 tempTags = variableMap.get(RelationshipType.NONE);
                             }
                         } catch (Exception e) {
-                            log.error(e.getMessage());
+                            ctx.log.error(e.getMessage());
                             return false;
                         }
 
@@ -1534,31 +2607,31 @@ public class ContentSpecParser {
 
                         // Add the tags to the node
                         if (!node.addTags(Arrays.asList(tags))) {
-                            log.error(format(ProcessorConstants.ERROR_MULTI_TAG_DUPLICATED_MSG, lineCounter, originalInput));
+                            ctx.log.error(format(ProcessorConstants.ERROR_MULTI_TAG_DUPLICATED_MSG, ctx.lineCounter, originalInput));
                             return false;
                         }
                     }
                     // Just a single tag so add it straight away
                     else {
                         if (!node.addTag(ProcessorUtilities.replaceEscapeChars(temp[1]))) {
-                            log.error(format(ProcessorConstants.ERROR_TAG_DUPLICATED_MSG, lineCounter, originalInput));
+                            ctx.log.error(format(ProcessorConstants.ERROR_TAG_DUPLICATED_MSG, ctx.lineCounter, originalInput));
                             return false;
                         }
                     }
                 } else {
-                    log.error(format(ProcessorConstants.ERROR_INVALID_TAG_ATTRIB_FORMAT_MSG, lineCounter, originalInput));
+                    ctx.log.error(format(ProcessorConstants.ERROR_INVALID_TAG_ATTRIB_FORMAT_MSG, ctx.lineCounter, originalInput));
                     return false;
                 }
             }
             // Variable is a tag with no category specified
             else {
-                if (str.matches(CSConstants.ALL_TOPIC_ID_REGEX)) {
-                    log.error(format(ProcessorConstants.ERROR_INCORRECT_TOPIC_ID_LOCATION_MSG, lineCounter, originalInput));
+                if (TopicIdKind.classify(str).isValid()) {
+                    ctx.log.error(format(ProcessorConstants.ERROR_INCORRECT_TOPIC_ID_LOCATION_MSG, ctx.lineCounter, originalInput));
                     return false;
                 }
 
                 if (!node.addTag(ProcessorUtilities.replaceEscapeChars(str))) {
-                    log.error(format(ProcessorConstants.ERROR_TAG_DUPLICATED_MSG, lineCounter, originalInput));
+                    ctx.log.error(format(ProcessorConstants.ERROR_TAG_DUPLICATED_MSG, ctx.lineCounter, originalInput));
                     return false;
                 }
             }
@@ -1579,22 +2652,23 @@ public class ContentSpecParser {
 
     /**
      * Process the relationships without logging any errors.
+     * @param ctx The context of the current parse.
      */
-    protected void processRelationships() {
-        for (final String topicId : relationships.keySet()) {
-            final SpecTopic specTopic = specTopics.get(topicId);
+    protected void processRelationships(final ParserContext ctx) {
+        for (final String topicId : ctx.relationships.keySet()) {
+            final SpecTopic specTopic = ctx.specTopics.get(topicId);
 
             assert specTopic != null;
 
-            for (final Relationship relationship : relationships.get(topicId)) {
+            for (final Relationship relationship : ctx.relationships.get(topicId)) {
                 final String relatedId = relationship.getSecondaryRelationshipTopicId();
                 // The relationship points to a target so it must be a level or topic
-                if (relatedId.toUpperCase().matches(ProcessorConstants.TARGET_REGEX)) {
-                    if (targetTopics.containsKey(relatedId) && !targetLevels.containsKey(relatedId)) {
-                        specTopic.addRelationshipToTarget(targetTopics.get(relatedId), relationship.getType(),
+                if (ProcessorConstants.TARGET_PATTERN.matcher(relatedId.toUpperCase()).matches()) {
+                    if (ctx.targetTopics.containsKey(relatedId) && !ctx.targetLevels.containsKey(relatedId)) {
+                        specTopic.addRelationshipToTarget(ctx.targetTopics.get(relatedId), relationship.getType(),
                                 relationship.getRelationshipTitle());
-                    } else if (!targetTopics.containsKey(relatedId) && targetLevels.containsKey(relatedId)) {
-                        specTopic.addRelationshipToTarget(targetLevels.get(relatedId), relationship.getType(),
+                    } else if (!ctx.targetTopics.containsKey(relatedId) && ctx.targetLevels.containsKey(relatedId)) {
+                        specTopic.addRelationshipToTarget(ctx.targetLevels.get(relatedId), relationship.getType(),
                                 relationship.getRelationshipTitle());
                     } else {
                         final SpecTopic dummyTopic = new SpecTopic(0, "");
@@ -1604,7 +2678,7 @@ public class ContentSpecParser {
                 }
                 // The relationship isn't a target so it must point to a topic directly
                 else {
-                    if (!relatedId.matches(CSConstants.NEW_TOPIC_ID_REGEX)) {
+                    if (TopicIdKind.classify(relatedId) != TopicIdKind.NEW) {
                         // The relationship isn't a unique new topic so it will contain the line number in front of
                         // the topic ID
                         if (!relatedId.startsWith("X")) {
@@ -1612,11 +2686,10 @@ public class ContentSpecParser {
                             SpecTopic relatedTopic = null;
 
                             // Get the related topic and count if more then one is found
-                            for (final String specTopicId : specTopics.keySet()) {
-                                if (specTopicId.matches("^[0-9]+-" + relatedId + "$")) {
-                                    relatedTopic = specTopics.get(specTopicId);
-                                    count++;
-                                }
+                            final List<String> relatedUniqueIds = ctx.topicIdIndex.get(relatedId);
+                            if (relatedUniqueIds != null) {
+                                count = relatedUniqueIds.size();
+                                relatedTopic = ctx.specTopics.get(relatedUniqueIds.get(count - 1));
                             }
 
                             /*
@@ -1637,18 +2710,12 @@ public class ContentSpecParser {
                             specTopic.addRelationshipToTopic(dummyTopic, relationship.getType());
                         }
                     } else {
-                        if (specTopics.containsKey(relatedId)) {
-                            final SpecTopic relatedSpecTopic = specTopics.get(relatedId);
+                        if (ctx.specTopics.containsKey(relatedId)) {
+                            final SpecTopic relatedSpecTopic = ctx.specTopics.get(relatedId);
 
                             // Check that a duplicate doesn't exist, because if it does the new topic isn't unique
                             String duplicatedId = "X" + relatedId.substring(1);
-                            boolean duplicateExists = false;
-                            for (String specTopicId : specTopics.keySet()) {
-                                if (specTopicId.matches("^[0-9]+-" + duplicatedId + "$")) {
-                                    duplicateExists = true;
-                                    break;
-                                }
-                            }
+                            boolean duplicateExists = ctx.topicIdIndex.containsKey(duplicatedId);
 
                             if (relatedSpecTopic != specTopic) {
                                 if (!duplicateExists) {
@@ -1658,11 +2725,11 @@ public class ContentSpecParser {
                                     // Only create a new target if one doesn't already exist
                                     if (relatedSpecTopic.getTargetId() == null) {
                                         String targetId = ContentSpecUtilities.generateRandomTargetId(relatedSpecTopic.getLineNumber());
-                                        while (targetTopics.containsKey(targetId) || targetLevels.containsKey(targetId)) {
+                                        while (ctx.targetTopics.containsKey(targetId) || ctx.targetLevels.containsKey(targetId)) {
                                             targetId = ContentSpecUtilities.generateRandomTargetId(relatedSpecTopic.getLineNumber());
                                         }
-                                        specTopics.get(relatedId).setTargetId(targetId);
-                                        targetTopics.put(targetId, relatedSpecTopic);
+                                        ctx.specTopics.get(relatedId).setTargetId(targetId);
+                                        ctx.targetTopics.put(targetId, relatedSpecTopic);
                                     }
                                     specTopic.addRelationshipToTopic(relatedSpecTopic, relationship.getType(),
                                             relationship.getRelationshipTitle());
@@ -1682,12 +2749,14 @@ public class ContentSpecParser {
     /**
      * Process an external level and inject it into the current content specification.
      *
+     * @param ctx                  The context of the current parse.
      * @param lvl                  The level to inject the external levels contents.
      * @param externalCSPReference The reference to the external level. The CSP ID and possibly the External Target ID.
      * @param title                The title of the external level.
      * @param input                The original input used to specify the external level.
      */
-    protected void processExternalLevel(final Level lvl, final String externalCSPReference, final String title, final String input) {
+    protected void processExternalLevel(final ParserContext ctx, final Level lvl, final String externalCSPReference, final String title,
+            final String input) {
         //TODO Add the level/topic contents to the local parser variables
         String[] vars = externalCSPReference.split(":");
         vars = CollectionUtilities.trimStringArray(vars);
@@ -1701,16 +2770,17 @@ public class ContentSpecParser {
         if (externalContentSpec != null) {
             /* We are importing part of an external content specification */
             if (targetId != null) {
-                final ContentSpecParser parser = new ContentSpecParser(new ErrorLoggerManager(), restManager);
+                final ParserContext externalCtx = new ParserContext(new ErrorLoggerManager(), false);
                 boolean foundTargetId = false;
                 try {
-                    parser.parse(externalContentSpec.getXml());
-                    for (final String externalTargetId : parser.externalTargetLevels.keySet()) {
+                    readFileData(externalCtx, new BufferedReader(new StringReader(externalContentSpec.getXml())), null,
+                            ParsingMode.EITHER);
+                    for (final String externalTargetId : externalCtx.externalTargetLevels.keySet()) {
                         final String id = externalTargetId.replaceAll("ET", "");
                         if (id.equals(targetId.toString())) {
                             foundTargetId = true;
 
-                            final Level externalLvl = parser.externalTargetLevels.get(externalTargetId);
+                            final Level externalLvl = externalCtx.externalTargetLevels.get(externalTargetId);
 
                             // TODO Deal with processes
 
@@ -1725,18 +2795,18 @@ public class ContentSpecParser {
                                 }
                             } else {
                                 // TODO Error Message
-                                log.error("Title doesn't match the referenced target id.");
+                                ctx.log.error("Title doesn't match the referenced target id.");
                             }
                         }
                     }
 
                     if (!foundTargetId) {
                         // TODO Error Message
-                        log.error("External target doesn't exist in the content specification");
+                        ctx.log.error("External target doesn't exist in the content specification");
                     }
                 } catch (Exception e) {
                     // TODO Error message
-                    log.error("Failed to pull in external content spec reference");
+                    ctx.log.error("Failed to pull in external content spec reference");
                 }
             }
             /* Import the entire content spec, excluding the metadata */
@@ -1744,11 +2814,11 @@ public class ContentSpecParser {
                 // TODO Handle importing the entire content specification
             } else {
                 //TODO Error Message
-                log.error("Invalid place to import external content");
+                ctx.log.error("Invalid place to import external content");
             }
         } else {
             // TODO Error Message
-            log.error("Unable to find the external content specification");
+            ctx.log.error("Unable to find the external content specification");
         }
     }
 
@@ -1757,63 +2827,39 @@ public class ContentSpecParser {
      * can't be determined then it will continue to parse the following
      * lines until the end is found.
      *
+     * @param ctx        The context of the current parse.
      * @param input      The string to find the sets in.
      * @param startDelim The starting character of the set.
      * @param endDelim   The ending character of the set.
      * @return A list of VariableSets that contain the contents of each set
      *         and the start and end position of the set.
+     * @throws IOException Thrown if a problem occurs reading a new line.
      */
-    protected List<VariableSet> findVariableSets(final String input, final char startDelim, final char endDelim) {
-        final StringBuilder varLine = new StringBuilder(input);
-        final List<VariableSet> retValue = new ArrayList<VariableSet>();
-        VariableSet set = ProcessorUtilities.findVariableSet(input, startDelim, endDelim, 0);
-        while (set != null && set.getContents() != null) {
+    protected List<VariableSet> findVariableSets(final ParserContext ctx, final String input, final char startDelim,
+            final char endDelim) throws IOException {
+        final VariableSetScanner scanner = new VariableSetScanner(startDelim, endDelim).append(input);
+        while (!scanner.getVariableSets().isEmpty() || scanner.isOpen()) {
             /*
-                * Check if we've found the end of a set. If we have add the set to the
-                * list and try and see if another set exists. If not then get the next line
-                * in the content spec and keep processing the set until the end of the set
-                * is found or the end of the content spec.
-                */
-            if (set.getEndPos() != null) {
-                retValue.add(set);
-
-                final String nextLine = lines.peek();
-                final int nextStart = set.getEndPos() + 1;
-                set = ProcessorUtilities.findVariableSet(varLine.toString(), startDelim, endDelim, nextStart);
-
-                /*
-                     * If the next set and/or its contents are empty then it means we found all the sets
-                     * for the input line. However the next line in the content spec maybe a continuation
-                     * but we couldn't find it originally because of a missing separator. So peek at the next
-                     * line and see if it's a continuation (ie another relationship) and if it is then add the
-                     * line and continue to find sets.
-                     */
-                if ((set == null || set.getContents() == null) && (nextLine != null && nextLine.trim().toUpperCase().matches(
-                        "^\\" + startDelim + "[ ]*(R|L|P|T|B).*"))) {
-                    final String line = lines.poll();
-                    lineCounter++;
-
-                    if (line != null) {
-                        varLine.append("\n").append(line);
-
-                        spec.appendPreProcessedLine(line);
-                        set = ProcessorUtilities.findVariableSet(varLine.toString(), startDelim, endDelim, nextStart);
-                    }
-                }
-            } else {
-                final String line = lines.poll();
-                lineCounter++;
-
-                if (line != null) {
-                    varLine.append("\n").append(line);
+             * If the end of a set hasn't been found then get the next line in the content spec and keep processing the
+             * set until the end of the set is found or the end of the content spec. Otherwise all the sets for the input
+             * line have been found, however the next line in the content spec maybe a continuation but we couldn't find
+             * it originally because of a missing separator. So peek at the next line and see if it's a continuation (ie
+             * another relationship) and if it is then add the line and continue to find sets.
+             */
+            if (!scanner.isOpen() && !LineLexer.isContinuationLine(ctx.lines.peek(), startDelim)) break;
+
+            final String line = ctx.lines.poll();
+            ctx.lineCounter++;
+            if (line == null) break;
+
+            ctx.spec.appendPreProcessedLine(line);
+            // Only the appended line is scanned, as the scanner keeps its state from the previous lines
+            scanner.append("\n").append(line);
+        }
 
-                    spec.appendPreProcessedLine(line);
-                    set = ProcessorUtilities.findVariableSet(varLine.toString(), startDelim, endDelim, set.getStartPos());
-                } else {
-                    retValue.add(set);
-                    break;
-                }
-            }
+        final List<VariableSet> retValue = new ArrayList<VariableSet>(scanner.getVariableSets());
+        if (scanner.isOpen()) {
+            retValue.add(scanner.getOpenSet());
         }
         return retValue;
     }
@@ -2,19 +2,32 @@ package com.redhat.contentspec.processor;
 
 import static org.jboss.pressgang.ccms.rest.v1.collections.base.RESTBaseCollectionItemV1.ADD_STATE;
 
+import java.io.File;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import com.redhat.contentspec.processor.constants.ProcessorConstants;
+import com.redhat.contentspec.processor.enums.TopicIdKind;
 import com.redhat.contentspec.processor.exceptions.ProcessingException;
+import com.redhat.contentspec.processor.structures.ParseResult;
 import com.redhat.contentspec.processor.structures.ProcessingOptions;
+import com.redhat.contentspec.processor.utils.DaemonThreadFactory;
+import com.redhat.contentspec.processor.utils.LogBuffer;
+import com.redhat.contentspec.processor.utils.ParallelDownloader;
+import com.redhat.contentspec.processor.utils.ParseResultCache;
+import com.redhat.contentspec.processor.utils.PerThreadReaders;
 import com.redhat.contentspec.processor.utils.ProcessorUtilities;
+import com.redhat.contentspec.processor.utils.TagDictionary;
+import com.redhat.contentspec.processor.utils.SourceUrlTitleResolver;
+import com.redhat.contentspec.processor.utils.TopicRevisionCache;
+import com.redhat.contentspec.processor.utils.TopicRevisionLookup;
 import org.apache.log4j.Logger;
 import org.jboss.pressgang.ccms.contentspec.ContentSpec;
 import org.jboss.pressgang.ccms.contentspec.SpecTopic;
@@ -43,8 +56,6 @@ import org.jboss.pressgang.ccms.utils.common.CollectionUtilities;
 import org.jboss.pressgang.ccms.utils.common.ExceptionUtilities;
 import org.jboss.pressgang.ccms.utils.constants.CommonConstants;
 import org.jboss.pressgang.ccms.utils.structures.Pair;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
 
 /**
  * A class to fully process a Content Specification. It first parses the data using a ContentSpecParser,
@@ -62,17 +73,27 @@ public class ContentSpecProcessor implements ShutdownAbleApp {
 
     private final RESTManager restManager;
     private final RESTReader reader;
+    private final PerThreadReaders downloadReaders;
     private final RESTWriter writer;
+    private final TagDictionary tagDictionary;
 
     private final ProcessingOptions processingOptions;
     private final ContentSpecParser csp;
+    private final ExecutorService parseExecutor;
+    private volatile ParseResultCache parseResultCache;
+    private ParseResult parseResult;
     private ContentSpecValidator validator;
     private final TopicPool topics;
+    private final SourceUrlTitleResolver sourceUrlTitleResolver;
+    private final TopicRevisionCache topicRevisionCache;
+    private TopicRevisionLookup topicRevisionLookup;
     private final AtomicBoolean isShuttingDown = new AtomicBoolean(false);
     private final AtomicBoolean shutdown = new AtomicBoolean(false);
 
     /**
-     * Constructor
+     * Constructor. Topics are downloaded one at a time through the reader of the REST manager, as a reader can't be used by
+     * more than one thread at once. Use {@link #ContentSpecProcessor(String, ErrorLoggerManager, ProcessingOptions)} to
+     * download topics concurrently.
      *
      * @param restManager       A DBManager object that manages the REST connection and the functions to read/write to the REST Interface.
      * @param elm               An Error Logger Manager that will be used to store all the log messages in case they need to be accessed
@@ -80,14 +101,59 @@ public class ContentSpecProcessor implements ShutdownAbleApp {
      * @param processingOptions The set of options to use when processing.
      */
     public ContentSpecProcessor(final RESTManager restManager, final ErrorLoggerManager elm, final ProcessingOptions processingOptions) {
+        this(restManager, null, elm, processingOptions);
+    }
+
+    /**
+     * Constructor. Topics are downloaded concurrently using up to {@link ProcessingOptions#getDownloadThreads()} threads,
+     * each with a REST reader of its own.
+     *
+     * @param serverUrl         The URL of the REST server to connect to.
+     * @param elm               An Error Logger Manager that will be used to store all the log messages in case they need to be accessed
+     *                          at a later stage.
+     * @param processingOptions The set of options to use when processing.
+     */
+    public ContentSpecProcessor(final String serverUrl, final ErrorLoggerManager elm, final ProcessingOptions processingOptions) {
+        this(new RESTManager(serverUrl), new PerThreadReaders(serverUrl), elm, processingOptions);
+    }
+
+    private ContentSpecProcessor(final RESTManager restManager, final PerThreadReaders downloadReaders, final ErrorLoggerManager elm,
+            final ProcessingOptions processingOptions) {
         reader = restManager.getReader();
+        this.downloadReaders = downloadReaders;
         writer = restManager.getWriter();
+        tagDictionary = TagDictionary.getInstance(reader);
         log = elm.getLogger(ContentSpecProcessor.class);
         this.elm = elm;
         this.restManager = restManager;
         csp = new ContentSpecParser(elm, restManager);
         topics = new TopicPool(restManager.getRESTClient());
         this.processingOptions = processingOptions;
+        parseExecutor = processingOptions.getParseThreads() > 1 ? Executors.newFixedThreadPool(processingOptions.getParseThreads(),
+                new DaemonThreadFactory("parse-worker")) : null;
+        csp.setParseExecutor(parseExecutor);
+        sourceUrlTitleResolver = new SourceUrlTitleResolver(LOG, processingOptions.getDownloadThreads(),
+                processingOptions.getSourceUrlTimeout(), processingOptions.getSourceUrlCacheTTL(), processingOptions.isOffline(),
+                processingOptions.getSourceUrlCacheFile() == null ? null : new File(processingOptions.getSourceUrlCacheFile()),
+                isShuttingDown);
+        topicRevisionCache = processingOptions.getTopicCacheFile() == null ? null : new TopicRevisionCache(LOG,
+                new File(processingOptions.getTopicCacheFile()), processingOptions.getTopicCacheSize());
+        parseResultCache = processingOptions.getParseResultCacheSize() > 0 ? ParseResultCache.getSharedInstance(
+                processingOptions.getParseResultCacheSize()) : null;
+    }
+
+    /**
+     * Sets the lookup that is used to get the current revision of the latest topics before they are downloaded. When a
+     * lookup is set and a topic cache file is configured, only the latest topics that have changed since they were last
+     * downloaded are downloaded again, and the rest are read from the topic cache. The REST API has no call that only
+     * returns the revisions of topics, so there isn't a lookup by default, and the latest topics are downloaded in full.
+     * A lookup is only worth setting if it can get the revisions without fetching the topics themselves.
+     *
+     * @param topicRevisionLookup The lookup to get the current topic revisions with, or null to download all of the latest
+     *                            topics.
+     */
+    public void setTopicRevisionLookup(final TopicRevisionLookup topicRevisionLookup) {
+        this.topicRevisionLookup = topicRevisionLookup;
     }
 
     /**
@@ -96,7 +162,7 @@ public class ContentSpecProcessor implements ShutdownAbleApp {
      * @return The ContentSpec object that's used to store the processed data.
      */
     public ContentSpec getContentSpec() {
-        return csp.getContentSpec();
+        return parseResult == null ? null : parseResult.getContentSpec();
     }
 
     /**
@@ -104,8 +170,8 @@ public class ContentSpecProcessor implements ShutdownAbleApp {
      *
      * @return The mapping of topics to their unique content specification ID's.
      */
-    public HashMap<String, SpecTopic> getSpecTopics() {
-        return csp.getSpecTopics();
+    public Map<String, SpecTopic> getSpecTopics() {
+        return parseResult == null ? null : parseResult.getSpecTopics();
     }
 
     /**
@@ -185,34 +251,66 @@ public class ContentSpecProcessor implements ShutdownAbleApp {
             logDetails.setUser(user);
         }
 
-        LOG.info("Starting to parse...");
         if (mode == ContentSpecParser.ParsingMode.EDITED) editing = true;
-        if (!csp.parse(contentSpec, username, mode, true)) {
-            log.error(ProcessorConstants.ERROR_INVALID_CS_MSG);
-            return false;
-        }
-
-        // Change the locale if the overrideLocale isn't null
-        if (overrideLocale != null) {
-            csp.getContentSpec().setLocale(overrideLocale);
-        }
+        validator = new ContentSpecValidator<RESTTopicV1>(RESTTopicV1.class, elm, restManager, processingOptions);
+        // The first validation pass doesn't make any rest calls, so it can share the threads that are used to parse
+        validator.setValidationExecutor(parseExecutor);
+        validator.setTopicRevisionCache(topicRevisionCache);
+        validator.setDownloadReaders(downloadReaders);
+
+        // Check if the content specification has already been parsed and passed the first validation pass
+        final String cacheKey = isParseResultCacheable() ? ParseResultCache.createKey(contentSpec, username, mode,
+                overrideLocale) : null;
+        final ParseResultCache.CachedParseResult cachedParseResult = cacheKey == null ? null : parseResultCache.get(cacheKey);
+        if (cachedParseResult != null) {
+            LOG.info("Using the cached parse result (hit rate " + Math.round(parseResultCache.getHitRate() * 100) + "%)...");
+            parseResult = copyParseResult(cachedParseResult.getResult(), username, mode, overrideLocale);
+
+            // Log the messages from the parse and first validation pass again, as they still apply to the content spec
+            cachedParseResult.getParserLog().copyTo(new LogBuffer(elm.getLogger(ContentSpecParser.class)));
+            cachedParseResult.getValidatorLog().copyTo(new LogBuffer(elm.getLogger(ContentSpecValidator.class)));
+        } else {
+            LOG.info("Starting to parse...");
+            // Hold onto the messages, so that they can be logged again if the parse result is reused
+            final LogBuffer parserLog = new LogBuffer();
+            parseResult = csp.parseContentSpec(contentSpec, username, mode, true, elm, parserLog);
+            parserLog.copyTo(new LogBuffer(elm.getLogger(ContentSpecParser.class)));
+            if (!parseResult.isSuccessful()) {
+                log.error(ProcessorConstants.ERROR_INVALID_CS_MSG);
+                return false;
+            }
 
-        // Check if the app should be shutdown
-        if (isShuttingDown.get()) {
-            shutdown.set(true);
-            return false;
-        }
+            // Change the locale if the overrideLocale isn't null
+            if (overrideLocale != null) {
+                parseResult.getContentSpec().setLocale(overrideLocale);
+            }
 
-        // Validate the content specification before doing any rest calls
-        LOG.info("Starting first validation pass...");
+            // Check if the app should be shutdown
+            if (isShuttingDown.get()) {
+                shutdown.set(true);
+                return false;
+            }
 
-        // Validate the relationships
-        validator = new ContentSpecValidator<RESTTopicV1>(RESTTopicV1.class, elm, restManager, processingOptions);
+            // Validate the content specification before doing any rest calls
+            LOG.info("Starting first validation pass...");
+
+            // Validate the relationships
+            final LogBuffer validatorLog = new LogBuffer();
+            final boolean valid = validator.preValidateRelationships(parseResult.getProcessedRelationships(),
+                    parseResult.getSpecTopics(), parseResult.getTopicIdIndex(), parseResult.getTargetLevels(),
+                    parseResult.getTargetTopics(), validatorLog) && validator.preValidateContentSpec(parseResult.getContentSpec(),
+                    parseResult.getSpecTopics(), validatorLog);
+            validatorLog.copyTo(new LogBuffer(elm.getLogger(ContentSpecValidator.class)));
+            if (!valid) {
+                log.error(ProcessorConstants.ERROR_INVALID_CS_MSG);
+                return false;
+            }
 
-        if (!validator.preValidateRelationships(csp.getProcessedRelationships(), csp.getSpecTopics(), csp.getTargetLevels(),
-                csp.getTargetTopics()) || !validator.preValidateContentSpec(csp.getContentSpec(), csp.getSpecTopics())) {
-            log.error(ProcessorConstants.ERROR_INVALID_CS_MSG);
-            return false;
+            if (cacheKey != null) {
+                parseResultCache.put(cacheKey, parseResult, parserLog, validatorLog);
+                // The second validation pass changes the nodes it validates, so the cached result is left as it was parsed
+                parseResult = copyParseResult(parseResult, username, mode, overrideLocale);
+            }
         }
 
         // Check if the app should be shutdown
@@ -221,6 +319,9 @@ public class ContentSpecProcessor implements ShutdownAbleApp {
             return false;
         }
 
+        // Load all of the tags and types used in the content specification
+        preloadTags();
+
         // Download all of the latest and/or revision topics
         downloadAllTopics();
 
@@ -233,7 +334,14 @@ public class ContentSpecProcessor implements ShutdownAbleApp {
         // Validate the content specification now that we have most of the data from the REST API
         LOG.info("Starting second validation pass...");
 
-        if (!validator.postValidateContentSpec(csp.getContentSpec())) {
+        final boolean valid = validator.postValidateContentSpec(parseResult.getContentSpec());
+
+        // All of the topics have been validated, so record which cached topics were used
+        if (topicRevisionCache != null) {
+            topicRevisionCache.flush();
+        }
+
+        if (!valid) {
             log.error(ProcessorConstants.ERROR_INVALID_CS_MSG);
             return false;
         } else {
@@ -248,7 +356,7 @@ public class ContentSpecProcessor implements ShutdownAbleApp {
                 }
 
                 LOG.info("Saving the Content Specification to the server...");
-                if (saveContentSpec(csp.getContentSpec(), csp.getSpecTopics(), logDetails, editing)) {
+                if (saveContentSpec(parseResult.getContentSpec(), parseResult.getSpecTopics(), logDetails, editing)) {
                     log.info(ProcessorConstants.INFO_SUCCESSFUL_SAVE_MSG);
                 } else {
                     return false;
@@ -258,6 +366,66 @@ public class ContentSpecProcessor implements ShutdownAbleApp {
         return true;
     }
 
+    /**
+     * Checks if the parse result for a Content Specification can be cached. Each run validates its own copy of a cached
+     * result, but the copy is made from the Content Specification's lines, so results are only cached when the run won't
+     * save the Content Specification, add revisions to the topics or correct the topic titles, as each of those change the
+     * Content Specification from what its lines say.
+     *
+     * @return True if the parse result can be cached, otherwise false.
+     */
+    protected boolean isParseResultCacheable() {
+        return parseResultCache != null && processingOptions.isValidating() && !processingOptions.isAddRevisions()
+                && !processingOptions.isPermissiveMode();
+    }
+
+    /**
+     * Copies a cached parse result, so that the copy can be validated without changing the cached result.
+     *
+     * @param parseResult    The cached parse result.
+     * @param username       The user who requested the parse.
+     * @param mode           The mode the Content Specification was parsed in.
+     * @param overrideLocale The locale that overrides the Content Specification locale, or null if it isn't overridden.
+     * @return The copy of the parse result.
+     * @throws Exception Any unexpected exception that occurred when copying the result.
+     */
+    protected ParseResult copyParseResult(final ParseResult parseResult, final String username, final ContentSpecParser.ParsingMode mode,
+            final String overrideLocale) throws Exception {
+        final ParseResult copy = csp.copyParseResult(parseResult, username, mode, true);
+        // The locale is parsed from the Content Specification again, so it has to be overridden again
+        if (overrideLocale != null) {
+            copy.getContentSpec().setLocale(overrideLocale);
+        }
+        return copy;
+    }
+
+    /**
+     * Loads all the tags and types that are used by the topics in the parsed Content Specification into the tag
+     * dictionary, so they don't have to be looked up one at a time during validation and saving.
+     */
+    protected void preloadTags() {
+        final Set<String> tagNames = new LinkedHashSet<String>();
+        final Set<String> typeNames = new LinkedHashSet<String>();
+        for (final SpecTopic specTopic : parseResult.getSpecTopics().values()) {
+            tagNames.addAll(specTopic.getTags(true));
+            tagNames.addAll(specTopic.getRemoveTags(true));
+            if (specTopic.getAssignedWriter(true) != null) {
+                tagNames.add(specTopic.getAssignedWriter(true));
+            }
+            if (specTopic.getType() != null) {
+                typeNames.add(specTopic.getType());
+            }
+        }
+
+        if (!tagNames.isEmpty()) {
+            LOG.info("Attempting to load all the tags...");
+            tagDictionary.preloadTags(tagNames, processingOptions.getDownloadThreads(), isShuttingDown);
+        }
+        if (!typeNames.isEmpty()) {
+            tagDictionary.preloadTypes(typeNames, processingOptions.getDownloadThreads(), isShuttingDown);
+        }
+    }
+
     /**
      * Download all the topics that are to be used during processing from the
      * parsed Content Specification.
@@ -267,24 +435,24 @@ public class ContentSpecProcessor implements ShutdownAbleApp {
          * we can just get the latest version for all of the topics. Other wise we need to
 	     * get the topics one by one that specify a revision.
 	     */
+        final boolean expandTranslations = isExpandTranslations();
+        if (topicRevisionCache != null) {
+            // The revisions that were looked up by a previous run may no longer be current
+            topicRevisionCache.clearLatestRevisions();
+        }
+
         if (processingOptions.isUpdateRevisions() && processingOptions.getRevision() == null) {
-            final List<Integer> topicIds = csp.getReferencedTopicIds();
+            final List<Integer> topicIds = parseResult.getReferencedTopicIds();
             if (!topicIds.isEmpty()) {
-                // Download the list of topics in one go to reduce I/O overhead
-                LOG.info("Attempting to download all the latest topics...");
-                reader.getTopicsByIds(topicIds, csp.getContentSpec().getLocale() != null && !csp.getContentSpec().getLocale().equals(
-                        CommonConstants.DEFAULT_LOCALE));
+                downloadLatestTopics(topicIds, expandTranslations);
             }
         } else {
-            final List<Integer> topicIds = csp.getReferencedLatestTopicIds();
-            final List<Pair<Integer, Integer>> referencedRevisionTopicIds = csp.getReferencedRevisionTopicIds();
+            final List<Integer> topicIds = parseResult.getReferencedLatestTopicIds();
+            final List<Pair<Integer, Integer>> referencedRevisionTopicIds = parseResult.getReferencedRevisionTopicIds();
 
             // Check if a maximum revision was specified for processing
             if (processingOptions.getRevision() == null && !topicIds.isEmpty()) {
-                // Download the list of topics in one go to reduce I/O overhead
-                LOG.info("Attempting to download all the latest topics...");
-                reader.getTopicsByIds(topicIds, csp.getContentSpec().getLocale() != null && !csp.getContentSpec().getLocale().equals(
-                        CommonConstants.DEFAULT_LOCALE));
+                downloadLatestTopics(topicIds, expandTranslations);
             } else if (!topicIds.isEmpty()) {
                 // Add to the list of referenced topic ids
                 for (final Integer topicId : topicIds) {
@@ -298,6 +466,66 @@ public class ContentSpecProcessor implements ShutdownAbleApp {
         }
     }
 
+    /**
+     * Checks if the translations of the topics in a translated Content Specification should be downloaded with the topics.
+     * Validation doesn't use the translations of the topics, so they aren't downloaded when the Content Specification is
+     * only being validated.
+     *
+     * @return True if the translations should be downloaded, otherwise false.
+     */
+    protected boolean isExpandTranslations() {
+        final String locale = parseResult.getContentSpec().getLocale();
+        return !processingOptions.isValidating() && locale != null && !locale.equals(CommonConstants.DEFAULT_LOCALE);
+    }
+
+    /**
+     * Download the latest revision of a set of Topics from the REST API, in a single request. If a topic revision lookup is
+     * set and topics are being cached, then the current revision of each topic is looked up first, and only the topics whose
+     * current revision isn't in the topic cache are downloaded. The rest are read from the cache when they are validated.
+     * The downloaded topics are cached at the revision they were downloaded at, so that a lookup by a later run can find
+     * them.
+     *
+     * @param topicIds           The ID's of the topics to download.
+     * @param expandTranslations Whether the translations of the topics should be downloaded as well.
+     */
+    protected void downloadLatestTopics(final List<Integer> topicIds, final boolean expandTranslations) {
+        List<Integer> changedTopicIds = topicIds;
+        if (topicRevisionCache != null && topicRevisionLookup != null) {
+            LOG.info("Attempting to look up the revisions of the latest topics...");
+            try {
+                final Map<Integer, Integer> latestRevisions = topicRevisionLookup.getLatestRevisions(topicIds);
+                changedTopicIds = new ArrayList<Integer>();
+                for (final Integer topicId : topicIds) {
+                    topicRevisionCache.setLatestRevision(topicId, latestRevisions.get(topicId));
+                    if (!topicRevisionCache.containsTopic(topicId, null, null)) {
+                        changedTopicIds.add(topicId);
+                    }
+                }
+            } catch (Exception e) {
+                LOG.warn("Unable to look up the revisions of the latest topics", e);
+                topicRevisionCache.clearLatestRevisions();
+            }
+        }
+
+        if (changedTopicIds.isEmpty()) return;
+
+        // Download the list of topics in one go to reduce I/O overhead
+        LOG.info("Attempting to download " + (changedTopicIds == topicIds ? "all" : changedTopicIds.size()) + " of the latest "
+                + "topics...");
+        final List<RESTTopicV1> topics = reader.getTopicsByIds(changedTopicIds, expandTranslations);
+        if (topics == null) return;
+
+        for (final RESTTopicV1 topic : topics) {
+            // The validator's download threads don't share the reader's entity cache, so hand it the topics instead
+            validator.addDownloadedTopic(topic.getId(), null, topic);
+            if (topicRevisionCache != null) {
+                // Cache the topic at the revision that was downloaded, in case it has changed since it was looked up
+                topicRevisionCache.putTopic(topic.getId(), topic.getRevision(), null, topic);
+                topicRevisionCache.setLatestRevision(topic.getId(), topic.getRevision());
+            }
+        }
+    }
+
     /**
      * Download the Topics from the REST API that specify a revision.
      *
@@ -306,31 +534,68 @@ public class ContentSpecProcessor implements ShutdownAbleApp {
     protected void downloadRevisionTopics(final List<Pair<Integer, Integer>> referencedRevisionTopicIds) {
         LOG.info("Attempting to download all the revision topics...");
 
-        final int showPercent = 5;
-        final float total = referencedRevisionTopicIds.size();
-        float current = 0;
-        int lastPercent = 0;
+        final boolean expandTranslations = isExpandTranslations();
 
-        final boolean expandTranslations = csp.getContentSpec().getLocale() != null && !csp.getContentSpec().getLocale().equals(
-                CommonConstants.DEFAULT_LOCALE);
+        final ParallelDownloader<Pair<Integer, Integer>, RESTTopicV1> downloader = createDownloader();
+        final Map<Pair<Integer, Integer>, RESTTopicV1> downloadedTopics = downloader.download(referencedRevisionTopicIds,
+                new ParallelDownloader.Fetcher<Pair<Integer, Integer>, RESTTopicV1>() {
+                    @Override
+                    public RESTTopicV1 fetch(final Pair<Integer, Integer> topicToRevision) throws Exception {
+                        final Integer revision = getDownloadRevision(topicToRevision);
 
-        for (final Pair<Integer, Integer> topicToRevision : referencedRevisionTopicIds) {
-            // If we want to update the revisions then we should get the latest topic and not the revision
-            if (processingOptions.isUpdateRevisions()) {
-                reader.getTopicById(topicToRevision.getFirst(), processingOptions.getRevision(), expandTranslations);
-            } else {
-                reader.getTopicById(topicToRevision.getFirst(), topicToRevision.getSecond(), expandTranslations);
-            }
+                        // Topics that are in the revision cache are read from the cache when they are validated
+                        if (topicRevisionCache != null && topicRevisionCache.containsTopic(topicToRevision.getFirst(), revision,
+                                null)) {
+                            return null;
+                        }
 
-            ++current;
-            final int percent = Math.round(current / total * 100);
-            if (percent - lastPercent >= showPercent) {
-                lastPercent = percent;
-                LOG.info("\tDownloading revision topics " + percent + "% Done");
+                        final RESTReader downloadReader = downloadReaders == null ? reader : downloadReaders.getReader();
+                        final RESTTopicV1 topic = downloadReader.getTopicById(topicToRevision.getFirst(), revision, expandTranslations);
+                        if (topicRevisionCache != null) {
+                            topicRevisionCache.putTopic(topicToRevision.getFirst(), revision, null, topic);
+                        }
+                        return topic;
+                    }
+                }, "Downloading revision topics");
+
+        // The topics weren't downloaded through the shared reader, so hand them to the validator instead of downloading them again
+        for (final Entry<Pair<Integer, Integer>, RESTTopicV1> entry : downloadedTopics.entrySet()) {
+            if (entry.getValue() != null) {
+                validator.addDownloadedTopic(entry.getKey().getFirst(), getDownloadRevision(entry.getKey()), entry.getValue());
             }
         }
     }
 
+    /**
+     * Gets the revision that a topic that specifies a revision is downloaded at.
+     *
+     * @param topicToRevision The topic id and the revision it specifies.
+     * @return The revision to download the topic at, or null for the latest revision.
+     */
+    private Integer getDownloadRevision(final Pair<Integer, Integer> topicToRevision) {
+        // If we want to update the revisions then we should get the latest topic and not the revision
+        return processingOptions.isUpdateRevisions() ? processingOptions.getRevision() : topicToRevision.getSecond();
+    }
+
+    /**
+     * Creates a downloader that uses the download options from the processing options. When each download thread can't be
+     * given a reader of its own, the topics are downloaded one at a time through the shared reader, and a request is never
+     * abandoned because it has taken too long, so that a request is never still using the reader when the next one starts.
+     *
+     * @param <K> The type of key used to identify the entities to download.
+     * @param <V> The type of entity that is downloaded.
+     * @return The new downloader.
+     */
+    private <K, V> ParallelDownloader<K, V> createDownloader() {
+        if (downloadReaders == null) {
+            return new ParallelDownloader<K, V>(LOG, 1, 0, processingOptions.getDownloadRetries(),
+                    processingOptions.getDownloadRetryDelay(), isShuttingDown);
+        } else {
+            return new ParallelDownloader<K, V>(LOG, processingOptions.getDownloadThreads(), processingOptions.getDownloadTimeout(),
+                    processingOptions.getDownloadRetries(), processingOptions.getDownloadRetryDelay(), isShuttingDown);
+        }
+    }
+
     /**
      * Creates an entity to be sent through the REST interface to create or update a DB entry.
      *
@@ -363,7 +628,7 @@ public class ContentSpecProcessor implements ShutdownAbleApp {
                 topic.explicitSetXml("");
 
                 // Write the type
-                final RESTTagV1 type = reader.getTypeByName(specTopic.getType());
+                final RESTTagV1 type = tagDictionary.getTypeByName(specTopic.getType());
                 if (type == null) {
                     log.error(String.format(ProcessorConstants.ERROR_TYPE_NONEXIST_MSG, specTopic.getLineNumber(), specTopic.getText()));
                     return null;
@@ -383,7 +648,7 @@ public class ContentSpecProcessor implements ShutdownAbleApp {
                 changed = true;
             } else if (specTopic.isTopicAClonedTopic()) {
                 // Get the existing topic from the database
-                int clonedId = Integer.parseInt(specTopic.getId().substring(1));
+                int clonedId = TopicIdKind.getIdNumber(specTopic.getId());
                 final RESTTopicV1 originalTopic = reader.getTopicById(clonedId, null);
                 topic = originalTopic.clone(true);
 
@@ -478,7 +743,7 @@ public class ContentSpecProcessor implements ShutdownAbleApp {
 
             if (!specTopic.isTopicAnExistingTopic()) {
                 // Set the assigned writer (Tag Table)
-                final List<RESTTagV1> assignedWriterTags = reader.getTagsByName(specTopic.getAssignedWriter(true));
+                final List<RESTTagV1> assignedWriterTags = tagDictionary.getTagsByName(specTopic.getAssignedWriter(true));
                 if (assignedWriterTags.size() != 1) {
                     log.error(String.format(ProcessorConstants.ERROR_WRITER_NONEXIST_MSG, specTopic.getLineNumber(), specTopic.getText()));
                     return null;
@@ -498,7 +763,7 @@ public class ContentSpecProcessor implements ShutdownAbleApp {
             List<String> tagNames = specTopic.getTags(true);
             final List<RESTTagV1> tags = new ArrayList<RESTTagV1>();
             for (final String tagName : tagNames) {
-                final List<RESTTagV1> tagList = reader.getTagsByName(tagName);
+                final List<RESTTagV1> tagList = tagDictionary.getTagsByName(tagName);
                 if (tagList.size() == 1) {
                     tags.add(tagList.get(0));
                 }
@@ -542,7 +807,7 @@ public class ContentSpecProcessor implements ShutdownAbleApp {
                 tagNames = specTopic.getRemoveTags(true);
                 final List<RESTTagV1> removeTags = new ArrayList<RESTTagV1>();
                 for (final String tagName : tagNames) {
-                    final List<RESTTagV1> tagList = reader.getTagsByName(tagName);
+                    final List<RESTTagV1> tagList = tagDictionary.getTagsByName(tagName);
                     if (tagList.size() == 1) {
                         tags.add(tagList.get(0));
                     }
@@ -609,12 +874,10 @@ public class ContentSpecProcessor implements ShutdownAbleApp {
                     final RESTTopicSourceUrlV1 sourceUrl = new RESTTopicSourceUrlV1();
                     sourceUrl.explicitSetUrl(url);
 
-                    // Get the Source URL title from the URL
-                    try {
-                        final Document doc = Jsoup.connect(url).get();
-                        sourceUrl.explicitSetTitle(doc.title());
-                    } catch (Exception e) {
-                        // Do nothing if the HTML couldn't be parsed successfully.
+                    // Get the Source URL title that was resolved before saving
+                    final String title = sourceUrlTitleResolver.getTitle(url);
+                    if (title != null) {
+                        sourceUrl.explicitSetTitle(title);
                     }
 
                     sourceUrls.addNewItem(sourceUrl);
@@ -652,10 +915,10 @@ public class ContentSpecProcessor implements ShutdownAbleApp {
     /**
      * Syncs all duplicated topics with their real topic counterpart in the content specification.
      *
-     * @param specTopics A HashMap of the all the topics in the Content Specification. The key is the Topics ID.
+     * @param specTopics A Map of the all the topics in the Content Specification. The key is the Topics ID.
      * @return True if the duplicated topics saved successfully otherwise false.
      */
-    protected void syncDuplicatedTopics(final HashMap<String, SpecTopic> specTopics) {
+    protected void syncDuplicatedTopics(final Map<String, SpecTopic> specTopics) {
         for (final Entry<String, SpecTopic> entry : specTopics.entrySet()) {
             final SpecTopic topic = entry.getValue();
             // Sync the normal duplicates first
@@ -682,16 +945,36 @@ public class ContentSpecProcessor implements ShutdownAbleApp {
         }
     }
 
+    /**
+     * Resolves the titles of the Source URLs for all the new or cloned topics that will be saved.
+     *
+     * @param specTopics A Map of the all the Content Specification Topics that exist in the Content Specification.
+     */
+    protected void resolveSourceUrlTitles(final Map<String, SpecTopic> specTopics) {
+        final Set<String> urls = new LinkedHashSet<String>();
+        for (final SpecTopic specTopic : specTopics.values()) {
+            final TopicIdKind idKind = TopicIdKind.classify(specTopic.getId());
+            if (idKind == TopicIdKind.NEW || idKind == TopicIdKind.CLONED) {
+                urls.addAll(specTopic.getSourceUrls(true));
+            }
+        }
+
+        if (!urls.isEmpty()) {
+            LOG.info("Resolving the titles for " + urls.size() + " Source URL(s)...");
+            sourceUrlTitleResolver.resolve(urls);
+        }
+    }
+
     /**
      * Saves the Content Specification and all of the topics in the content specification
      *
      * @param contentSpec The Content Specification to be saved.
-     * @param specTopics  A HashMap of the all the Content Specification Topics that exist in the Content Specification. The key is the
+     * @param specTopics  A Map of the all the Content Specification Topics that exist in the Content Specification. The key is the
      *                    Topics ID.
      * @param edit        Whether the content specification is being edited or created.
      * @return True if the topic saved successfully otherwise false.
      */
-    public boolean saveContentSpec(final ContentSpec contentSpec, final HashMap<String, SpecTopic> specTopics,
+    public boolean saveContentSpec(final ContentSpec contentSpec, final Map<String, SpecTopic> specTopics,
             final RESTLogDetailsV1 logDetails, final boolean edit) {
         try {
             // Get the full text representation of the processed content spec
@@ -717,6 +1000,9 @@ public class ContentSpecProcessor implements ShutdownAbleApp {
                 }
             }
 
+            // Resolve the titles for any new Source URLs in one go, so each URL is only fetched once
+            resolveSourceUrlTitles(specTopics);
+
             // Create the new topic entities
             for (final Entry<String, SpecTopic> entry : specTopics.entrySet()) {
                 final String specTopicId = entry.getKey();
@@ -729,7 +1015,8 @@ public class ContentSpecProcessor implements ShutdownAbleApp {
 
                 // Add topics to the TopicPool that need to be added or updated
                 final SpecTopic specTopic = entry.getValue();
-                if (specTopic.getId().matches("(" + CSConstants.NEW_TOPIC_ID_REGEX + "|" + CSConstants.CLONED_TOPIC_ID_REGEX + ")")) {
+                final TopicIdKind idKind = TopicIdKind.classify(specTopic.getId());
+                if (idKind == TopicIdKind.NEW || idKind == TopicIdKind.CLONED) {
                     try {
                         final RESTTopicV1 topic = createTopicEntity(specTopic);
                         if (topic != null) {
@@ -779,7 +1066,7 @@ public class ContentSpecProcessor implements ShutdownAbleApp {
             }
 
             // Validate that the content specification was processed correctly
-            if (!validatePostProcessedSpec(postCS)) {
+            if (!ProcessorUtilities.validatePostProcessedSpec(postCS)) {
                 throw new ProcessingException("Failed to create the Post Content Specification.");
             }
 
@@ -805,65 +1092,59 @@ public class ContentSpecProcessor implements ShutdownAbleApp {
     }
 
     /**
-     * Checks a post processed content specification to ensure that no new, cloned or duplicated
-     * topics exist in the content specification as they should have been resolved to
-     * existing topics.
+     * Gets the result of parsing the Content Specification that was last processed.
      *
-     * @param postProcessedSpec The post processed content specification.
-     * @return True if no invalid topics were found, otherwise false
+     * @return The parse result, or null if no Content Specification has been parsed.
      */
-    private boolean validatePostProcessedSpec(final String postProcessedSpec) {
-        Pattern newTopicPattern = Pattern.compile("(#.*)?\\[[ ]*N[0-9]*[ ]*,.*?\\]");
-        Matcher matcher = newTopicPattern.matcher(postProcessedSpec);
-
-        while (matcher.find()) {
-            final String match = matcher.group();
-            if (!match.contains("#")) return false;
-        }
-
-        Pattern clonedTopicPattern = Pattern.compile("(#.*)?\\[[ ]*C[0-9]+.*?\\]");
-        matcher = clonedTopicPattern.matcher(postProcessedSpec);
-
-        while (matcher.find()) {
-            final String match = matcher.group();
-            if (!match.contains("#")) return false;
-        }
-
-        Pattern duplicateTopicPattern = Pattern.compile("(#.*)?\\[[ ]*X[0-9]+.*?\\]");
-        matcher = duplicateTopicPattern.matcher(postProcessedSpec);
-
-        while (matcher.find()) {
-            final String match = matcher.group();
-            if (!match.contains("#")) return false;
-        }
-
-        Pattern duplicateClonedTopicPattern = Pattern.compile("(#.*)?\\[[ ]*XC[0-9]+.*?\\]");
-        matcher = duplicateClonedTopicPattern.matcher(postProcessedSpec);
-
-        while (matcher.find()) {
-            final String match = matcher.group();
-            if (!match.contains("#")) return false;
-        }
-
-        return true;
+    public ParseResult getParseResult() {
+        return parseResult;
     }
 
     /**
      * Get the Content Specification Parser used in this
-     * Processor.
+     * Processor. The getters of the parser read from the same result as {@link #getParseResult()}, whether the Content
+     * Specification was parsed or a cached result was used. Until a Content Specification has been processed, the getters
+     * return an empty result.
      *
      * @return The ContentSpecParser used within this processor.
      */
     public ContentSpecParser getParser() {
+        if (parseResult != null) {
+            csp.setLastParseResult(parseResult);
+        }
         return csp;
     }
 
+    /**
+     * Get the cache of parse results used in this Processor.
+     *
+     * @return The ParseResultCache used within this processor, or null if parse results aren't cached.
+     */
+    public ParseResultCache getParseResultCache() {
+        return parseResultCache;
+    }
+
+    /**
+     * Sets the cache of parse results used in this Processor, in place of the cache that is shared by every processor.
+     *
+     * @param parseResultCache The cache to use, or null to not cache parse results.
+     */
+    public void setParseResultCache(final ParseResultCache parseResultCache) {
+        this.parseResultCache = parseResultCache;
+    }
+
     @Override
     public void shutdown() {
         isShuttingDown.set(true);
         if (validator != null) {
             validator.shutdown();
         }
+        if (parseExecutor != null) {
+            parseExecutor.shutdownNow();
+        }
+        if (topicRevisionCache != null) {
+            topicRevisionCache.close();
+        }
     }
 
     @Override
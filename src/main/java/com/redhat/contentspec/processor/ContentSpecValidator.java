@@ -5,19 +5,33 @@ import static java.lang.String.format;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import com.redhat.contentspec.processor.ValidationContext.TopicKey;
 import com.redhat.contentspec.processor.constants.ProcessorConstants;
+import com.redhat.contentspec.processor.enums.TopicIdKind;
 import com.redhat.contentspec.processor.structures.ProcessingOptions;
+import com.redhat.contentspec.processor.utils.LogBuffer;
+import com.redhat.contentspec.processor.utils.ParallelDownloader;
+import com.redhat.contentspec.processor.utils.PerThreadReaders;
 import com.redhat.contentspec.processor.utils.ProcessorUtilities;
+import com.redhat.contentspec.processor.utils.TagDictionary;
+import com.redhat.contentspec.processor.utils.TopicRevisionCache;
+import com.redhat.contentspec.processor.utils.TranslatedTopicCache;
+import org.apache.log4j.Logger;
 import org.jboss.pressgang.ccms.contentspec.Appendix;
 import org.jboss.pressgang.ccms.contentspec.ContentSpec;
 import org.jboss.pressgang.ccms.contentspec.Level;
@@ -50,6 +64,7 @@ import org.jboss.pressgang.ccms.utils.common.DocBookUtilities;
 import org.jboss.pressgang.ccms.utils.common.HashUtilities;
 import org.jboss.pressgang.ccms.utils.common.XMLUtilities;
 import org.jboss.pressgang.ccms.utils.constants.CommonConstants;
+import org.jboss.pressgang.ccms.utils.structures.Pair;
 import org.w3c.dom.Document;
 
 /**
@@ -63,14 +78,21 @@ import org.w3c.dom.Document;
  * @author lnewson
  */
 public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements ShutdownAbleApp {
+    private static final Logger LOG = Logger.getLogger(ContentSpecValidator.class);
+
     private final RESTReader reader;
+    private final TagDictionary tagDictionary;
     private final ErrorLogger log;
     private final ProcessingOptions processingOptions;
     private final AtomicBoolean isShuttingDown = new AtomicBoolean(false);
     private final AtomicBoolean shutdown = new AtomicBoolean(false);
     private final Class<T> clazz;
-
-    private String locale;
+    private final TranslatedTopicCache translatedTopicCache = new TranslatedTopicCache();
+    private volatile ExecutorService validationExecutor = null;
+    private volatile TopicRevisionCache topicRevisionCache = null;
+    private volatile PerThreadReaders downloadReaders = null;
+    private final Map<TopicKey, RESTBaseTopicV1<?, ?, ?>> downloadedTopics = new ConcurrentHashMap<TopicKey,
+            RESTBaseTopicV1<?, ?, ?>>();
 
     @Override
     public void shutdown() {
@@ -95,8 +117,60 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
         this.clazz = clazz;
         log = elm.getLogger(ContentSpecValidator.class);
         reader = restManager.getReader();
+        tagDictionary = TagDictionary.getInstance(reader);
         this.processingOptions = processingOptions;
-        locale = CommonConstants.DEFAULT_LOCALE;
+    }
+
+    /**
+     * Sets the executor that is used to pre-validate the top level levels of a Content Specification at the same time.
+     * The executor is used by every validation that is started after it is set, and isn't shut down by the validator.
+     *
+     * @param validationExecutor The executor to validate the levels with, or null to validate the levels on the calling
+     *                           thread.
+     */
+    public void setValidationExecutor(final ExecutorService validationExecutor) {
+        this.validationExecutor = validationExecutor;
+    }
+
+    /**
+     * Sets the cache that topics which are validated against a revision are read from, and added to once they have been
+     * downloaded. The cache isn't closed by the validator.
+     *
+     * @param topicRevisionCache The cache of topics at a revision, or null if the topics shouldn't be cached.
+     */
+    public void setTopicRevisionCache(final TopicRevisionCache topicRevisionCache) {
+        this.topicRevisionCache = topicRevisionCache;
+    }
+
+    /**
+     * Sets the readers that the topics are downloaded with, so that each download thread uses a reader of its own. When
+     * they aren't set the topics are downloaded one at a time through the shared reader.
+     *
+     * @param downloadReaders The readers to download the topics with, or null to download them through the shared reader.
+     */
+    public void setDownloadReaders(final PerThreadReaders downloadReaders) {
+        this.downloadReaders = downloadReaders;
+    }
+
+    /**
+     * Adds a topic that has already been downloaded, so that it isn't downloaded again when a topic is validated against it.
+     *
+     * @param topicId  The ID of the topic.
+     * @param revision The revision the topic was downloaded for, or null if the latest revision was downloaded.
+     * @param topic    The topic that was downloaded.
+     */
+    public void addDownloadedTopic(final Integer topicId, final Integer revision, final RESTTopicV1 topic) {
+        downloadedTopics.put(new TopicKey(topicId, revision, null), topic);
+    }
+
+    /**
+     * Creates the context for a single validation pass, that logs any messages straight to the validator's logger.
+     *
+     * @param locale The locale that is being validated for.
+     * @return The context for the validation pass.
+     */
+    private ValidationContext createContext(final String locale) {
+        return new ValidationContext(locale, new LogBuffer(log));
     }
 
     /**
@@ -126,7 +200,21 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
      * @return True if the content specification is valid, otherwise false.
      */
     public boolean preValidateContentSpec(final ContentSpec contentSpec, final Map<String, SpecTopic> specTopics) {
-        locale = contentSpec.getLocale() == null ? locale : contentSpec.getLocale();
+        return preValidateContentSpec(contentSpec, specTopics, new LogBuffer(log));
+    }
+
+    /**
+     * Validates that a Content Specification is valid by checking the META data, child levels and topics, and logs any
+     * messages to a buffer instead of the validator's logger.
+     *
+     * @param contentSpec The content specification to be validated.
+     * @param specTopics  The list of topics that exist within the content specification.
+     * @param log         The buffer to log the messages to.
+     * @return True if the content specification is valid, otherwise false.
+     */
+    boolean preValidateContentSpec(final ContentSpec contentSpec, final Map<String, SpecTopic> specTopics, final LogBuffer log) {
+        final ValidationContext ctx = new ValidationContext(
+                contentSpec.getLocale() == null ? CommonConstants.DEFAULT_LOCALE : contentSpec.getLocale(), log);
 
         // Check if the app should be shutdown
         if (isShuttingDown.get()) {
@@ -194,16 +282,16 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
         }
 
         // Check that any metadata topics are valid
-        if (contentSpec.getRevisionHistory() != null && !preValidateTopic(contentSpec.getRevisionHistory(), specTopics,
+        if (contentSpec.getRevisionHistory() != null && !preValidateTopic(ctx, contentSpec.getRevisionHistory(), specTopics,
                 contentSpec.getBookType(), false)) {
             valid = false;
         }
-        if (contentSpec.getFeedback() != null && !preValidateTopic(contentSpec.getFeedback(), specTopics, contentSpec.getBookType(),
+        if (contentSpec.getFeedback() != null && !preValidateTopic(ctx, contentSpec.getFeedback(), specTopics, contentSpec.getBookType(),
                 false)) {
             valid = false;
         }
-        if (contentSpec.getLegalNotice() != null && !preValidateTopic(contentSpec.getLegalNotice(), specTopics, contentSpec.getBookType(),
-                false)) {
+        if (contentSpec.getLegalNotice() != null && !preValidateTopic(ctx, contentSpec.getLegalNotice(), specTopics,
+                contentSpec.getBookType(), false)) {
             valid = false;
         }
 
@@ -222,7 +310,8 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
         }
 
         // Check that each level is valid
-        if (!preValidateLevel(contentSpec.getBaseLevel(), specTopics, contentSpec.getAllowEmptyLevels(), contentSpec.getBookType())) {
+        if (!preValidateLevel(ctx, contentSpec.getBaseLevel(), specTopics, contentSpec.getAllowEmptyLevels(), contentSpec.getBookType(),
+                validationExecutor)) {
             valid = false;
         }
 
@@ -233,13 +322,10 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
           * in the
          * content specification. If we are updating revisions however, we can ignore this check.
          */
-        if (!processingOptions.isUpdateRevisions() && !checkTopicsForInvalidDuplicates(contentSpec)) {
+        if (!processingOptions.isUpdateRevisions() && !checkTopicsForInvalidDuplicates(ctx, contentSpec)) {
             valid = false;
         }
 
-        // reset the locale back to its default
-        locale = CommonConstants.DEFAULT_LOCALE;
-
         return valid;
     }
 
@@ -247,44 +333,32 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
      * Checks a Content Specification to see if it contains existing topics that have the same ID but different
      * revisions.
      *
+     * @param ctx         The context of the current validation pass.
      * @param contentSpec The content specification to be validated.
      * @return True if no duplicates were found, otherwise false.
      */
-    private boolean checkTopicsForInvalidDuplicates(final ContentSpec contentSpec) {
-        boolean valid = true;
-
-        /* Find all Topics that have two or more different revisions */
-        final List<SpecTopic> allSpecTopics = contentSpec.getSpecTopics();
-        final Map<Integer, Map<Integer, Set<SpecTopic>>> invalidSpecTopics = new HashMap<Integer, Map<Integer, Set<SpecTopic>>>();
-        for (final SpecTopic specTopic1 : allSpecTopics) {
-            if (!specTopic1.isTopicAnExistingTopic()) continue;
-
-            for (final SpecTopic specTopic2 : allSpecTopics) {
-                // If the Topic isn't an existing topic and doesn't match the first spec topic's id, then continue
-                if (specTopic1 == specTopic2 || !specTopic2.isTopicAnExistingTopic() || !specTopic1.getDBId().equals(specTopic2.getDBId()))
-                    continue;
-
-                // Check if the revisions between the two topics are the same
-                if (specTopic1.getRevision() == null && specTopic2.getRevision() != null || specTopic1.getRevision() != null &&
-                        specTopic2.getRevision() == null || specTopic1.getRevision() != null && !specTopic1.getRevision().equals(
-                        specTopic2.getRevision())) {
-                    if (!invalidSpecTopics.containsKey(specTopic1.getDBId())) {
-                        invalidSpecTopics.put(specTopic1.getDBId(), new HashMap<Integer, Set<SpecTopic>>());
-                    }
-
-                    final Map<Integer, Set<SpecTopic>> revisionsToSpecTopic = invalidSpecTopics.get(specTopic1.getDBId());
-                    if (!revisionsToSpecTopic.containsKey(specTopic1.getRevision())) {
-                        revisionsToSpecTopic.put(specTopic1.getRevision(), new HashSet<SpecTopic>());
-                    }
+    private boolean checkTopicsForInvalidDuplicates(final ValidationContext ctx, final ContentSpec contentSpec) {
+        final List<String> messages = createInvalidDuplicateMessages(contentSpec.getSpecTopics());
+        for (final String message : messages) {
+            ctx.log.error(message);
+        }
 
-                    revisionsToSpecTopic.get(specTopic1.getRevision()).add(specTopic1);
+        return messages.isEmpty();
+    }
 
-                    valid = false;
-                }
-            }
-        }
+    /**
+     * Creates an error message for each existing topic that is used with two or more different revisions.
+     *
+     * @param allSpecTopics The topics in a content specification.
+     * @return The error messages, in the order that they should be logged.
+     */
+    static List<String> createInvalidDuplicateMessages(final List<SpecTopic> allSpecTopics) {
+        /* Find all Topics that have two or more different revisions */
+        final Map<Integer, Map<Integer, Set<SpecTopic>>> invalidSpecTopics = ProcessorUtilities.findTopicsWithDifferentRevisions(
+                allSpecTopics);
 
         /* Loop through and generate an error message for each invalid topic */
+        final List<String> messages = new ArrayList<String>();
         for (final Entry<Integer, Map<Integer, Set<SpecTopic>>> entry : invalidSpecTopics.entrySet()) {
             final Integer topicId = entry.getKey();
             final Map<Integer, Set<SpecTopic>> revisionsToSpecTopic = entry.getValue();
@@ -325,10 +399,10 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
                 message.append(format(ProcessorConstants.CSLINE_MSG, revNumber));
             }
 
-            log.error(message.toString());
+            messages.add(message.toString());
         }
 
-        return valid;
+        return messages;
     }
 
     /**
@@ -339,7 +413,8 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
      */
     @SuppressWarnings("deprecation")
     public boolean postValidateContentSpec(final ContentSpec contentSpec) {
-        locale = contentSpec.getLocale() == null ? locale : contentSpec.getLocale();
+        final ValidationContext ctx = createContext(
+                contentSpec.getLocale() == null ? CommonConstants.DEFAULT_LOCALE : contentSpec.getLocale());
 
         // Check if the app should be shutdown
         if (isShuttingDown.get()) {
@@ -397,7 +472,7 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
         // Check that the injection options are valid
         if (contentSpec.getInjectionOptions() != null) {
             for (final String injectionType : contentSpec.getInjectionOptions().getStrictTopicTypes()) {
-                final List<RESTTagV1> tags = reader.getTagsByName(injectionType);
+                final List<RESTTagV1> tags = tagDictionary.getTagsByName(injectionType);
                 if (tags.size() == 1) {
                     if (!ComponentTagV1.containedInCategory(tags.get(0), CSConstants.TYPE_CATEGORY_ID)) {
                         log.error(format(ProcessorConstants.ERROR_INVALID_INJECTION_TYPE_MSG, injectionType));
@@ -410,25 +485,25 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
             }
         }
 
+        // Download the topics that the content specification is validated against, before any of the topics are validated
+        downloadTopics(ctx, contentSpec);
+
         // Check that any metadata topics are valid
-        if (contentSpec.getRevisionHistory() != null && !postValidateTopic(contentSpec.getRevisionHistory())) {
+        if (contentSpec.getRevisionHistory() != null && !postValidateTopic(ctx, contentSpec.getRevisionHistory())) {
             valid = false;
         }
-        if (contentSpec.getFeedback() != null && !postValidateTopic(contentSpec.getFeedback())) {
+        if (contentSpec.getFeedback() != null && !postValidateTopic(ctx, contentSpec.getFeedback())) {
             valid = false;
         }
-        if (contentSpec.getLegalNotice() != null && !postValidateTopic(contentSpec.getLegalNotice())) {
+        if (contentSpec.getLegalNotice() != null && !postValidateTopic(ctx, contentSpec.getLegalNotice())) {
             valid = false;
         }
 
         // Check that each level is valid
-        if (!postValidateLevel(contentSpec.getBaseLevel())) {
+        if (!postValidateLevel(ctx, contentSpec.getBaseLevel())) {
             valid = false;
         }
 
-        // reset the locale back to its default
-        this.locale = CommonConstants.DEFAULT_LOCALE;
-
         return valid;
     }
 
@@ -441,9 +516,46 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
      * @param targetTopics  The list of target topics in a content specification.
      * @return True if the relationships are valid, otherwise false.
      */
-    public boolean preValidateRelationships(final HashMap<String, List<Relationship>> relationships,
-            final HashMap<String, SpecTopic> specTopics, final HashMap<String, Level> targetLevels,
-            final HashMap<String, SpecTopic> targetTopics) {
+    public boolean preValidateRelationships(final Map<String, List<Relationship>> relationships,
+            final Map<String, SpecTopic> specTopics, final Map<String, Level> targetLevels,
+            final Map<String, SpecTopic> targetTopics) {
+        return preValidateRelationships(relationships, specTopics, ProcessorUtilities.buildTopicIdIndex(specTopics), targetLevels,
+                targetTopics);
+    }
+
+    /**
+     * Validates the relationships in the content specification against the topics and targets, using a pre-built index
+     * of topic IDs to resolve the related topics.
+     *
+     * @param relationships The relationships to be validated.
+     * @param specTopics    The list of topics that exist within the content specification.
+     * @param topicIdIndex  The index of topic IDs to the unique IDs of the topics that use them. See
+     *                      {@link ProcessorUtilities#buildTopicIdIndex(java.util.Map)}.
+     * @param targetLevels  The list of target levels in a content specification.
+     * @param targetTopics  The list of target topics in a content specification.
+     * @return True if the relationships are valid, otherwise false.
+     */
+    public boolean preValidateRelationships(final Map<String, List<Relationship>> relationships,
+            final Map<String, SpecTopic> specTopics, final Map<String, List<String>> topicIdIndex,
+            final Map<String, Level> targetLevels, final Map<String, SpecTopic> targetTopics) {
+        return preValidateRelationships(relationships, specTopics, topicIdIndex, targetLevels, targetTopics, new LogBuffer(log));
+    }
+
+    /**
+     * Validates the relationships in the content specification against the topics and targets, and logs any messages to a
+     * buffer instead of the validator's logger.
+     *
+     * @param relationships The relationships to be validated.
+     * @param specTopics    The list of topics that exist within the content specification.
+     * @param topicIdIndex  The index of topic IDs to the unique IDs of the topics that use them.
+     * @param targetLevels  The list of target levels in a content specification.
+     * @param targetTopics  The list of target topics in a content specification.
+     * @param log           The buffer to log the messages to.
+     * @return True if the relationships are valid, otherwise false.
+     */
+    boolean preValidateRelationships(final Map<String, List<Relationship>> relationships, final Map<String, SpecTopic> specTopics,
+            final Map<String, List<String>> topicIdIndex, final Map<String, Level> targetLevels,
+            final Map<String, SpecTopic> targetTopics, final LogBuffer log) {
         boolean error = false;
         for (final Entry<String, List<Relationship>> relationshipEntry : relationships.entrySet()) {
             final String topicId = relationshipEntry.getKey();
@@ -464,7 +576,7 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
 
                 final String relatedId = relationship.getSecondaryRelationshipTopicId();
                 // The relationship points to a target so it must be a level or topic
-                if (relatedId.toUpperCase().matches(ProcessorConstants.TARGET_REGEX)) {
+                if (ProcessorConstants.TARGET_PATTERN.matcher(relatedId.toUpperCase()).matches()) {
                     if (targetTopics.containsKey(relatedId) && !targetLevels.containsKey(relatedId)) {
                         /*
                          * final SpecTopic targetTopic = targetTopics.get(relatedId); if (relationship
@@ -501,7 +613,7 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
                     }
                     // The relationship isn't a target so it must point to a topic directly
                 } else {
-                    if (!relatedId.matches(CSConstants.NEW_TOPIC_ID_REGEX)) {
+                    if (TopicIdKind.classify(relatedId) != TopicIdKind.NEW) {
                         // The relationship isn't a unique new topic so it will contain the line number in front of
                         // the topic ID
                         if (relatedId.startsWith("X")) {
@@ -513,11 +625,10 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
                             int count = 0;
                             final List<SpecTopic> relatedTopics = new ArrayList<SpecTopic>();
                             // Get the related topic and count if more then one is found
-                            for (final Entry<String, SpecTopic> entry : specTopics.entrySet()) {
-                                final String specTopicId = entry.getKey();
-
-                                if (specTopicId.matches("^[0-9]+-" + relatedId + "$")) {
-                                    relatedTopics.add(entry.getValue());
+                            final List<String> relatedUniqueIds = topicIdIndex.get(relatedId);
+                            if (relatedUniqueIds != null) {
+                                for (final String relatedUniqueId : relatedUniqueIds) {
+                                    relatedTopics.add(specTopics.get(relatedUniqueId));
                                     count++;
                                 }
                             }
@@ -594,7 +705,8 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
     }
 
     /**
-     * Validates a level to ensure its format and child levels/topics are valid.
+     * Validates a level to ensure its format and child levels/topics are valid, for a content specification in the default
+     * locale.
      *
      * @param level              The level to be validated.
      * @param specTopics         The list of topics that exist within the content specification.
@@ -604,6 +716,42 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
      */
     public boolean preValidateLevel(final Level level, final Map<String, SpecTopic> specTopics, final boolean csAllowEmptyLevels,
             final BookType bookType) {
+        return preValidateLevel(level, specTopics, csAllowEmptyLevels, bookType, CommonConstants.DEFAULT_LOCALE);
+    }
+
+    /**
+     * Validates a level to ensure its format and child levels/topics are valid.
+     *
+     * @param level              The level to be validated.
+     * @param specTopics         The list of topics that exist within the content specification.
+     * @param csAllowEmptyLevels If the "Allow Empty Levels" bit is set in a content specification.
+     * @param bookType           The type of book the level should be validated for.
+     * @param locale             The locale of the content specification that the level belongs to.
+     * @return True if the level is valid otherwise false.
+     */
+    public boolean preValidateLevel(final Level level, final Map<String, SpecTopic> specTopics, final boolean csAllowEmptyLevels,
+            final BookType bookType, final String locale) {
+        return preValidateLevel(createContext(locale == null ? CommonConstants.DEFAULT_LOCALE : locale), level, specTopics,
+                csAllowEmptyLevels, bookType, validationExecutor);
+    }
+
+    /**
+     * Validates a level to ensure its format and child levels/topics are valid. If an executor is passed and the level has
+     * more than one child level, then each child level is validated as a separate task and the messages from each task
+     * are logged in the order of the child nodes, so that they are the same as if the level had been validated on a
+     * single thread. The tasks validate their own children on the thread they run on, so that a task never has to wait
+     * for another task that is queued on the same executor.
+     *
+     * @param ctx                The context of the current validation pass.
+     * @param level              The level to be validated.
+     * @param specTopics         The list of topics that exist within the content specification.
+     * @param csAllowEmptyLevels If the "Allow Empty Levels" bit is set in a content specification.
+     * @param bookType           The type of book the level should be validated for.
+     * @param executor           The executor to validate the child levels with, or null to validate them on this thread.
+     * @return True if the level is valid otherwise false.
+     */
+    private boolean preValidateLevel(final ValidationContext ctx, final Level level, final Map<String, SpecTopic> specTopics,
+            final boolean csAllowEmptyLevels, final BookType bookType, final ExecutorService executor) {
         // Check if the app should be shutdown
         if (isShuttingDown.get()) {
             shutdown.set(true);
@@ -615,7 +763,7 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
         // Make sure the level has a type, if it doesn't then return false immediately
         final LevelType levelType = level.getLevelType();
         if (levelType == null) {
-            log.error(ProcessorConstants.ERROR_PROCESSING_ERROR_MSG);
+            ctx.log.error(ProcessorConstants.ERROR_PROCESSING_ERROR_MSG);
             return false;
         }
 
@@ -628,35 +776,54 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
             // Check to make sure an inner topic doesn't exist, unless its a section level as in that case the section should just be a
             // normal topic
             if (levelType == LevelType.SECTION || level.getInnerTopic() == null) {
-                log.error(format(ProcessorConstants.ERROR_LEVEL_NO_TOPICS_MSG, level.getLineNumber(), levelType.getTitle(),
+                ctx.log.error(format(ProcessorConstants.ERROR_LEVEL_NO_TOPICS_MSG, level.getLineNumber(), levelType.getTitle(),
                         levelType.getTitle(), level.getText()));
                 valid = false;
             }
         } else if (levelType == LevelType.PART && level.getNumberOfChildLevels() <= 0) {
-            log.error(format(ProcessorConstants.ERROR_LEVEL_NO_CHILD_LEVELS_MSG, level.getLineNumber(), levelType.getTitle(),
+            ctx.log.error(format(ProcessorConstants.ERROR_LEVEL_NO_CHILD_LEVELS_MSG, level.getLineNumber(), levelType.getTitle(),
                     levelType.getTitle(), level.getText()));
             valid = false;
         }
 
         if (level.getTitle() == null || level.getTitle().equals("")) {
-            log.error(format(ProcessorConstants.ERROR_LEVEL_NO_TITLE_MSG, level.getLineNumber(), levelType.getTitle(), level.getText()));
+            ctx.log.error(format(ProcessorConstants.ERROR_LEVEL_NO_TITLE_MSG,
+                    level.getLineNumber(), levelType.getTitle(), level.getText()));
             valid = false;
         }
 
         // Validate the topics level
-        if (level.getInnerTopic() != null && !preValidateTopic(level.getInnerTopic(), specTopics, bookType)) {
+        if (level.getInnerTopic() != null && !preValidateTopic(ctx, level.getInnerTopic(), specTopics, bookType, true)) {
             valid = false;
         }
 
         // Validate the sub levels and topics
-        for (final Node childNode : level.getChildNodes()) {
-            if (childNode instanceof Level) {
-                if (!preValidateLevel((Level) childNode, specTopics, csAllowEmptyLevels, bookType)) {
-                    valid = false;
+        final List<Node> childNodes = level.getChildNodes();
+        final List<LevelValidationTask> childLevelTasks = executor != null && level.getNumberOfChildLevels() > 1
+                ? submitChildLevels(ctx, childNodes, specTopics, csAllowEmptyLevels, bookType, executor) : null;
+        try {
+            final Iterator<LevelValidationTask> childLevelTaskIterator = childLevelTasks == null ? null : childLevelTasks.iterator();
+            for (final Node childNode : childNodes) {
+                if (childNode instanceof Level) {
+                    final boolean levelValid;
+                    if (childLevelTaskIterator == null) {
+                        levelValid = preValidateLevel(ctx, (Level) childNode, specTopics, csAllowEmptyLevels, bookType, executor);
+                    } else {
+                        levelValid = childLevelTaskIterator.next().getResult(ctx);
+                    }
+                    if (!levelValid) {
+                        valid = false;
+                    }
+                } else if (childNode instanceof SpecTopic) {
+                    if (!preValidateTopic(ctx, (SpecTopic) childNode, specTopics, bookType, true)) {
+                        valid = false;
+                    }
                 }
-            } else if (childNode instanceof SpecTopic) {
-                if (!preValidateTopic((SpecTopic) childNode, specTopics, bookType)) {
-                    valid = false;
+            }
+        } finally {
+            if (childLevelTasks != null) {
+                for (final LevelValidationTask childLevelTask : childLevelTasks) {
+                    childLevelTask.future.cancel(true);
                 }
             }
         }
@@ -667,7 +834,7 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
             switch (levelType) {
                 case APPENDIX:
                     if (!(parentLevelType == LevelType.BASE)) {
-                        log.error(format(ProcessorConstants.ERROR_ARTICLE_NESTED_APPENDIX_MSG, level.getLineNumber(), level.getText()));
+                        ctx.log.error(format(ProcessorConstants.ERROR_ARTICLE_NESTED_APPENDIX_MSG, level.getLineNumber(), level.getText()));
                         valid = false;
                     }
 
@@ -678,30 +845,31 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
                     while (parentNodes.hasNext()) {
                         final Node node = parentNodes.next();
                         if (node instanceof Level && !(node instanceof Appendix)) {
-                            log.error(format(ProcessorConstants.ERROR_CS_APPENDIX_STRUCTURE_MSG, level.getLineNumber(), level.getText()));
+                            ctx.log.error(format(ProcessorConstants.ERROR_CS_APPENDIX_STRUCTURE_MSG,
+                                    level.getLineNumber(), level.getText()));
                             valid = false;
                         }
                     }
                     break;
                 case CHAPTER:
-                    log.error(format(ProcessorConstants.ERROR_ARTICLE_CHAPTER_MSG, level.getLineNumber(), level.getText()));
+                    ctx.log.error(format(ProcessorConstants.ERROR_ARTICLE_CHAPTER_MSG, level.getLineNumber(), level.getText()));
                     valid = false;
                     break;
                 case PROCESS:
-                    log.error(format(ProcessorConstants.ERROR_ARTICLE_PROCESS_MSG, level.getLineNumber(), level.getText()));
+                    ctx.log.error(format(ProcessorConstants.ERROR_ARTICLE_PROCESS_MSG, level.getLineNumber(), level.getText()));
                     valid = false;
                     break;
                 case PART:
-                    log.error(format(ProcessorConstants.ERROR_ARTICLE_PART_MSG, level.getLineNumber(), level.getText()));
+                    ctx.log.error(format(ProcessorConstants.ERROR_ARTICLE_PART_MSG, level.getLineNumber(), level.getText()));
                     valid = false;
                     break;
                 case PREFACE:
-                    log.error(format(ProcessorConstants.ERROR_ARTICLE_PREFACE_MSG, level.getLineNumber(), level.getText()));
+                    ctx.log.error(format(ProcessorConstants.ERROR_ARTICLE_PREFACE_MSG, level.getLineNumber(), level.getText()));
                     valid = false;
                     break;
                 case SECTION:
                     if (!(parentLevelType == LevelType.BASE || parentLevelType == LevelType.SECTION)) {
-                        log.error(format(ProcessorConstants.ERROR_ARTICLE_SECTION_MSG, level.getLineNumber(), level.getText()));
+                        ctx.log.error(format(ProcessorConstants.ERROR_ARTICLE_SECTION_MSG, level.getLineNumber(), level.getText()));
                         valid = false;
                     }
                     break;
@@ -714,7 +882,7 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
             switch (levelType) {
                 case APPENDIX:
                     if (!(parentLevelType == LevelType.BASE || parentLevelType == LevelType.PART)) {
-                        log.error(format(ProcessorConstants.ERROR_CS_NESTED_APPENDIX_MSG, level.getLineNumber(), level.getText()));
+                        ctx.log.error(format(ProcessorConstants.ERROR_CS_NESTED_APPENDIX_MSG, level.getLineNumber(), level.getText()));
                         valid = false;
                     }
 
@@ -725,7 +893,8 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
                     while (parentNodes.hasNext()) {
                         final Node node = parentNodes.next();
                         if (node instanceof Level && !(node instanceof Appendix)) {
-                            log.error(format(ProcessorConstants.ERROR_CS_APPENDIX_STRUCTURE_MSG, level.getLineNumber(), level.getText()));
+                            ctx.log.error(format(ProcessorConstants.ERROR_CS_APPENDIX_STRUCTURE_MSG,
+                                    level.getLineNumber(), level.getText()));
                             valid = false;
                         }
                     }
@@ -733,7 +902,7 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
                     break;
                 case CHAPTER:
                     if (!(parentLevelType == LevelType.BASE || parentLevelType == LevelType.PART)) {
-                        log.error(format(ProcessorConstants.ERROR_CS_NESTED_CHAPTER_MSG, level.getLineNumber(), level.getText()));
+                        ctx.log.error(format(ProcessorConstants.ERROR_CS_NESTED_CHAPTER_MSG, level.getLineNumber(), level.getText()));
                         valid = false;
                     }
                     break;
@@ -741,26 +910,26 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
                     // Check that the process has no children
                     Process process = (Process) level;
                     if (process.getNumberOfChildLevels() != 0) {
-                        log.error(format(ProcessorConstants.ERROR_PROCESS_HAS_LEVELS_MSG, process.getLineNumber(), process.getText()));
+                        ctx.log.error(format(ProcessorConstants.ERROR_PROCESS_HAS_LEVELS_MSG, process.getLineNumber(), process.getText()));
                         valid = false;
                     }
                     break;
                 case PART:
                     if (parentLevelType != LevelType.BASE) {
-                        log.error(format(ProcessorConstants.ERROR_CS_NESTED_PART_MSG, level.getLineNumber(), level.getText()));
+                        ctx.log.error(format(ProcessorConstants.ERROR_CS_NESTED_PART_MSG, level.getLineNumber(), level.getText()));
                         valid = false;
                     }
                     break;
                 case PREFACE:
                     if (parentLevelType != LevelType.BASE || parentLevelType == LevelType.PART) {
-                        log.error(format(ProcessorConstants.ERROR_CS_NESTED_PREFACE_MSG, level.getLineNumber(), level.getText()));
+                        ctx.log.error(format(ProcessorConstants.ERROR_CS_NESTED_PREFACE_MSG, level.getLineNumber(), level.getText()));
                         valid = false;
                     }
                     break;
                 case SECTION:
                     if (!(parentLevelType == LevelType.APPENDIX || parentLevelType == LevelType.CHAPTER || parentLevelType == LevelType
                             .PREFACE || parentLevelType == LevelType.SECTION)) {
-                        log.error(format(ProcessorConstants.ERROR_CS_SECTION_NO_CHAPTER_MSG, level.getLineNumber(), level.getText()));
+                        ctx.log.error(format(ProcessorConstants.ERROR_CS_SECTION_NO_CHAPTER_MSG, level.getLineNumber(), level.getText()));
                         valid = false;
                     }
                     break;
@@ -773,12 +942,121 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
     }
 
     /**
-     * Validates a level to ensure its format and child levels/topics are valid.
+     * Submits a task to validate each of the child levels of a level.
+     *
+     * @param ctx                The context of the current validation pass.
+     * @param childNodes         The child nodes of the level.
+     * @param specTopics         The list of topics that exist within the content specification.
+     * @param csAllowEmptyLevels If the "Allow Empty Levels" bit is set in a content specification.
+     * @param bookType           The type of book the levels should be validated for.
+     * @param executor           The executor to validate the child levels with.
+     * @return The tasks for the child levels, in the same order as the child levels.
+     */
+    private List<LevelValidationTask> submitChildLevels(final ValidationContext ctx, final List<Node> childNodes,
+            final Map<String, SpecTopic> specTopics, final boolean csAllowEmptyLevels, final BookType bookType,
+            final ExecutorService executor) {
+        final List<LevelValidationTask> tasks = new ArrayList<LevelValidationTask>();
+        try {
+            for (final Node childNode : childNodes) {
+                if (childNode instanceof Level) {
+                    final LevelValidationTask task = new LevelValidationTask(ctx, (Level) childNode, specTopics, csAllowEmptyLevels,
+                            bookType);
+                    task.future = executor.submit(task);
+                    tasks.add(task);
+                }
+            }
+        } catch (RuntimeException e) {
+            for (final LevelValidationTask task : tasks) {
+                task.future.cancel(true);
+            }
+            throw e;
+        }
+        return tasks;
+    }
+
+    /**
+     * A task that pre-validates a level and its children in its own context, so that it can be validated at the same time
+     * as the other levels.
+     */
+    private class LevelValidationTask implements Callable<Boolean> {
+        private final ValidationContext ctx;
+        private final Level level;
+        private final Map<String, SpecTopic> specTopics;
+        private final boolean csAllowEmptyLevels;
+        private final BookType bookType;
+        private Future<Boolean> future;
+
+        private LevelValidationTask(final ValidationContext parentCtx, final Level level, final Map<String, SpecTopic> specTopics,
+                final boolean csAllowEmptyLevels, final BookType bookType) {
+            ctx = new ValidationContext(parentCtx.locale, new LogBuffer());
+            this.level = level;
+            this.specTopics = specTopics;
+            this.csAllowEmptyLevels = csAllowEmptyLevels;
+            this.bookType = bookType;
+        }
+
+        @Override
+        public Boolean call() {
+            return preValidateLevel(ctx, level, specTopics, csAllowEmptyLevels, bookType, null);
+        }
+
+        /**
+         * Waits for the task to finish, and then logs the messages from the task to the context it was created from.
+         *
+         * @param parentCtx The context the task was created from.
+         * @return True if the level is valid otherwise false.
+         */
+        private boolean getResult(final ValidationContext parentCtx) {
+            try {
+                final boolean valid = future.get();
+                ctx.log.flush(parentCtx.log);
+                return valid;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                shutdown.set(true);
+                return false;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                } else if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                } else {
+                    throw new RuntimeException(e.getCause());
+                }
+            }
+        }
+    }
+
+    /**
+     * Validates a level to ensure its format and child levels/topics are valid, for a content specification in the default
+     * locale.
      *
      * @param level The level to be validated.
      * @return True if the level is valid otherwise false.
      */
     public boolean postValidateLevel(final Level level) {
+        return postValidateLevel(level, CommonConstants.DEFAULT_LOCALE);
+    }
+
+    /**
+     * Validates a level to ensure its format and child levels/topics are valid.
+     *
+     * @param level  The level to be validated.
+     * @param locale The locale of the content specification that the level belongs to.
+     * @return True if the level is valid otherwise false.
+     */
+    public boolean postValidateLevel(final Level level, final String locale) {
+        return postValidateLevel(createContext(locale == null ? CommonConstants.DEFAULT_LOCALE : locale), level);
+    }
+
+    /**
+     * Validates a level to ensure its format and child levels/topics are valid.
+     *
+     * @param ctx   The context of the current validation pass.
+     * @param level The level to be validated.
+     * @return True if the level is valid otherwise false.
+     */
+    private boolean postValidateLevel(final ValidationContext ctx, final Level level) {
         // Check if the app should be shutdown
         if (isShuttingDown.get()) {
             shutdown.set(true);
@@ -793,18 +1071,18 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
         }
 
         // Validate the topics level
-        if (level.getInnerTopic() != null && !postValidateTopic(level.getInnerTopic())) {
+        if (level.getInnerTopic() != null && !postValidateTopic(ctx, level.getInnerTopic())) {
             valid = false;
         }
 
         // Validate the sub levels and topics
         for (final Node childNode : level.getChildNodes()) {
             if (childNode instanceof Level) {
-                if (!postValidateLevel((Level) childNode)) {
+                if (!postValidateLevel(ctx, (Level) childNode)) {
                     valid = false;
                 }
             } else if (childNode instanceof SpecTopic) {
-                if (!postValidateTopic((SpecTopic) childNode)) {
+                if (!postValidateTopic(ctx, (SpecTopic) childNode)) {
                     valid = false;
                 }
             }
@@ -814,7 +1092,7 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
     }
 
     /**
-     * Validates a topic against the database and for formatting issues.
+     * Validates a topic against the database and for formatting issues, for a content specification in the default locale.
      *
      * @param specTopic  The topic to be validated.
      * @param specTopics The list of topics that exist within the content specification.
@@ -826,15 +1104,47 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
     }
 
     /**
-     * Validates a topic against the database and for formatting issues.
+     * Validates a topic against the database and for formatting issues, for a content specification in the default locale.
      *
-     * @param specTopic  The topic to be validated.
-     * @param specTopics The list of topics that exist within the content specification.
-     * @param bookType   The type of book the topic is to be validated against.
+     * @param specTopic          The topic to be validated.
+     * @param specTopics         The list of topics that exist within the content specification.
+     * @param bookType           The type of book the topic is to be validated against.
+     * @param allowRelationships If the topic is allowed to have relationships.
      * @return True if the topic is valid otherwise false.
      */
     public boolean preValidateTopic(final SpecTopic specTopic, final Map<String, SpecTopic> specTopics, final BookType bookType,
             boolean allowRelationships) {
+        return preValidateTopic(specTopic, specTopics, bookType, allowRelationships, CommonConstants.DEFAULT_LOCALE);
+    }
+
+    /**
+     * Validates a topic against the database and for formatting issues.
+     *
+     * @param specTopic          The topic to be validated.
+     * @param specTopics         The list of topics that exist within the content specification.
+     * @param bookType           The type of book the topic is to be validated against.
+     * @param allowRelationships If the topic is allowed to have relationships.
+     * @param locale             The locale of the content specification that the topic belongs to.
+     * @return True if the topic is valid otherwise false.
+     */
+    public boolean preValidateTopic(final SpecTopic specTopic, final Map<String, SpecTopic> specTopics, final BookType bookType,
+            final boolean allowRelationships, final String locale) {
+        return preValidateTopic(createContext(locale == null ? CommonConstants.DEFAULT_LOCALE : locale), specTopic, specTopics,
+                bookType, allowRelationships);
+    }
+
+    /**
+     * Validates a topic against the database and for formatting issues.
+     *
+     * @param ctx                The context of the current validation pass.
+     * @param specTopic          The topic to be validated.
+     * @param specTopics         The list of topics that exist within the content specification.
+     * @param bookType           The type of book the topic is to be validated against.
+     * @param allowRelationships If the topic is allowed to have relationships.
+     * @return True if the topic is valid otherwise false.
+     */
+    private boolean preValidateTopic(final ValidationContext ctx, final SpecTopic specTopic, final Map<String, SpecTopic> specTopics,
+            final BookType bookType, final boolean allowRelationships) {
         // Check if the app should be shutdown
         if (isShuttingDown.get()) {
             shutdown.set(true);
@@ -845,13 +1155,13 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
 
         // Check that the topic exists in the spec by checking it's step
         if (specTopic.getStep() == 0) {
-            log.error(ProcessorConstants.ERROR_PROCESSING_ERROR_MSG);
+            ctx.log.error(ProcessorConstants.ERROR_PROCESSING_ERROR_MSG);
             valid = false;
         }
 
         // Checks that the id isn't null and is a valid topic ID
-        if (specTopic.getId() == null || !specTopic.getId().matches(CSConstants.ALL_TOPIC_ID_REGEX)) {
-            log.error(format(ProcessorConstants.ERROR_INVALID_TOPIC_ID_MSG, specTopic.getLineNumber(), specTopic.getText()));
+        if (specTopic.getId() == null || !TopicIdKind.classify(specTopic.getId()).isValid()) {
+            ctx.log.error(format(ProcessorConstants.ERROR_INVALID_TOPIC_ID_MSG, specTopic.getLineNumber(), specTopic.getText()));
             valid = false;
         }
 
@@ -862,7 +1172,7 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
             if (parent == null || !(parentLevelType == LevelType.CHAPTER || parentLevelType == LevelType.APPENDIX ||
                     parentLevelType == LevelType.PROCESS || parentLevelType == LevelType.SECTION || parentLevelType == LevelType.PART ||
                     parentLevelType == LevelType.PREFACE)) {
-                log.error(format(ProcessorConstants.ERROR_TOPIC_OUTSIDE_CHAPTER_MSG, specTopic.getLineNumber(), specTopic.getText()));
+                ctx.log.error(format(ProcessorConstants.ERROR_TOPIC_OUTSIDE_CHAPTER_MSG, specTopic.getLineNumber(), specTopic.getText()));
                 valid = false;
             }
 
@@ -874,7 +1184,7 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
                 for (int i = 0; i < index; i++) {
                     final Node node = parentChildren.get(i);
                     if (node instanceof Level) {
-                        log.error(format(ProcessorConstants.ERROR_TOPIC_NOT_IN_PART_INTRO_MSG, specTopic.getLineNumber(),
+                        ctx.log.error(format(ProcessorConstants.ERROR_TOPIC_NOT_IN_PART_INTRO_MSG, specTopic.getLineNumber(),
                                 specTopic.getText()));
                         valid = false;
                         break;
@@ -885,12 +1195,12 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
 
         // Check that the title exists
         if (specTopic.getTitle() == null || specTopic.getTitle().equals("")) {
-            log.error(format(ProcessorConstants.ERROR_TOPIC_NO_TITLE_MSG, specTopic.getLineNumber(), specTopic.getText()));
+            ctx.log.error(format(ProcessorConstants.ERROR_TOPIC_NO_TITLE_MSG, specTopic.getLineNumber(), specTopic.getText()));
             valid = false;
         }
         // Check that it is valid when escaped
         else if (DocBookUtilities.escapeTitle(specTopic.getTitle()).isEmpty()) {
-            log.error(format(ProcessorConstants.ERROR_INVALID_TOPIC_TITLE_MSG, specTopic.getLineNumber(), specTopic.getText()));
+            ctx.log.error(format(ProcessorConstants.ERROR_INVALID_TOPIC_TITLE_MSG, specTopic.getLineNumber(), specTopic.getText()));
             valid = false;
         }
 
@@ -898,33 +1208,34 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
         if (!specTopic.isTopicAnExistingTopic()) {
             // Check that we aren't processing translations
             if (clazz == RESTTranslatedTopicV1.class) {
-                log.error(format(ProcessorConstants.ERROR_TOPIC_NO_NEW_TRANSLATION_TOPIC, specTopic.getLineNumber(), specTopic.getText()));
+                ctx.log.error(format(ProcessorConstants.ERROR_TOPIC_NO_NEW_TRANSLATION_TOPIC,
+                        specTopic.getLineNumber(), specTopic.getText()));
                 valid = false;
             }
         }
 
         // Check that we are allowed to create new topics
         if (!specTopic.isTopicAnExistingTopic() && !processingOptions.isAllowNewTopics()) {
-            log.error(format(ProcessorConstants.ERROR_TOPIC_NO_NEW_TOPIC_BUILD, specTopic.getLineNumber(), specTopic.getText()));
+            ctx.log.error(format(ProcessorConstants.ERROR_TOPIC_NO_NEW_TOPIC_BUILD, specTopic.getLineNumber(), specTopic.getText()));
             valid = false;
         }
 
         // New Topics
         if (specTopic.isTopicANewTopic()) {
             if (specTopic.getType() == null || specTopic.getType().equals("")) {
-                log.error(format(ProcessorConstants.ERROR_TOPIC_NO_TYPE_MSG, specTopic.getLineNumber(), specTopic.getText()));
+                ctx.log.error(format(ProcessorConstants.ERROR_TOPIC_NO_TYPE_MSG, specTopic.getLineNumber(), specTopic.getText()));
                 valid = false;
             }
 
             // Check Assigned Writer exists
-            if (!preValidateAssignedWriter(specTopic)) {
+            if (!preValidateAssignedWriter(ctx, specTopic)) {
                 valid = false;
             }
             // Existing Topics
         } else if (specTopic.isTopicAnExistingTopic()) {
             // Check that tags aren't trying to be removed
             if (!specTopic.getRemoveTags(false).isEmpty()) {
-                log.error(format(ProcessorConstants.ERROR_TOPIC_EXISTING_TOPIC_CANNOT_REMOVE_TAGS, specTopic.getLineNumber(),
+                ctx.log.error(format(ProcessorConstants.ERROR_TOPIC_EXISTING_TOPIC_CANNOT_REMOVE_TAGS, specTopic.getLineNumber(),
                         specTopic.getText()));
                 valid = false;
             }
@@ -932,13 +1243,14 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
             // Check that the assigned writer, description and source URLS haven't been set
             if (specTopic.getAssignedWriter(false) != null || specTopic.getDescription(false) != null || !specTopic.getSourceUrls(
                     false).isEmpty()) {
-                log.error(format(ProcessorConstants.ERROR_TOPIC_EXISTING_BAD_OPTIONS, specTopic.getLineNumber(), specTopic.getText()));
+                ctx.log.error(format(ProcessorConstants.ERROR_TOPIC_EXISTING_BAD_OPTIONS, specTopic.getLineNumber(), specTopic.getText()));
                 valid = false;
             }
 
             // Check that we aren't processing translations
             if (!specTopic.getTags(true).isEmpty() && clazz == RESTTranslatedTopicV1.class) {
-                log.error(format(ProcessorConstants.ERROR_TOPIC_NO_TAGS_TRANSLATION_TOPIC, specTopic.getLineNumber(), specTopic.getText()));
+                ctx.log.error(format(ProcessorConstants.ERROR_TOPIC_NO_TAGS_TRANSLATION_TOPIC,
+                        specTopic.getLineNumber(), specTopic.getText()));
                 valid = false;
             }
         }
@@ -948,13 +1260,13 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
 
             // Check that the topic exists in the content specification
             if (!specTopics.containsKey(temp)) {
-                log.error(format(ProcessorConstants.ERROR_TOPIC_NONEXIST_MSG, specTopic.getLineNumber(), specTopic.getText()));
+                ctx.log.error(format(ProcessorConstants.ERROR_TOPIC_NONEXIST_MSG, specTopic.getLineNumber(), specTopic.getText()));
                 valid = false;
             } else {
                 // Check that the topic titles match the original
                 if (!specTopic.getTitle().equals(specTopics.get(temp).getTitle())) {
                     String topicTitleMsg = "Topic " + specTopic.getId() + ": " + specTopics.get(temp).getTitle();
-                    log.error(format(ProcessorConstants.ERROR_TOPIC_TITLES_NONMATCH_MSG, specTopic.getLineNumber(), specTopic.getText(),
+                    ctx.log.error(format(ProcessorConstants.ERROR_TOPIC_TITLES_NONMATCH_MSG, specTopic.getLineNumber(), specTopic.getText(),
                             topicTitleMsg));
                     valid = false;
                 }
@@ -976,7 +1288,7 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
                     format += format(ProcessorConstants.WARN_DESCRIPTION_IGNORE_MSG, specTopic.getLineNumber(), "Cloned");
                 }
 
-                log.warn(format("%s" + ProcessorConstants.CSLINE_MSG, format, specTopic.getText()));
+                ctx.log.warn(format("%s" + ProcessorConstants.CSLINE_MSG, format, specTopic.getText()));
             }
             // Duplicated Cloned Topics
         } else if (specTopic.isTopicAClonedDuplicateTopic()) {
@@ -995,18 +1307,18 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
 
             // Check that the topic exists
             if (count == 0) {
-                log.error(format(ProcessorConstants.ERROR_TOPIC_NONEXIST_MSG, specTopic.getLineNumber(), specTopic.getText()));
+                ctx.log.error(format(ProcessorConstants.ERROR_TOPIC_NONEXIST_MSG, specTopic.getLineNumber(), specTopic.getText()));
                 valid = false;
             }
             // Check that the referenced topic is unique
             else if (count > 1) {
-                log.error(format(ProcessorConstants.ERROR_TOPIC_DUPLICATE_CLONES_MSG, specTopic.getLineNumber(), specTopic.getText()));
+                ctx.log.error(format(ProcessorConstants.ERROR_TOPIC_DUPLICATE_CLONES_MSG, specTopic.getLineNumber(), specTopic.getText()));
                 valid = false;
             } else {
                 // Check that the title matches
                 if (!specTopic.getTitle().equals(clonedTopic.getTitle())) {
                     String topicTitleMsg = "Topic " + specTopic.getId() + ": " + clonedTopic.getTitle();
-                    log.error(format(ProcessorConstants.ERROR_TOPIC_TITLES_NONMATCH_MSG, specTopic.getLineNumber(), specTopic.getText(),
+                    ctx.log.error(format(ProcessorConstants.ERROR_TOPIC_TITLES_NONMATCH_MSG, specTopic.getLineNumber(), specTopic.getText(),
                             topicTitleMsg));
                     valid = false;
                 }
@@ -1015,21 +1327,44 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
 
         // Check to make sure no relationships exist if they aren't allowed
         if (!allowRelationships && specTopic.getRelationships().size() > 0) {
-            log.error(format(ProcessorConstants.ERROR_TOPIC_HAS_RELATIONSHIPS_MSG, specTopic.getLineNumber(), specTopic.getText()));
+            ctx.log.error(format(ProcessorConstants.ERROR_TOPIC_HAS_RELATIONSHIPS_MSG, specTopic.getLineNumber(), specTopic.getText()));
             valid = false;
         }
 
         return valid;
     }
 
+    /**
+     * Validates a topic against the database and for formatting issues, for a content specification in the default locale.
+     *
+     * @param specTopic The topic to be validated.
+     * @return True if the topic is valid otherwise false.
+     */
+    public boolean postValidateTopic(final SpecTopic specTopic) {
+        return postValidateTopic(specTopic, CommonConstants.DEFAULT_LOCALE);
+    }
+
+    /**
+     * Validates a topic against the database and for formatting issues. Translated topics are validated against the
+     * translation for the locale.
+     *
+     * @param specTopic The topic to be validated.
+     * @param locale    The locale of the content specification that the topic belongs to.
+     * @return True if the topic is valid otherwise false.
+     */
+    public boolean postValidateTopic(final SpecTopic specTopic, final String locale) {
+        return postValidateTopic(createContext(locale == null ? CommonConstants.DEFAULT_LOCALE : locale), specTopic);
+    }
+
     /**
      * Validates a topic against the database and for formatting issues.
      *
+     * @param ctx       The context of the current validation pass.
      * @param specTopic The topic to be validated.
      * @return True if the topic is valid otherwise false.
      */
     @SuppressWarnings("unchecked")
-    public boolean postValidateTopic(final SpecTopic specTopic) {
+    private boolean postValidateTopic(final ValidationContext ctx, final SpecTopic specTopic) {
         // Check if the app should be shutdown
         if (isShuttingDown.get()) {
             shutdown.set(true);
@@ -1042,16 +1377,16 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
         if (specTopic.isTopicANewTopic()) {
 
             // Check that the type entered exists and valid
-            final RESTTagV1 type = reader.getTypeByName(specTopic.getType());
+            final RESTTagV1 type = tagDictionary.getTypeByName(specTopic.getType());
             if (type == null) {
-                log.error(format(ProcessorConstants.ERROR_TYPE_NONEXIST_MSG, specTopic.getLineNumber(), specTopic.getText()));
+                ctx.log.error(format(ProcessorConstants.ERROR_TYPE_NONEXIST_MSG, specTopic.getLineNumber(), specTopic.getText()));
                 valid = false;
             } else if (specTopic.getTopicType() == TopicType.LEGAL_NOTICE && !type.getId().equals(CSConstants.LEGAL_NOTICE_TAG_ID)) {
-                log.error(format(ProcessorConstants.ERROR_INVALID_TYPE_MSG, specTopic.getLineNumber(), specTopic.getText()));
+                ctx.log.error(format(ProcessorConstants.ERROR_INVALID_TYPE_MSG, specTopic.getLineNumber(), specTopic.getText()));
                 valid = false;
             } else if (specTopic.getTopicType() == TopicType.REVISION_HISTORY && !type.getId().equals(
                     CSConstants.REVISION_HISTORY_TAG_ID)) {
-                log.error(format(ProcessorConstants.ERROR_INVALID_TYPE_MSG, specTopic.getLineNumber(), specTopic.getText()));
+                ctx.log.error(format(ProcessorConstants.ERROR_INVALID_TYPE_MSG, specTopic.getLineNumber(), specTopic.getText()));
                 valid = false;
             }
 
@@ -1067,23 +1402,13 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
         }
         // Existing Topics
         else if (specTopic.isTopicAnExistingTopic()) {
-            // Calculate the revision for the topic
-            final Integer revision;
-            if (specTopic.getRevision() == null || processingOptions.isUpdateRevisions()) {
-                revision = processingOptions.getRevision();
-            } else {
-                revision = specTopic.getRevision();
-            }
-
             // Check that the id actually exists
-            final T topic;
+            final T topic = (T) getTopic(ctx, createTopicKey(ctx, specTopic));
             if (clazz == RESTTranslatedTopicV1.class) {
-                topic = (T) reader.getTranslatedTopicByTopicId(Integer.parseInt(specTopic.getId()), revision, locale);
                 if (processingOptions.isAddRevisions() && (specTopic.getRevision() == null || processingOptions.isUpdateRevisions())) {
                     specTopic.setRevision(((RESTTranslatedTopicV1) topic).getTopicRevision());
                 }
             } else {
-                topic = (T) reader.getTopicById(Integer.parseInt(specTopic.getId()), revision);
                 if (processingOptions.isAddRevisions() && (specTopic.getRevision() == null || processingOptions.isUpdateRevisions())) {
                     specTopic.setRevision(topic.getRevision());
                 }
@@ -1091,20 +1416,20 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
 
             // Check that the topic actually exists
             if (topic == null) {
-                log.error(format(ProcessorConstants.ERROR_TOPIC_ID_NONEXIST_MSG, specTopic.getLineNumber(), specTopic.getText()));
+                ctx.log.error(format(ProcessorConstants.ERROR_TOPIC_ID_NONEXIST_MSG, specTopic.getLineNumber(), specTopic.getText()));
                 return false;
             } else {
                 specTopic.setTopic(topic);
 
                 // Check to see if the topic contains the "Internal-Only" tag
                 if (ComponentBaseTopicV1.hasTag(topic, CSConstants.RH_INTERNAL_TAG_ID)) {
-                    log.warn(format(ProcessorConstants.WARN_INTERNAL_TOPIC_MSG, specTopic.getLineNumber(), specTopic.getText()));
+                    ctx.log.warn(format(ProcessorConstants.WARN_INTERNAL_TOPIC_MSG, specTopic.getLineNumber(), specTopic.getText()));
                 }
             }
 
             // Check that the topic has a valid id
             if (topic.getId() <= 0) {
-                log.error(format(ProcessorConstants.ERROR_TOPIC_ID_NONEXIST_MSG, specTopic.getLineNumber(), specTopic.getText()));
+                ctx.log.error(format(ProcessorConstants.ERROR_TOPIC_ID_NONEXIST_MSG, specTopic.getLineNumber(), specTopic.getText()));
                 valid = false;
             }
 
@@ -1115,12 +1440,11 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
             // Cloned Topics
         } else if (specTopic.isTopicAClonedTopic()) {
             // Get the original topic from the database
-            int temp = Integer.parseInt(specTopic.getId().substring(1));
-            final RESTTopicV1 topic = reader.getTopicById(temp, null);
+            final RESTTopicV1 topic = (RESTTopicV1) getTopic(ctx, createTopicKey(ctx, specTopic));
 
             // Check that the original topic was found
             if (topic == null) {
-                log.error(format(ProcessorConstants.ERROR_TOPIC_NONEXIST_MSG, specTopic.getLineNumber(), specTopic.getText()));
+                ctx.log.error(format(ProcessorConstants.ERROR_TOPIC_NONEXIST_MSG, specTopic.getLineNumber(), specTopic.getText()));
                 valid = false;
             } else {
                 // Validate the title and tags for the topic
@@ -1138,6 +1462,248 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
         return valid;
     }
 
+    /**
+     * Downloads all of the topics that the topics in a content specification are validated against, so that they don't
+     * have to be downloaded one at a time as each topic is validated. The topics are requested concurrently and are stored
+     * in the context of the validation pass.
+     *
+     * @param ctx         The context of the current validation pass.
+     * @param contentSpec The content specification that is being validated.
+     */
+    private void downloadTopics(final ValidationContext ctx, final ContentSpec contentSpec) {
+        final Set<TopicKey> topicKeys = new LinkedHashSet<TopicKey>();
+        addTopicKey(ctx, contentSpec.getRevisionHistory(), topicKeys);
+        addTopicKey(ctx, contentSpec.getFeedback(), topicKeys);
+        addTopicKey(ctx, contentSpec.getLegalNotice(), topicKeys);
+        if (contentSpec.getBaseLevel() != null) {
+            addTopicKeys(ctx, contentSpec.getBaseLevel(), topicKeys);
+        }
+
+        // Load the translated topics in bulk, instead of requesting each translated topic on its own
+        if (clazz == RESTTranslatedTopicV1.class) {
+            loadTranslatedTopics(ctx, topicKeys);
+        }
+
+        if (topicKeys.isEmpty()) return;
+
+        final ParallelDownloader<TopicKey, RESTBaseTopicV1<?, ?, ?>> downloader = createDownloader();
+        ctx.topics.putAll(downloader.download(new ArrayList<TopicKey>(topicKeys),
+                new ParallelDownloader.Fetcher<TopicKey, RESTBaseTopicV1<?, ?, ?>>() {
+                    @Override
+                    public RESTBaseTopicV1<?, ?, ?> fetch(final TopicKey topicKey) throws Exception {
+                        return fetchTopic(getDownloadReader(), topicKey);
+                    }
+                }, "Downloading topics to validate"));
+    }
+
+    /**
+     * Loads the translated topics for a set of topic keys through the translated topic cache, and stores the translated
+     * topics that were found in the context of the validation pass. The keys of the topics that were found are removed
+     * from the set, so that only the translated topics that couldn't be loaded in bulk are requested on their own.
+     *
+     * @param ctx       The context of the current validation pass.
+     * @param topicKeys The keys of the topics that are to be downloaded.
+     */
+    private void loadTranslatedTopics(final ValidationContext ctx, final Set<TopicKey> topicKeys) {
+        final Set<Integer> topicIds = new LinkedHashSet<Integer>();
+        final List<Pair<Integer, Integer>> revisionTopicIds = new ArrayList<Pair<Integer, Integer>>();
+        final Iterator<TopicKey> cachedTopicKeyIterator = topicKeys.iterator();
+        while (cachedTopicKeyIterator.hasNext()) {
+            final TopicKey topicKey = cachedTopicKeyIterator.next();
+            if (topicKey.locale == null || translatedTopicCache.getTranslatedTopic(topicKey.id, topicKey.revision,
+                    topicKey.locale) != null) {
+                continue;
+            }
+
+            // Translated topics at a revision that were cached by a previous run don't need to be downloaded again
+            final RESTBaseTopicV1<?, ?, ?> cachedTopic = getCachedTopic(topicKey);
+            if (cachedTopic != null) {
+                ctx.topics.put(topicKey, cachedTopic);
+                cachedTopicKeyIterator.remove();
+            } else if (topicKey.revision == null) {
+                topicIds.add(topicKey.id);
+            } else {
+                revisionTopicIds.add(new Pair<Integer, Integer>(topicKey.id, topicKey.revision));
+            }
+        }
+
+        final ParallelDownloader<Pair<Integer, Integer>, RESTTopicV1> downloader = createDownloader();
+        translatedTopicCache.download(reader, downloadReaders, topicIds, revisionTopicIds, downloader);
+
+        final Iterator<TopicKey> topicKeyIterator = topicKeys.iterator();
+        while (topicKeyIterator.hasNext()) {
+            final TopicKey topicKey = topicKeyIterator.next();
+            if (topicKey.locale == null) continue;
+
+            final RESTTranslatedTopicV1 translatedTopic = translatedTopicCache.getTranslatedTopic(topicKey.id, topicKey.revision,
+                    topicKey.locale);
+            if (translatedTopic != null) {
+                cacheTopic(topicKey, translatedTopic);
+                ctx.topics.put(topicKey, translatedTopic);
+                topicKeyIterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Creates a downloader that uses the download options from the processing options. When each download thread can't be
+     * given a reader of its own, the topics are downloaded one at a time through the shared reader, and a request is never
+     * abandoned because it has taken too long, so that a request is never still using the reader when the next one starts.
+     *
+     * @param <K> The type of key used to identify the entities to download.
+     * @param <V> The type of entity that is downloaded.
+     * @return The new downloader.
+     */
+    private <K, V> ParallelDownloader<K, V> createDownloader() {
+        if (downloadReaders == null) {
+            return new ParallelDownloader<K, V>(LOG, 1, 0, processingOptions.getDownloadRetries(),
+                    processingOptions.getDownloadRetryDelay(), isShuttingDown);
+        } else {
+            return new ParallelDownloader<K, V>(LOG, processingOptions.getDownloadThreads(), processingOptions.getDownloadTimeout(),
+                    processingOptions.getDownloadRetries(), processingOptions.getDownloadRetryDelay(), isShuttingDown);
+        }
+    }
+
+    /**
+     * Gets the reader that the current download thread downloads topics with.
+     *
+     * @return The reader of the current thread, or the shared reader if the download threads don't have readers of their own.
+     */
+    private RESTReader getDownloadReader() {
+        final PerThreadReaders readers = downloadReaders;
+        return readers == null ? reader : readers.getReader();
+    }
+
+    /**
+     * Adds the keys of the topics that the topics in a level and its child levels are validated against.
+     *
+     * @param ctx       The context of the current validation pass.
+     * @param level     The level to add the keys for.
+     * @param topicKeys The set of keys to add to.
+     */
+    private void addTopicKeys(final ValidationContext ctx, final Level level, final Set<TopicKey> topicKeys) {
+        addTopicKey(ctx, level.getInnerTopic(), topicKeys);
+        for (final Node childNode : level.getChildNodes()) {
+            if (childNode instanceof Level) {
+                addTopicKeys(ctx, (Level) childNode, topicKeys);
+            } else if (childNode instanceof SpecTopic) {
+                addTopicKey(ctx, (SpecTopic) childNode, topicKeys);
+            }
+        }
+    }
+
+    /**
+     * Adds the key of the topic that a topic is validated against, if it is validated against an existing topic.
+     *
+     * @param ctx       The context of the current validation pass.
+     * @param specTopic The topic to add the key for, or null if the topic doesn't exist.
+     * @param topicKeys The set of keys to add to.
+     */
+    private void addTopicKey(final ValidationContext ctx, final SpecTopic specTopic, final Set<TopicKey> topicKeys) {
+        if (specTopic == null) return;
+
+        final TopicKey topicKey = createTopicKey(ctx, specTopic);
+        if (topicKey != null) {
+            topicKeys.add(topicKey);
+        }
+    }
+
+    /**
+     * Creates the key of the topic that a topic is validated against.
+     *
+     * @param ctx       The context of the current validation pass.
+     * @param specTopic The topic to create the key for.
+     * @return The key of the topic, or null if the topic isn't validated against an existing topic.
+     */
+    private TopicKey createTopicKey(final ValidationContext ctx, final SpecTopic specTopic) {
+        if (specTopic.isTopicAnExistingTopic()) {
+            // Calculate the revision for the topic
+            final Integer revision;
+            if (specTopic.getRevision() == null || processingOptions.isUpdateRevisions()) {
+                revision = processingOptions.getRevision();
+            } else {
+                revision = specTopic.getRevision();
+            }
+
+            final String locale = clazz == RESTTranslatedTopicV1.class ? ctx.locale : null;
+            return new TopicKey(Integer.parseInt(specTopic.getId()), revision, locale);
+        } else if (specTopic.isTopicAClonedTopic()) {
+            // Cloned topics are validated against the latest revision of the original topic
+            return new TopicKey(TopicIdKind.getIdNumber(specTopic.getId()), null, null);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Gets a topic that a topic is validated against. The topic is taken from the topics that were downloaded for the
+     * validation pass if it was downloaded, otherwise it is fetched from the REST API.
+     *
+     * @param ctx      The context of the current validation pass.
+     * @param topicKey The key of the topic to get.
+     * @return The topic, or null if the topic doesn't exist.
+     */
+    private RESTBaseTopicV1<?, ?, ?> getTopic(final ValidationContext ctx, final TopicKey topicKey) {
+        if (ctx.topics.containsKey(topicKey)) {
+            return ctx.topics.get(topicKey);
+        } else {
+            return fetchTopic(reader, topicKey);
+        }
+    }
+
+    /**
+     * Fetches a topic from the REST API, unless it has already been downloaded or is in the topic revision cache.
+     *
+     * @param downloadReader The reader to fetch the topic with, which mustn't be used by any other thread at the same time.
+     * @param topicKey       The key of the topic to fetch.
+     * @return The topic, or null if the topic doesn't exist.
+     */
+    private RESTBaseTopicV1<?, ?, ?> fetchTopic(final RESTReader downloadReader, final TopicKey topicKey) {
+        final RESTBaseTopicV1<?, ?, ?> downloadedTopic = downloadedTopics.get(topicKey);
+        if (downloadedTopic != null) return downloadedTopic;
+
+        final RESTBaseTopicV1<?, ?, ?> cachedTopic = getCachedTopic(topicKey);
+        if (cachedTopic != null) return cachedTopic;
+
+        final RESTBaseTopicV1<?, ?, ?> topic;
+        if (topicKey.locale != null) {
+            topic = downloadReader.getTranslatedTopicByTopicId(topicKey.id, topicKey.revision, topicKey.locale);
+        } else {
+            topic = downloadReader.getTopicById(topicKey.id, topicKey.revision);
+        }
+        cacheTopic(topicKey, topic);
+        return topic;
+    }
+
+    /**
+     * Gets a topic from the topic revision cache. Topics that are validated against their latest revision are only cached
+     * if their current revision has been looked up. When the Content Specification is only being validated the topic is
+     * never saved, so the topic is read without its XML and HTML.
+     *
+     * @param topicKey The key of the topic to get.
+     * @return The topic, or null if the topic isn't cached.
+     */
+    private RESTBaseTopicV1<?, ?, ?> getCachedTopic(final TopicKey topicKey) {
+        final TopicRevisionCache cache = topicRevisionCache;
+        if (cache == null) return null;
+
+        return cache.getTopic(topicKey.locale == null ? RESTTopicV1.class : RESTTranslatedTopicV1.class, topicKey.id,
+                topicKey.revision, topicKey.locale, processingOptions.isValidating());
+    }
+
+    /**
+     * Adds a topic that was downloaded to the topic revision cache, if it was downloaded for a revision.
+     *
+     * @param topicKey The key of the topic.
+     * @param topic    The topic that was downloaded, or null if the topic doesn't exist.
+     */
+    private void cacheTopic(final TopicKey topicKey, final RESTBaseTopicV1<?, ?, ?> topic) {
+        final TopicRevisionCache cache = topicRevisionCache;
+        if (cache != null && topic != null && topicKey.revision != null) {
+            cache.putTopic(topicKey.id, topicKey.revision, topicKey.locale, topic);
+        }
+    }
+
     private boolean postValidateExistingTopic(final SpecTopic specTopic, final T topic) {
         boolean valid = true;
 
@@ -1240,13 +1806,14 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
     /**
      * Checks to make sure that the assigned writer for the topic is valid.
      *
+     * @param ctx   The context of the current validation pass.
      * @param topic The topic to check the assigned writer for.
      * @return True if the assigned writer exists in the database and is under the Assigned Writer category otherwise
      *         false.
      */
-    private boolean preValidateAssignedWriter(final SpecTopic topic) {
+    private boolean preValidateAssignedWriter(final ValidationContext ctx, final SpecTopic topic) {
         if (topic.getAssignedWriter(true) == null) {
-            log.error(format(ProcessorConstants.ERROR_NO_WRITER_MSG, topic.getLineNumber(), topic.getText()));
+            ctx.log.error(format(ProcessorConstants.ERROR_NO_WRITER_MSG, topic.getLineNumber(), topic.getText()));
             return false;
         }
 
@@ -1263,14 +1830,14 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
     private boolean postValidateAssignedWriter(final SpecTopic topic) {
 
         // Check Assigned Writer exists
-        final List<RESTTagV1> tagList = reader.getTagsByName(topic.getAssignedWriter(true));
+        final List<RESTTagV1> tagList = tagDictionary.getTagsByName(topic.getAssignedWriter(true));
         if (tagList.size() != 1) {
             log.error(format(ProcessorConstants.ERROR_WRITER_NONEXIST_MSG, topic.getLineNumber(), topic.getText()));
             return false;
         }
 
         // Check that the writer tag is actually part of the Assigned Writer category
-        final RESTCategoryInTagV1 cat = reader.getCategoryByTagId(tagList.get(0).getId());
+        final RESTCategoryInTagV1 cat = tagDictionary.getCategoryByTagId(tagList.get(0).getId());
         if (cat == null) {
             log.error(format(ProcessorConstants.ERROR_INVALID_WRITER_MSG, topic.getLineNumber(), topic.getText()));
             return false;
@@ -1304,7 +1871,7 @@ public class ContentSpecValidator<T extends RESTBaseTopicV1<T, ?, ?>> implements
                 }
 
                 // Get the tag from the database
-                final List<RESTTagV1> tagList = reader.getTagsByName(tagName);
+                final List<RESTTagV1> tagList = tagDictionary.getTagsByName(tagName);
 
                 // Check that it exists
                 if (tagList.size() == 1) {
@@ -0,0 +1,113 @@
+package com.redhat.contentspec.processor;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.redhat.contentspec.processor.utils.LineLexer;
+import com.redhat.contentspec.processor.utils.LogBuffer;
+import com.redhat.contentspec.processor.utils.LookaheadLineReader;
+import org.jboss.pressgang.ccms.contentspec.ContentSpec;
+import org.jboss.pressgang.ccms.contentspec.Level;
+import org.jboss.pressgang.ccms.contentspec.Process;
+import org.jboss.pressgang.ccms.contentspec.SpecTopic;
+import org.jboss.pressgang.ccms.contentspec.entities.Relationship;
+import org.jboss.pressgang.ccms.contentspec.utils.logging.ErrorLoggerManager;
+
+/**
+ * The working state for a single parse of a Content Specification. A new context is created for every parse, so that
+ * nothing is shared between two parses that are run by the same ContentSpecParser.
+ */
+final class ParserContext {
+    final ErrorLoggerManager elm;
+    final LogBuffer log;
+    final boolean processProcesses;
+    final LineLexer lexer = new LineLexer();
+
+    final ContentSpec spec;
+    final HashMap<String, SpecTopic> specTopics = new HashMap<String, SpecTopic>();
+    HashMap<String, List<String>> topicIdIndex = new HashMap<String, List<String>>();
+    final HashMap<String, Level> targetLevels = new HashMap<String, Level>();
+    final HashMap<String, Level> externalTargetLevels = new HashMap<String, Level>();
+    final HashMap<String, SpecTopic> targetTopics = new HashMap<String, SpecTopic>();
+    final HashMap<String, List<Relationship>> relationships = new HashMap<String, List<Relationship>>();
+    final ArrayList<Process> processes = new ArrayList<Process>();
+    final TreeMap<Integer, ReusableLevel> reusableLevels = new TreeMap<Integer, ReusableLevel>();
+    final Set<String> reusedTopicIds = new HashSet<String>();
+
+    int spaces = 2;
+    int level = 0;
+    Level lvl = null;
+    int lineCounter = 0;
+    boolean error = false;
+    LookaheadLineReader lines = new LookaheadLineReader(new StringReader(""));
+
+    /**
+     * Constructor
+     *
+     * @param elm              The Error Logger Manager that any messages for the parse should be logged to.
+     * @param processProcesses If processes should be processed to create their relationships.
+     */
+    ParserContext(final ErrorLoggerManager elm, final boolean processProcesses) {
+        this(new LogBuffer(elm.getLogger(ContentSpecParser.class)), elm, processProcesses);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param log              The buffer that any messages for the parse should be logged to.
+     * @param elm              The Error Logger Manager that the parse's logging settings should be applied to.
+     * @param processProcesses If processes should be processed to create their relationships.
+     */
+    ParserContext(final LogBuffer log, final ErrorLoggerManager elm, final boolean processProcesses) {
+        this(log, elm, processProcesses, new ContentSpec());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param log              The buffer that any messages for the parse should be logged to.
+     * @param elm              The Error Logger Manager that the parse's logging settings should be applied to.
+     * @param processProcesses If processes should be processed to create their relationships.
+     * @param spec             The Content Specification object that the parse fills in.
+     */
+    ParserContext(final LogBuffer log, final ErrorLoggerManager elm, final boolean processProcesses, final ContentSpec spec) {
+        this.log = log;
+        this.elm = elm;
+        this.processProcesses = processProcesses;
+        this.spec = spec;
+    }
+
+    /**
+     * A Level from a previous parse that can be copied into the current parse, along with the topics, targets and
+     * relationships that were parsed from its lines.
+     */
+    static final class ReusableLevel {
+        final Level level;
+        final int endLine;
+        final int lineOffset;
+        final Map<String, SpecTopic> specTopics = new HashMap<String, SpecTopic>();
+        final Map<String, SpecTopic> targetTopics = new HashMap<String, SpecTopic>();
+        final Map<String, Level> targetLevels = new HashMap<String, Level>();
+        final Map<String, List<Relationship>> relationships = new HashMap<String, List<Relationship>>();
+        boolean reused = false;
+
+        /**
+         * Constructor
+         *
+         * @param level      The Level from the previous parse.
+         * @param endLine    The line number of the first line after the Level and all of its children, in the current parse.
+         * @param lineOffset The number of lines that the Level has moved by since the previous parse.
+         */
+        ReusableLevel(final Level level, final int endLine, final int lineOffset) {
+            this.level = level;
+            this.endLine = endLine;
+            this.lineOffset = lineOffset;
+        }
+    }
+}
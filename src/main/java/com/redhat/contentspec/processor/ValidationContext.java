@@ -0,0 +1,74 @@
+package com.redhat.contentspec.processor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.redhat.contentspec.processor.utils.LogBuffer;
+import org.jboss.pressgang.ccms.rest.v1.entities.base.RESTBaseTopicV1;
+
+/**
+ * The working state for a single validation pass of a Content Specification. A new context is created for every pass,
+ * so that nothing is shared between two passes that are run by the same ContentSpecValidator, or between the subtrees
+ * of a Content Specification that are validated at the same time.
+ */
+final class ValidationContext {
+    final String locale;
+    final LogBuffer log;
+    final Map<TopicKey, RESTBaseTopicV1<?, ?, ?>> topics = new HashMap<TopicKey, RESTBaseTopicV1<?, ?, ?>>();
+
+    /**
+     * Constructor
+     *
+     * @param locale The locale that the Content Specification is being validated for.
+     * @param log    The buffer that any messages for the validation should be logged to.
+     */
+    ValidationContext(final String locale, final LogBuffer log) {
+        this.locale = locale;
+        this.log = log;
+    }
+
+    /**
+     * Identifies a topic that is downloaded to validate a Content Specification against.
+     */
+    static final class TopicKey {
+        final Integer id;
+        final Integer revision;
+        final String locale;
+
+        /**
+         * Constructor
+         *
+         * @param id       The ID of the topic.
+         * @param revision The revision of the topic, or null for the latest revision.
+         * @param locale   The locale of the translated topic, or null if the topic isn't a translated topic.
+         */
+        TopicKey(final Integer id, final Integer revision, final String locale) {
+            this.id = id;
+            this.revision = revision;
+            this.locale = locale;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (!(o instanceof TopicKey)) return false;
+
+            final TopicKey other = (TopicKey) o;
+            return id.equals(other.id) && (revision == null ? other.revision == null : revision.equals(other.revision))
+                    && (locale == null ? other.locale == null : locale.equals(other.locale));
+        }
+
+        @Override
+        public int hashCode() {
+            int result = id.hashCode();
+            result = 31 * result + (revision == null ? 0 : revision.hashCode());
+            result = 31 * result + (locale == null ? 0 : locale.hashCode());
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "Topic " + id + (revision == null ? "" : ", Revision " + revision) + (locale == null ? "" : " (" + locale + ")");
+        }
+    }
+}
@@ -9,8 +9,10 @@ public class ProcessorConstants {
 
     public static final String TOPIC_ID_CONTENTS = "TopicID";
     public static final String BRACKET_CONTENTS = "Brackets";
-    public static final String BRACKET_NAMED_PATTERN = "(?<!\\\\)\\%c(?<" + BRACKET_CONTENTS + ">(.|\n)*?)(?<!\\\\)\\%c";
-    public static final String BRACKET_PATTERN = "(?<!\\\\)\\%c((.|\n)*?)(?<!\\\\)\\%c";
+    // The contents are matched possessively, as the lazy "(.|\n)*?" form overflows the stack on long inputs
+    private static final String BRACKET_CONTENTS_REGEX = "(?:[^\\r\\u0085\\u2028\\u2029\\%2$c]|(?<=\\\\)\\%2$c)*+";
+    public static final String BRACKET_NAMED_PATTERN = "(?<!\\\\)\\%1$c(?<" + BRACKET_CONTENTS + ">" + BRACKET_CONTENTS_REGEX + ")(?<!\\\\)\\%2$c";
+    public static final String BRACKET_PATTERN = "(?<!\\\\)\\%1$c(" + BRACKET_CONTENTS_REGEX + ")(?<!\\\\)\\%2$c";
     public static final String BRACKET_VALIDATE_REGEX = ".*%s[ ]*$"; // ".*%s(([ ]*$)|([ ]*#.*$))" For use to allow comments at the end
     // of a line
     public static final String PRODUCT_VERSION_VALIDATE_REGEX = "(([0-9]+)|([0-9]+.[0-9]+)|([0-9]+.[0-9]+.[0-9]+))([\\.\\-]?[A-Za-z]+)?";
@@ -18,14 +20,16 @@ public class ProcessorConstants {
     public static final String VERSION_EPOCH_VALIDATE_REGEX = "(" + VERSION_VALIDATE_REGEX + ")(-[0-9]+)?";
     public static final String COPYRIGHT_YEAR_VALIDATE_REGEX = "^\\d+[\\s\\-\\d,]*$";
 
-    public static final String RELATED_REGEX = "^(R|RELATED-TO|REFER-TO)[ ]*:(.|(\r?\n))*$";
-    public static final String PREREQUISITE_REGEX = "^(P|PREREQUISITE)[ ]*:(.|(\r?\n))*$";
-    public static final String LINK_LIST_REGEX = "^(L|LINK-LIST)[ ]*:(.|(\r?\n))*$";
-    public static final String NEXT_REGEX = "^NEXT[ ]*:(.|(\r?\n))*$";
-    public static final String PREV_REGEX = "^PREV[ ]*:(.|(\r?\n))*$";
+    // Equivalent to "(.|(\r?\n))*", without a recursive group for every character
+    private static final String ANY_LINES_REGEX = "[^\\r\\u0085\\u2028\\u2029]*+(?:\r\n[^\\r\\u0085\\u2028\\u2029]*+)*+";
+    public static final String RELATED_REGEX = "^(R|RELATED-TO|REFER-TO)[ ]*:" + ANY_LINES_REGEX + "$";
+    public static final String PREREQUISITE_REGEX = "^(P|PREREQUISITE)[ ]*:" + ANY_LINES_REGEX + "$";
+    public static final String LINK_LIST_REGEX = "^(L|LINK-LIST)[ ]*:" + ANY_LINES_REGEX + "$";
+    public static final String NEXT_REGEX = "^NEXT[ ]*:" + ANY_LINES_REGEX + "$";
+    public static final String PREV_REGEX = "^PREV[ ]*:" + ANY_LINES_REGEX + "$";
     public static final String TARGET_BASE_REGEX = "T(([0-9]+)|(\\-[ ]*[A-Za-z0-9\\-_]+))";
     public static final String TARGET_REGEX = "^" + TARGET_BASE_REGEX + "$";
-    public static final String BRANCH_REGEX = "^B[ ]*:(.|(\r?\n))*$";
+    public static final String BRANCH_REGEX = "^B[ ]*:" + ANY_LINES_REGEX + "$";
     public static final String EXTERNAL_TARGET_REGEX = "^ET[0-9]+$";
     public static final String EXTERNAL_CSP_REGEX = "^CS[0-9]+[ ]*(:[ ]*[0-9]+)?$";
 
@@ -37,6 +41,7 @@ public class ProcessorConstants {
     public static final String RELATION_ID_LONG_PATTERN = "^(?<TopicTitle>.*)[ ]*\\[(?<TopicID>(" + TARGET_BASE_REGEX + ")|(N?[0-9]+))\\]$";
 
     public static final Pattern VALID_BOOK_TYPE_PATTERN = Pattern.compile("^(BOOK|ARTICLE)(-DRAFT)?$");
+    public static final Pattern TARGET_PATTERN = Pattern.compile(TARGET_REGEX);
 
     public static final String LINE = "Line %d: ";
     public static final String INVALID_CS = "Invalid Content Specification!";
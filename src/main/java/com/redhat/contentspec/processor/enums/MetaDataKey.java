@@ -0,0 +1,95 @@
+package com.redhat.contentspec.processor.enums;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The metadata keys that can be used in a Content Specification. Keys are looked up using a hash table, so the cost of
+ * finding a key doesn't depend on the number of keys that exist.
+ */
+public enum MetaDataKey {
+    CHECKSUM("CHECKSUM"),
+    SUBTITLE("SUBTITLE"),
+    EDITION("EDITION"),
+    PUBSNUMBER("PUBSNUMBER"),
+    PRODUCT("PRODUCT"),
+    ABSTRACT("DESCRIPTION", "ABSTRACT"),
+    COPYRIGHT_HOLDER("COPYRIGHT HOLDER"),
+    COPYRIGHT_YEAR("COPYRIGHT YEAR"),
+    VERSION("VERSION"),
+    BRAND("BRAND"),
+    BUG_LINKS("BUG LINKS", "BUGLINKS"),
+    BUGZILLA_PRODUCT("BZPRODUCT"),
+    BUGZILLA_COMPONENT("BZCOMPONENT"),
+    BUGZILLA_VERSION("BZVERSION"),
+    BUGZILLA_KEYWORDS("BZKEYWORDS"),
+    BUGZILLA_ASSIGNEE("BZ ASSIGNEE", "BZASSIGNEE"),
+    BOOK_TYPE("TYPE"),
+    BRAND_LOGO("BRAND LOGO"),
+    REVISION_HISTORY("REVISION HISTORY"),
+    FEEDBACK("FEEDBACK"),
+    LEGAL_NOTICE("LEGAL NOTICE"),
+    MAVEN_ARTIFACT_ID("ARTIFACTID"),
+    MAVEN_GROUP_ID("GROUPID"),
+    BOOK_VERSION("BOOK VERSION"),
+    SURVEY_LINKS("SURVEY LINKS", "SURVEYLINKS"),
+    PUBLICAN_CFG("PUBLICAN.CFG"),
+    INLINE_INJECTION("INLINE INJECTION"),
+    OUTPUT_STYLE("OUTPUT STYLE"),
+    TRANSLATION_LOCALE("TRANSLATION LOCALE"),
+    SPEC_REVISION("SPECREVISION"),
+    SPACES("SPACES"),
+    DEBUG("DEBUG"),
+    DTD("DTD");
+
+    private static final Map<String, MetaDataKey> KEYS = new HashMap<String, MetaDataKey>();
+
+    static {
+        for (final MetaDataKey key : values()) {
+            for (final String name : key.names) {
+                KEYS.put(name, key);
+            }
+        }
+    }
+
+    private final String[] names;
+
+    private MetaDataKey(final String... names) {
+        this.names = names;
+    }
+
+    /**
+     * Finds the metadata key for a key string. The lookup is case insensitive and any whitespace in the key is
+     * normalised before it is looked up.
+     *
+     * @param key The key from a metadata line. ie "Bug Links" from "Bug Links = On"
+     * @return The matching MetaDataKey or null if the key isn't a known metadata key.
+     */
+    public static MetaDataKey getMetaDataKey(final String key) {
+        if (key == null) return null;
+
+        return KEYS.get(normalise(key));
+    }
+
+    /**
+     * Upper cases a key and collapses any runs of whitespace into a single space.
+     */
+    private static String normalise(final String key) {
+        final StringBuilder retValue = new StringBuilder(key.length());
+        boolean whitespace = false;
+        for (int i = 0; i < key.length(); i++) {
+            final char c = key.charAt(i);
+            if (Character.isWhitespace(c)) {
+                whitespace = retValue.length() > 0;
+            } else {
+                if (whitespace) {
+                    retValue.append(' ');
+                    whitespace = false;
+                }
+                retValue.append(c);
+            }
+        }
+        return retValue.toString().toUpperCase(Locale.ENGLISH);
+    }
+}
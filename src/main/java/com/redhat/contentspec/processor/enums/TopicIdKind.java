@@ -0,0 +1,100 @@
+package com.redhat.contentspec.processor.enums;
+
+/**
+ * The different kinds of topic IDs that can be used in a Content Specification. Topic IDs are classified using a single
+ * scan of the characters in the ID, instead of matching the ID against each of the topic ID regular expressions in
+ * CSConstants.
+ */
+public enum TopicIdKind {
+    /**
+     * A new topic. ie "N" or "N1"
+     */
+    NEW(1),
+    /**
+     * An existing topic. ie "1245"
+     */
+    EXISTING(0),
+    /**
+     * A clone of an existing topic. ie "C1245"
+     */
+    CLONED(1),
+    /**
+     * A duplicate of a new topic. ie "X1"
+     */
+    DUPLICATE(1),
+    /**
+     * A duplicate of a cloned topic. ie "XC1245"
+     */
+    CLONED_DUPLICATE(2),
+    /**
+     * The ID doesn't match any of the valid topic ID formats.
+     */
+    INVALID(0);
+
+    private final int prefixLength;
+
+    private TopicIdKind(final int prefixLength) {
+        this.prefixLength = prefixLength;
+    }
+
+    /**
+     * @return True if the kind represents a valid topic ID, otherwise false.
+     */
+    public boolean isValid() {
+        return this != INVALID;
+    }
+
+    /**
+     * Classifies a topic ID. The result is the same as matching the ID against the NEW, EXISTING, CLONED, DUPLICATE and
+     * CLONED_DUPLICATE topic ID regular expressions in CSConstants.
+     *
+     * @param id The topic ID to be classified.
+     * @return The kind of topic ID, or INVALID if the ID isn't a valid topic ID.
+     */
+    public static TopicIdKind classify(final String id) {
+        if (id == null || id.isEmpty()) return INVALID;
+
+        final char first = id.charAt(0);
+        if (first == 'N') {
+            return isDigits(id, 1, true) ? NEW : INVALID;
+        } else if (first == 'C') {
+            return isDigits(id, 1, false) ? CLONED : INVALID;
+        } else if (first == 'X') {
+            if (id.length() > 1 && id.charAt(1) == 'C') {
+                return isDigits(id, 2, false) ? CLONED_DUPLICATE : INVALID;
+            } else {
+                return isDigits(id, 1, false) ? DUPLICATE : INVALID;
+            }
+        } else {
+            return isDigits(id, 0, false) ? EXISTING : INVALID;
+        }
+    }
+
+    /**
+     * Gets the numeric part of a topic ID. ie 1245 for "XC1245" or 1 for "N1"
+     *
+     * @param id The topic ID to get the number from.
+     * @return The numeric part of the topic ID, or null if the ID is invalid or has no numeric part (ie "N").
+     * @throws NumberFormatException Thrown if the numeric part is too large to be held by an Integer.
+     */
+    public static Integer getIdNumber(final String id) {
+        final TopicIdKind kind = classify(id);
+        if (kind == INVALID || id.length() == kind.prefixLength) return null;
+
+        return Integer.parseInt(id.substring(kind.prefixLength));
+    }
+
+    /**
+     * Checks that the characters from the start position to the end of the ID are all digits.
+     */
+    private static boolean isDigits(final String id, final int start, final boolean allowEmpty) {
+        final int length = id.length();
+        if (start >= length) return allowEmpty;
+
+        for (int i = start; i < length; i++) {
+            final char c = id.charAt(i);
+            if (c < '0' || c > '9') return false;
+        }
+        return true;
+    }
+}
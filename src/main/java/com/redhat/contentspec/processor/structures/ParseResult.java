@@ -0,0 +1,142 @@
+package com.redhat.contentspec.processor.structures;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.redhat.contentspec.processor.utils.ProcessorUtilities;
+import org.jboss.pressgang.ccms.contentspec.ContentSpec;
+import org.jboss.pressgang.ccms.contentspec.Level;
+import org.jboss.pressgang.ccms.contentspec.Process;
+import org.jboss.pressgang.ccms.contentspec.SpecTopic;
+import org.jboss.pressgang.ccms.contentspec.entities.Relationship;
+import org.jboss.pressgang.ccms.utils.structures.Pair;
+
+/**
+ * The result of parsing a Content Specification. The maps and lists in a result are copied when it is created and can't be
+ * modified, however the ContentSpec, Levels, SpecTopics and other nodes they hold are the parser's mutable objects and
+ * aren't copied, so anything that changes those nodes will see and affect every other user of the result.
+ */
+public final class ParseResult {
+    private final boolean successful;
+    private final ContentSpec contentSpec;
+    private final Map<String, SpecTopic> specTopics;
+    private final Map<String, List<String>> topicIdIndex;
+    private final Map<String, Level> targetLevels;
+    private final Map<String, SpecTopic> targetTopics;
+    private final Map<String, List<Relationship>> relationships;
+    private final List<Process> processes;
+
+    /**
+     * Constructor
+     *
+     * @param successful    If the Content Specification was parsed successfully.
+     * @param contentSpec   The Content Specification object that was parsed.
+     * @param specTopics    The Content Specification Topics mapped by their unique ID.
+     * @param topicIdIndex  The index of topic IDs to the unique IDs of the topics that use them.
+     * @param targetLevels  The Levels mapped by their Target ID.
+     * @param targetTopics  The Content Specification Topics mapped by their Target ID.
+     * @param relationships The relationships mapped by the unique ID of the topic they belong to.
+     * @param processes     The processes that were parsed.
+     */
+    public ParseResult(final boolean successful, final ContentSpec contentSpec, final Map<String, SpecTopic> specTopics,
+            final Map<String, List<String>> topicIdIndex, final Map<String, Level> targetLevels,
+            final Map<String, SpecTopic> targetTopics, final Map<String, List<Relationship>> relationships,
+            final List<Process> processes) {
+        this.successful = successful;
+        this.contentSpec = contentSpec;
+        this.specTopics = Collections.unmodifiableMap(new HashMap<String, SpecTopic>(specTopics));
+        this.topicIdIndex = copyListMap(topicIdIndex);
+        this.targetLevels = Collections.unmodifiableMap(new HashMap<String, Level>(targetLevels));
+        this.targetTopics = Collections.unmodifiableMap(new HashMap<String, SpecTopic>(targetTopics));
+        this.relationships = copyListMap(relationships);
+        this.processes = Collections.unmodifiableList(new ArrayList<Process>(processes));
+    }
+
+    private static <T> Map<String, List<T>> copyListMap(final Map<String, List<T>> map) {
+        final Map<String, List<T>> copy = new HashMap<String, List<T>>(map.size() * 4 / 3 + 1);
+        for (final Map.Entry<String, List<T>> entry : map.entrySet()) {
+            copy.put(entry.getKey(), Collections.unmodifiableList(new ArrayList<T>(entry.getValue())));
+        }
+        return Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * @return True if the Content Specification was parsed successfully, otherwise false.
+     */
+    public boolean isSuccessful() {
+        return successful;
+    }
+
+    /**
+     * @return The Content Specification object representation.
+     */
+    public ContentSpec getContentSpec() {
+        return contentSpec;
+    }
+
+    /**
+     * @return The mapping of topics to their unique Content Specification Topic ID's.
+     */
+    public Map<String, SpecTopic> getSpecTopics() {
+        return specTopics;
+    }
+
+    /**
+     * @return The mapping of topic IDs to their unique Content Specification Topic ID's, ordered by line number.
+     */
+    public Map<String, List<String>> getTopicIdIndex() {
+        return topicIdIndex;
+    }
+
+    /**
+     * @return A List of Levels mapped by their Target ID.
+     */
+    public Map<String, Level> getTargetLevels() {
+        return targetLevels;
+    }
+
+    /**
+     * @return A list of Content Specification Topics mapped by their Target ID.
+     */
+    public Map<String, SpecTopic> getTargetTopics() {
+        return targetTopics;
+    }
+
+    /**
+     * @return The map of Unique id's to relationships.
+     */
+    public Map<String, List<Relationship>> getProcessedRelationships() {
+        return relationships;
+    }
+
+    /**
+     * @return A List of the Processes that were parsed.
+     */
+    public List<Process> getProcesses() {
+        return processes;
+    }
+
+    /**
+     * @return A List of the topic ID's that are used in the Content Specification.
+     */
+    public List<Integer> getReferencedTopicIds() {
+        return ProcessorUtilities.getReferencedTopicIds(specTopics);
+    }
+
+    /**
+     * @return A List of the topic ID's that are used in the Content Specification, that don't reference a revision.
+     */
+    public List<Integer> getReferencedLatestTopicIds() {
+        return ProcessorUtilities.getReferencedLatestTopicIds(specTopics);
+    }
+
+    /**
+     * @return A List of the topic ID and revision pairs that are used in the Content Specification.
+     */
+    public List<Pair<Integer, Integer>> getReferencedRevisionTopicIds() {
+        return ProcessorUtilities.getReferencedRevisionTopicIds(specTopics);
+    }
+}
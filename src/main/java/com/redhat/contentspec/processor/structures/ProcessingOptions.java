@@ -11,6 +11,18 @@ public class ProcessingOptions {
     private boolean updateRevisions = false;
     private Integer revision = null;
     private boolean strictLevelTitles = false;
+    private int downloadThreads = 4;
+    private long downloadTimeout = 60000;
+    private int downloadRetries = 2;
+    private long downloadRetryDelay = 500;
+    private boolean offline = false;
+    private int sourceUrlTimeout = 10000;
+    private long sourceUrlCacheTTL = 7L * 24 * 60 * 60 * 1000;
+    private String sourceUrlCacheFile = null;
+    private int parseResultCacheSize = 0;
+    private int parseThreads = 1;
+    private String topicCacheFile = null;
+    private long topicCacheSize = 256L * 1024 * 1024;
 
     public boolean isPermissiveMode() {
         return permissiveMode;
@@ -83,4 +95,100 @@ public class ProcessingOptions {
     public void setStrictLevelTitles(boolean strictLevelTitles) {
         this.strictLevelTitles = strictLevelTitles;
     }
+
+    public int getDownloadThreads() {
+        return downloadThreads;
+    }
+
+    public void setDownloadThreads(int downloadThreads) {
+        this.downloadThreads = downloadThreads;
+    }
+
+    public long getDownloadTimeout() {
+        return downloadTimeout;
+    }
+
+    public void setDownloadTimeout(long downloadTimeout) {
+        this.downloadTimeout = downloadTimeout;
+    }
+
+    public int getDownloadRetries() {
+        return downloadRetries;
+    }
+
+    public void setDownloadRetries(int downloadRetries) {
+        this.downloadRetries = downloadRetries;
+    }
+
+    public long getDownloadRetryDelay() {
+        return downloadRetryDelay;
+    }
+
+    public void setDownloadRetryDelay(long downloadRetryDelay) {
+        this.downloadRetryDelay = downloadRetryDelay;
+    }
+
+    public boolean isOffline() {
+        return offline;
+    }
+
+    public void setOffline(boolean offline) {
+        this.offline = offline;
+    }
+
+    public int getSourceUrlTimeout() {
+        return sourceUrlTimeout;
+    }
+
+    public void setSourceUrlTimeout(int sourceUrlTimeout) {
+        this.sourceUrlTimeout = sourceUrlTimeout;
+    }
+
+    public long getSourceUrlCacheTTL() {
+        return sourceUrlCacheTTL;
+    }
+
+    public void setSourceUrlCacheTTL(long sourceUrlCacheTTL) {
+        this.sourceUrlCacheTTL = sourceUrlCacheTTL;
+    }
+
+    public String getSourceUrlCacheFile() {
+        return sourceUrlCacheFile;
+    }
+
+    public void setSourceUrlCacheFile(final String sourceUrlCacheFile) {
+        this.sourceUrlCacheFile = sourceUrlCacheFile;
+    }
+
+    public int getParseResultCacheSize() {
+        return parseResultCacheSize;
+    }
+
+    public void setParseResultCacheSize(int parseResultCacheSize) {
+        this.parseResultCacheSize = parseResultCacheSize;
+    }
+
+    public int getParseThreads() {
+        return parseThreads;
+    }
+
+    public void setParseThreads(int parseThreads) {
+        this.parseThreads = parseThreads;
+    }
+
+    public String getTopicCacheFile() {
+        return topicCacheFile;
+    }
+
+    public void setTopicCacheFile(final String topicCacheFile) {
+        this.topicCacheFile = topicCacheFile;
+    }
+
+    public long getTopicCacheSize() {
+        return topicCacheSize;
+    }
+
+    public void setTopicCacheSize(long topicCacheSize) {
+        this.topicCacheSize = topicCacheSize;
+    }
 }
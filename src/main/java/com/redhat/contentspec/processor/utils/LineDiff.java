@@ -0,0 +1,132 @@
+package com.redhat.contentspec.processor.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compares two versions of a list of lines, to find where each unchanged line has moved to. The lines that are the same at
+ * the start and end are matched first, and the lines in between are compared using Myers' O(ND) difference algorithm, so
+ * the time and memory used depends on the number of lines that were changed rather than the number of lines.
+ */
+public class LineDiff {
+    /**
+     * The default maximum number of lines that can be inserted or deleted before the lines are treated as unrelated.
+     */
+    public static final int DEFAULT_MAX_EDITS = 500;
+
+    private LineDiff() {
+    }
+
+    /**
+     * Finds where each of the unchanged previous lines is in the current lines.
+     *
+     * @param previousLines The lines before they were edited.
+     * @param lines         The edited lines.
+     * @return The index of each previous line in the edited lines, or -1 if the line was changed or deleted. Null is
+     *         returned if more than {@link #DEFAULT_MAX_EDITS} lines were inserted or deleted.
+     */
+    public static int[] mapUnchangedLines(final List<String> previousLines, final List<String> lines) {
+        return mapUnchangedLines(previousLines, lines, DEFAULT_MAX_EDITS);
+    }
+
+    /**
+     * Finds where each of the unchanged previous lines is in the current lines.
+     *
+     * @param previousLines The lines before they were edited.
+     * @param lines         The edited lines.
+     * @param maxEdits      The maximum number of lines that can be inserted or deleted.
+     * @return The index of each previous line in the edited lines, or -1 if the line was changed or deleted. Null is
+     *         returned if more than maxEdits lines were inserted or deleted.
+     */
+    public static int[] mapUnchangedLines(final List<String> previousLines, final List<String> lines, final int maxEdits) {
+        final int[] lineMap = new int[previousLines.size()];
+        Arrays.fill(lineMap, -1);
+
+        // Match the lines that are the same at the start and end
+        final int commonSize = Math.min(previousLines.size(), lines.size());
+        int prefix = 0;
+        while (prefix < commonSize && previousLines.get(prefix).equals(lines.get(prefix))) {
+            lineMap[prefix] = prefix;
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < commonSize - prefix && previousLines.get(previousLines.size() - suffix - 1).equals(
+                lines.get(lines.size() - suffix - 1))) {
+            lineMap[previousLines.size() - suffix - 1] = lines.size() - suffix - 1;
+            suffix++;
+        }
+
+        final List<String> previousMiddle = previousLines.subList(prefix, previousLines.size() - suffix);
+        final List<String> middle = lines.subList(prefix, lines.size() - suffix);
+        return mapMiddleLines(previousMiddle, middle, prefix, maxEdits, lineMap) ? lineMap : null;
+    }
+
+    /**
+     * Finds the shortest edit script for the changed lines, and adds the lines that weren't inserted or deleted to the map.
+     *
+     * @param a        The changed previous lines.
+     * @param b        The changed current lines.
+     * @param offset   The index of the first changed line in both lists of lines.
+     * @param maxEdits The maximum number of lines that can be inserted or deleted.
+     * @param lineMap  The index of each previous line in the current lines.
+     * @return True if the lines could be compared within the maximum number of edits, otherwise false.
+     */
+    private static boolean mapMiddleLines(final List<String> a, final List<String> b, final int offset, final int maxEdits,
+            final int[] lineMap) {
+        final int n = a.size();
+        final int m = b.size();
+        final int max = Math.min(n + m, maxEdits);
+
+        // v[max + k] holds the furthest x reached on diagonal k, and a copy is kept for each number of edits to backtrack through
+        final int[] v = new int[2 * max + 2];
+        final List<int[]> trace = new ArrayList<int[]>();
+        for (int d = 0; d <= max; d++) {
+            trace.add(v.clone());
+            for (int k = -d; k <= d; k += 2) {
+                int x = k == -d || k != d && v[max + k - 1] < v[max + k + 1] ? v[max + k + 1] : v[max + k - 1] + 1;
+                int y = x - k;
+                while (x < n && y < m && a.get(x).equals(b.get(y))) {
+                    x++;
+                    y++;
+                }
+                v[max + k] = x;
+
+                if (x >= n && y >= m) {
+                    backtrack(trace, max, n, m, offset, lineMap);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Walks back through the furthest points reached for each number of edits, and maps the lines on each diagonal.
+     */
+    private static void backtrack(final List<int[]> trace, final int max, final int n, final int m, final int offset,
+            final int[] lineMap) {
+        int x = n;
+        int y = m;
+        for (int d = trace.size() - 1; d >= 0; d--) {
+            final int[] v = trace.get(d);
+            final int k = x - y;
+            final int prevK;
+            if (d == 0) {
+                prevK = 0;
+            } else {
+                prevK = k == -d || k != d && v[max + k - 1] < v[max + k + 1] ? k + 1 : k - 1;
+            }
+            final int prevX = d == 0 ? 0 : v[max + prevK];
+            final int prevY = prevX - prevK;
+
+            while (x > prevX && y > prevY) {
+                x--;
+                y--;
+                lineMap[offset + x] = offset + y;
+            }
+            x = prevX;
+            y = prevY;
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.redhat.contentspec.processor.utils;
+
+import org.jboss.pressgang.ccms.contentspec.enums.LevelType;
+
+/**
+ * A lexer that classifies a line of a Content Specification in a single left to right scan. The lexer holds the result of
+ * the last line that was lexed, so that it can be reused for every line without allocating any new objects.
+ */
+public class LineLexer {
+    /**
+     * The different types of lines that can be found in a Content Specification.
+     */
+    public static enum TokenType {
+        BLANK, COMMENT, METADATA, LEVEL, CS_INCLUDE, BASE_OPTIONS, TOPIC
+    }
+
+    private static final String[] LEVEL_KEYWORDS = {"CHAPTER", "SECTION", "APPENDIX", "PART", "PREFACE", "PROCESS"};
+    private static final LevelType[] LEVEL_TYPES = {LevelType.CHAPTER, LevelType.SECTION, LevelType.APPENDIX, LevelType.PART,
+            LevelType.PREFACE, LevelType.PROCESS};
+
+    private TokenType type = null;
+    private int indentation = 0;
+    private int contentStart = 0;
+    private int contentEnd = 0;
+    private LevelType levelType = null;
+
+    /**
+     * Classifies a line of a Content Specification. Metadata and base level options can only exist at the base level, so
+     * if the line is found at any other level it should be treated as a topic.
+     *
+     * @param line The line to be classified.
+     * @return The type of the line.
+     */
+    public TokenType lex(final String line) {
+        final int length = line.length();
+        levelType = null;
+
+        // Count the amount of whitespace characters before any text to determine the level
+        indentation = 0;
+        while (indentation < length && Character.isWhitespace(line.charAt(indentation))) {
+            indentation++;
+        }
+
+        // Find the content bounds, using the same rules as String.trim()
+        contentStart = 0;
+        while (contentStart < length && line.charAt(contentStart) <= ' ') {
+            contentStart++;
+        }
+        contentEnd = length;
+        while (contentEnd > contentStart && line.charAt(contentEnd - 1) <= ' ') {
+            contentEnd--;
+        }
+
+        if (contentStart == contentEnd) {
+            type = TokenType.BLANK;
+        } else if (line.charAt(contentStart) == '#') {
+            type = TokenType.COMMENT;
+        } else if (isMetaData(line, contentStart, contentEnd)) {
+            type = TokenType.METADATA;
+        } else if ((levelType = findLevelType(line, contentStart, contentEnd)) != null) {
+            type = TokenType.LEVEL;
+        } else if (isCSInclude(line, contentStart, contentEnd)) {
+            type = TokenType.CS_INCLUDE;
+        } else if (line.charAt(contentStart) == '[') {
+            type = TokenType.BASE_OPTIONS;
+        } else {
+            type = TokenType.TOPIC;
+        }
+
+        return type;
+    }
+
+    /**
+     * @return The type of the last line that was lexed.
+     */
+    public TokenType getType() {
+        return type;
+    }
+
+    /**
+     * @return The number of whitespace characters at the start of the last line that was lexed.
+     */
+    public int getIndentation() {
+        return indentation;
+    }
+
+    /**
+     * @return The start position of the trimmed content in the last line that was lexed.
+     */
+    public int getContentStart() {
+        return contentStart;
+    }
+
+    /**
+     * @return The end position (exclusive) of the trimmed content in the last line that was lexed.
+     */
+    public int getContentEnd() {
+        return contentEnd;
+    }
+
+    /**
+     * @return The level type of the last line, if it was a level line, otherwise null.
+     */
+    public LevelType getLevelType() {
+        return levelType;
+    }
+
+    /**
+     * Checks to see if a line is in the format of a metadata line. ie "Key = Value"
+     *
+     * @param line The line to be checked.
+     * @return True if the line is metadata, otherwise false.
+     */
+    public static boolean isMetaData(final String line) {
+        final int[] bounds = trimBounds(line);
+        return isMetaData(line, bounds[0], bounds[1]);
+    }
+
+    /**
+     * Checks to see if a line starts with a level keyword, and if so returns the type of level.
+     *
+     * @param line The line to be checked.
+     * @return The type of level the line represents, or null if the line isn't a level.
+     */
+    public static LevelType getLevelType(final String line) {
+        final int[] bounds = trimBounds(line);
+        return findLevelType(line, bounds[0], bounds[1]);
+    }
+
+    /**
+     * Checks to see if the next line is a continuation of a set of relationships or a target. ie. The line starts with
+     * "[R:", "[L:", "[P:", "[T" or "[B:".
+     *
+     * @param line       The line to be checked.
+     * @param startDelim The starting delimiter of a variable set.
+     * @return True if the line is a continuation line, otherwise false.
+     */
+    public static boolean isContinuationLine(final String line, final char startDelim) {
+        if (line == null) return false;
+
+        final int[] bounds = trimBounds(line);
+        int pos = bounds[0];
+        if (pos >= bounds[1] || line.charAt(pos) != startDelim) return false;
+
+        pos++;
+        while (pos < bounds[1] && line.charAt(pos) == ' ') {
+            pos++;
+        }
+        if (pos >= bounds[1]) return false;
+
+        final char c = Character.toUpperCase(line.charAt(pos));
+        return (c == 'R' || c == 'L' || c == 'P' || c == 'T' || c == 'B') && !containsLineTerminator(line, pos + 1, bounds[1]);
+    }
+
+    /**
+     * Equivalent to matching "^\w[\w\.\s]+=.*" against the content between start and end.
+     */
+    private static boolean isMetaData(final String line, final int start, final int end) {
+        if (start >= end || !isWordChar(line.charAt(start))) return false;
+
+        int pos = start + 1;
+        while (pos < end) {
+            final char c = line.charAt(pos);
+            if (isWordChar(c) || c == '.' || isRegexWhitespace(c)) {
+                pos++;
+            } else {
+                break;
+            }
+        }
+
+        return pos > start + 1 && pos < end && line.charAt(pos) == '=' && !containsLineTerminator(line, pos + 1, end);
+    }
+
+    /**
+     * Equivalent to finding "^(CHAPTER|SECTION|APPENDIX|PART|PREFACE|PROCESS)[ ]*((:.*)|$)" in the upper cased content
+     * between start and end.
+     */
+    private static LevelType findLevelType(final String line, final int start, final int end) {
+        for (int i = 0; i < LEVEL_KEYWORDS.length; i++) {
+            final String keyword = LEVEL_KEYWORDS[i];
+            final int keywordEnd = start + keyword.length();
+            if (keywordEnd <= end && startsWithIgnoreCase(line, start, keyword)) {
+                int pos = keywordEnd;
+                while (pos < end && line.charAt(pos) == ' ') {
+                    pos++;
+                }
+
+                if (pos == end || line.charAt(pos) == ':' || (pos == end - 1 && containsLineTerminator(line, pos, end))) {
+                    return LEVEL_TYPES[i];
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Equivalent to matching "^CS[ ]*:.*" against the upper cased content between start and end.
+     */
+    private static boolean isCSInclude(final String line, final int start, final int end) {
+        if (start + 2 > end || !startsWithIgnoreCase(line, start, "CS")) return false;
+
+        int pos = start + 2;
+        while (pos < end && line.charAt(pos) == ' ') {
+            pos++;
+        }
+
+        return pos < end && line.charAt(pos) == ':' && !containsLineTerminator(line, pos + 1, end);
+    }
+
+    private static boolean startsWithIgnoreCase(final String line, final int start, final String upperCaseKeyword) {
+        for (int i = 0; i < upperCaseKeyword.length(); i++) {
+            if (Character.toUpperCase(line.charAt(start + i)) != upperCaseKeyword.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private static boolean isWordChar(final char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    private static boolean isRegexWhitespace(final char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Checks for any of the characters that a regex "." won't match.
+     */
+    private static boolean containsLineTerminator(final String line, final int start, final int end) {
+        for (int i = start; i < end; i++) {
+            final char c = line.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') return true;
+        }
+        return false;
+    }
+
+    private static int[] trimBounds(final String line) {
+        int start = 0;
+        int end = line.length();
+        while (start < end && line.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && line.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return new int[]{start, end};
+    }
+}
@@ -0,0 +1,109 @@
+package com.redhat.contentspec.processor.utils;
+
+import org.jboss.pressgang.ccms.utils.common.StringUtilities;
+
+/**
+ * Accumulates a line of a Content Specification and any continuation lines that belong to its variable sets. The state
+ * needed to decide if another line should be read is updated as each line is appended, so the lines that have already
+ * been appended never need to be scanned again.
+ */
+public class LineVariablesBuffer {
+    private final char startDelim;
+    private final char endDelim;
+    private final char separator;
+    private final StringBuilder buffer = new StringBuilder();
+    private int lastStartDelimPos = -1;
+    private int lastEndDelimPos = -1;
+    private int firstContentPos = -1;
+    private int lastContentPos = -1;
+    private int firstUnmatchedTerminatorPos = -1;
+
+    /**
+     * Constructor
+     *
+     * @param input      The initial line of input.
+     * @param startDelim The starting delimiter of the variables.
+     * @param endDelim   The ending delimiter of the variables.
+     * @param separator  The separator used to separate the variables.
+     */
+    public LineVariablesBuffer(final String input, final char startDelim, final char endDelim, final char separator) {
+        this.startDelim = startDelim;
+        this.endDelim = endDelim;
+        this.separator = separator;
+        append(input);
+    }
+
+    /**
+     * Appends a continuation line to the buffer, on a new line.
+     *
+     * @param line The line to be appended.
+     */
+    public void appendLine(final String line) {
+        buffer.append('\n');
+        append(line);
+    }
+
+    private void append(final String text) {
+        final int offset = buffer.length();
+        buffer.append(text);
+
+        final int startDelimPos = StringUtilities.lastIndexOf(text, startDelim);
+        if (startDelimPos != -1) {
+            lastStartDelimPos = offset + startDelimPos;
+        }
+        final int endDelimPos = StringUtilities.lastIndexOf(text, endDelim);
+        if (endDelimPos != -1) {
+            lastEndDelimPos = offset + endDelimPos;
+        }
+
+        final int length = buffer.length();
+        for (int i = offset; i < length; i++) {
+            final char c = buffer.charAt(i);
+            if (c > ' ') {
+                if (firstContentPos == -1) {
+                    firstContentPos = i;
+                }
+                lastContentPos = i;
+            }
+
+            // A "\r" at the end of the text is matched by the "\n" that starts the next line
+            if (firstUnmatchedTerminatorPos == -1 && firstContentPos != -1 && (c == '\u0085' || c == '\u2028' || c == '\u2029' || (c
+                    == '\r' && i + 1 < length && buffer.charAt(i + 1) != '\n'))) {
+                firstUnmatchedTerminatorPos = i;
+            }
+        }
+    }
+
+    /**
+     * @return True if the buffer contains the start of a variable set.
+     */
+    public boolean hasVariables() {
+        return lastStartDelimPos != -1;
+    }
+
+    /**
+     * @return True if the last variable set in the buffer hasn't been closed.
+     */
+    public boolean isUnclosed() {
+        return lastEndDelimPos < lastStartDelimPos;
+    }
+
+    /**
+     * Checks if the trimmed buffer ends with an unescaped separator, meaning that the variables continue onto the next
+     * line. This is equivalent to matching "(.|\n|\r\n)*(?<!\\)separator$" against the trimmed buffer.
+     *
+     * @return True if the buffer ends with a separator, otherwise false.
+     */
+    public boolean endsWithSeparator() {
+        if (lastContentPos == -1 || buffer.charAt(lastContentPos) != separator) return false;
+        if (lastContentPos > firstContentPos && buffer.charAt(lastContentPos - 1) == '\\') return false;
+
+        // The regex can't match over any line terminators other than "\n" and "\r\n"
+        return firstUnmatchedTerminatorPos == -1 || firstUnmatchedTerminatorPos > lastContentPos;
+    }
+
+    @Override
+    public String toString() {
+        return buffer.toString();
+    }
+}
@@ -0,0 +1,135 @@
+package com.redhat.contentspec.processor.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jboss.pressgang.ccms.contentspec.utils.logging.ErrorLogger;
+
+/**
+ * Holds log messages until they are flushed to another LogBuffer. Work that is split up and run on separate threads can
+ * log to a buffer for each piece of work, and the buffers can then be flushed in order so that the messages are in the
+ * same order as if the work had been run on a single thread. A buffer that is created for an ErrorLogger doesn't hold
+ * any messages, and instead writes them straight to the logger.
+ */
+public class LogBuffer {
+    private static enum MessageType {
+        DEBUG, INFO, WARN, ERROR
+    }
+
+    private final ErrorLogger log;
+    private final List<MessageType> types = new ArrayList<MessageType>();
+    private final List<String> messages = new ArrayList<String>();
+
+    /**
+     * Constructor for a buffer that holds its messages until it is flushed.
+     */
+    public LogBuffer() {
+        this(null);
+    }
+
+    /**
+     * Constructor for a buffer that writes its messages straight to a logger.
+     *
+     * @param log The logger to write the messages to.
+     */
+    public LogBuffer(final ErrorLogger log) {
+        this.log = log;
+    }
+
+    /**
+     * Logs a debug message.
+     *
+     * @param message The message to log.
+     */
+    public void debug(final String message) {
+        add(MessageType.DEBUG, message);
+    }
+
+    /**
+     * Logs an info message.
+     *
+     * @param message The message to log.
+     */
+    public void info(final String message) {
+        add(MessageType.INFO, message);
+    }
+
+    /**
+     * Logs a warning message.
+     *
+     * @param message The message to log.
+     */
+    public void warn(final String message) {
+        add(MessageType.WARN, message);
+    }
+
+    /**
+     * Logs an error message.
+     *
+     * @param message The message to log.
+     */
+    public void error(final String message) {
+        add(MessageType.ERROR, message);
+    }
+
+    private void add(final MessageType type, final String message) {
+        if (log == null) {
+            types.add(type);
+            messages.add(message);
+            return;
+        }
+
+        switch (type) {
+            case DEBUG:
+                log.debug(message);
+                break;
+            case INFO:
+                log.info(message);
+                break;
+            case WARN:
+                log.warn(message);
+                break;
+            default:
+                log.error(message);
+                break;
+        }
+    }
+
+    /**
+     * @return True if the buffer isn't holding any messages, otherwise false.
+     */
+    public boolean isEmpty() {
+        return messages.isEmpty();
+    }
+
+    /**
+     * Writes the messages that are held in this buffer to another buffer, in the order they were logged, and then removes
+     * them from this buffer.
+     *
+     * @param buffer The buffer to write the messages to.
+     */
+    public void flush(final LogBuffer buffer) {
+        copyTo(buffer);
+        clear();
+    }
+
+    /**
+     * Writes the messages that are held in this buffer to another buffer, in the order they were logged, and keeps them in
+     * this buffer so that they can be written again.
+     *
+     * @param buffer The buffer to write the messages to.
+     */
+    public void copyTo(final LogBuffer buffer) {
+        for (int i = 0; i < messages.size(); i++) {
+            buffer.add(types.get(i), messages.get(i));
+        }
+    }
+
+    /**
+     * Removes the messages that are held in this buffer, without writing them anywhere.
+     */
+    public void clear() {
+        types.clear();
+        messages.clear();
+    }
+}
@@ -0,0 +1,152 @@
+package com.redhat.contentspec.processor.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * A line reader that streams lines from an underlying Reader, while allowing a small number of lines to be looked at
+ * before they are consumed. Only the lines inside of the lookahead window are held by the reader, so the memory used
+ * by the reader is dependent on the size of the window and not the size of the input. Anything that keeps the lines
+ * once they have been polled, such as the pre processed text of a Content Specification, isn't bounded by the window.
+ */
+public class LookaheadLineReader {
+    /**
+     * The default number of lines that can be looked ahead.
+     */
+    public static final int DEFAULT_LOOKAHEAD = 4;
+
+    private final BufferedReader reader;
+    private final int lookahead;
+    private final ArrayDeque<String> window;
+    private boolean endOfInput = false;
+
+    /**
+     * Constructor
+     *
+     * @param reader The reader to read the lines from.
+     */
+    public LookaheadLineReader(final Reader reader) {
+        this(reader, DEFAULT_LOOKAHEAD);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param reader    The reader to read the lines from.
+     * @param lookahead The maximum number of lines that can be looked ahead.
+     */
+    public LookaheadLineReader(final Reader reader, final int lookahead) {
+        if (lookahead < 1) throw new IllegalArgumentException("The lookahead window must be at least one line.");
+
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        this.lookahead = lookahead;
+        window = new ArrayDeque<String>(lookahead);
+    }
+
+    /**
+     * Creates a reader that reads some lines that have already been polled from a reader, followed by the lines that are
+     * still to be polled from it. Only a line at a time is read from the original reader, as it is needed.
+     *
+     * @param lines  The lines to read first, each ending with a new line character.
+     * @param reader The reader to read the remaining lines from.
+     * @return The new reader, with the same lookahead window as the original reader.
+     */
+    public static LookaheadLineReader prepend(final String lines, final LookaheadLineReader reader) {
+        return new LookaheadLineReader(new Reader() {
+            private String buffer = lines;
+            private int position = 0;
+
+            @Override
+            public int read(final char[] chars, final int offset, final int length) throws IOException {
+                while (buffer != null && position >= buffer.length()) {
+                    final String line = reader.poll();
+                    buffer = line == null ? null : line + "\n";
+                    position = 0;
+                }
+                if (buffer == null) return -1;
+
+                final int count = Math.min(length, buffer.length() - position);
+                buffer.getChars(position, position + count, chars, offset);
+                position += count;
+                return count;
+            }
+
+            @Override
+            public void close() throws IOException {
+                reader.close();
+            }
+        }, reader.lookahead);
+    }
+
+    /**
+     * Gets the next line without consuming it.
+     *
+     * @return The next line, or null if the end of the input has been reached.
+     * @throws IOException Thrown if the line can't be read from the underlying reader.
+     */
+    public String peek() throws IOException {
+        return peek(0);
+    }
+
+    /**
+     * Gets a line ahead of the current position without consuming it.
+     *
+     * @param offset The number of lines past the next line to look at. ie 0 is the next line.
+     * @return The line at the offset, or null if the end of the input is reached before the offset.
+     * @throws IOException Thrown if the line can't be read from the underlying reader.
+     */
+    public String peek(final int offset) throws IOException {
+        if (offset < 0 || offset >= lookahead) {
+            throw new IllegalArgumentException("The offset must be between 0 and " + (lookahead - 1) + ".");
+        }
+
+        fill(offset + 1);
+        if (offset >= window.size()) return null;
+
+        final Iterator<String> iter = window.iterator();
+        for (int i = 0; i < offset; i++) {
+            iter.next();
+        }
+        return iter.next();
+    }
+
+    /**
+     * Gets and consumes the next line.
+     *
+     * @return The next line, or null if the end of the input has been reached.
+     * @throws IOException Thrown if the line can't be read from the underlying reader.
+     */
+    public String poll() throws IOException {
+        fill(1);
+        return window.pollFirst();
+    }
+
+    /**
+     * Closes the underlying reader and discards any lines in the lookahead window.
+     *
+     * @throws IOException Thrown if the underlying reader fails to close.
+     */
+    public void close() throws IOException {
+        window.clear();
+        endOfInput = true;
+        reader.close();
+    }
+
+    /**
+     * Reads lines from the underlying reader until the window holds the required number of lines or the input is
+     * exhausted.
+     */
+    private void fill(final int required) throws IOException {
+        while (!endOfInput && window.size() < required) {
+            final String line = reader.readLine();
+            if (line == null) {
+                endOfInput = true;
+            } else {
+                window.addLast(line);
+            }
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.redhat.contentspec.processor.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Downloads a set of entities using a bounded number of concurrent requests. Each request is given a timeout, and is
+ * retried with an exponential backoff if it fails. A request that times out isn't sent again, as blocking I/O can't be
+ * interrupted and the request would still be running alongside the retry. Instead each retry waits for the same request
+ * again, and the request is abandoned once all of the retries have been used up. The download can be cancelled using a
+ * shutdown flag, in which case any outstanding requests are abandoned and the entities downloaded so far are returned.
+ * <p/>
+ * Requests are run on a pool that has one thread for each concurrent request, so a request that has been abandoned but is
+ * still running holds on to its thread and the number of requests that are running never exceeds the concurrency.
+ *
+ * @param <K> The type of key used to identify the entities to download.
+ * @param <V> The type of entity that is downloaded.
+ */
+public class ParallelDownloader<K, V> {
+    /**
+     * Fetches a single entity. Implementations must be safe to call from multiple threads at once. A RESTReader and its
+     * entity cache aren't safe to use from multiple threads, so fetchers should use a reader for each thread from
+     * {@link PerThreadReaders}. Holding a lock while fetching serialises the requests, and the time spent waiting for the
+     * lock counts towards the request timeout.
+     *
+     * @param <K> The type of key used to identify the entity.
+     * @param <V> The type of entity that is fetched.
+     */
+    public static interface Fetcher<K, V> {
+        /**
+         * Fetches the entity for a key.
+         *
+         * @param key The key of the entity to fetch.
+         * @return The fetched entity.
+         * @throws Exception Any error that occurred while fetching the entity.
+         */
+        V fetch(K key) throws Exception;
+    }
+
+    private static final int SHOW_PERCENT = 5;
+    private static final long CANCEL_POLL_INTERVAL = 100;
+
+    private final Logger log;
+    private final int concurrency;
+    private final long timeout;
+    private final int retries;
+    private final long retryDelay;
+    private final AtomicBoolean isShuttingDown;
+
+    /**
+     * Constructor
+     *
+     * @param log            The logger to report progress and failures to.
+     * @param concurrency    The maximum number of requests to run at once.
+     * @param timeout        The time in milliseconds to wait for a single request on each attempt. A value of 0 or less means
+     *                       requests never time out.
+     * @param retries        The number of times to retry a request that failed, or to wait again for a request that timed out.
+     * @param retryDelay     The time in milliseconds to wait before the first retry. The delay is doubled for each retry after
+     *                       that.
+     * @param isShuttingDown The flag that signals the download should be cancelled.
+     */
+    public ParallelDownloader(final Logger log, final int concurrency, final long timeout, final int retries, final long retryDelay,
+            final AtomicBoolean isShuttingDown) {
+        if (concurrency < 1) throw new IllegalArgumentException("The concurrency must be at least 1.");
+
+        this.log = log;
+        this.concurrency = concurrency;
+        this.timeout = timeout;
+        this.retries = Math.max(0, retries);
+        this.retryDelay = Math.max(0, retryDelay);
+        this.isShuttingDown = isShuttingDown;
+    }
+
+    /**
+     * Downloads the entities for a list of keys.
+     *
+     * @param keys            The keys of the entities to download.
+     * @param fetcher         The fetcher used to download a single entity.
+     * @param progressMessage The message to log as the download progresses, ie "Downloading revision topics". The percentage
+     *                        completed is appended to the message.
+     * @return The entities that were downloaded, mapped by their key and in the same order as the keys. Entities that failed
+     *         to download, or were not downloaded due to cancellation, are not included.
+     */
+    public Map<K, V> download(final List<K> keys, final Fetcher<K, V> fetcher, final String progressMessage) {
+        final Map<K, V> results = new LinkedHashMap<K, V>();
+        if (keys.isEmpty()) return results;
+
+        final int threads = Math.min(concurrency, keys.size());
+        final ExecutorService workers = Executors.newFixedThreadPool(threads, new DaemonThreadFactory("download-worker"));
+        // Requests are run on their own threads so that a request that has timed out can be abandoned by a worker
+        final ExecutorService requests = Executors.newFixedThreadPool(threads, new DaemonThreadFactory("download-request"));
+        final CompletionService<Result<K, V>> completionService = new ExecutorCompletionService<Result<K, V>>(workers);
+
+        try {
+            final List<Future<Result<K, V>>> futures = new ArrayList<Future<Result<K, V>>>(keys.size());
+            for (final K key : keys) {
+                futures.add(completionService.submit(new DownloadTask(key, fetcher, requests)));
+            }
+
+            final Map<K, V> downloaded = new HashMap<K, V>();
+            final float total = keys.size();
+            int current = 0;
+            int lastPercent = 0;
+            while (current < keys.size()) {
+                if (isShuttingDown.get()) {
+                    for (final Future<Result<K, V>> future : futures) {
+                        future.cancel(true);
+                    }
+                    break;
+                }
+
+                final Future<Result<K, V>> future = completionService.poll(CANCEL_POLL_INTERVAL, TimeUnit.MILLISECONDS);
+                if (future == null) continue;
+
+                try {
+                    final Result<K, V> result = future.get();
+                    if (result.success) {
+                        downloaded.put(result.key, result.value);
+                    }
+                } catch (ExecutionException e) {
+                    log.debug("Unexpected error in a download task", e.getCause());
+                }
+
+                ++current;
+                final int percent = Math.round(current / total * 100);
+                if (percent - lastPercent >= SHOW_PERCENT) {
+                    lastPercent = percent;
+                    log.info("\t" + progressMessage + " " + percent + "% Done");
+                }
+            }
+
+            // Return the results in the same order as the keys were requested
+            for (final K key : keys) {
+                if (downloaded.containsKey(key)) {
+                    results.put(key, downloaded.get(key));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            workers.shutdownNow();
+            requests.shutdownNow();
+        }
+
+        return results;
+    }
+
+    /**
+     * Waits for the delay before a retry. The wait is broken up so that a cancellation is noticed promptly.
+     *
+     * @return True if the full delay was waited, or false if the download was cancelled.
+     */
+    private boolean waitForRetry(final int attempt) throws InterruptedException {
+        final long delay = retryDelay << Math.min(attempt, 16);
+        final long end = System.currentTimeMillis() + delay;
+        long remaining = delay;
+        while (remaining > 0) {
+            if (isShuttingDown.get()) return false;
+            Thread.sleep(Math.min(remaining, CANCEL_POLL_INTERVAL));
+            remaining = end - System.currentTimeMillis();
+        }
+        return !isShuttingDown.get();
+    }
+
+    /**
+     * The outcome of downloading a single entity.
+     */
+    private static class Result<K, V> {
+        private final K key;
+        private final V value;
+        private final boolean success;
+
+        private Result(final K key, final V value, final boolean success) {
+            this.key = key;
+            this.value = value;
+            this.success = success;
+        }
+    }
+
+    /**
+     * Downloads a single entity, retrying the request if it fails or waiting for it again if it times out.
+     */
+    private class DownloadTask implements Callable<Result<K, V>> {
+        private final K key;
+        private final Fetcher<K, V> fetcher;
+        private final ExecutorService requests;
+
+        private DownloadTask(final K key, final Fetcher<K, V> fetcher, final ExecutorService requests) {
+            this.key = key;
+            this.fetcher = fetcher;
+            this.requests = requests;
+        }
+
+        @Override
+        public Result<K, V> call() throws Exception {
+            Future<V> request = null;
+            try {
+                for (int attempt = 0; attempt <= retries; attempt++) {
+                    if (isShuttingDown.get()) break;
+                    if (attempt > 0 && !waitForRetry(attempt - 1)) break;
+
+                    // Only send the request again if it failed, as a request that timed out may still be running
+                    if (request == null) {
+                        request = requests.submit(new Callable<V>() {
+                            @Override
+                            public V call() throws Exception {
+                                return fetcher.fetch(key);
+                            }
+                        });
+                    }
+
+                    try {
+                        final V value = timeout > 0 ? request.get(timeout, TimeUnit.MILLISECONDS) : request.get();
+                        request = null;
+                        return new Result<K, V>(key, value, true);
+                    } catch (TimeoutException e) {
+                        log.debug("Timed out downloading " + key + " on attempt " + (attempt + 1));
+                    } catch (ExecutionException e) {
+                        request = null;
+                        log.debug("Failed to download " + key + " on attempt " + (attempt + 1), e.getCause());
+                    }
+                }
+            } finally {
+                // Abandon a request that is still running. Blocking I/O ignores the interrupt, so it may run until it returns.
+                if (request != null) {
+                    request.cancel(true);
+                }
+            }
+
+            if (!isShuttingDown.get()) {
+                log.warn("Unable to download " + key + " after " + (retries + 1) + " attempt(s)");
+            }
+            return new Result<K, V>(key, null, false);
+        }
+    }
+}
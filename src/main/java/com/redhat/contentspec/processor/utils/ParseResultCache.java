@@ -0,0 +1,236 @@
+package com.redhat.contentspec.processor.utils;
+
+import java.io.UnsupportedEncodingException;
+import java.lang.management.ManagementFactory;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.management.ObjectName;
+
+import com.redhat.contentspec.processor.ContentSpecParser;
+import com.redhat.contentspec.processor.structures.ParseResult;
+import org.apache.log4j.Logger;
+
+/**
+ * A size bounded cache of ParseResults for Content Specifications that have been parsed and passed the first validation
+ * pass, along with the messages that the parse and first validation pass logged so that they can be logged again when
+ * the result is reused. Results are keyed by a SHA-256 hash of the Content Specification text, with its line endings
+ * normalised, and the parameters that were used to parse it. Once the cache is full the least recently used result is
+ * evicted.
+ * <p/>
+ * Processors share a single cache by default, from {@link #getSharedInstance(int)}, so that a Content Specification that
+ * is validated again by a new processor can still use the result that was cached by an earlier one. Only the shared cache
+ * is registered with the platform MBean server, so creating a processor never leaves a cache registered behind it.
+ */
+public class ParseResultCache implements ParseResultCacheMBean {
+    private static final Logger LOG = Logger.getLogger(ParseResultCache.class);
+    private static final String ENCODING = "UTF-8";
+    private static final char[] HEX_CHARS = "0123456789abcdef".toCharArray();
+    private static final String SHARED_INSTANCE_NAME = "com.redhat.contentspec.processor:type=ParseResultCache";
+    private static ParseResultCache sharedInstance = null;
+
+    private int maxSize;
+    private final Map<String, CachedParseResult> cache;
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+
+    /**
+     * Constructor
+     *
+     * @param maxSize The maximum number of results to cache.
+     */
+    public ParseResultCache(final int maxSize) {
+        if (maxSize <= 0) throw new IllegalArgumentException("The maximum size of the cache must be greater than zero");
+
+        this.maxSize = maxSize;
+        cache = new LinkedHashMap<String, CachedParseResult>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, CachedParseResult> eldest) {
+                if (size() > ParseResultCache.this.maxSize) {
+                    evictionCount++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Gets the cache that is shared by every processor in the JVM. The shared cache is created and registered with the
+     * platform MBean server the first time it is requested, so that its hit rate can be monitored. A failure to register the
+     * cache is only logged, as the cache still works without it. If a larger maximum size is requested than the cache
+     * already has, then the cache is grown to that size.
+     *
+     * @param maxSize The maximum number of results to cache.
+     * @return The shared cache.
+     */
+    public static synchronized ParseResultCache getSharedInstance(final int maxSize) {
+        if (sharedInstance == null) {
+            sharedInstance = new ParseResultCache(maxSize);
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(sharedInstance, new ObjectName(SHARED_INSTANCE_NAME));
+            } catch (Exception e) {
+                LOG.warn("Unable to register the parse result cache with the MBean server", e);
+            }
+        } else {
+            sharedInstance.growMaxSize(maxSize);
+        }
+        return sharedInstance;
+    }
+
+    /**
+     * Increases the maximum number of results that can be cached, if it is smaller than a size.
+     *
+     * @param maxSize The number of results that the cache should be able to hold.
+     */
+    private synchronized void growMaxSize(final int maxSize) {
+        if (maxSize > this.maxSize) {
+            this.maxSize = maxSize;
+        }
+    }
+
+    /**
+     * Creates the key for a Content Specification. Line endings are normalised before the text is hashed, as they don't
+     * change how the Content Specification is parsed.
+     *
+     * @param contentSpec    The Content Specification text.
+     * @param username       The user who requested the parse.
+     * @param mode           The mode the Content Specification is parsed in.
+     * @param overrideLocale The locale that overrides the Content Specification locale, or null if it isn't overridden.
+     * @return The SHA-256 hash of the Content Specification and the parameters as a hex string.
+     */
+    public static String createKey(final String contentSpec, final String username, final ContentSpecParser.ParsingMode mode,
+            final String overrideLocale) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        final String normalisedContentSpec = contentSpec.replace("\r\n", "\n").replace('\r', '\n');
+        try {
+            digest.update(normalisedContentSpec.getBytes(ENCODING));
+            // Separate each parameter with a character that can't appear in the parameters, so the values can't run together
+            digest.update((byte) 0);
+            digest.update(String.valueOf(username).getBytes(ENCODING));
+            digest.update((byte) 0);
+            digest.update(String.valueOf(mode).getBytes(ENCODING));
+            digest.update((byte) 0);
+            digest.update(String.valueOf(overrideLocale).getBytes(ENCODING));
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+
+        final byte[] hash = digest.digest();
+        final char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            hex[i * 2] = HEX_CHARS[(hash[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX_CHARS[hash[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    /**
+     * Gets a cached result and marks it as the most recently used result.
+     *
+     * @param key The key of the Content Specification, created by {@link #createKey}.
+     * @return The cached result and its messages, or null if no result is cached for the key.
+     */
+    public synchronized CachedParseResult get(final String key) {
+        final CachedParseResult result = cache.get(key);
+        if (result == null) {
+            missCount++;
+        } else {
+            hitCount++;
+        }
+        return result;
+    }
+
+    /**
+     * Caches a result, evicting the least recently used result if the cache is full.
+     *
+     * @param key          The key of the Content Specification, created by {@link #createKey}.
+     * @param result       The result to be cached.
+     * @param parserLog    The messages that were logged by the parser when the result was parsed.
+     * @param validatorLog The messages that were logged by the first validation pass of the result.
+     */
+    public synchronized void put(final String key, final ParseResult result, final LogBuffer parserLog, final LogBuffer validatorLog) {
+        cache.put(key, new CachedParseResult(result, parserLog, validatorLog));
+    }
+
+    @Override
+    public synchronized int getSize() {
+        return cache.size();
+    }
+
+    @Override
+    public synchronized int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    @Override
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    @Override
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    @Override
+    public synchronized double getHitRate() {
+        final long lookups = hitCount + missCount;
+        return lookups == 0 ? 0 : (double) hitCount / lookups;
+    }
+
+    @Override
+    public synchronized void clear() {
+        cache.clear();
+    }
+
+    /**
+     * A cached result, along with the messages that were logged when it was parsed and first validated.
+     */
+    public static final class CachedParseResult {
+        private final ParseResult result;
+        private final LogBuffer parserLog;
+        private final LogBuffer validatorLog;
+
+        private CachedParseResult(final ParseResult result, final LogBuffer parserLog, final LogBuffer validatorLog) {
+            this.result = result;
+            this.parserLog = parserLog;
+            this.validatorLog = validatorLog;
+        }
+
+        public ParseResult getResult() {
+            return result;
+        }
+
+        /**
+         * @return The messages that were logged by the parser. The buffer should only be copied, and not flushed or cleared.
+         */
+        public LogBuffer getParserLog() {
+            return parserLog;
+        }
+
+        /**
+         * @return The messages that were logged by the first validation pass. The buffer should only be copied, and not
+         *         flushed or cleared.
+         */
+        public LogBuffer getValidatorLog() {
+            return validatorLog;
+        }
+    }
+}
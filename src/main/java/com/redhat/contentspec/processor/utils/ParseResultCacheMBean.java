@@ -0,0 +1,41 @@
+package com.redhat.contentspec.processor.utils;
+
+/**
+ * The management interface for a ParseResultCache, so that its hit rate can be monitored through JMX.
+ */
+public interface ParseResultCacheMBean {
+    /**
+     * @return The number of results that are currently cached.
+     */
+    int getSize();
+
+    /**
+     * @return The maximum number of results that can be cached.
+     */
+    int getMaxSize();
+
+    /**
+     * @return The number of lookups that found a cached result.
+     */
+    long getHitCount();
+
+    /**
+     * @return The number of lookups that didn't find a cached result.
+     */
+    long getMissCount();
+
+    /**
+     * @return The number of results that have been evicted to keep the cache within its maximum size.
+     */
+    long getEvictionCount();
+
+    /**
+     * @return The fraction of lookups that found a cached result, or 0 if there haven't been any lookups.
+     */
+    double getHitRate();
+
+    /**
+     * Removes all of the cached results.
+     */
+    void clear();
+}
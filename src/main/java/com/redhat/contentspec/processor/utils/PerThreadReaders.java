@@ -0,0 +1,37 @@
+package com.redhat.contentspec.processor.utils;
+
+import org.jboss.pressgang.ccms.contentspec.rest.RESTManager;
+import org.jboss.pressgang.ccms.contentspec.rest.RESTReader;
+
+/**
+ * Gives each thread its own RESTReader for the same REST server. A RESTReader, its REST client and its entity cache aren't
+ * safe to use from more than one thread, so entities can only be downloaded concurrently if each download thread has a
+ * reader of its own. A reader is created the first time a thread asks for one, and is released along with the thread.
+ */
+public class PerThreadReaders {
+    private final String serverUrl;
+    private final ThreadLocal<RESTReader> readers = new ThreadLocal<RESTReader>() {
+        @Override
+        protected RESTReader initialValue() {
+            return new RESTManager(serverUrl).getReader();
+        }
+    };
+
+    /**
+     * Constructor
+     *
+     * @param serverUrl The URL of the REST server that the readers connect to.
+     */
+    public PerThreadReaders(final String serverUrl) {
+        this.serverUrl = serverUrl;
+    }
+
+    /**
+     * Gets the reader for the current thread.
+     *
+     * @return The reader that only the current thread uses.
+     */
+    public RESTReader getReader() {
+        return readers.get();
+    }
+}
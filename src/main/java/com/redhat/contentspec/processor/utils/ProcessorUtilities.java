@@ -1,26 +1,38 @@
 package com.redhat.contentspec.processor.utils;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import com.redhat.contentspec.processor.structures.VariableSet;
+import org.jboss.pressgang.ccms.contentspec.SpecTopic;
 import org.jboss.pressgang.ccms.rest.v1.entities.RESTTagV1;
 import org.jboss.pressgang.ccms.rest.v1.entities.join.RESTCategoryInTagV1;
-import org.jboss.pressgang.ccms.utils.common.StringUtilities;
+import org.jboss.pressgang.ccms.utils.common.CollectionUtilities;
+import org.jboss.pressgang.ccms.utils.structures.Pair;
 
 public class ProcessorUtilities {
-    private static final Pattern LEFT_SQUARE_BRACKET_PATTERN = Pattern.compile("\\\\\\[");
-    private static final Pattern RIGHT_SQUARE_BRACKET_PATTERN = Pattern.compile("\\\\\\]");
-    private static final Pattern LEFT_BRACKET_PATTERN = Pattern.compile("\\\\\\(");
-    private static final Pattern RIGHT_BRACKET_PATTERN = Pattern.compile("\\\\\\)");
-    private static final Pattern COLON_PATTERN = Pattern.compile("\\\\:");
-    private static final Pattern COMMA_PATTERN = Pattern.compile("\\\\,");
-    private static final Pattern EQUALS_PATTERN = Pattern.compile("\\\\=");
-    private static final Pattern PLUS_PATTERN = Pattern.compile("\\\\\\+");
-    private static final Pattern MINUS_PATTERN = Pattern.compile("\\\\-");
+    private static final Pattern[] UNPROCESSED_TOPIC_PATTERNS = {Pattern.compile("(#.*)?\\[[ ]*N[0-9]*[ ]*,.*?\\]"),
+            Pattern.compile("(#.*)?\\[[ ]*C[0-9]+.*?\\]"), Pattern.compile("(#.*)?\\[[ ]*X[0-9]+.*?\\]"),
+            Pattern.compile("(#.*)?\\[[ ]*XC[0-9]+.*?\\]")};
+    private static final Comparator<String> UNIQUE_ID_LINE_COMPARATOR = new Comparator<String>() {
+        @Override
+        public int compare(final String uniqueId1, final String uniqueId2) {
+            final int lineLength1 = uniqueId1.indexOf('-');
+            final int lineLength2 = uniqueId2.indexOf('-');
+            if (lineLength1 != lineLength2) return lineLength1 < lineLength2 ? -1 : 1;
+
+            return uniqueId1.substring(0, lineLength1).compareTo(uniqueId2.substring(0, lineLength2));
+        }
+    };
 
     /**
      * Converts a list of tags into a mapping of categories to tags. The key is the Category and the value is a List
@@ -56,43 +68,96 @@ public class ProcessorUtilities {
      *         in the string and the end position.
      */
     public static VariableSet findVariableSet(final String input, final char startDelim, final char endDelim, final int startPos) {
-        final int startIndex = StringUtilities.indexOf(input, startDelim, startPos);
-        int endIndex = StringUtilities.indexOf(input, endDelim, startPos);
-        int nextStartIndex = StringUtilities.indexOf(input, startDelim, startIndex + 1);
-
-        /*
-           * Find the ending delimiter that matches the start delimiter. This is done
-           * by checking to see if the next start delimiter is before the current end
-           * delimiter. If that is the case then there is a nested set so look for the
-           * next end delimiter.
-           */
-        while (nextStartIndex < endIndex && nextStartIndex != -1 && endIndex != -1) {
-            final int prevEndIndex = endIndex;
-            endIndex = StringUtilities.indexOf(input, endDelim, endIndex + 1);
-            nextStartIndex = StringUtilities.indexOf(input, startDelim, prevEndIndex + 1);
-        }
-
-        // Build the resulting set object
-        final VariableSet set = new VariableSet();
-
-        if (endIndex == -1 && startIndex != -1) {
-            set.setContents(input.substring(startIndex));
-            set.setEndPos(null);
-            set.setStartPos(startIndex);
-        } else if (startIndex != -1) {
-            set.setContents(input.substring(startIndex, endIndex + 1));
-            set.setEndPos(endIndex);
-            set.setStartPos(startIndex);
+        final VariableSetScanner scanner = new VariableSetScanner(startDelim, endDelim, input, startPos);
+        if (!scanner.getVariableSets().isEmpty()) {
+            return scanner.getVariableSets().get(0);
+        } else if (scanner.isOpen()) {
+            return scanner.getOpenSet();
         } else {
-            set.setContents(null);
-            set.setEndPos(null);
-            set.setStartPos(null);
+            return new VariableSet();
+        }
+    }
+
+    /**
+     * Finds the contents of each unnested set of brackets in a string, where the brackets aren't escaped. This is
+     * equivalent to finding every match of BRACKET_PATTERN, but only makes a single pass over the string.
+     *
+     * @param input      The string to find the bracket contents in.
+     * @param startDelim The starting delimiter for the brackets.
+     * @param endDelim   The ending delimiter for the brackets.
+     * @return The contents of each set of brackets, without the delimiters.
+     */
+    public static List<String> findBracketContents(final String input, final char startDelim, final char endDelim) {
+        final List<String> retValue = new ArrayList<String>();
+        final int length = input.length();
+        int pos = 0;
+        while (pos < length) {
+            // Find the next start delimiter that isn't escaped
+            int start = pos;
+            while (start < length && (input.charAt(start) != startDelim || (start > 0 && input.charAt(start - 1) == '\\'))) {
+                start++;
+            }
+            if (start >= length) break;
+
+            // Find the first end delimiter that isn't escaped, as long as the contents don't span a line break
+            int end = start + 1;
+            while (end < length && (input.charAt(end) != endDelim || input.charAt(end - 1) == '\\') && !isLineBreak(input, end)) {
+                end++;
+            }
+            if (end >= length) break;
+
+            if (input.charAt(end) == endDelim && input.charAt(end - 1) != '\\') {
+                retValue.add(input.substring(start + 1, end));
+            }
+            // Any start delimiter before the line break would also span it, so continue searching after it
+            pos = end + 1;
         }
-        return set;
+        return retValue;
     }
 
     /**
-     * Replaces the escaped chars with their normal counterpart. Only replaces ('[', ']', '(', ')', ';', ',', '+', '-' and '=')
+     * Removes the whitespace and line breaks from the start and end of a variable. This is equivalent to
+     * input.replaceAll("(^\\s*(\r?\n)*)|((\r?\n)*\\s*$)", ""), but doesn't backtrack over long runs of whitespace.
+     *
+     * @param input The variable to be trimmed.
+     * @return The trimmed variable.
+     */
+    public static String trimVariable(final String input) {
+        int start = 0;
+        int end = input.length();
+        while (start < end && isRegexWhitespace(input.charAt(start))) {
+            start++;
+        }
+
+        // A regex "$" can also match before a line terminator at the very end of the input
+        final int trailingEnd = end > start && isLineBreak(input, end - 1) && input.charAt(end - 1) != '\r' ? end - 1 : end;
+        int trailingStart = trailingEnd;
+        while (trailingStart > start && isRegexWhitespace(input.charAt(trailingStart - 1))) {
+            trailingStart--;
+        }
+
+        if (start == 0 && trailingStart == trailingEnd) return input;
+        return input.substring(start, trailingStart) + input.substring(trailingEnd, end);
+    }
+
+    private static boolean isRegexWhitespace(final char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Checks if the character at a position is a line terminator that a regex "(.|\n)" won't match.
+     */
+    private static boolean isLineBreak(final String input, final int pos) {
+        final char c = input.charAt(pos);
+        return c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    /**
+     * Replaces the escaped chars with their normal counterpart. Only replaces ('[', ']', '(', ')', ':', ',', '+', '-' and '=')
+     * <p/>
+     * Most values don't contain any escaped chars, so the input is returned as is if it doesn't contain a backslash.
+     * Otherwise the escaped chars are replaced in a single pass, where a backslash is removed if it is directly followed by
+     * one of the escapable chars.
      *
      * @param input The string to have all its escaped characters replaced.
      * @return The input string with the escaped characters replaced back to normal.
@@ -100,14 +165,187 @@ public class ProcessorUtilities {
     public static String replaceEscapeChars(final String input) {
         if (input == null) return null;
 
-        String retValue = LEFT_SQUARE_BRACKET_PATTERN.matcher(input).replaceAll("[");
-        retValue = RIGHT_SQUARE_BRACKET_PATTERN.matcher(retValue).replaceAll("]");
-        retValue = LEFT_BRACKET_PATTERN.matcher(retValue).replaceAll("(");
-        retValue = RIGHT_BRACKET_PATTERN.matcher(retValue).replaceAll(")");
-        retValue = COLON_PATTERN.matcher(retValue).replaceAll(":");
-        retValue = COMMA_PATTERN.matcher(retValue).replaceAll(",");
-        retValue = EQUALS_PATTERN.matcher(retValue).replaceAll("=");
-        retValue = PLUS_PATTERN.matcher(retValue).replaceAll("+");
-        return MINUS_PATTERN.matcher(retValue).replaceAll("-");
+        final int firstBackslash = input.indexOf('\\');
+        if (firstBackslash == -1) return input;
+
+        final int length = input.length();
+        final char[] output = new char[length];
+        input.getChars(0, firstBackslash, output, 0);
+        int outputLength = firstBackslash;
+        for (int i = firstBackslash; i < length; i++) {
+            final char c = input.charAt(i);
+            if (c == '\\' && i + 1 < length && isEscapableChar(input.charAt(i + 1))) {
+                // Drop the backslash, and let the escaped char be copied as is on the next iteration
+                continue;
+            }
+            output[outputLength++] = c;
+        }
+
+        return outputLength == length ? input : new String(output, 0, outputLength);
+    }
+
+    private static boolean isEscapableChar(final char c) {
+        switch (c) {
+            case '[':
+            case ']':
+            case '(':
+            case ')':
+            case ':':
+            case ',':
+            case '=':
+            case '+':
+            case '-':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Checks a post processed content specification to ensure that no new, cloned or duplicated
+     * topics exist in the content specification as they should have been resolved to
+     * existing topics.
+     *
+     * @param postProcessedSpec The post processed content specification.
+     * @return True if no invalid topics were found, otherwise false
+     */
+    public static boolean validatePostProcessedSpec(final String postProcessedSpec) {
+        for (final Pattern pattern : UNPROCESSED_TOPIC_PATTERNS) {
+            final Matcher matcher = pattern.matcher(postProcessedSpec);
+            while (matcher.find()) {
+                final String match = matcher.group();
+                if (!match.contains("#")) return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Builds an index of topic IDs to the unique IDs of the topics that use them. Topics that aren't unique new topics
+     * have the line number in front of the topic ID in their unique ID (ie "10-1245"), so the index maps "1245" to
+     * "10-1245". Unique new topics (ie "N1") aren't included, as they can be looked up directly.
+     *
+     * @param specTopics The topics in a content specification, mapped by their unique ID.
+     * @return A mapping of topic IDs to the unique IDs of the topics that use them, ordered by line number.
+     */
+    public static HashMap<String, List<String>> buildTopicIdIndex(final Map<String, SpecTopic> specTopics) {
+        final HashMap<String, List<String>> index = new HashMap<String, List<String>>();
+        for (final String uniqueId : specTopics.keySet()) {
+            final int separator = uniqueId.indexOf('-');
+            if (separator <= 0 || !isDigits(uniqueId, 0, separator)) continue;
+
+            final String topicId = uniqueId.substring(separator + 1);
+            List<String> uniqueIds = index.get(topicId);
+            if (uniqueIds == null) {
+                uniqueIds = new ArrayList<String>(1);
+                index.put(topicId, uniqueIds);
+            }
+            uniqueIds.add(uniqueId);
+        }
+
+        for (final List<String> uniqueIds : index.values()) {
+            if (uniqueIds.size() > 1) {
+                Collections.sort(uniqueIds, UNIQUE_ID_LINE_COMPARATOR);
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * Gets a list of Topic ID's that are used by the topics in a Content Specification.
+     *
+     * @param specTopics The topics in a content specification, mapped by their unique ID.
+     * @return A List of topic ID's.
+     */
+    public static List<Integer> getReferencedTopicIds(final Map<String, SpecTopic> specTopics) {
+        final Set<Integer> ids = new HashSet<Integer>();
+        for (final SpecTopic specTopic : specTopics.values()) {
+            if (specTopic.getDBId() != null) ids.add(specTopic.getDBId());
+        }
+
+        return CollectionUtilities.toArrayList(ids);
+    }
+
+    /**
+     * Gets a list of Topic ID's that are used by the topics in a Content Specification. The list only includes topics that
+     * don't reference a revision of a topic.
+     *
+     * @param specTopics The topics in a content specification, mapped by their unique ID.
+     * @return A List of topic ID's.
+     */
+    public static List<Integer> getReferencedLatestTopicIds(final Map<String, SpecTopic> specTopics) {
+        final Set<Integer> ids = new HashSet<Integer>();
+        for (final SpecTopic specTopic : specTopics.values()) {
+            if (specTopic.getDBId() != null && specTopic.getRevision() == null) ids.add(specTopic.getDBId());
+        }
+
+        return CollectionUtilities.toArrayList(ids);
+    }
+
+    /**
+     * Gets a list of Topic ID's that are used by the topics in a Content Specification. The list only includes topics that
+     * reference a topic revision rather then the latest topic revision.
+     *
+     * @param specTopics The topics in a content specification, mapped by their unique ID.
+     * @return A List of topic ID and revision pairs.
+     */
+    public static List<Pair<Integer, Integer>> getReferencedRevisionTopicIds(final Map<String, SpecTopic> specTopics) {
+        final Set<Pair<Integer, Integer>> ids = new HashSet<Pair<Integer, Integer>>();
+        for (final SpecTopic specTopic : specTopics.values()) {
+            if (specTopic.getDBId() != null && specTopic.getRevision() != null)
+                ids.add(new Pair<Integer, Integer>(specTopic.getDBId(), specTopic.getRevision()));
+        }
+
+        return CollectionUtilities.toArrayList(ids);
+    }
+
+    /**
+     * Finds all the existing topics that are used with two or more different revisions. The topics are grouped by their
+     * DB ID and then by their revision in a single pass, so the cost is linear in the number of topics.
+     *
+     * @param specTopics The topics in a content specification.
+     * @return A mapping of DB IDs to the revisions used for that DB ID, where each revision is mapped to the topics that
+     *         use it. Only DB IDs that are used with more than one revision are included.
+     */
+    public static Map<Integer, Map<Integer, Set<SpecTopic>>> findTopicsWithDifferentRevisions(final List<SpecTopic> specTopics) {
+        // Group the topics in the order they are first seen, so that the invalid IDs are added to the result in the same
+        // order as the original nested loop added them. The result is a HashMap like the original, so it iterates in the
+        // same order as well.
+        final Map<Integer, Map<Integer, Set<SpecTopic>>> topicsById = new LinkedHashMap<Integer, Map<Integer, Set<SpecTopic>>>();
+        for (final SpecTopic specTopic : specTopics) {
+            if (!specTopic.isTopicAnExistingTopic()) continue;
+
+            Map<Integer, Set<SpecTopic>> revisionsToSpecTopic = topicsById.get(specTopic.getDBId());
+            if (revisionsToSpecTopic == null) {
+                revisionsToSpecTopic = new HashMap<Integer, Set<SpecTopic>>();
+                topicsById.put(specTopic.getDBId(), revisionsToSpecTopic);
+            }
+
+            Set<SpecTopic> revisionTopics = revisionsToSpecTopic.get(specTopic.getRevision());
+            if (revisionTopics == null) {
+                revisionTopics = new HashSet<SpecTopic>();
+                revisionsToSpecTopic.put(specTopic.getRevision(), revisionTopics);
+            }
+            revisionTopics.add(specTopic);
+        }
+
+        final Map<Integer, Map<Integer, Set<SpecTopic>>> invalidSpecTopics = new HashMap<Integer, Map<Integer, Set<SpecTopic>>>();
+        for (final Map.Entry<Integer, Map<Integer, Set<SpecTopic>>> entry : topicsById.entrySet()) {
+            if (entry.getValue().size() > 1) {
+                invalidSpecTopics.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        return invalidSpecTopics;
+    }
+
+    private static boolean isDigits(final String input, final int start, final int end) {
+        for (int i = start; i < end; i++) {
+            final char c = input.charAt(i);
+            if (c < '0' || c > '9') return false;
+        }
+        return true;
     }
 }
@@ -0,0 +1,266 @@
+package com.redhat.contentspec.processor.utils;
+
+import org.jboss.pressgang.ccms.contentspec.enums.RelationshipType;
+
+/**
+ * Hand written recognisers for the relationship grammar of a Content Specification. Each method makes a single left to
+ * right pass over its input, so that malformed or hostile input can't cause the backtracking and deep recursion that the
+ * equivalent regular expressions in {@link com.redhat.contentspec.processor.constants.ProcessorConstants} are prone to.
+ */
+public class RelationshipLexer {
+    private static final String[] RELATED_KEYWORDS = {"R", "RELATED-TO", "REFER-TO"};
+    private static final String[] PREREQUISITE_KEYWORDS = {"P", "PREREQUISITE"};
+    private static final String[] NEXT_KEYWORDS = {"NEXT"};
+    private static final String[] PREV_KEYWORDS = {"PREV"};
+    private static final String[] LINK_LIST_KEYWORDS = {"L", "LINK-LIST"};
+
+    private RelationshipLexer() {
+    }
+
+    /**
+     * Finds the type of relationship for an upper cased and trimmed variable set. This is equivalent to checking the
+     * RELATED, PREREQUISITE, NEXT, PREV, TARGET, EXTERNAL_TARGET, EXTERNAL_CSP and LINK_LIST regexes in order.
+     *
+     * @param variableSet The upper cased and trimmed variable set, without the delimiters.
+     * @return The relationship type that was found, otherwise a NONE relationship type.
+     */
+    public static RelationshipType getRelationshipType(final String variableSet) {
+        if (isKeywordSet(variableSet, RELATED_KEYWORDS)) {
+            return RelationshipType.REFER_TO;
+        } else if (isKeywordSet(variableSet, PREREQUISITE_KEYWORDS)) {
+            return RelationshipType.PREREQUISITE;
+        } else if (isKeywordSet(variableSet, NEXT_KEYWORDS)) {
+            return RelationshipType.NEXT;
+        } else if (isKeywordSet(variableSet, PREV_KEYWORDS)) {
+            return RelationshipType.PREVIOUS;
+        } else if (isTarget(variableSet, 0, variableSet.length())) {
+            return RelationshipType.TARGET;
+        } else if (isExternalTarget(variableSet)) {
+            return RelationshipType.EXTERNAL_TARGET;
+        } else if (isExternalContentSpec(variableSet)) {
+            return RelationshipType.EXTERNAL_CONTENT_SPEC;
+        } else if (isKeywordSet(variableSet, LINK_LIST_KEYWORDS)) {
+            return RelationshipType.LINKLIST;
+        } else {
+            return RelationshipType.NONE;
+        }
+    }
+
+    /**
+     * Checks if a string is a relationship id, either a target or a topic id. ie "T-Target", "T1", "N1" or "1". This is
+     * equivalent to matching RELATION_ID_REGEX.
+     *
+     * @param id The string to be checked.
+     * @return True if the string is a relationship id, otherwise false.
+     */
+    public static boolean isRelationshipId(final String id) {
+        return isRelationshipId(id, 0, id.length());
+    }
+
+    /**
+     * Splits a relationship that has a title into its title and id. ie "Some Title [T-Target]". This is equivalent to
+     * matching RELATION_ID_LONG_REGEX and then getting the groups from RELATION_ID_LONG_PATTERN.
+     *
+     * @param relationship The relationship to be split.
+     * @return An array containing the untrimmed title and the id, or null if the relationship isn't in the long format.
+     */
+    public static String[] splitLongRelationshipId(final String relationship) {
+        final int length = relationship.length();
+        if (length < 3 || relationship.charAt(length - 1) != ']') return null;
+
+        // Ids can't contain an opening bracket, so the id must start after the last opening bracket
+        final int idStart = relationship.lastIndexOf('[', length - 2) + 1;
+        if (idStart == 0 || !isRelationshipId(relationship, idStart, length - 1)) return null;
+
+        // The title can't span multiple lines
+        for (int i = 0; i < idStart - 1; i++) {
+            if (isLineTerminator(relationship.charAt(i))) return null;
+        }
+
+        return new String[]{relationship.substring(0, idStart - 1), relationship.substring(idStart, length - 1)};
+    }
+
+    /**
+     * Checks if a string that isn't a valid relationship starts with a relationship id and contains a second relationship
+     * id, meaning that a separator was likely missed between the two. This is equivalent to matching
+     * "^(TARGET_BASE_REGEX|[0-9]+).*?(TARGET_BASE_REGEX|[0-9]+).*".
+     *
+     * @param relationship The string to be checked.
+     * @return True if the string contains two relationship ids, otherwise false.
+     */
+    public static boolean containsMultipleRelationshipIds(final String relationship) {
+        final int length = relationship.length();
+        for (int i = 0; i < length; i++) {
+            if (isLineTerminator(relationship.charAt(i))) return false;
+        }
+
+        // Find the end of the shortest id at the start of the string, as that leaves the most room for a second id
+        final int firstIdEnd = getShortestIdEnd(relationship, 0);
+        if (firstIdEnd == -1) return false;
+
+        for (int i = firstIdEnd; i < length; i++) {
+            if (getShortestIdEnd(relationship, i) != -1) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Equivalent to matching "^(KEYWORD_1|KEYWORD_2|...)[ ]*:(.|(\r?\n))*$" against the variable set.
+     */
+    private static boolean isKeywordSet(final String variableSet, final String[] keywords) {
+        final int length = variableSet.length();
+        for (final String keyword : keywords) {
+            if (!variableSet.startsWith(keyword)) continue;
+
+            int pos = keyword.length();
+            while (pos < length && variableSet.charAt(pos) == ' ') {
+                pos++;
+            }
+            if (pos < length && variableSet.charAt(pos) == ':') {
+                return isAnyLines(variableSet, pos + 1);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Equivalent to matching "(.|(\r?\n))*$" against the end of the input, from the start position.
+     */
+    private static boolean isAnyLines(final String input, final int start) {
+        final int length = input.length();
+        for (int i = start; i < length; i++) {
+            final char c = input.charAt(i);
+            if (c == '\r') {
+                if (i + 1 < length && input.charAt(i + 1) == '\n') {
+                    i++;
+                } else {
+                    return false;
+                }
+            } else if (c != '\n' && isLineTerminator(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Equivalent to matching RELATION_ID_REGEX against the content between start and end.
+     */
+    private static boolean isRelationshipId(final String input, final int start, final int end) {
+        if (isTarget(input, start, end)) return true;
+
+        final int digitsStart = start < end && input.charAt(start) == 'N' ? start + 1 : start;
+        return isDigits(input, digitsStart, end);
+    }
+
+    /**
+     * Equivalent to matching TARGET_REGEX against the content between start and end.
+     */
+    private static boolean isTarget(final String input, final int start, final int end) {
+        if (end - start < 2 || input.charAt(start) != 'T') return false;
+
+        if (input.charAt(start + 1) == '-') {
+            int pos = start + 2;
+            while (pos < end && input.charAt(pos) == ' ') {
+                pos++;
+            }
+            if (pos == end) return false;
+
+            for (; pos < end; pos++) {
+                if (!isTargetNameChar(input.charAt(pos))) return false;
+            }
+            return true;
+        } else {
+            return isDigits(input, start + 1, end);
+        }
+    }
+
+    /**
+     * Equivalent to matching EXTERNAL_TARGET_REGEX against the input.
+     */
+    private static boolean isExternalTarget(final String input) {
+        return input.startsWith("ET") && isDigits(input, 2, input.length());
+    }
+
+    /**
+     * Equivalent to matching EXTERNAL_CSP_REGEX against the input.
+     */
+    private static boolean isExternalContentSpec(final String input) {
+        if (!input.startsWith("CS")) return false;
+
+        final int length = input.length();
+        int pos = skipDigits(input, 2);
+        if (pos == 2) return false;
+
+        while (pos < length && input.charAt(pos) == ' ') {
+            pos++;
+        }
+        if (pos == length) return true;
+        if (input.charAt(pos) != ':') return false;
+
+        pos++;
+        while (pos < length && input.charAt(pos) == ' ') {
+            pos++;
+        }
+        return isDigits(input, pos, length);
+    }
+
+    /**
+     * Gets the end of the shortest match of "TARGET_BASE_REGEX|[0-9]+" at a position.
+     *
+     * @return The end position of the match, or -1 if there isn't a match at the position.
+     */
+    private static int getShortestIdEnd(final String input, final int start) {
+        final int length = input.length();
+        if (start >= length) return -1;
+
+        final char c = input.charAt(start);
+        if (isDigit(c)) {
+            return start + 1;
+        } else if (c == 'T' && start + 1 < length) {
+            final char next = input.charAt(start + 1);
+            if (isDigit(next)) {
+                return start + 2;
+            } else if (next == '-') {
+                int pos = start + 2;
+                while (pos < length && input.charAt(pos) == ' ') {
+                    pos++;
+                }
+                return pos < length && isTargetNameChar(input.charAt(pos)) ? pos + 1 : -1;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isDigits(final String input, final int start, final int end) {
+        if (start >= end) return false;
+
+        for (int i = start; i < end; i++) {
+            if (!isDigit(input.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    private static int skipDigits(final String input, final int start) {
+        int pos = start;
+        while (pos < input.length() && isDigit(input.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isTargetNameChar(final char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || isDigit(c) || c == '-' || c == '_';
+    }
+
+    /**
+     * Checks for any of the characters that a regex "." won't match.
+     */
+    private static boolean isLineTerminator(final char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+}
@@ -0,0 +1,203 @@
+package com.redhat.contentspec.processor.utils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.log4j.Logger;
+import org.jsoup.Jsoup;
+
+/**
+ * Resolves the titles of the web pages that are used as Source URLs. URLs are resolved in bulk, so that each distinct URL
+ * is only fetched once and the fetches can be run concurrently. Resolved titles are cached with a time to live, and the
+ * cache can be persisted to a file so that it can be reused across runs.
+ */
+public class SourceUrlTitleResolver {
+    private static final String ENCODING = "UTF-8";
+    private static final char TIMESTAMP_SEPARATOR = '|';
+
+    private final Logger log;
+    private final ParallelDownloader<String, String> downloader;
+    private final int timeout;
+    private final long ttl;
+    private final boolean offline;
+    private final File cacheFile;
+    private final Map<String, CachedTitle> cache = new ConcurrentHashMap<String, CachedTitle>();
+
+    /**
+     * Constructor
+     *
+     * @param log            The logger to report progress and failures to.
+     * @param concurrency    The maximum number of URLs to fetch at once.
+     * @param timeout        The connect and read timeout in milliseconds for each URL.
+     * @param ttl            The time in milliseconds that a resolved title is valid for.
+     * @param offline        If URLs should never be fetched, in which case only cached titles are used.
+     * @param cacheFile      The file to persist the cache to, or null if the cache shouldn't be persisted.
+     * @param isShuttingDown The flag that signals any outstanding fetches should be cancelled.
+     */
+    public SourceUrlTitleResolver(final Logger log, final int concurrency, final int timeout, final long ttl, final boolean offline,
+            final File cacheFile, final AtomicBoolean isShuttingDown) {
+        this.log = log;
+        // Requests already have a strict timeout applied through Jsoup, so they aren't retried
+        downloader = new ParallelDownloader<String, String>(log, concurrency, 0, 0, 0, isShuttingDown);
+        this.timeout = timeout;
+        this.ttl = ttl;
+        this.offline = offline;
+        this.cacheFile = cacheFile;
+        loadCache();
+    }
+
+    /**
+     * Resolves the titles for a collection of URLs. Duplicate URLs and URLs that already have a valid cached title are
+     * only fetched once, if at all. If the resolver is offline then no URLs are fetched.
+     *
+     * @param urls The URLs to resolve the titles for.
+     */
+    public void resolve(final Collection<String> urls) {
+        if (offline) return;
+
+        final long now = System.currentTimeMillis();
+        final Set<String> unresolvedUrls = new LinkedHashSet<String>();
+        for (final String url : urls) {
+            final CachedTitle cachedTitle = cache.get(url);
+            if (cachedTitle == null || cachedTitle.isExpired(now, ttl)) {
+                unresolvedUrls.add(url);
+            }
+        }
+
+        if (unresolvedUrls.isEmpty()) return;
+
+        final Map<String, String> titles = downloader.download(new ArrayList<String>(unresolvedUrls),
+                new ParallelDownloader.Fetcher<String, String>() {
+                    @Override
+                    public String fetch(final String url) throws Exception {
+                        return Jsoup.connect(url).timeout(timeout).get().title();
+                    }
+                }, "Resolving Source URL titles");
+
+        final long fetchedTime = System.currentTimeMillis();
+        for (final Map.Entry<String, String> entry : titles.entrySet()) {
+            cache.put(entry.getKey(), new CachedTitle(entry.getValue(), fetchedTime));
+        }
+
+        saveCache();
+    }
+
+    /**
+     * Gets the title for a URL that has been resolved, or was cached from a previous run.
+     *
+     * @param url The URL to get the title for.
+     * @return The title of the URL, or null if the title couldn't be resolved.
+     */
+    public String getTitle(final String url) {
+        final CachedTitle cachedTitle = cache.get(url);
+        if (cachedTitle == null || (!offline && cachedTitle.isExpired(System.currentTimeMillis(), ttl))) {
+            return null;
+        }
+        return cachedTitle.title;
+    }
+
+    /**
+     * Loads the cached titles from the cache file, if one exists.
+     */
+    private void loadCache() {
+        if (cacheFile == null || !cacheFile.exists()) return;
+
+        final Properties properties = new Properties();
+        Reader reader = null;
+        try {
+            reader = new InputStreamReader(new FileInputStream(cacheFile), ENCODING);
+            properties.load(reader);
+        } catch (IOException e) {
+            log.warn("Unable to read the Source URL title cache from " + cacheFile.getAbsolutePath());
+            return;
+        } finally {
+            closeQuietly(reader);
+        }
+
+        for (final String url : properties.stringPropertyNames()) {
+            final String value = properties.getProperty(url);
+            final int separator = value.indexOf(TIMESTAMP_SEPARATOR);
+            if (separator == -1) continue;
+
+            try {
+                final long fetchedTime = Long.parseLong(value.substring(0, separator));
+                cache.put(url, new CachedTitle(value.substring(separator + 1), fetchedTime));
+            } catch (NumberFormatException e) {
+                // Ignore any malformed entries, as they will just be fetched again
+            }
+        }
+    }
+
+    /**
+     * Saves the cached titles to the cache file, if one was specified. Expired titles are dropped from the file.
+     */
+    private void saveCache() {
+        if (cacheFile == null) return;
+
+        final long now = System.currentTimeMillis();
+        final Properties properties = new Properties();
+        for (final Map.Entry<String, CachedTitle> entry : cache.entrySet()) {
+            final CachedTitle cachedTitle = entry.getValue();
+            if (!cachedTitle.isExpired(now, ttl)) {
+                properties.setProperty(entry.getKey(), Long.toString(cachedTitle.fetchedTime) + TIMESTAMP_SEPARATOR + cachedTitle.title);
+            }
+        }
+
+        final File parent = cacheFile.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+
+        Writer writer = null;
+        try {
+            writer = new OutputStreamWriter(new FileOutputStream(cacheFile), ENCODING);
+            properties.store(writer, "Source URL titles");
+        } catch (IOException e) {
+            log.warn("Unable to write the Source URL title cache to " + cacheFile.getAbsolutePath());
+        } finally {
+            closeQuietly(writer);
+        }
+    }
+
+    private static void closeQuietly(final Closeable closeable) {
+        if (closeable == null) return;
+
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // Do nothing as the stream is no longer needed
+        }
+    }
+
+    /**
+     * A title and the time it was fetched.
+     */
+    private static class CachedTitle {
+        private final String title;
+        private final long fetchedTime;
+
+        private CachedTitle(final String title, final long fetchedTime) {
+            this.title = title == null ? "" : title;
+            this.fetchedTime = fetchedTime;
+        }
+
+        private boolean isExpired(final long now, final long ttl) {
+            return now - fetchedTime >= ttl;
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.redhat.contentspec.processor.utils;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+import org.jboss.pressgang.ccms.contentspec.rest.RESTReader;
+import org.jboss.pressgang.ccms.rest.v1.entities.RESTTagV1;
+import org.jboss.pressgang.ccms.rest.v1.entities.join.RESTCategoryInTagV1;
+
+/**
+ * An in memory dictionary of the tags, types and categories looked up through a RESTReader. Lookups are cached by tag
+ * name and tag id, so each distinct tag is only requested once while the cached entry is valid. Cached entries expire
+ * after a time to live, or when the dictionary version is bumped using {@link #invalidate()}.
+ * <p/>
+ * A single dictionary is shared for each RESTReader, so that the cache is reused across processing runs in the same JVM.
+ * The dictionary only holds a weak reference to its reader, so that the shared dictionary is discarded once the reader is
+ * no longer used. Lookups are made while holding the reader's lock, as the reader isn't safe to use from multiple threads.
+ */
+public class TagDictionary {
+    /**
+     * The default time in milliseconds that a cached entry is valid for.
+     */
+    public static final long DEFAULT_TTL = 10 * 60 * 1000;
+
+    private static final Logger LOG = Logger.getLogger(TagDictionary.class);
+    private static final Map<RESTReader, TagDictionary> DICTIONARIES = new WeakHashMap<RESTReader, TagDictionary>();
+
+    private final WeakReference<RESTReader> reader;
+    private final AtomicLong version = new AtomicLong(0);
+    private volatile long ttl = DEFAULT_TTL;
+    private final Map<String, CachedEntry<List<RESTTagV1>>> tagsByName = new ConcurrentHashMap<String, CachedEntry<List<RESTTagV1>>>();
+    private final Map<String, CachedEntry<RESTTagV1>> typesByName = new ConcurrentHashMap<String, CachedEntry<RESTTagV1>>();
+    private final Map<Integer, CachedEntry<RESTCategoryInTagV1>> categoriesByTagId = new ConcurrentHashMap<Integer,
+            CachedEntry<RESTCategoryInTagV1>>();
+
+    /**
+     * Gets the shared dictionary for a RESTReader, creating it if it doesn't exist.
+     *
+     * @param reader The reader that is used to look up tags that aren't in the dictionary.
+     * @return The dictionary for the reader.
+     */
+    public static synchronized TagDictionary getInstance(final RESTReader reader) {
+        TagDictionary dictionary = DICTIONARIES.get(reader);
+        if (dictionary == null) {
+            dictionary = new TagDictionary(reader);
+            DICTIONARIES.put(reader, dictionary);
+        }
+        return dictionary;
+    }
+
+    /**
+     * Constructor
+     *
+     * @param reader The reader that is used to look up tags that aren't in the dictionary.
+     */
+    public TagDictionary(final RESTReader reader) {
+        this.reader = new WeakReference<RESTReader>(reader);
+    }
+
+    /**
+     * @return The time in milliseconds that a cached entry is valid for.
+     */
+    public long getTTL() {
+        return ttl;
+    }
+
+    /**
+     * @param ttl The time in milliseconds that a cached entry is valid for.
+     */
+    public void setTTL(final long ttl) {
+        this.ttl = ttl;
+    }
+
+    /**
+     * @return The current version of the dictionary. The version is incremented each time the dictionary is invalidated.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Invalidates all of the cached entries, so that they will be looked up again the next time they are requested.
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+        tagsByName.clear();
+        typesByName.clear();
+        categoriesByTagId.clear();
+    }
+
+    /**
+     * Gets the tags that match a name.
+     *
+     * @param name The name of the tag.
+     * @return An unmodifiable list of the tags that match the name.
+     */
+    public List<RESTTagV1> getTagsByName(final String name) {
+        if (name == null) return loadTagsByName(name);
+
+        final long now = System.currentTimeMillis();
+        final CachedEntry<List<RESTTagV1>> cachedEntry = tagsByName.get(name);
+        if (isValid(cachedEntry, now)) return cachedEntry.value;
+
+        final long currentVersion = version.get();
+        final List<RESTTagV1> tags = loadTagsByName(name);
+        final List<RESTTagV1> value = tags == null ? null : Collections.unmodifiableList(new ArrayList<RESTTagV1>(tags));
+        tagsByName.put(name, new CachedEntry<List<RESTTagV1>>(value, now, currentVersion));
+        return value;
+    }
+
+    /**
+     * Gets the type tag that matches a name.
+     *
+     * @param name The name of the type.
+     * @return The type tag, or null if no type matches the name.
+     */
+    public RESTTagV1 getTypeByName(final String name) {
+        if (name == null) return loadTypeByName(name);
+
+        final long now = System.currentTimeMillis();
+        final CachedEntry<RESTTagV1> cachedEntry = typesByName.get(name);
+        if (isValid(cachedEntry, now)) return cachedEntry.value;
+
+        final long currentVersion = version.get();
+        final RESTTagV1 type = loadTypeByName(name);
+        typesByName.put(name, new CachedEntry<RESTTagV1>(type, now, currentVersion));
+        return type;
+    }
+
+    /**
+     * Gets the category that a tag belongs to.
+     *
+     * @param tagId The id of the tag.
+     * @return The category for the tag, or null if the tag doesn't belong to a category.
+     */
+    public RESTCategoryInTagV1 getCategoryByTagId(final Integer tagId) {
+        if (tagId == null) return loadCategoryByTagId(tagId);
+
+        final long now = System.currentTimeMillis();
+        final CachedEntry<RESTCategoryInTagV1> cachedEntry = categoriesByTagId.get(tagId);
+        if (isValid(cachedEntry, now)) return cachedEntry.value;
+
+        final long currentVersion = version.get();
+        final RESTCategoryInTagV1 category = loadCategoryByTagId(tagId);
+        categoriesByTagId.put(tagId, new CachedEntry<RESTCategoryInTagV1>(category, now, currentVersion));
+        return category;
+    }
+
+    /**
+     * Loads the tags for a set of names into the dictionary before they are needed. Names that already have a valid cached
+     * entry aren't requested again, and the remaining names are requested concurrently.
+     *
+     * @param names          The names of the tags to be loaded.
+     * @param concurrency    The maximum number of tags to request at once.
+     * @param isShuttingDown The flag that signals the preload should be cancelled.
+     */
+    public void preloadTags(final Collection<String> names, final int concurrency, final AtomicBoolean isShuttingDown) {
+        final long now = System.currentTimeMillis();
+        final Set<String> missingNames = new LinkedHashSet<String>();
+        for (final String name : names) {
+            if (name != null && !isValid(tagsByName.get(name), now)) {
+                missingNames.add(name);
+            }
+        }
+
+        if (missingNames.isEmpty()) return;
+
+        final ParallelDownloader<String, List<RESTTagV1>> downloader = new ParallelDownloader<String, List<RESTTagV1>>(LOG,
+                concurrency, 0, 0, 0, isShuttingDown);
+        downloader.download(new ArrayList<String>(missingNames), new ParallelDownloader.Fetcher<String, List<RESTTagV1>>() {
+            @Override
+            public List<RESTTagV1> fetch(final String name) throws Exception {
+                return getTagsByName(name);
+            }
+        }, "Loading tags");
+    }
+
+    /**
+     * Loads the types for a set of names into the dictionary before they are needed.
+     *
+     * @param names          The names of the types to be loaded.
+     * @param concurrency    The maximum number of types to request at once.
+     * @param isShuttingDown The flag that signals the preload should be cancelled.
+     */
+    public void preloadTypes(final Collection<String> names, final int concurrency, final AtomicBoolean isShuttingDown) {
+        final long now = System.currentTimeMillis();
+        final Set<String> missingNames = new LinkedHashSet<String>();
+        for (final String name : names) {
+            if (name != null && !isValid(typesByName.get(name), now)) {
+                missingNames.add(name);
+            }
+        }
+
+        if (missingNames.isEmpty()) return;
+
+        final ParallelDownloader<String, RESTTagV1> downloader = new ParallelDownloader<String, RESTTagV1>(LOG, concurrency, 0, 0, 0,
+                isShuttingDown);
+        downloader.download(new ArrayList<String>(missingNames), new ParallelDownloader.Fetcher<String, RESTTagV1>() {
+            @Override
+            public RESTTagV1 fetch(final String name) throws Exception {
+                return getTypeByName(name);
+            }
+        }, "Loading types");
+    }
+
+    /**
+     * Looks up the tags that match a name through the reader.
+     *
+     * @param name The name of the tag.
+     * @return The tags that match the name.
+     */
+    protected List<RESTTagV1> loadTagsByName(final String name) {
+        final RESTReader reader = getReader();
+        synchronized (reader) {
+            return reader.getTagsByName(name);
+        }
+    }
+
+    /**
+     * Looks up the type tag that matches a name through the reader.
+     *
+     * @param name The name of the type.
+     * @return The type tag, or null if no type matches the name.
+     */
+    protected RESTTagV1 loadTypeByName(final String name) {
+        final RESTReader reader = getReader();
+        synchronized (reader) {
+            return reader.getTypeByName(name);
+        }
+    }
+
+    /**
+     * Looks up the category that a tag belongs to through the reader.
+     *
+     * @param tagId The id of the tag.
+     * @return The category for the tag, or null if the tag doesn't belong to a category.
+     */
+    protected RESTCategoryInTagV1 loadCategoryByTagId(final Integer tagId) {
+        final RESTReader reader = getReader();
+        synchronized (reader) {
+            return reader.getCategoryByTagId(tagId);
+        }
+    }
+
+    private RESTReader getReader() {
+        final RESTReader retValue = reader.get();
+        if (retValue == null) throw new IllegalStateException("The RESTReader for the tag dictionary is no longer available.");
+        return retValue;
+    }
+
+    private boolean isValid(final CachedEntry<?> cachedEntry, final long now) {
+        return cachedEntry != null && cachedEntry.version == version.get() && now - cachedEntry.loadedTime < ttl;
+    }
+
+    /**
+     * A cached value, along with when it was loaded and the dictionary version it was loaded for.
+     */
+    private static class CachedEntry<V> {
+        private final V value;
+        private final long loadedTime;
+        private final long version;
+
+        private CachedEntry(final V value, final long loadedTime, final long version) {
+            this.value = value;
+            this.loadedTime = loadedTime;
+            this.version = version;
+        }
+    }
+}
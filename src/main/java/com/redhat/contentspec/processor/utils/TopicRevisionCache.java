@@ -0,0 +1,726 @@
+package com.redhat.contentspec.processor.utils;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.log4j.Logger;
+import org.codehaus.jackson.annotate.JsonIgnoreProperties;
+import org.codehaus.jackson.map.DeserializationConfig;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.jboss.pressgang.ccms.rest.v1.entities.base.RESTBaseTopicV1;
+
+/**
+ * A cache of topics at a revision, that is stored in a file so that it can be reused across runs. A revision of a topic
+ * never changes once it has been saved, so a topic that is requested at a revision only has to be downloaded once. Topics
+ * that are requested at their latest revision can only be read from the cache once the current revision of the topic has
+ * been set, as the latest revision of a topic can change at any time.
+ * <p/>
+ * The cache file is an append only log of records. A topic record holds the ID, revision and locale that the topic was
+ * requested for, and the topic serialized to JSON and compressed. Every record has a CRC32 checksum, so that a record that
+ * was only partly written or has been corrupted is discarded instead of being used. When the cached topics take up more
+ * than the maximum size, the least recently used topics are evicted, and the file is compacted when it is flushed once the
+ * evicted and replaced records take up more of the file than the cached topics.
+ * <p/>
+ * Only one cache can write to a cache file at a time. The cache holds an exclusive lock on a lock file next to the cache
+ * file while it is open, and a cache that can't get the lock because the file is in use by another run only reads the
+ * topics that were cached before it was opened.
+ */
+public class TopicRevisionCache {
+    private static final int MAGIC = 0x50475443;
+    private static final int VERSION = 1;
+    private static final int FILE_HEADER_LENGTH = 8;
+    private static final int RECORD_HEADER_LENGTH = 8;
+    private static final int MAX_RECORD_LENGTH = 64 * 1024 * 1024;
+    private static final int MAX_KEY_LENGTH = 64;
+    private static final byte TOPIC_RECORD = 1;
+    private static final byte ACCESS_RECORD = 2;
+    private static final String ENCODING = "UTF-8";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ObjectMapper WITHOUT_CONTENT_MAPPER = new ObjectMapper();
+
+    static {
+        // Ignore any properties that only have a getter, as they are derived from the other properties
+        MAPPER.configure(DeserializationConfig.Feature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        WITHOUT_CONTENT_MAPPER.configure(DeserializationConfig.Feature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        WITHOUT_CONTENT_MAPPER.getDeserializationConfig().addMixInAnnotations(RESTBaseTopicV1.class, WithoutContent.class);
+    }
+
+    private final Logger log;
+    private final File cacheFile;
+    private final long maxSize;
+    private final Map<Key, Record> records = new LinkedHashMap<Key, Record>(16, 0.75f, true);
+    private final Set<Key> accessedKeys = new LinkedHashSet<Key>();
+    private final Map<Integer, Integer> latestRevisions = new HashMap<Integer, Integer>();
+    private RandomAccessFile file;
+    private RandomAccessFile lockFile;
+    private FileLock lock;
+    private boolean readOnly = false;
+    private long size = 0;
+
+    /**
+     * Constructor. The topics that were cached by previous runs are loaded from the cache file, if it exists.
+     *
+     * @param log       The logger to log any problems with the cache file to.
+     * @param cacheFile The file to store the cached topics in.
+     * @param maxSize   The maximum number of bytes that the cached topics can take up in the cache file.
+     */
+    public TopicRevisionCache(final Logger log, final File cacheFile, final long maxSize) {
+        this.log = log;
+        this.cacheFile = cacheFile;
+        this.maxSize = maxSize;
+        open();
+    }
+
+    /**
+     * Checks if a topic is in the cache, without reading the topic from the cache file.
+     *
+     * @param topicId  The ID of the topic.
+     * @param revision The revision the topic was requested for, or null for the latest revision.
+     * @param locale   The locale of the translated topic, or null if the topic isn't a translated topic.
+     * @return True if the topic is cached, otherwise false.
+     */
+    public synchronized boolean containsTopic(final Integer topicId, final Integer revision, final String locale) {
+        final Key key = createKey(topicId, revision, locale);
+        return key != null && records.containsKey(key);
+    }
+
+    /**
+     * Sets the current revision of a topic, so that the topic can be read from the cache when it is requested for its
+     * latest revision. Only topics that aren't translated topics can be read for their latest revision.
+     *
+     * @param topicId  The ID of the topic.
+     * @param revision The current revision of the topic.
+     */
+    public synchronized void setLatestRevision(final Integer topicId, final Integer revision) {
+        if (topicId == null || revision == null) return;
+
+        latestRevisions.put(topicId, revision);
+    }
+
+    /**
+     * Removes the current revisions of the topics that have been set, so that topics requested for their latest revision
+     * are no longer read from the cache.
+     */
+    public synchronized void clearLatestRevisions() {
+        latestRevisions.clear();
+    }
+
+    /**
+     * Gets a topic from the cache.
+     *
+     * @param clazz    The class of the topic.
+     * @param topicId  The ID of the topic.
+     * @param revision The revision the topic was requested for, or null for the latest revision.
+     * @param locale   The locale of the translated topic, or null if the topic isn't a translated topic.
+     * @param <T>      The type of the topic.
+     * @return The topic, or null if it isn't cached.
+     */
+    public <T> T getTopic(final Class<T> clazz, final Integer topicId, final Integer revision, final String locale) {
+        return getTopic(clazz, topicId, revision, locale, false);
+    }
+
+    /**
+     * Gets a topic from the cache, optionally without its XML and HTML. The XML and HTML are skipped over as the topic is
+     * read, so they are never held in memory, which makes the topic a fraction of the size of the topic that was cached.
+     *
+     * @param clazz          The class of the topic.
+     * @param topicId        The ID of the topic.
+     * @param revision       The revision the topic was requested for, or null for the latest revision.
+     * @param locale         The locale of the translated topic, or null if the topic isn't a translated topic.
+     * @param withoutContent Whether the XML and HTML of the topic should be left out.
+     * @param <T>            The type of the topic.
+     * @return The topic, or null if it isn't cached.
+     */
+    public <T> T getTopic(final Class<T> clazz, final Integer topicId, final Integer revision, final String locale,
+            final boolean withoutContent) {
+        final byte[] data = get(topicId, revision, locale);
+        if (data == null) return null;
+
+        InputStream is = null;
+        try {
+            is = new InflaterInputStream(new ByteArrayInputStream(data));
+            return (withoutContent ? WITHOUT_CONTENT_MAPPER : MAPPER).readValue(is, clazz);
+        } catch (IOException e) {
+            log.warn("Unable to read the cached topic " + topicId + " from the topic cache");
+            return null;
+        } finally {
+            closeQuietly(is);
+        }
+    }
+
+    /**
+     * Adds a topic to the cache. The topic isn't cached if it was requested for its latest revision and its current revision
+     * hasn't been set, and isn't written again if it is already cached, as a revision of a topic never changes.
+     *
+     * @param topicId  The ID of the topic.
+     * @param revision The revision the topic was requested for, or null for the latest revision.
+     * @param locale   The locale of the translated topic, or null if the topic isn't a translated topic.
+     * @param topic    The topic to cache.
+     */
+    public void putTopic(final Integer topicId, final Integer revision, final String locale, final Object topic) {
+        if (topic == null || !isCacheable(topicId, revision, locale)) return;
+
+        final ByteArrayOutputStream data = new ByteArrayOutputStream();
+        try {
+            final DeflaterOutputStream os = new DeflaterOutputStream(data);
+            MAPPER.writeValue(os, topic);
+            os.close();
+        } catch (IOException e) {
+            log.warn("Unable to write the topic " + topicId + " to the topic cache");
+            return;
+        }
+
+        put(topicId, revision, locale, data.toByteArray());
+    }
+
+    /**
+     * Gets the data of a cached topic. The checksum of the record is checked before the data is returned, and a record
+     * that fails the check is removed from the cache.
+     *
+     * @param topicId  The ID of the topic.
+     * @param revision The revision the topic was requested for, or null for the latest revision.
+     * @param locale   The locale of the translated topic, or null if the topic isn't a translated topic.
+     * @return The data of the topic, or null if it isn't cached.
+     */
+    synchronized byte[] get(final Integer topicId, final Integer revision, final String locale) {
+        final Key key = createKey(topicId, revision, locale);
+        if (key == null) return null;
+
+        final Record record = records.get(key);
+        if (record == null) return null;
+
+        try {
+            file.seek(record.offset);
+            final int length = file.readInt();
+            final int checksum = file.readInt();
+            if (length != record.length - RECORD_HEADER_LENGTH) {
+                discard(key, record);
+                return null;
+            }
+
+            final byte[] payload = new byte[length];
+            file.readFully(payload);
+            final DataInputStream is = new DataInputStream(new ByteArrayInputStream(payload));
+            if (checksum != checksum(payload) || is.readByte() != TOPIC_RECORD || !key.equals(readKey(is))) {
+                discard(key, record);
+                return null;
+            }
+
+            accessedKeys.remove(key);
+            accessedKeys.add(key);
+            return Arrays.copyOfRange(payload, payload.length - is.available(), payload.length);
+        } catch (IOException e) {
+            discard(key, record);
+            return null;
+        }
+    }
+
+    /**
+     * Adds the data of a topic to the cache, and evicts the least recently used topics if the cache is over its maximum
+     * size.
+     *
+     * @param topicId  The ID of the topic.
+     * @param revision The revision the topic was requested for, or null for the latest revision.
+     * @param locale   The locale of the translated topic, or null if the topic isn't a translated topic.
+     * @param data     The data of the topic.
+     */
+    synchronized void put(final Integer topicId, final Integer revision, final String locale, final byte[] data) {
+        final Key key = createKey(topicId, revision, locale);
+        if (key == null || readOnly || records.containsKey(key)) return;
+
+        long offset = -1;
+        try {
+            offset = file.length();
+            final byte[] record = createRecord(TOPIC_RECORD, key, data);
+            file.seek(offset);
+            file.write(record);
+            addRecord(key, new Record(offset, record.length));
+        } catch (IOException e) {
+            log.warn("Unable to write to the topic cache " + cacheFile.getAbsolutePath());
+            removePartialRecord(offset);
+            return;
+        }
+
+        evict();
+    }
+
+    /**
+     * Writes which topics have been used since the cache was last flushed to the cache file, so that the least recently
+     * used topics can be evicted by later runs. If the evicted and replaced records take up more of the file than the
+     * cached topics, then the file is compacted instead.
+     */
+    public synchronized void flush() {
+        if (file == null || readOnly) return;
+
+        long offset = -1;
+        try {
+            if (file.length() - FILE_HEADER_LENGTH - size > size) {
+                compact();
+            } else if (!accessedKeys.isEmpty()) {
+                final ByteArrayOutputStream accessRecords = new ByteArrayOutputStream();
+                for (final Key key : accessedKeys) {
+                    if (records.containsKey(key)) {
+                        accessRecords.write(createRecord(ACCESS_RECORD, key, new byte[0]));
+                    }
+                }
+                offset = file.length();
+                file.seek(offset);
+                file.write(accessRecords.toByteArray());
+            }
+            accessedKeys.clear();
+        } catch (IOException e) {
+            log.warn("Unable to write to the topic cache " + cacheFile.getAbsolutePath());
+            removePartialRecord(offset);
+        }
+    }
+
+    /**
+     * Flushes the cache, closes the cache file and releases the lock on the cache file. No more topics can be cached once
+     * the cache has been closed.
+     */
+    public synchronized void close() {
+        if (file != null) {
+            flush();
+            closeQuietly(file);
+            file = null;
+        }
+        unlock();
+        records.clear();
+        accessedKeys.clear();
+        latestRevisions.clear();
+        size = 0;
+    }
+
+    /**
+     * @return True if the cache file is in use by another cache, so topics are only read from the cache file.
+     */
+    public synchronized boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * @return The number of topics in the cache.
+     */
+    public synchronized int getTopicCount() {
+        return records.size();
+    }
+
+    /**
+     * @return The number of bytes the cached topics take up in the cache file.
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Creates the key for a topic, using the current revision of the topic if it was requested for its latest revision.
+     *
+     * @return The key, or null if the topic can't be cached or the cache file isn't open.
+     */
+    private Key createKey(final Integer topicId, final Integer revision, final String locale) {
+        if (file == null || topicId == null) return null;
+
+        if (revision != null) {
+            return new Key(topicId, revision, locale);
+        } else if (locale == null && latestRevisions.containsKey(topicId)) {
+            return new Key(topicId, latestRevisions.get(topicId), null);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Checks if a topic can be added to the cache, and isn't already cached.
+     */
+    private synchronized boolean isCacheable(final Integer topicId, final Integer revision, final String locale) {
+        final Key key = createKey(topicId, revision, locale);
+        return key != null && !readOnly && !records.containsKey(key);
+    }
+
+    /**
+     * Opens the cache file and loads the index of the cached topics. A file that isn't a cache file is replaced, and any
+     * records at the end of the file that can't be read are removed from the file. If the cache file is locked by another
+     * cache, then the cache file is opened to be read only and isn't changed.
+     */
+    private void open() {
+        final File parent = cacheFile.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+
+        try {
+            readOnly = !lock();
+            final long validLength = load();
+            if (readOnly) {
+                // The cache that holds the lock may compact the file at any time, but the key and checksum of each record are
+                // checked when it is read, so records that have moved are discarded instead of being used
+                log.info("The topic cache " + cacheFile.getAbsolutePath() + " is in use, so no topics will be added to it");
+                if (validLength >= FILE_HEADER_LENGTH) {
+                    file = new RandomAccessFile(cacheFile, "r");
+                } else {
+                    records.clear();
+                    size = 0;
+                }
+                return;
+            }
+
+            file = new RandomAccessFile(cacheFile, "rw");
+            if (validLength < FILE_HEADER_LENGTH) {
+                if (file.length() > 0) {
+                    log.warn("Replacing the invalid topic cache " + cacheFile.getAbsolutePath());
+                }
+                file.setLength(0);
+                file.writeInt(MAGIC);
+                file.writeInt(VERSION);
+            } else if (validLength < file.length()) {
+                log.warn("Removing " + (file.length() - validLength) + " bytes of corrupt records from the topic cache "
+                        + cacheFile.getAbsolutePath());
+                file.setLength(validLength);
+            }
+        } catch (IOException e) {
+            log.warn("Unable to open the topic cache " + cacheFile.getAbsolutePath());
+            closeQuietly(file);
+            file = null;
+            unlock();
+            records.clear();
+            size = 0;
+            return;
+        }
+
+        evict();
+    }
+
+    /**
+     * Takes an exclusive lock on the lock file of the cache file, so that no other cache writes to the cache file while this
+     * cache has it open.
+     *
+     * @return True if the lock was taken, or false if the cache file is in use by another cache.
+     */
+    private boolean lock() {
+        try {
+            lockFile = new RandomAccessFile(new File(cacheFile.getPath() + ".lock"), "rw");
+            lock = lockFile.getChannel().tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Another cache in this JVM has the cache file open
+            lock = null;
+        } catch (IOException e) {
+            lock = null;
+        }
+
+        if (lock == null) {
+            closeQuietly(lockFile);
+            lockFile = null;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Releases the lock on the cache file, if it is held.
+     */
+    private void unlock() {
+        if (lock != null) {
+            try {
+                lock.release();
+            } catch (IOException e) {
+                // Do nothing as the lock is released when the file is closed
+            }
+            lock = null;
+        }
+        closeQuietly(lockFile);
+        lockFile = null;
+    }
+
+    /**
+     * Loads the index of the cached topics from the cache file. Only the header of each record is read, as the checksum of
+     * a record is checked when the topic is read from the cache.
+     *
+     * @return The length of the file that holds valid records, or 0 if the file doesn't exist or isn't a cache file.
+     * @throws IOException Thrown if the file can't be read.
+     */
+    private long load() throws IOException {
+        if (!cacheFile.exists()) return 0;
+
+        final long fileLength = cacheFile.length();
+        DataInputStream is = null;
+        try {
+            is = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)));
+            if (fileLength < FILE_HEADER_LENGTH || is.readInt() != MAGIC || is.readInt() != VERSION) return 0;
+
+            long offset = FILE_HEADER_LENGTH;
+            while (offset + RECORD_HEADER_LENGTH <= fileLength) {
+                final int length = is.readInt();
+                is.readInt();
+                if (length <= 0 || length > MAX_RECORD_LENGTH || offset + RECORD_HEADER_LENGTH + length > fileLength) break;
+
+                final byte[] recordHeader = new byte[Math.min(length, MAX_KEY_LENGTH)];
+                is.readFully(recordHeader);
+                final DataInputStream recordHeaderIs = new DataInputStream(new ByteArrayInputStream(recordHeader));
+                final byte type;
+                final Key key;
+                try {
+                    type = recordHeaderIs.readByte();
+                    key = readKey(recordHeaderIs);
+                } catch (IOException e) {
+                    break;
+                }
+                skipFully(is, length - recordHeader.length);
+
+                final Record record = new Record(offset, RECORD_HEADER_LENGTH + length);
+                if (type == TOPIC_RECORD) {
+                    addRecord(key, record);
+                } else if (type == ACCESS_RECORD) {
+                    // Mark the topic as the most recently used topic
+                    records.get(key);
+                } else {
+                    break;
+                }
+                offset += record.length;
+            }
+
+            return offset;
+        } finally {
+            closeQuietly(is);
+        }
+    }
+
+    /**
+     * Rewrites the cache file with only the records of the cached topics, in order from the least to the most recently
+     * used topic. Any records that fail their checksum are dropped.
+     *
+     * @throws IOException Thrown if the new file can't be written.
+     */
+    private void compact() throws IOException {
+        final File compactedFile = new File(cacheFile.getPath() + ".tmp");
+        final RandomAccessFile compacted = new RandomAccessFile(compactedFile, "rw");
+        final Map<Key, Record> compactedRecords = new LinkedHashMap<Key, Record>();
+        try {
+            compacted.setLength(0);
+            compacted.writeInt(MAGIC);
+            compacted.writeInt(VERSION);
+            for (final Map.Entry<Key, Record> entry : records.entrySet()) {
+                final Record record = entry.getValue();
+                final byte[] bytes = new byte[record.length];
+                file.seek(record.offset);
+                file.readFully(bytes);
+                if (checksum(Arrays.copyOfRange(bytes, RECORD_HEADER_LENGTH, bytes.length)) != readInt(bytes, 4)) continue;
+
+                compactedRecords.put(entry.getKey(), new Record(compacted.getFilePointer(), record.length));
+                compacted.write(bytes);
+            }
+        } catch (IOException e) {
+            closeQuietly(compacted);
+            compactedFile.delete();
+            throw e;
+        }
+        compacted.close();
+
+        file.close();
+        file = null;
+        if (!cacheFile.delete() || !compactedFile.renameTo(cacheFile)) {
+            // The cache file can't be replaced, so stop using the cache for the rest of the run
+            records.clear();
+            size = 0;
+            throw new IOException("Unable to replace " + cacheFile.getAbsolutePath());
+        }
+        file = new RandomAccessFile(cacheFile, "rw");
+
+        records.clear();
+        size = 0;
+        for (final Map.Entry<Key, Record> entry : compactedRecords.entrySet()) {
+            addRecord(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Adds a record to the index, replacing any existing record for the same topic.
+     */
+    private void addRecord(final Key key, final Record record) {
+        final Record existingRecord = records.put(key, record);
+        if (existingRecord != null) {
+            size -= existingRecord.length;
+        }
+        size += record.length;
+    }
+
+    /**
+     * Evicts the least recently used topics until the cached topics fit in the maximum size.
+     */
+    private void evict() {
+        final Iterator<Map.Entry<Key, Record>> iter = records.entrySet().iterator();
+        while (size > maxSize && iter.hasNext()) {
+            final Map.Entry<Key, Record> entry = iter.next();
+            iter.remove();
+            accessedKeys.remove(entry.getKey());
+            size -= entry.getValue().length;
+        }
+    }
+
+    /**
+     * Removes a record that was only partly written from the end of the cache file, so that the records that are written
+     * after it can still be read by later runs. If the record can't be removed then the cache isn't used for the rest of
+     * the run.
+     *
+     * @param offset The offset the record was being written at, or -1 if nothing was written.
+     */
+    private void removePartialRecord(final long offset) {
+        if (offset < 0 || file == null) return;
+
+        try {
+            file.setLength(offset);
+        } catch (IOException e) {
+            closeQuietly(file);
+            file = null;
+            records.clear();
+            accessedKeys.clear();
+            size = 0;
+        }
+    }
+
+    /**
+     * Removes a corrupt record from the index. The record is removed from the file the next time the file is compacted.
+     */
+    private void discard(final Key key, final Record record) {
+        log.warn("Discarding the corrupt record for " + key + " from the topic cache " + cacheFile.getAbsolutePath());
+        records.remove(key);
+        accessedKeys.remove(key);
+        size -= record.length;
+    }
+
+    private static byte[] createRecord(final byte type, final Key key, final byte[] data) throws IOException {
+        final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        final DataOutputStream os = new DataOutputStream(payload);
+        os.writeByte(type);
+        os.writeInt(key.topicId);
+        os.writeInt(key.revision);
+        final byte[] locale = key.locale == null ? new byte[0] : key.locale.getBytes(ENCODING);
+        os.writeShort(locale.length);
+        os.write(locale);
+        os.write(data);
+        os.flush();
+
+        final byte[] payloadBytes = payload.toByteArray();
+        final ByteArrayOutputStream record = new ByteArrayOutputStream(RECORD_HEADER_LENGTH + payloadBytes.length);
+        final DataOutputStream recordOs = new DataOutputStream(record);
+        recordOs.writeInt(payloadBytes.length);
+        recordOs.writeInt(checksum(payloadBytes));
+        recordOs.write(payloadBytes);
+        recordOs.flush();
+        return record.toByteArray();
+    }
+
+    private static Key readKey(final DataInputStream is) throws IOException {
+        final int topicId = is.readInt();
+        final int revision = is.readInt();
+        final byte[] locale = new byte[is.readUnsignedShort()];
+        is.readFully(locale);
+        return new Key(topicId, revision, locale.length == 0 ? null : new String(locale, ENCODING));
+    }
+
+    private static int checksum(final byte[] bytes) {
+        final CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    private static int readInt(final byte[] bytes, final int offset) {
+        return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16) | ((bytes[offset + 2] & 0xFF) << 8)
+                | (bytes[offset + 3] & 0xFF);
+    }
+
+    private static void skipFully(final DataInputStream is, final int length) throws IOException {
+        int skipped = 0;
+        while (skipped < length) {
+            final int count = is.skipBytes(length - skipped);
+            if (count <= 0) throw new EOFException();
+            skipped += count;
+        }
+    }
+
+    private static void closeQuietly(final Closeable closeable) {
+        if (closeable == null) return;
+
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // Do nothing as the stream is no longer needed
+        }
+    }
+
+    /**
+     * The ID, revision and locale that a topic was requested for.
+     */
+    private static class Key {
+        private final int topicId;
+        private final int revision;
+        private final String locale;
+
+        private Key(final int topicId, final int revision, final String locale) {
+            this.topicId = topicId;
+            this.revision = revision;
+            this.locale = locale;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+
+            final Key other = (Key) o;
+            return topicId == other.topicId && revision == other.revision
+                    && (locale == null ? other.locale == null : locale.equals(other.locale));
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * topicId + revision) + (locale == null ? 0 : locale.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return "Topic " + topicId + ", Revision " + revision + (locale == null ? "" : " (" + locale + ")");
+        }
+    }
+
+    /**
+     * The position of a record in the cache file.
+     */
+    private static class Record {
+        private final long offset;
+        private final int length;
+
+        private Record(final long offset, final int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /**
+     * The properties of a topic that are left out when a topic is read without its content.
+     */
+    @JsonIgnoreProperties({"xml", "html"})
+    private static abstract class WithoutContent {
+    }
+}
@@ -0,0 +1,19 @@
+package com.redhat.contentspec.processor.utils;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Looks up the current revision of topics without downloading the topics, so that only the topics that have changed since
+ * they were last downloaded need to be downloaded again.
+ */
+public interface TopicRevisionLookup {
+    /**
+     * Gets the current revision of a set of topics.
+     *
+     * @param topicIds The ID's of the topics to get the revisions for.
+     * @return The current revision of each topic, keyed by the topic ID. Topics that couldn't be looked up are left out.
+     * @throws Exception Any error that occurred while looking up the revisions.
+     */
+    Map<Integer, Integer> getLatestRevisions(List<Integer> topicIds) throws Exception;
+}
@@ -0,0 +1,147 @@
+package com.redhat.contentspec.processor.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.jboss.pressgang.ccms.contentspec.rest.RESTReader;
+import org.jboss.pressgang.ccms.rest.v1.entities.RESTTopicV1;
+import org.jboss.pressgang.ccms.rest.v1.entities.RESTTranslatedTopicV1;
+import org.jboss.pressgang.ccms.utils.structures.Pair;
+
+/**
+ * A cache of translated topics, keyed by locale and then by the topic ID and revision they were requested for. The cache
+ * is filled by downloading the topics with their translations expanded. A topic download includes the translations for
+ * every locale, so the translated topics that are used at their latest revision are all loaded with a single request,
+ * instead of one request for each translated topic.
+ * <p/>
+ * The REST API can only download a revision of a single topic, so each topic that is used at a revision still costs a
+ * request of its own. Loading a translated Content Specification therefore costs one request for all of its latest topics,
+ * plus one request for each topic that is pinned to a revision. A book where every topic is pinned to a revision costs one
+ * request per topic, just as it would without the cache. Those requests are made up to
+ * {@link com.redhat.contentspec.processor.structures.ProcessingOptions#getDownloadThreads()} at a time when each download
+ * thread has a reader of its own, and one at a time otherwise.
+ */
+public class TranslatedTopicCache {
+    private final Map<String, Map<TopicRevision, RESTTranslatedTopicV1>> translatedTopicsByLocale = new HashMap<String,
+            Map<TopicRevision, RESTTranslatedTopicV1>>();
+
+    /**
+     * Downloads a set of topics with their translations expanded, and adds the translations to the cache. The topics that
+     * are requested at their latest revision are downloaded in one request. The topics that are requested at a revision
+     * are downloaded with one request per topic, using the downloader.
+     *
+     * @param reader           The reader to download the latest topics with.
+     * @param downloadReaders  The readers that the download threads download the topics at a revision with, or null to
+     *                         download them with the reader, in which case the downloader must only download one topic at
+     *                         a time.
+     * @param topicIds         The ID's of the topics to download at their latest revision.
+     * @param revisionTopicIds The ID's of the topics to download at a revision, paired with the revision.
+     * @param downloader       The downloader to download the topics at a revision with.
+     */
+    public void download(final RESTReader reader, final PerThreadReaders downloadReaders, final Collection<Integer> topicIds,
+            final List<Pair<Integer, Integer>> revisionTopicIds, final ParallelDownloader<Pair<Integer, Integer>, RESTTopicV1> downloader) {
+        if (!topicIds.isEmpty()) {
+            final List<RESTTopicV1> topics = reader.getTopicsByIds(new ArrayList<Integer>(topicIds), true);
+            if (topics != null) {
+                for (final RESTTopicV1 topic : topics) {
+                    addTopic(topic, null);
+                }
+            }
+        }
+
+        if (!revisionTopicIds.isEmpty()) {
+            final Map<Pair<Integer, Integer>, RESTTopicV1> topics = downloader.download(revisionTopicIds,
+                    new ParallelDownloader.Fetcher<Pair<Integer, Integer>, RESTTopicV1>() {
+                        @Override
+                        public RESTTopicV1 fetch(final Pair<Integer, Integer> topicToRevision) throws Exception {
+                            final RESTReader downloadReader = downloadReaders == null ? reader : downloadReaders.getReader();
+                            return downloadReader.getTopicById(topicToRevision.getFirst(), topicToRevision.getSecond(), true);
+                        }
+                    }, "Downloading translated topics");
+            for (final Entry<Pair<Integer, Integer>, RESTTopicV1> entry : topics.entrySet()) {
+                addTopic(entry.getValue(), entry.getKey().getSecond());
+            }
+        }
+    }
+
+    /**
+     * Adds the translations of a topic to the cache. For each locale the translation of the latest revision of the topic is
+     * cached, ignoring any translations of revisions after the revision the topic was requested for.
+     *
+     * @param topic    The topic with its translations expanded.
+     * @param revision The revision the topic was requested for, or null if the latest revision was requested.
+     */
+    public synchronized void addTopic(final RESTTopicV1 topic, final Integer revision) {
+        if (topic == null || topic.getTranslatedTopics_OTM() == null || topic.getTranslatedTopics_OTM().returnItems() == null) return;
+
+        final TopicRevision key = new TopicRevision(topic.getId(), revision);
+        for (final RESTTranslatedTopicV1 translatedTopic : topic.getTranslatedTopics_OTM().returnItems()) {
+            final String locale = translatedTopic.getLocale();
+            final Integer topicRevision = translatedTopic.getTopicRevision();
+            if (locale == null || topicRevision == null || (revision != null && topicRevision > revision)) continue;
+
+            Map<TopicRevision, RESTTranslatedTopicV1> translatedTopics = translatedTopicsByLocale.get(locale);
+            if (translatedTopics == null) {
+                translatedTopics = new HashMap<TopicRevision, RESTTranslatedTopicV1>();
+                translatedTopicsByLocale.put(locale, translatedTopics);
+            }
+
+            final RESTTranslatedTopicV1 cachedTranslatedTopic = translatedTopics.get(key);
+            if (cachedTranslatedTopic == null || cachedTranslatedTopic.getTopicRevision() < topicRevision) {
+                translatedTopics.put(key, translatedTopic);
+            }
+        }
+    }
+
+    /**
+     * Gets a translated topic from the cache.
+     *
+     * @param topicId  The ID of the topic that was translated.
+     * @param revision The revision the topic was requested for, or null for the latest revision.
+     * @param locale   The locale of the translation.
+     * @return The translated topic, or null if it isn't cached.
+     */
+    public synchronized RESTTranslatedTopicV1 getTranslatedTopic(final Integer topicId, final Integer revision, final String locale) {
+        final Map<TopicRevision, RESTTranslatedTopicV1> translatedTopics = translatedTopicsByLocale.get(locale);
+        return translatedTopics == null ? null : translatedTopics.get(new TopicRevision(topicId, revision));
+    }
+
+    /**
+     * Removes all of the cached translated topics.
+     */
+    public synchronized void clear() {
+        translatedTopicsByLocale.clear();
+    }
+
+    /**
+     * The ID of a topic and the revision it was requested for.
+     */
+    private static class TopicRevision {
+        private final Integer topicId;
+        private final Integer revision;
+
+        private TopicRevision(final Integer topicId, final Integer revision) {
+            this.topicId = topicId;
+            this.revision = revision;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (!(o instanceof TopicRevision)) return false;
+
+            final TopicRevision other = (TopicRevision) o;
+            return (topicId == null ? other.topicId == null : topicId.equals(other.topicId))
+                    && (revision == null ? other.revision == null : revision.equals(other.revision));
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (topicId == null ? 0 : topicId.hashCode()) + (revision == null ? 0 : revision.hashCode());
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.redhat.contentspec.processor.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.redhat.contentspec.processor.structures.VariableSet;
+
+/**
+ * Finds the variable sets in a line, such as the "[N1, Concept]" and "[R: 1, 2]" sets in a topic line. The line is scanned
+ * once, using a depth counter to match nested sets, and delimiters that are escaped with a backslash are ignored.
+ * <p/>
+ * The scanner keeps its state between calls to {@link #append(CharSequence)}, so continuation lines can be added as they
+ * are read without the text that has already been scanned being scanned again.
+ */
+public class VariableSetScanner {
+    private final char startDelim;
+    private final char endDelim;
+    private final StringBuilder input = new StringBuilder();
+    private final List<VariableSet> variableSets = new ArrayList<VariableSet>();
+    private int scanPos = 0;
+    private int depth = 0;
+    private int openSetStart = -1;
+
+    /**
+     * Constructor
+     *
+     * @param startDelim The starting character of a set.
+     * @param endDelim   The ending character of a set.
+     */
+    public VariableSetScanner(final char startDelim, final char endDelim) {
+        this.startDelim = startDelim;
+        this.endDelim = endDelim;
+    }
+
+    /**
+     * Creates a scanner that has scanned an input, ignoring any text before a start position.
+     *
+     * @param startDelim The starting character of a set.
+     * @param endDelim   The ending character of a set.
+     * @param input      The input to scan.
+     * @param startPos   The position to start scanning from.
+     */
+    public VariableSetScanner(final char startDelim, final char endDelim, final CharSequence input, final int startPos) {
+        this(startDelim, endDelim);
+        this.input.append(input);
+        scanPos = startPos;
+        scan();
+    }
+
+    /**
+     * Appends some text to the input and scans the new text for variable sets.
+     *
+     * @param text The text to append.
+     * @return This scanner, so that calls can be chained.
+     */
+    public VariableSetScanner append(final CharSequence text) {
+        input.append(text);
+        scan();
+        return this;
+    }
+
+    private void scan() {
+        final int length = input.length();
+        for (; scanPos < length; scanPos++) {
+            final char c = input.charAt(scanPos);
+            if ((c != startDelim && c != endDelim) || (scanPos > 0 && input.charAt(scanPos - 1) == '\\')) continue;
+
+            if (c == startDelim) {
+                if (depth == 0) {
+                    openSetStart = scanPos;
+                }
+                depth++;
+            } else if (depth > 0) {
+                depth--;
+                if (depth == 0) {
+                    final VariableSet set = new VariableSet();
+                    set.setContents(input.substring(openSetStart, scanPos + 1));
+                    set.setStartPos(openSetStart);
+                    set.setEndPos(scanPos);
+                    variableSets.add(set);
+                    openSetStart = -1;
+                }
+            }
+            // An end delimiter that doesn't close a set is treated as plain text
+        }
+    }
+
+    /**
+     * @return The input that has been scanned.
+     */
+    public String getInput() {
+        return input.toString();
+    }
+
+    /**
+     * @return True if a set has been started but not yet closed.
+     */
+    public boolean isOpen() {
+        return openSetStart != -1;
+    }
+
+    /**
+     * @return The sets that have been closed, in the order they appear in the input.
+     */
+    public List<VariableSet> getVariableSets() {
+        return Collections.unmodifiableList(variableSets);
+    }
+
+    /**
+     * Gets the set that has been started but not yet closed. The set's contents run to the end of the input and it has no
+     * end position.
+     *
+     * @return The open set, or null if there isn't an open set.
+     */
+    public VariableSet getOpenSet() {
+        if (!isOpen()) return null;
+
+        final VariableSet set = new VariableSet();
+        set.setContents(input.substring(openSetStart));
+        set.setStartPos(openSetStart);
+        set.setEndPos(null);
+        return set;
+    }
+}
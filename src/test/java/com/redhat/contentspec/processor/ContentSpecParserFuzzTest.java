@@ -0,0 +1,161 @@
+package com.redhat.contentspec.processor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import junit.framework.TestCase;
+import org.jboss.pressgang.ccms.contentspec.rest.RESTManager;
+import org.jboss.pressgang.ccms.contentspec.utils.logging.ErrorLoggerManager;
+
+/**
+ * Parses hostile and randomly generated Content Specifications of up to 1 MB, and fails if any of them causes the parser
+ * to throw an error or takes much longer to parse than a well formed spec of the same size.
+ * <p/>
+ * The time limit is relative to a baseline that is measured on the same machine, so that a slow or busy machine doesn't
+ * fail the test, while input that makes the parser go quadratic or worse still does.
+ */
+public class ContentSpecParserFuzzTest extends TestCase {
+    /**
+     * How many times longer than the baseline a parse may take.
+     */
+    private static final int MAX_BASELINE_FACTOR = 20;
+    /**
+     * The least amount of time that a parse is allowed, so that the limits for small inputs aren't swamped by noise.
+     */
+    private static final long MIN_PARSE_TIME = 2000;
+    /**
+     * How long to wait for a parse that has run out of time to stop, after it has been interrupted.
+     */
+    private static final long STOP_TIME = 1000;
+    private static final int MAX_INPUT_SIZE = 1024 * 1024;
+    private static final int RANDOM_INPUTS = 20;
+    private static final String HEADER = "Title = Fuzz\nProduct = Product\nVersion = 1\n\nChapter: Fuzzing\n  ";
+    private static final String FUZZ_ALPHABET = "[]()\\,:=-+# \t\n\r\u2028RLPTNBXC01ab";
+
+    private final Map<Integer, Long> baselines = new HashMap<Integer, Long>();
+
+    public void testHostileInputs() throws Exception {
+        final List<String> inputs = getHostileInputs();
+        for (int i = 0; i < inputs.size(); i++) {
+            assertParsesInTime("hostile input " + i, inputs.get(i));
+        }
+    }
+
+    public void testRandomInputs() throws Exception {
+        final Random random = new Random(42);
+        for (int i = 0; i < RANDOM_INPUTS; i++) {
+            final int length = 1 + random.nextInt(i % 4 == 0 ? MAX_INPUT_SIZE : 1024);
+            final StringBuilder input = new StringBuilder(HEADER);
+            while (input.length() < length) {
+                input.append(FUZZ_ALPHABET.charAt(random.nextInt(FUZZ_ALPHABET.length())));
+            }
+            assertParsesInTime("random input " + i, input.toString());
+        }
+    }
+
+    protected List<String> getHostileInputs() {
+        final int n = MAX_INPUT_SIZE / 2;
+        final List<String> inputs = new ArrayList<String>();
+
+        // Long relationship blocks and long variables
+        inputs.add(HEADER + "Topic [R: " + repeat("a", n) + "]");
+        inputs.add(HEADER + "Topic [N1, Concept] [R: 1 " + repeat("1", n) + "\u2028]");
+        inputs.add(HEADER + "Topic [N1, Concept] [P: T" + repeat("1", n) + "\u2028 T1]");
+        inputs.add(HEADER + "Topic [N1, Concept] [L: Title" + repeat(" ", n) + "[1]]");
+        inputs.add(HEADER + "Topic [N1, Concept] [R: a" + repeat(" ", n) + "b]");
+        inputs.add(HEADER + "Topic [N1, Concept] [R: " + repeat("[1", n / 2) + "]");
+        inputs.add(HEADER + "Topic [N1, Concept] [R: " + repeat("1, ", n / 3) + "2]");
+
+        // Relationships that continue over many lines
+        inputs.add(HEADER + "Topic [N1, Concept]\n" + repeat("    [R: 1]\n", n / 11));
+        inputs.add(HEADER + "Topic [N1, Concept] [R: 1,\n" + repeat("    2,\n", n / 7) + "    3]");
+        inputs.add(HEADER + "Topic [N1, Concept] [R: 1\n" + repeat("    2\n", n / 6));
+
+        // Unclosed and deeply nested brackets
+        inputs.add(HEADER + "Topic " + repeat("[", n));
+        inputs.add(HEADER + "Topic " + repeat("[", n / 2) + repeat("]", n / 2));
+        inputs.add(HEADER + "Topic [N1, " + repeat("\\[", n / 2) + "]");
+
+        // Metadata
+        inputs.add("Inline Injection = on " + repeat("[", n) + "]\n" + HEADER + "Topic [N1, Concept]");
+        inputs.add("Inline Injection = on [" + repeat("a", n) + "]\n" + HEADER + "Topic [N1, Concept]");
+        inputs.add("Title = " + repeat("a", n) + "\n" + HEADER + "Topic [N1, Concept]");
+
+        return inputs;
+    }
+
+    protected void assertParsesInTime(final String name, final String input) throws Exception {
+        final long maxParseTime = Math.max(MIN_PARSE_TIME, MAX_BASELINE_FACTOR * getBaselineParseTime(input.length()));
+        final Throwable[] error = new Throwable[1];
+        final Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    parse(input);
+                } catch (Throwable t) {
+                    error[0] = t;
+                }
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        thread.join(maxParseTime);
+
+        if (thread.isAlive()) {
+            stop(thread);
+            fail("Parsing " + name + " (" + input.length() + " characters) took longer than " + maxParseTime + "ms");
+        } else if (error[0] != null) {
+            fail("Parsing " + name + " (" + input.length() + " characters) failed with " + error[0]);
+        }
+    }
+
+    /**
+     * Gets how long it takes to parse a well formed spec that is at least as long as the input. The baseline is measured
+     * once for each power of two, so that inputs of a similar length share a baseline.
+     */
+    private long getBaselineParseTime(final int length) throws Exception {
+        final int baselineLength = Integer.highestOneBit(Math.max(1, length - 1)) << 1;
+        if (!baselines.containsKey(baselineLength)) {
+            final StringBuilder input = new StringBuilder(HEADER);
+            for (int i = 1; input.length() < baselineLength; i++) {
+                input.append("Topic ").append(i).append(" [").append(i).append("]\n  ");
+            }
+
+            final long start = System.currentTimeMillis();
+            parse(input.toString());
+            baselines.put(baselineLength, System.currentTimeMillis() - start);
+        }
+        return baselines.get(baselineLength);
+    }
+
+    /**
+     * Stops a parse that has run out of time, so that it doesn't keep using the CPU while the rest of the tests run. The
+     * parser doesn't check if it has been interrupted, so the thread is stopped if it is still running after being
+     * interrupted.
+     */
+    @SuppressWarnings("deprecation")
+    private void stop(final Thread thread) throws InterruptedException {
+        thread.interrupt();
+        thread.join(STOP_TIME);
+        if (thread.isAlive()) {
+            thread.stop();
+        }
+    }
+
+    private void parse(final String input) throws Exception {
+        final ContentSpecParser parser = new ContentSpecParser(new ErrorLoggerManager(), new RESTManager(
+                "http://localhost:8080/TopicIndex/"));
+        parser.parse(input);
+    }
+
+    private static String repeat(final String value, final int count) {
+        final StringBuilder builder = new StringBuilder(value.length() * count);
+        for (int i = 0; i < count; i++) {
+            builder.append(value);
+        }
+        return builder.toString();
+    }
+}
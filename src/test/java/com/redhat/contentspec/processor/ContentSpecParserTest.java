@@ -0,0 +1,457 @@
+package com.redhat.contentspec.processor;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.redhat.contentspec.processor.structures.ParseResult;
+import junit.framework.TestCase;
+import org.jboss.pressgang.ccms.contentspec.Level;
+import org.jboss.pressgang.ccms.contentspec.Node;
+import org.jboss.pressgang.ccms.contentspec.SpecTopic;
+import org.jboss.pressgang.ccms.contentspec.entities.Relationship;
+import org.jboss.pressgang.ccms.contentspec.rest.RESTManager;
+import org.jboss.pressgang.ccms.contentspec.utils.logging.ErrorLoggerManager;
+
+/**
+ * Tests the reentrant parse methods of the ContentSpecParser.
+ */
+public class ContentSpecParserTest extends TestCase {
+    private static final int THREADS = 8;
+    private static final int SPECS = 64;
+
+    public void testParseResultMatchesParserState() throws Exception {
+        final ContentSpecParser parser = createParser();
+        final String spec = createSpec(3);
+
+        final ParseResult result = parser.parseContentSpec(spec, "user", ContentSpecParser.ParsingMode.EITHER, false);
+        assertTrue(result.isSuccessful());
+        assertTrue(parser.parse(spec, "user"));
+        assertEquals(describe(parser.getSpecTopics(), parser.getProcessedRelationships()),
+                describe(result.getSpecTopics(), result.getProcessedRelationships()));
+        assertEquals(parser.getTargetTopics().keySet(), result.getTargetTopics().keySet());
+        assertEquals(parser.getTopicIdIndex(), result.getTopicIdIndex());
+        assertEquals(parser.getReferencedTopicIds(), result.getReferencedTopicIds());
+
+        try {
+            result.getSpecTopics().clear();
+            fail("The spec topics of a parse result shouldn't be modifiable");
+        } catch (UnsupportedOperationException e) {
+            // Expected
+        }
+    }
+
+    public void testDebugMetaDataOnlyAppliesToTheParsesLogger() throws Exception {
+        final RecordingErrorLoggerManager parserElm = new RecordingErrorLoggerManager();
+        final ContentSpecParser parser = new ContentSpecParser(parserElm, new RESTManager("http://localhost:8080/TopicIndex/"));
+        final RecordingErrorLoggerManager parseElm = new RecordingErrorLoggerManager();
+
+        final String spec = createSpec(1).replace("Version = 1\n", "Version = 1\nDEBUG = 2\n");
+        final ParseResult result = parser.parseContentSpec(spec, "user", ContentSpecParser.ParsingMode.EITHER, false, parseElm);
+        assertTrue(result.isSuccessful());
+        assertEquals(Integer.valueOf(2), parseElm.verboseDebug);
+        assertNull(parserElm.verboseDebug);
+    }
+
+    public void testSharedParserIsThreadSafe() throws Exception {
+        final ContentSpecParser sharedParser = createParser();
+
+        // Parse each spec on its own to get the expected results
+        final List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < SPECS; i++) {
+            final ParseResult result = createParser().parseContentSpec(createSpec(i), "user",
+                    ContentSpecParser.ParsingMode.EITHER, false);
+            expected.add(describe(result.getSpecTopics(), result.getProcessedRelationships()));
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final List<Future<String>> futures = new ArrayList<Future<String>>();
+            for (int i = 0; i < SPECS; i++) {
+                final String spec = createSpec(i);
+                futures.add(executor.submit(new Callable<String>() {
+                    @Override
+                    public String call() throws Exception {
+                        final ParseResult result = sharedParser.parseContentSpec(spec, "user",
+                                ContentSpecParser.ParsingMode.EITHER, false, new ErrorLoggerManager());
+                        return describe(result.getSpecTopics(), result.getProcessedRelationships());
+                    }
+                }));
+            }
+
+            for (int i = 0; i < SPECS; i++) {
+                assertEquals("Spec " + i, expected.get(i), futures.get(i).get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public void testReparseReusesUnchangedLevels() throws Exception {
+        final List<String> parsedTopics = new ArrayList<String>();
+        final ContentSpecParser parser = createRecordingParser(parsedTopics);
+        final String spec = createSpec(4);
+        final String editedSpec = spec.replace("Topic 421 [422]", "Edited Topic 421 [422]");
+
+        final ParseResult previousResult = parser.parseContentSpec(spec, "user", ContentSpecParser.ParsingMode.EITHER, false);
+        final String previousLevels = describeLevels(previousResult.getContentSpec().getBaseLevel());
+        final SpecTopic unchangedTopic = previousResult.getSpecTopics().get(findUniqueId(previousResult, 401));
+        parsedTopics.clear();
+        final ParseResult result = parser.reparseContentSpec(previousResult, editedSpec, "user", ContentSpecParser.ParsingMode.EITHER,
+                false);
+        final ParseResult expected = createParser().parseContentSpec(editedSpec, "user", ContentSpecParser.ParsingMode.EITHER, false);
+
+        assertTrue(result.isSuccessful());
+        assertEquals(describe(expected.getSpecTopics(), expected.getProcessedRelationships()),
+                describe(result.getSpecTopics(), result.getProcessedRelationships()));
+        assertEquals(expected.getTargetTopics().keySet(), result.getTargetTopics().keySet());
+        assertEquals(expected.getTopicIdIndex(), result.getTopicIdIndex());
+        assertEquals(expected.getContentSpec().getPreProcessedText(), result.getContentSpec().getPreProcessedText());
+        assertEquals(describeLevels(expected.getContentSpec().getBaseLevel()), describeLevels(result.getContentSpec().getBaseLevel()));
+        assertEquals("Edited Topic 421", result.getSpecTopics().get(findUniqueId(result, 422)).getTitle());
+
+        // Only the topics in the edited chapter should have been parsed again
+        assertEquals(7, parsedTopics.size());
+        for (final String parsedTopic : parsedTopics) {
+            assertTrue(parsedTopic, parsedTopic.contains("Topic 42"));
+        }
+
+        // The reused topics are copies, so the previous result isn't changed
+        final SpecTopic reusedTopic = result.getSpecTopics().get(findUniqueId(result, 401));
+        assertNotSame(unchangedTopic, reusedTopic);
+        assertEquals(unchangedTopic.getLineNumber(), reusedTopic.getLineNumber());
+        assertSame(previousResult.getContentSpec().getBaseLevel(), unchangedTopic.getParent().getParent());
+        assertEquals(previousLevels, describeLevels(previousResult.getContentSpec().getBaseLevel()));
+    }
+
+    public void testCopyParseResultSharesNoNodes() throws Exception {
+        final ContentSpecParser parser = createParser();
+        final ParseResult result = parser.parseContentSpec(createSpec(4), "user", ContentSpecParser.ParsingMode.EITHER, false);
+        final ParseResult copy = parser.copyParseResult(result, "user", ContentSpecParser.ParsingMode.EITHER, false);
+
+        assertTrue(copy.isSuccessful());
+        assertNotSame(result.getContentSpec(), copy.getContentSpec());
+        assertNotSame(result.getContentSpec().getBaseLevel(), copy.getContentSpec().getBaseLevel());
+        assertEquals(describe(result.getSpecTopics(), result.getProcessedRelationships()),
+                describe(copy.getSpecTopics(), copy.getProcessedRelationships()));
+        assertEquals(describeLevels(result.getContentSpec().getBaseLevel()), describeLevels(copy.getContentSpec().getBaseLevel()));
+        assertEquals(result.getTopicIdIndex(), copy.getTopicIdIndex());
+        for (final Map.Entry<String, SpecTopic> entry : copy.getSpecTopics().entrySet()) {
+            final SpecTopic specTopic = result.getSpecTopics().get(entry.getKey());
+            assertNotSame(specTopic, entry.getValue());
+            assertNotSame(specTopic.getParent(), entry.getValue().getParent());
+        }
+
+        // Changing the copy doesn't change the result
+        final String uniqueId = findUniqueId(copy, 401);
+        copy.getSpecTopics().get(uniqueId).setTitle("Changed");
+        assertEquals("Topic 400", result.getSpecTopics().get(uniqueId).getTitle());
+    }
+
+    public void testReparseReusesLevelsAfterInsertedLines() throws Exception {
+        final List<String> parsedTopics = new ArrayList<String>();
+        final ContentSpecParser parser = createRecordingParser(parsedTopics);
+        final String spec = createSpec(4);
+        final String editedSpec = spec.replace("Chapter: Chapter 2\n", "Chapter: Chapter 2\n  Topic 999 [1000]\n");
+
+        final ParseResult previousResult = parser.parseContentSpec(spec, "user", ContentSpecParser.ParsingMode.EITHER, false);
+        final SpecTopic movedTopic = previousResult.getSpecTopics().get(findUniqueId(previousResult, 442));
+        parsedTopics.clear();
+        final ParseResult result = parser.reparseContentSpec(previousResult, editedSpec, "user", ContentSpecParser.ParsingMode.EITHER,
+                false);
+        final ParseResult expected = createParser().parseContentSpec(editedSpec, "user", ContentSpecParser.ParsingMode.EITHER, false);
+
+        assertTrue(result.isSuccessful());
+        assertEquals(describe(expected.getSpecTopics(), expected.getProcessedRelationships()),
+                describe(result.getSpecTopics(), result.getProcessedRelationships()));
+        assertEquals(expected.getTargetTopics().keySet(), result.getTargetTopics().keySet());
+        assertEquals(expected.getTopicIdIndex(), result.getTopicIdIndex());
+        assertEquals(describeLevels(expected.getContentSpec().getBaseLevel()), describeLevels(result.getContentSpec().getBaseLevel()));
+
+        // Only the topics in the edited chapter should have been parsed again, and the chapters after it were moved down a line
+        assertEquals(8, parsedTopics.size());
+        for (final String parsedTopic : parsedTopics) {
+            assertTrue(parsedTopic, parsedTopic.contains("Topic 42") || parsedTopic.contains("Topic 999"));
+        }
+        final SpecTopic reusedTopic = result.getSpecTopics().get(findUniqueId(result, 442));
+        assertEquals(Integer.valueOf(movedTopic.getLineNumber() + 1), reusedTopic.getLineNumber());
+        assertEquals(expected.getSpecTopics().get(findUniqueId(expected, 442)).getLineNumber(), reusedTopic.getLineNumber());
+        assertEquals(reusedTopic.getLineNumber() + "-442", reusedTopic.getUniqueId());
+        assertEquals(movedTopic.getLineNumber() + "-442", movedTopic.getUniqueId());
+    }
+
+    public void testReparseParsesEverythingWhenRelationshipsChange() throws Exception {
+        final List<String> parsedTopics = new ArrayList<String>();
+        final ContentSpecParser parser = createRecordingParser(parsedTopics);
+        final String spec = "Title = Spec\nProduct = Product\nVersion = 1\n\nChapter: Chapter 1\n  Topic 1 [1] [R: T-Target]\n"
+                + "Chapter: Chapter 2\n  Topic 2 [2] [T-Target]\n";
+        final String editedSpec = spec.replace("Topic 2 [2] [T-Target]", "Topic 2 [2]");
+
+        final ParseResult previousResult = parser.parseContentSpec(spec, "user", ContentSpecParser.ParsingMode.EITHER, false);
+        parsedTopics.clear();
+        final ParseResult result = parser.reparseContentSpec(previousResult, editedSpec, "user", ContentSpecParser.ParsingMode.EITHER,
+                false);
+        final ParseResult expected = createParser().parseContentSpec(editedSpec, "user", ContentSpecParser.ParsingMode.EITHER, false);
+
+        assertEquals(describe(expected.getSpecTopics(), expected.getProcessedRelationships()),
+                describe(result.getSpecTopics(), result.getProcessedRelationships()));
+        assertTrue(result.getTargetTopics().isEmpty());
+        assertTrue(parsedTopics.toString(), parsedTopics.contains("Topic 1 [1] [R: T-Target]"));
+    }
+
+    public void testParallelParseMatchesSerialParse() throws Exception {
+        final ContentSpecParser parallelParser = createParser();
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        parallelParser.setParseExecutor(executor);
+        try {
+            for (int i = 0; i < SPECS; i++) {
+                final String spec = createSpec(i);
+                final ParseResult expected = createParser().parseContentSpec(spec, "user", ContentSpecParser.ParsingMode.EITHER, false);
+                final ParseResult result = parallelParser.parseContentSpec(spec, "user", ContentSpecParser.ParsingMode.EITHER, false);
+
+                assertEquals("Spec " + i, expected.isSuccessful(), result.isSuccessful());
+                assertEquals("Spec " + i, describe(expected.getSpecTopics(), expected.getProcessedRelationships()),
+                        describe(result.getSpecTopics(), result.getProcessedRelationships()));
+                assertEquals("Spec " + i, expected.getTargetTopics().keySet(), result.getTargetTopics().keySet());
+                assertEquals("Spec " + i, expected.getContentSpec().getPreProcessedText(),
+                        result.getContentSpec().getPreProcessedText());
+                assertEquals("Spec " + i, describeLevels(expected.getContentSpec().getBaseLevel()),
+                        describeLevels(result.getContentSpec().getBaseLevel()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public void testParallelParseKeepsTheFirstDuplicateTarget() throws Exception {
+        final String spec = "Title = Spec\nProduct = Product\nVersion = 1\n\nChapter: Chapter 1\n  Topic 1 [1] [T-Target]\n"
+                + "Chapter: Chapter 2\n  Topic 2 [2] [T-Target]\n  Topic 3 [N1, Concept]\nChapter: Chapter 3\n"
+                + "  Topic 4 [N1, Concept]\n";
+        final ContentSpecParser parallelParser = createParser();
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        parallelParser.setParseExecutor(executor);
+        try {
+            final ParseResult expected = createParser().parseContentSpec(spec, "user", ContentSpecParser.ParsingMode.EITHER, false);
+            final ParseResult result = parallelParser.parseContentSpec(spec, "user", ContentSpecParser.ParsingMode.EITHER, false);
+
+            assertFalse(result.isSuccessful());
+            assertEquals(describe(expected.getSpecTopics(), expected.getProcessedRelationships()),
+                    describe(result.getSpecTopics(), result.getProcessedRelationships()));
+            assertEquals(6, result.getTargetTopics().get("T-Target").getLineNumber().intValue());
+            assertEquals("Topic 3", result.getSpecTopics().get("N1").getTitle());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public void testParallelParseSplitsLevelsBeforeALineThatCantBeSplit() throws Exception {
+        final String spec = createSpec(4) + "Topic 998 [998]\nChapter: Last Chapter\n  Topic 999 [999]\n";
+        final Map<String, Thread> parsingThreads = new ConcurrentHashMap<String, Thread>();
+        final ContentSpecParser parallelParser = new ContentSpecParser(new ErrorLoggerManager(),
+                new RESTManager("http://localhost:8080/TopicIndex/")) {
+            @Override
+            protected SpecTopic parseTopic(final ParserContext ctx, final String input) {
+                parsingThreads.put(input.trim(), Thread.currentThread());
+                return super.parseTopic(ctx, input);
+            }
+        };
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        parallelParser.setParseExecutor(executor);
+        try {
+            final ParseResult expected = createParser().parseContentSpec(spec, "user", ContentSpecParser.ParsingMode.EITHER, false);
+            final ParseResult result = parallelParser.parseContentSpec(spec, "user", ContentSpecParser.ParsingMode.EITHER, false);
+
+            assertEquals(expected.isSuccessful(), result.isSuccessful());
+            assertEquals(describe(expected.getSpecTopics(), expected.getProcessedRelationships()),
+                    describe(result.getSpecTopics(), result.getProcessedRelationships()));
+            assertEquals(expected.getContentSpec().getPreProcessedText(), result.getContentSpec().getPreProcessedText());
+            assertEquals(describeLevels(expected.getContentSpec().getBaseLevel()),
+                    describeLevels(result.getContentSpec().getBaseLevel()));
+
+            // The chapters before the base level topic are parsed by the executor, and the rest of the lines serially
+            assertNotSame(Thread.currentThread(), parsingThreads.get("Topic 400 [401] [T-Target400]"));
+            assertSame(Thread.currentThread(), parsingThreads.get("Topic 998 [998]"));
+            assertSame(Thread.currentThread(), parsingThreads.get("Topic 999 [999]"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public void testParallelParseOnlyHoldsAFewChunksAtOnce() throws Exception {
+        final StringBuilder builder = new StringBuilder("Title = Spec\nProduct = Product\nVersion = 1\n\n");
+        for (int chapter = 1; chapter <= 20; chapter++) {
+            builder.append("Chapter: Chapter ").append(chapter).append("\n  Topic ").append(chapter).append(" [").append(chapter)
+                    .append("]\n");
+        }
+        final String spec = builder.toString();
+
+        // A single thread that doesn't start parsing any chunks until it is released
+        final CountDownLatch released = new CountDownLatch(1);
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>()) {
+            @Override
+            protected void beforeExecute(final Thread thread, final Runnable runnable) {
+                try {
+                    released.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        final ExecutorService parseThread = Executors.newSingleThreadExecutor();
+        final ContentSpecParser parallelParser = createParser();
+        parallelParser.setParseExecutor(executor);
+        try {
+            final Future<ParseResult> future = parseThread.submit(new Callable<ParseResult>() {
+                @Override
+                public ParseResult call() throws Exception {
+                    return parallelParser.parseContentSpec(spec, "user", ContentSpecParser.ParsingMode.EITHER, false);
+                }
+            });
+
+            // No more lines are read once two chunks are waiting for the thread
+            Thread.sleep(200);
+            assertFalse(future.isDone());
+            assertEquals(2, executor.getTaskCount());
+            released.countDown();
+
+            final ParseResult result = future.get();
+            final ParseResult expected = createParser().parseContentSpec(spec, "user", ContentSpecParser.ParsingMode.EITHER, false);
+            assertTrue(result.isSuccessful());
+            assertEquals(describe(expected.getSpecTopics(), expected.getProcessedRelationships()),
+                    describe(result.getSpecTopics(), result.getProcessedRelationships()));
+            assertEquals(describeLevels(expected.getContentSpec().getBaseLevel()),
+                    describeLevels(result.getContentSpec().getBaseLevel()));
+            assertEquals(20, executor.getTaskCount());
+        } finally {
+            released.countDown();
+            executor.shutdownNow();
+            parseThread.shutdownNow();
+        }
+    }
+
+    public void testParseFromReaderMatchesParseFromString() throws Exception {
+        final String spec = createSpec(4);
+        final ContentSpecParser stringParser = createParser();
+        assertTrue(stringParser.parse(spec, "user"));
+
+        final ContentSpecParser readerParser = createParser();
+        assertTrue(readerParser.parse(new StringReader(spec), "user", ContentSpecParser.ParsingMode.EITHER, false));
+        assertEquals(describe(stringParser.getSpecTopics(), stringParser.getProcessedRelationships()),
+                describe(readerParser.getSpecTopics(), readerParser.getProcessedRelationships()));
+        assertEquals(stringParser.getContentSpec().getPreProcessedText(), readerParser.getContentSpec().getPreProcessedText());
+    }
+
+    public void testParseFromFileMatchesParseFromString() throws Exception {
+        // Use a non ASCII title to check that the file is read as UTF-8
+        final String spec = createSpec(2).replace("Title = Spec 2", "Title = Sp\u00e9c 2");
+        final File file = File.createTempFile("contentspec", ".txt");
+        try {
+            final Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+            try {
+                writer.write(spec);
+            } finally {
+                writer.close();
+            }
+
+            final ContentSpecParser stringParser = createParser();
+            assertTrue(stringParser.parse(spec, "user"));
+            final ContentSpecParser fileParser = createParser();
+            assertTrue(fileParser.parse(file));
+
+            assertEquals("Sp\u00e9c 2", fileParser.getContentSpec().getTitle());
+            assertEquals(describe(stringParser.getSpecTopics(), stringParser.getProcessedRelationships()),
+                    describe(fileParser.getSpecTopics(), fileParser.getProcessedRelationships()));
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static class RecordingErrorLoggerManager extends ErrorLoggerManager {
+        private Integer verboseDebug;
+
+        @Override
+        public void setVerboseDebug(final int verboseDebug) {
+            this.verboseDebug = verboseDebug;
+        }
+    }
+
+    private static String findUniqueId(final ParseResult result, final int topicId) {
+        return result.getTopicIdIndex().get(Integer.toString(topicId)).get(0);
+    }
+
+    private static ContentSpecParser createParser() {
+        return new ContentSpecParser(new ErrorLoggerManager(), new RESTManager("http://localhost:8080/TopicIndex/"));
+    }
+
+    /**
+     * Creates a parser that records the lines of the topics that it parses.
+     */
+    private static ContentSpecParser createRecordingParser(final List<String> parsedTopics) {
+        return new ContentSpecParser(new ErrorLoggerManager(), new RESTManager("http://localhost:8080/TopicIndex/")) {
+            @Override
+            protected SpecTopic parseTopic(final ParserContext ctx, final String input) {
+                parsedTopics.add(input);
+                return super.parseTopic(ctx, input);
+            }
+        };
+    }
+
+    private static String createSpec(final int seed) {
+        final StringBuilder builder = new StringBuilder("Title = Spec " + seed + "\nProduct = Product\nVersion = 1\n\n");
+        for (int chapter = 0; chapter <= seed % 5; chapter++) {
+            builder.append("Chapter: Chapter ").append(chapter).append("\n");
+            for (int topic = 0; topic <= (seed + chapter) % 7; topic++) {
+                final int id = seed * 100 + chapter * 10 + topic;
+                builder.append("  Topic ").append(id).append(" [").append(id + 1).append("]");
+                if (topic > 0) {
+                    builder.append(" [R: ").append(id).append("]");
+                }
+                if (topic % 3 == 0) {
+                    builder.append(" [T-Target").append(id).append("]");
+                }
+                builder.append("\n");
+            }
+        }
+        return builder.toString();
+    }
+
+    private static String describeLevels(final Level level) {
+        final StringBuilder builder = new StringBuilder(String.valueOf(level.getTitle())).append("(");
+        for (final Node node : level.getChildNodes()) {
+            if (node instanceof Level) {
+                builder.append(describeLevels((Level) node));
+            } else if (node instanceof SpecTopic) {
+                builder.append(((SpecTopic) node).getTitle()).append(",");
+            }
+        }
+        return builder.append(")").toString();
+    }
+
+    private static String describe(final Map<String, SpecTopic> specTopics, final Map<String, List<Relationship>> relationships) {
+        final Map<String, String> description = new TreeMap<String, String>();
+        for (final Map.Entry<String, SpecTopic> entry : specTopics.entrySet()) {
+            final SpecTopic specTopic = entry.getValue();
+            description.put(entry.getKey(), specTopic.getTitle() + "|" + specTopic.getDBId() + "|" + specTopic.getTargetId());
+        }
+        for (final Map.Entry<String, List<Relationship>> entry : relationships.entrySet()) {
+            description.put(entry.getKey() + "-relationships", Integer.toString(entry.getValue().size()));
+        }
+        return description.toString();
+    }
+}
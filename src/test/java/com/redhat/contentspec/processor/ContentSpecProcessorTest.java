@@ -0,0 +1,133 @@
+package com.redhat.contentspec.processor;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.ObjectName;
+
+import com.redhat.contentspec.processor.structures.ProcessingOptions;
+import com.redhat.contentspec.processor.utils.ParseResultCache;
+import junit.framework.TestCase;
+import org.jboss.pressgang.ccms.contentspec.ContentSpec;
+import org.jboss.pressgang.ccms.contentspec.SpecTopic;
+import org.jboss.pressgang.ccms.contentspec.utils.logging.ErrorLoggerManager;
+
+/**
+ * Tests how the ContentSpecProcessor caches parse results, against a local REST server.
+ */
+public class ContentSpecProcessorTest extends TestCase {
+    private static final int TOPIC_COUNT = 5;
+
+    private LocalTopicServer server;
+
+    @Override
+    protected void setUp() throws Exception {
+        server = LocalTopicServer.start(0);
+        for (int topicId = 1; topicId <= TOPIC_COUNT; topicId++) {
+            server.addTopic(topicId, 1);
+        }
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        server.stop();
+    }
+
+    public void testCachedParseResultIsNotChangedByValidation() throws Exception {
+        final ParseResultCache cache = new ParseResultCache(10);
+        final ContentSpecProcessor firstProcessor = createProcessor(cache);
+        final ContentSpecProcessor secondProcessor = createProcessor(cache);
+        try {
+            assertTrue(firstProcessor.processContentSpec(createSpec(), "test", ContentSpecParser.ParsingMode.EITHER));
+            assertEquals(0, cache.getHitCount());
+            assertTrue(secondProcessor.processContentSpec(createSpec(), "test", ContentSpecParser.ParsingMode.EITHER));
+            assertEquals(1, cache.getHitCount());
+        } finally {
+            firstProcessor.shutdown();
+            secondProcessor.shutdown();
+        }
+
+        // Each run validated its own copy of the cached result
+        final ContentSpec cachedSpec = cache.get(ParseResultCache.createKey(createSpec(), "test",
+                ContentSpecParser.ParsingMode.EITHER, null)).getResult().getContentSpec();
+        assertNotSame(cachedSpec, firstProcessor.getContentSpec());
+        assertNotSame(cachedSpec, secondProcessor.getContentSpec());
+        assertNotSame(firstProcessor.getContentSpec(), secondProcessor.getContentSpec());
+        assertEquals(TOPIC_COUNT, secondProcessor.getSpecTopics().size());
+        for (final SpecTopic specTopic : secondProcessor.getSpecTopics().values()) {
+            assertNotNull(specTopic.getTopic());
+        }
+
+        // The cached result doesn't hold onto the topics that were downloaded to validate it
+        for (final SpecTopic specTopic : cachedSpec.getSpecTopics()) {
+            assertNull(specTopic.getTopic());
+        }
+    }
+
+    public void testParserReflectsTheProcessedContentSpec() throws Exception {
+        final ParseResultCache cache = new ParseResultCache(10);
+        final ContentSpecProcessor firstProcessor = createProcessor(cache);
+        final ContentSpecProcessor secondProcessor = createProcessor(cache);
+        try {
+            assertTrue(secondProcessor.getParser().getSpecTopics().isEmpty());
+            assertTrue(firstProcessor.processContentSpec(createSpec(), "test", ContentSpecParser.ParsingMode.EITHER));
+            assertTrue(secondProcessor.processContentSpec(createSpec(), "test", ContentSpecParser.ParsingMode.EITHER));
+            assertEquals(1, cache.getHitCount());
+        } finally {
+            firstProcessor.shutdown();
+            secondProcessor.shutdown();
+        }
+
+        for (final ContentSpecProcessor processor : new ContentSpecProcessor[]{firstProcessor, secondProcessor}) {
+            final ContentSpecParser parser = processor.getParser();
+            assertSame(processor.getContentSpec(), parser.getContentSpec());
+            assertEquals(processor.getSpecTopics(), parser.getSpecTopics());
+            assertEquals(processor.getParseResult().getTopicIdIndex(), parser.getTopicIdIndex());
+            assertEquals(processor.getParseResult().getReferencedTopicIds(), parser.getReferencedTopicIds());
+        }
+    }
+
+    public void testProcessorsShareARegisteredCache() throws Exception {
+        final ContentSpecProcessor firstProcessor = createProcessor(null);
+        final ContentSpecProcessor secondProcessor = createProcessor(null);
+        firstProcessor.shutdown();
+        secondProcessor.shutdown();
+
+        assertNotNull(firstProcessor.getParseResultCache());
+        assertSame(firstProcessor.getParseResultCache(), secondProcessor.getParseResultCache());
+        assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(
+                new ObjectName("com.redhat.contentspec.processor:type=ParseResultCache")));
+    }
+
+    /**
+     * Creates a processor that validates Content Specifications against the local server.
+     *
+     * @param cache The cache to use in place of the shared cache, or null to use the shared cache.
+     * @return The new processor.
+     */
+    private ContentSpecProcessor createProcessor(final ParseResultCache cache) {
+        final ProcessingOptions processingOptions = new ProcessingOptions();
+        processingOptions.setValidating(true);
+        processingOptions.setOffline(true);
+        processingOptions.setParseResultCacheSize(10);
+        final ContentSpecProcessor processor = new ContentSpecProcessor(server.getUrl(), new ErrorLoggerManager(), processingOptions);
+        if (cache != null) {
+            processor.setParseResultCache(cache);
+        }
+        return processor;
+    }
+
+    private String createSpec() {
+        final StringBuilder spec = new StringBuilder();
+        spec.append("Title = Cache Test\n");
+        spec.append("Product = PressGang CCMS\n");
+        spec.append("Version = 1.0\n");
+        spec.append("DTD = Docbook 4.5\n");
+        spec.append("Copyright Holder = Red Hat\n");
+        spec.append("\n");
+        spec.append("Chapter: Topics\n");
+        for (int topicId = 1; topicId <= TOPIC_COUNT; topicId++) {
+            spec.append("  Topic ").append(topicId).append(" [").append(topicId).append("]\n");
+        }
+        return spec.toString();
+    }
+}
@@ -0,0 +1,129 @@
+package com.redhat.contentspec.processor;
+
+import static java.lang.String.format;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import com.redhat.contentspec.processor.constants.ProcessorConstants;
+import junit.framework.TestCase;
+import org.jboss.pressgang.ccms.contentspec.SpecTopic;
+import org.jboss.pressgang.ccms.contentspec.rest.RESTManager;
+import org.jboss.pressgang.ccms.contentspec.sort.NullNumberSort;
+import org.jboss.pressgang.ccms.contentspec.sort.SpecTopicLineNumberComparator;
+import org.jboss.pressgang.ccms.contentspec.utils.logging.ErrorLoggerManager;
+
+/**
+ * Tests the ContentSpecValidator checks that don't need to download any topics.
+ */
+public class ContentSpecValidatorTest extends TestCase {
+    private static final int SPECS = 500;
+    // Topic IDs that are in the same bucket of a default sized HashMap, so the order they are added in matters
+    private static final int[] TOPIC_IDS = {1, 17, 33, 2, 18};
+    private static final String[] REVISIONS = {"", ", rev: 1", ", rev: 2"};
+
+    /**
+     * The original implementation of checkTopicsForInvalidDuplicates, that compared every topic against every other
+     * topic, that the current implementation must match.
+     */
+    private static List<String> createInvalidDuplicateMessagesWithNestedLoop(final List<SpecTopic> allSpecTopics) {
+        final Map<Integer, Map<Integer, Set<SpecTopic>>> invalidSpecTopics = new HashMap<Integer, Map<Integer, Set<SpecTopic>>>();
+        for (final SpecTopic specTopic1 : allSpecTopics) {
+            if (!specTopic1.isTopicAnExistingTopic()) continue;
+
+            for (final SpecTopic specTopic2 : allSpecTopics) {
+                if (specTopic1 == specTopic2 || !specTopic2.isTopicAnExistingTopic() || !specTopic1.getDBId().equals(specTopic2.getDBId()))
+                    continue;
+
+                if (specTopic1.getRevision() == null && specTopic2.getRevision() != null || specTopic1.getRevision() != null &&
+                        specTopic2.getRevision() == null || specTopic1.getRevision() != null && !specTopic1.getRevision().equals(
+                        specTopic2.getRevision())) {
+                    if (!invalidSpecTopics.containsKey(specTopic1.getDBId())) {
+                        invalidSpecTopics.put(specTopic1.getDBId(), new HashMap<Integer, Set<SpecTopic>>());
+                    }
+
+                    final Map<Integer, Set<SpecTopic>> revisionsToSpecTopic = invalidSpecTopics.get(specTopic1.getDBId());
+                    if (!revisionsToSpecTopic.containsKey(specTopic1.getRevision())) {
+                        revisionsToSpecTopic.put(specTopic1.getRevision(), new HashSet<SpecTopic>());
+                    }
+
+                    revisionsToSpecTopic.get(specTopic1.getRevision()).add(specTopic1);
+                }
+            }
+        }
+
+        final List<String> messages = new ArrayList<String>();
+        for (final Map.Entry<Integer, Map<Integer, Set<SpecTopic>>> entry : invalidSpecTopics.entrySet()) {
+            final Map<Integer, Set<SpecTopic>> revisionsToSpecTopic = entry.getValue();
+            final List<Integer> revisions = new ArrayList<Integer>(revisionsToSpecTopic.keySet());
+            Collections.sort(revisions, new NullNumberSort<Integer>());
+
+            final StringBuilder message = new StringBuilder(format(ProcessorConstants.ERROR_TOPIC_WITH_DIFFERENT_REVS_MSG, entry.getKey()));
+            for (final Integer revision : revisions) {
+                final List<SpecTopic> specTopics = new ArrayList<SpecTopic>(revisionsToSpecTopic.get(revision));
+                Collections.sort(specTopics, new SpecTopicLineNumberComparator());
+
+                final StringBuilder lineNumbers = new StringBuilder();
+                for (int i = 0; i < specTopics.size(); i++) {
+                    if (i == specTopics.size() - 1 && i > 0) {
+                        lineNumbers.append(" and ");
+                    } else if (lineNumbers.length() != 0) {
+                        lineNumbers.append(", ");
+                    }
+                    lineNumbers.append(specTopics.get(i).getLineNumber());
+                }
+
+                message.append(format(ProcessorConstants.CSLINE_MSG, format(ProcessorConstants.ERROR_TOPIC_WITH_DIFFERENT_REVS_REV_MSG,
+                        (revision == null ? "Latest" : revision), lineNumbers)));
+            }
+            messages.add(message.toString());
+        }
+        return messages;
+    }
+
+    public void testInvalidDuplicateMessage() throws Exception {
+        final String spec = "Title = Spec\nProduct = Product\nVersion = 1\n\nChapter: Chapter 1\n  Topic A [10, rev: 2]\n"
+                + "  Topic B [10, rev: 1]\n  Topic C [11]\n  Topic D [10, rev: 2]\n  Topic E [10, rev: 2]\n";
+
+        final List<String> messages = ContentSpecValidator.createInvalidDuplicateMessages(parse(spec).getContentSpec().getSpecTopics());
+        assertEquals(1, messages.size());
+        assertEquals(format(ProcessorConstants.ERROR_TOPIC_WITH_DIFFERENT_REVS_MSG, 10)
+                + format(ProcessorConstants.CSLINE_MSG, "Revision 1, lines(s) 7.")
+                + format(ProcessorConstants.CSLINE_MSG, "Revision 2, lines(s) 6, 9 and 10."), messages.get(0));
+    }
+
+    public void testNoInvalidDuplicates() throws Exception {
+        final String spec = "Title = Spec\nProduct = Product\nVersion = 1\n\nChapter: Chapter 1\n  Topic A [10, rev: 2]\n"
+                + "  Topic B [10, rev: 2]\n  Topic C [11]\n  Topic D [11]\n  Topic E [N1, Concept]\n";
+
+        assertTrue(ContentSpecValidator.createInvalidDuplicateMessages(parse(spec).getContentSpec().getSpecTopics()).isEmpty());
+    }
+
+    public void testInvalidDuplicateMessagesMatchNestedLoopImplementation() throws Exception {
+        final Random random = new Random(42);
+        for (int i = 0; i < SPECS; i++) {
+            final StringBuilder spec = new StringBuilder("Title = Spec\nProduct = Product\nVersion = 1\n\nChapter: Chapter 1\n");
+            final int topics = 1 + random.nextInt(12);
+            for (int j = 0; j < topics; j++) {
+                spec.append("  Topic ").append(j).append(" [").append(TOPIC_IDS[random.nextInt(TOPIC_IDS.length)])
+                        .append(REVISIONS[random.nextInt(REVISIONS.length)]).append("]\n");
+            }
+
+            final List<SpecTopic> specTopics = parse(spec.toString()).getContentSpec().getSpecTopics();
+            assertEquals("Spec: " + spec, createInvalidDuplicateMessagesWithNestedLoop(specTopics),
+                    ContentSpecValidator.createInvalidDuplicateMessages(specTopics));
+        }
+    }
+
+    private static ContentSpecParser parse(final String spec) throws Exception {
+        final ContentSpecParser parser = new ContentSpecParser(new ErrorLoggerManager(), new RESTManager("http://localhost:8080/TopicIndex/"));
+        assertTrue(parser.parse(spec, "user"));
+        return parser;
+    }
+}
@@ -0,0 +1,203 @@
+package com.redhat.contentspec.processor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A loopback HTTP server that answers the REST v1 topic requests for a set of topics, after a fixed delay, so that tests can
+ * check how many requests are made and how many of them are made at once. The translations of the topics are always
+ * included, as if they had been expanded.
+ */
+public class LocalTopicServer {
+    /**
+     * The locale of the translation that each topic has.
+     */
+    public static final String TRANSLATION_LOCALE = "de-DE";
+    private static final String REST_VERSION_PREFIX = "/1/";
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final long latency;
+    private final Map<Integer, Integer> topicRevisions = new ConcurrentHashMap<Integer, Integer>();
+    private final List<String> requestPaths = Collections.synchronizedList(new ArrayList<String>());
+    private final AtomicInteger activeRequestCount = new AtomicInteger(0);
+    private final AtomicInteger maxActiveRequestCount = new AtomicInteger(0);
+
+    private LocalTopicServer(final long latency) throws IOException {
+        this.latency = latency;
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                handleRequest(exchange);
+            }
+        });
+        // Handle requests concurrently, so that the delay of one request doesn't hold up the others
+        server.setExecutor(executor);
+    }
+
+    /**
+     * Starts a new server on a free loopback port.
+     *
+     * @param latency The number of milliseconds to wait before answering each request.
+     * @return The started server.
+     * @throws IOException Thrown if the server can't be started.
+     */
+    public static LocalTopicServer start(final long latency) throws IOException {
+        final LocalTopicServer server = new LocalTopicServer(latency);
+        server.server.start();
+        return server;
+    }
+
+    private void handleRequest(final HttpExchange exchange) throws IOException {
+        final String path = URLDecoder.decode(exchange.getRequestURI().getRawPath(), "UTF-8");
+        requestPaths.add(path);
+        waitForLatency();
+
+        final String response = getResponse(path);
+        if (response == null) {
+            exchange.sendResponseHeaders(404, -1);
+        } else {
+            final byte[] body = response.getBytes("UTF-8");
+            exchange.getResponseHeaders().add("Content-Type", "application/json; charset=UTF-8");
+            exchange.sendResponseHeaders(200, body.length);
+            final OutputStream os = exchange.getResponseBody();
+            os.write(body);
+            os.close();
+        }
+        exchange.close();
+    }
+
+    /**
+     * Waits for the latency of a request. Only the wait is counted as the request being active, as the client can start its
+     * next request as soon as the response has been sent, before the handler of this request has returned.
+     */
+    private void waitForLatency() {
+        final int activeRequests = activeRequestCount.incrementAndGet();
+        try {
+            while (true) {
+                final int maxActiveRequests = maxActiveRequestCount.get();
+                if (activeRequests <= maxActiveRequests || maxActiveRequestCount.compareAndSet(maxActiveRequests, activeRequests)) break;
+            }
+            Thread.sleep(latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            activeRequestCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Builds the response for a REST v1 request path.
+     *
+     * @param path The decoded path that was requested.
+     * @return The JSON response, or null if there isn't a topic for the request.
+     */
+    private String getResponse(final String path) {
+        final int versionStart = path.indexOf(REST_VERSION_PREFIX);
+        if (versionStart == -1) return null;
+
+        final String[] segments = path.substring(versionStart + REST_VERSION_PREFIX.length()).split("/");
+        if (segments.length < 4 || !segments[1].equals("get") || !segments[2].equals("json")) return null;
+
+        try {
+            if (segments[0].equals("topic")) {
+                // topic/get/json/{id} or topic/get/json/{id}/r/{rev}
+                final Integer revision = segments.length >= 6 && segments[4].equals("r") ? Integer.valueOf(segments[5]) : null;
+                return toJSON(Integer.valueOf(segments[3]), revision);
+            } else if (segments[0].equals("topics") && segments[3].startsWith("query;topicIds=")) {
+                // topics/get/json/query;topicIds=1,2,3
+                final StringBuilder json = new StringBuilder("{\"expandKey\":\"topics\",\"items\":[");
+                int size = 0;
+                for (final String topicId : segments[3].substring("query;topicIds=".length()).split(",")) {
+                    final String topic = toJSON(Integer.valueOf(topicId.trim()), null);
+                    if (topic != null) {
+                        json.append(size++ == 0 ? "" : ",").append("{\"item\":").append(topic).append(",\"state\":0}");
+                    }
+                }
+                return json.append("],\"size\":").append(size).append("}").toString();
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        return null;
+    }
+
+    private String toJSON(final Integer topicId, final Integer revision) {
+        final Integer latestRevision = topicRevisions.get(topicId);
+        if (latestRevision == null || revision != null && revision > latestRevision) return null;
+
+        final int topicRevision = revision == null ? latestRevision : revision;
+        final String title = "Topic " + topicId;
+        final String translatedTopic = "{\"id\":" + topicId + ",\"topicId\":" + topicId + ",\"topicRevision\":" + topicRevision +
+                ",\"title\":\"" + title + "\",\"locale\":\"" + TRANSLATION_LOCALE + "\"}";
+        return "{\"id\":" + topicId + ",\"revision\":" + topicRevision + ",\"title\":\"" + title + "\",\"locale\":\"en-US\",\"xml\":"
+                + "\"<section><title>" + title + "</title><para></para></section>\",\"translatedTopics_OTM\":{\"size\":1,\"expandKey\":"
+                + "\"translatedTopics\",\"items\":[{\"item\":" + translatedTopic + ",\"state\":0}]}}";
+    }
+
+    /**
+     * Adds a topic to the server, or changes the latest revision of a topic that has already been added. The topic is titled
+     * "Topic {id}", and each revision of it has a translation for {@link #TRANSLATION_LOCALE}.
+     *
+     * @param topicId  The id of the topic.
+     * @param revision The latest revision of the topic.
+     */
+    public void addTopic(final int topicId, final int revision) {
+        topicRevisions.put(topicId, revision);
+    }
+
+    /**
+     * @return The URL to use to connect to the server.
+     */
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/TopicIndex/seam/resource/rest";
+    }
+
+    /**
+     * @return The decoded paths of the requests the server has received, in the order they were received.
+     */
+    public List<String> getRequestPaths() {
+        synchronized (requestPaths) {
+            return new ArrayList<String>(requestPaths);
+        }
+    }
+
+    /**
+     * Clears the recorded requests, so that the requests made by the next run can be checked on their own.
+     */
+    public void clearRequests() {
+        requestPaths.clear();
+        maxActiveRequestCount.set(0);
+    }
+
+    /**
+     * @return The largest number of requests that the server was handling at the same time.
+     */
+    public int getMaxActiveRequestCount() {
+        return maxActiveRequestCount.get();
+    }
+
+    /**
+     * Stops the server.
+     */
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,141 @@
+package com.redhat.contentspec.processor;
+
+import com.redhat.contentspec.processor.structures.ParseResult;
+import com.redhat.contentspec.processor.structures.ProcessingOptions;
+import com.redhat.contentspec.processor.utils.PerThreadReaders;
+import junit.framework.TestCase;
+import org.jboss.pressgang.ccms.contentspec.rest.RESTManager;
+import org.jboss.pressgang.ccms.contentspec.utils.logging.ErrorLoggerManager;
+import org.jboss.pressgang.ccms.rest.v1.entities.RESTTopicV1;
+
+/**
+ * Tests that the topics a Content Specification references are downloaded concurrently from a local REST server, where each
+ * request takes a fixed amount of time.
+ */
+public class TopicDownloadTest extends TestCase {
+    private static final long LATENCY = 150;
+    private static final int TOPIC_COUNT = 16;
+    private static final int DOWNLOAD_THREADS = 8;
+    private static final String TOPIC_PATH = "/1/topic/get/json/";
+    private static final String TOPICS_QUERY_PATH = "/1/topics/get/json/query;topicIds=";
+
+    private LocalTopicServer server;
+
+    @Override
+    protected void setUp() throws Exception {
+        server = LocalTopicServer.start(LATENCY);
+        for (int topicId = 1; topicId <= TOPIC_COUNT; topicId++) {
+            server.addTopic(topicId, 2);
+        }
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        server.stop();
+    }
+
+    public void testRevisionTopicsAreDownloadedConcurrently() throws Exception {
+        final String spec = createSpec(", rev: 1");
+
+        final long sequentialTime = validate(spec, 1);
+        assertEquals(1, server.getMaxActiveRequestCount());
+        assertEquals(TOPIC_COUNT, getTopicRequestCount());
+
+        server.clearRequests();
+        final long concurrentTime = validate(spec, DOWNLOAD_THREADS);
+        assertTrue(server.getMaxActiveRequestCount() > 1);
+        // Each topic is only downloaded once, as the validator uses the topics that were downloaded by the processor
+        assertEquals(TOPIC_COUNT, getTopicRequestCount());
+        assertTrue("Downloading with " + DOWNLOAD_THREADS + " threads took " + concurrentTime + "ms and with one thread took "
+                + sequentialTime + "ms", concurrentTime * 2 < sequentialTime);
+    }
+
+    public void testLatestTopicsAreOnlyDownloadedInBulk() throws Exception {
+        validate(createSpec(""), DOWNLOAD_THREADS);
+        assertEquals(1, server.getRequestPaths().size());
+        assertTrue(server.getRequestPaths().get(0).contains(TOPICS_QUERY_PATH));
+    }
+
+    public void testValidatorDownloadsTopicsConcurrently() throws Exception {
+        final ParseResult parseResult = new ContentSpecParser(new ErrorLoggerManager(), new RESTManager(server.getUrl()))
+                .parseContentSpec(createSpec(""), "test", ContentSpecParser.ParsingMode.EITHER, false);
+        assertTrue(parseResult.isSuccessful());
+
+        final long sequentialTime = postValidate(parseResult, 1);
+        assertEquals(1, server.getMaxActiveRequestCount());
+        assertEquals(TOPIC_COUNT, getTopicRequestCount());
+
+        server.clearRequests();
+        final long concurrentTime = postValidate(parseResult, DOWNLOAD_THREADS);
+        assertTrue(server.getMaxActiveRequestCount() > 1);
+        assertEquals(TOPIC_COUNT, getTopicRequestCount());
+        assertTrue("Downloading with " + DOWNLOAD_THREADS + " threads took " + concurrentTime + "ms and with one thread took "
+                + sequentialTime + "ms", concurrentTime * 2 < sequentialTime);
+    }
+
+    /**
+     * Runs the second validation pass, that downloads the topics to validate against, on a parsed Content Specification.
+     *
+     * @param parseResult     The parsed Content Specification.
+     * @param downloadThreads The number of topics to download at once.
+     * @return The number of milliseconds the validation took.
+     */
+    private long postValidate(final ParseResult parseResult, final int downloadThreads) throws Exception {
+        final ProcessingOptions processingOptions = new ProcessingOptions();
+        processingOptions.setValidating(true);
+        processingOptions.setDownloadThreads(downloadThreads);
+        final ContentSpecValidator<RESTTopicV1> validator = new ContentSpecValidator<RESTTopicV1>(RESTTopicV1.class,
+                new ErrorLoggerManager(), new RESTManager(server.getUrl()), processingOptions);
+        validator.setDownloadReaders(new PerThreadReaders(server.getUrl()));
+        final long start = System.currentTimeMillis();
+        assertTrue(validator.postValidateContentSpec(parseResult.getContentSpec()));
+        return System.currentTimeMillis() - start;
+    }
+
+    /**
+     * Validates a Content Specification against the server.
+     *
+     * @param spec            The Content Specification to validate.
+     * @param downloadThreads The number of topics to download at once.
+     * @return The number of milliseconds the validation took.
+     */
+    private long validate(final String spec, final int downloadThreads) throws Exception {
+        final ProcessingOptions processingOptions = new ProcessingOptions();
+        processingOptions.setValidating(true);
+        processingOptions.setOffline(true);
+        processingOptions.setDownloadThreads(downloadThreads);
+        final ContentSpecProcessor processor = new ContentSpecProcessor(server.getUrl(), new ErrorLoggerManager(), processingOptions);
+        try {
+            final long start = System.currentTimeMillis();
+            assertTrue(processor.processContentSpec(spec, "test", ContentSpecParser.ParsingMode.EITHER));
+            return System.currentTimeMillis() - start;
+        } finally {
+            processor.shutdown();
+        }
+    }
+
+    private String createSpec(final String revision) {
+        final StringBuilder spec = new StringBuilder();
+        spec.append("Title = Download Test\n");
+        spec.append("Product = PressGang CCMS\n");
+        spec.append("Version = 1.0\n");
+        spec.append("DTD = Docbook 4.5\n");
+        spec.append("Copyright Holder = Red Hat\n");
+        spec.append("\n");
+        spec.append("Chapter: Topics\n");
+        for (int topicId = 1; topicId <= TOPIC_COUNT; topicId++) {
+            spec.append("  Topic ").append(topicId).append(" [").append(topicId).append(revision).append("]\n");
+        }
+        return spec.toString();
+    }
+
+    private int getTopicRequestCount() {
+        int count = 0;
+        for (final String path : server.getRequestPaths()) {
+            if (path.contains(TOPIC_PATH)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
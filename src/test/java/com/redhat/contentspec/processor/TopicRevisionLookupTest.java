@@ -0,0 +1,154 @@
+package com.redhat.contentspec.processor;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.redhat.contentspec.processor.structures.ProcessingOptions;
+import com.redhat.contentspec.processor.utils.TopicRevisionCache;
+import com.redhat.contentspec.processor.utils.TopicRevisionLookup;
+import junit.framework.TestCase;
+import org.apache.log4j.Logger;
+import org.jboss.pressgang.ccms.contentspec.utils.logging.ErrorLoggerManager;
+
+/**
+ * Tests how the latest topics are downloaded from a local REST server when a topic cache file is used, with and without a
+ * topic revision lookup.
+ */
+public class TopicRevisionLookupTest extends TestCase {
+    private static final Logger LOG = Logger.getLogger(TopicRevisionLookupTest.class);
+    private static final int TOPIC_COUNT = 10;
+    private static final String TOPIC_QUERY_PATH = "/1/topics/get/json/query;topicIds=";
+    private static final String TOPIC_PATH = "/1/topic/get/json/";
+
+    private File cacheFile;
+    private LocalTopicServer server;
+    private final Map<Integer, Integer> latestRevisions = new HashMap<Integer, Integer>();
+
+    @Override
+    protected void setUp() throws Exception {
+        cacheFile = File.createTempFile("topic-cache", ".bin");
+        cacheFile.delete();
+        server = LocalTopicServer.start(0);
+        for (int topicId = 1; topicId <= TOPIC_COUNT; topicId++) {
+            addTopic(topicId, 1);
+        }
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        server.stop();
+        cacheFile.delete();
+        new File(cacheFile.getPath() + ".tmp").delete();
+        new File(cacheFile.getPath() + ".lock").delete();
+    }
+
+    public void testLatestTopicsAreDownloadedOnceWithoutALookup() throws Exception {
+        assertTrue(validate(null));
+        final List<String> topicQueries = getTopicQueries();
+        assertEquals(1, topicQueries.size());
+        assertEquals(TOPIC_COUNT, topicQueries.get(0).split(",").length);
+        assertTopicsNotDownloadedOneByOne();
+
+        // The topics are cached at the revision that was downloaded
+        final TopicRevisionCache cache = new TopicRevisionCache(LOG, cacheFile, Long.MAX_VALUE);
+        try {
+            for (int topicId = 1; topicId <= TOPIC_COUNT; topicId++) {
+                assertTrue(cache.containsTopic(topicId, 1, null));
+            }
+        } finally {
+            cache.close();
+        }
+
+        // Without a lookup the current revisions aren't known, so every topic is downloaded again in the same single request
+        server.clearRequests();
+        assertTrue(validate(null));
+        assertEquals(topicQueries, getTopicQueries());
+        assertTopicsNotDownloadedOneByOne();
+    }
+
+    public void testUnchangedTopicsAreNotDownloadedAgainWithALookup() throws Exception {
+        final TopicRevisionLookup lookup = new TopicRevisionLookup() {
+            @Override
+            public Map<Integer, Integer> getLatestRevisions(final List<Integer> topicIds) {
+                return new HashMap<Integer, Integer>(latestRevisions);
+            }
+        };
+
+        assertTrue(validate(lookup));
+        final List<String> topicQueries = getTopicQueries();
+        assertEquals(1, topicQueries.size());
+
+        // Every topic is read from the cache
+        server.clearRequests();
+        assertTrue(validate(lookup));
+        assertTrue(server.getRequestPaths().toString(), getTopicQueries().isEmpty());
+        assertTopicsNotDownloadedOneByOne();
+
+        // Only the topic that has changed is downloaded again
+        addTopic(3, 2);
+        server.clearRequests();
+        assertTrue(validate(lookup));
+        final List<String> changedTopicQueries = getTopicQueries();
+        assertEquals(1, changedTopicQueries.size());
+        assertEquals("3", changedTopicQueries.get(0));
+        assertTopicsNotDownloadedOneByOne();
+    }
+
+    private void addTopic(final int topicId, final int revision) {
+        server.addTopic(topicId, revision);
+        latestRevisions.put(topicId, revision);
+    }
+
+    private boolean validate(final TopicRevisionLookup lookup) throws Exception {
+        final ProcessingOptions processingOptions = new ProcessingOptions();
+        processingOptions.setValidating(true);
+        processingOptions.setOffline(true);
+        processingOptions.setTopicCacheFile(cacheFile.getPath());
+        final ContentSpecProcessor processor = new ContentSpecProcessor(server.getUrl(), new ErrorLoggerManager(), processingOptions);
+        processor.setTopicRevisionLookup(lookup);
+        try {
+            return processor.processContentSpec(createSpec(), "test", ContentSpecParser.ParsingMode.EITHER);
+        } finally {
+            // Closes the topic cache, so that the next run can write to it
+            processor.shutdown();
+        }
+    }
+
+    private String createSpec() {
+        final StringBuilder spec = new StringBuilder();
+        spec.append("Title = Revision Lookup Test\n");
+        spec.append("Product = PressGang CCMS\n");
+        spec.append("Version = 1.0\n");
+        spec.append("DTD = Docbook 4.5\n");
+        spec.append("Copyright Holder = Red Hat\n");
+        spec.append("\n");
+        spec.append("Chapter: Topics\n");
+        for (int topicId = 1; topicId <= TOPIC_COUNT; topicId++) {
+            spec.append("  Topic ").append(topicId).append(" [").append(topicId).append("]\n");
+        }
+        return spec.toString();
+    }
+
+    /**
+     * @return The topic ID's that were requested by each of the topic queries the server received.
+     */
+    private List<String> getTopicQueries() {
+        final List<String> topicQueries = new ArrayList<String>();
+        for (final String path : server.getRequestPaths()) {
+            final int index = path.indexOf(TOPIC_QUERY_PATH);
+            if (index != -1) {
+                topicQueries.add(path.substring(index + TOPIC_QUERY_PATH.length()));
+            }
+        }
+        return topicQueries;
+    }
+
+    private void assertTopicsNotDownloadedOneByOne() {
+        for (final String path : server.getRequestPaths()) {
+            assertFalse(path, path.contains(TOPIC_PATH));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.redhat.contentspec.processor.enums;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import com.redhat.contentspec.processor.constants.ProcessorConstants;
+import junit.framework.TestCase;
+
+/**
+ * Tests that MetaDataKey finds the same keys as the metadata regular expressions that it replaced.
+ */
+public class MetaDataKeyTest extends TestCase {
+    private static final int ITERATIONS = 100000;
+    private static final String[] KEY_FRAGMENTS = {"Bug", "links", "BZ", "Assignee", "Survey", "Links", "Revision", "History", "Legal",
+            "Notice", "Brand", "Logo", "Book", "Version", "Copyright", "Holder", "Year", "Translation", "Locale", "Output", "Style",
+            "Inline", "Injection", "Publican.cfg", "Title", "Subtitle", "Spaces", "Debug", "DTD", "Type", "x"};
+    private static final String[] SEPARATORS = {"", " ", " ", "  ", "\t"};
+
+    /**
+     * The metadata regular expressions in the order that they were checked, along with the key that each one matched.
+     */
+    private static final Pattern[] PATTERNS = {ProcessorConstants.CHECKSUM_PATTERN, ProcessorConstants.SUBTITLE_PATTERN,
+            ProcessorConstants.EDITION_PATTERN, ProcessorConstants.PUBSNUMBER_PATTERN, ProcessorConstants.PRODUCT_PATTERN,
+            ProcessorConstants.ABSTRACT_PATTERN, ProcessorConstants.COPYRIGHT_HOLDER_PATTERN, ProcessorConstants.COPYRIGHT_YEAR_PATTERN,
+            ProcessorConstants.VERSION_PATTERN, ProcessorConstants.BRAND_PATTERN, ProcessorConstants.BUG_LINKS_PATTERN,
+            ProcessorConstants.BUGZILLA_PRODUCT_PATTERN, ProcessorConstants.BUGZILLA_COMPONENT_PATTERN,
+            ProcessorConstants.BUGZILLA_VERSION_PATTERN, ProcessorConstants.BUGZILLA_KEYWORDS_PATTERN,
+            ProcessorConstants.BUGZILLA_ASSIGNEE_PATTERN, ProcessorConstants.BOOK_TYPE_PATTERN, ProcessorConstants.BRAND_LOGO_PATTERN,
+            ProcessorConstants.REV_HISTORY_PATTERN, ProcessorConstants.FEEDBACK_PATTERN, ProcessorConstants.LEGAL_NOTICE_PATTERN,
+            ProcessorConstants.MAVEN_ARTIFACT_ID_PATTERN, ProcessorConstants.MAVEN_GROUP_ID_PATTERN,
+            ProcessorConstants.BOOK_VERSION_PATTERN, ProcessorConstants.SURVEY_LINK_PATTERN, ProcessorConstants.PUBLICAN_CFG_PATTERN,
+            ProcessorConstants.INLINE_INJECTION_PATTERN, ProcessorConstants.OUTPUT_STYLE_PATTERN,
+            Pattern.compile("^TRANSLATION LOCALE[ ]*((=.*)|$)"), ProcessorConstants.SPEC_REVISION_PATTERN,
+            ProcessorConstants.SPACES_PATTERN, ProcessorConstants.DEBUG_PATTERN, ProcessorConstants.DTD_PATTERN};
+    private static final MetaDataKey[] PATTERN_KEYS = {MetaDataKey.CHECKSUM, MetaDataKey.SUBTITLE, MetaDataKey.EDITION,
+            MetaDataKey.PUBSNUMBER, MetaDataKey.PRODUCT, MetaDataKey.ABSTRACT, MetaDataKey.COPYRIGHT_HOLDER, MetaDataKey.COPYRIGHT_YEAR,
+            MetaDataKey.VERSION, MetaDataKey.BRAND, MetaDataKey.BUG_LINKS, MetaDataKey.BUGZILLA_PRODUCT, MetaDataKey.BUGZILLA_COMPONENT,
+            MetaDataKey.BUGZILLA_VERSION, MetaDataKey.BUGZILLA_KEYWORDS, MetaDataKey.BUGZILLA_ASSIGNEE, MetaDataKey.BOOK_TYPE,
+            MetaDataKey.BRAND_LOGO, MetaDataKey.REVISION_HISTORY, MetaDataKey.FEEDBACK, MetaDataKey.LEGAL_NOTICE,
+            MetaDataKey.MAVEN_ARTIFACT_ID, MetaDataKey.MAVEN_GROUP_ID, MetaDataKey.BOOK_VERSION, MetaDataKey.SURVEY_LINKS,
+            MetaDataKey.PUBLICAN_CFG, MetaDataKey.INLINE_INJECTION, MetaDataKey.OUTPUT_STYLE, MetaDataKey.TRANSLATION_LOCALE,
+            MetaDataKey.SPEC_REVISION, MetaDataKey.SPACES, MetaDataKey.DEBUG, MetaDataKey.DTD};
+
+    /**
+     * Finds the key of a metadata line using the regular expressions that MetaDataKey replaced.
+     */
+    private static MetaDataKey getMetaDataKeyWithRegex(final String input) {
+        final String upperCaseInput = input.toUpperCase();
+        for (int i = 0; i < PATTERNS.length; i++) {
+            if (PATTERNS[i].matcher(upperCaseInput).matches()) return PATTERN_KEYS[i];
+        }
+        return null;
+    }
+
+    public void testEveryKeyHasAPattern() {
+        assertEquals(MetaDataKey.values().length, PATTERN_KEYS.length);
+    }
+
+    public void testGetMetaDataKey() {
+        assertEquals(MetaDataKey.BUG_LINKS, MetaDataKey.getMetaDataKey("Bug Links"));
+        assertEquals(MetaDataKey.BUG_LINKS, MetaDataKey.getMetaDataKey("BugLinks"));
+        assertEquals(MetaDataKey.ABSTRACT, MetaDataKey.getMetaDataKey("description"));
+        assertEquals(MetaDataKey.ABSTRACT, MetaDataKey.getMetaDataKey("Abstract"));
+        assertEquals(MetaDataKey.REVISION_HISTORY, MetaDataKey.getMetaDataKey("Revision   History"));
+        assertEquals(MetaDataKey.PUBLICAN_CFG, MetaDataKey.getMetaDataKey("publican.cfg"));
+        assertEquals(MetaDataKey.BOOK_VERSION, MetaDataKey.getMetaDataKey("Book\tVersion"));
+        assertNull(MetaDataKey.getMetaDataKey("Title"));
+        assertNull(MetaDataKey.getMetaDataKey("Brand Logos"));
+        assertNull(MetaDataKey.getMetaDataKey(null));
+    }
+
+    public void testGetMetaDataKeyMatchesRegexImplementation() {
+        final Random random = new Random(42);
+        for (int i = 0; i < ITERATIONS; i++) {
+            final int fragments = 1 + random.nextInt(3);
+            final StringBuilder key = new StringBuilder();
+            for (int j = 0; j < fragments; j++) {
+                if (j > 0) {
+                    key.append(SEPARATORS[random.nextInt(SEPARATORS.length)]);
+                }
+                final String fragment = KEY_FRAGMENTS[random.nextInt(KEY_FRAGMENTS.length)];
+                key.append(random.nextBoolean() ? fragment : fragment.toUpperCase());
+            }
+
+            final String input = key + " = Value";
+            final MetaDataKey expected = getMetaDataKeyWithRegex(input);
+            final MetaDataKey actual = MetaDataKey.getMetaDataKey(key.toString());
+            if (expected != null) {
+                assertEquals("Input: " + input, expected, actual);
+            } else if (actual != null) {
+                // Whitespace inside of a key is normalised, so keys that only differ by their whitespace are now accepted
+                final String normalisedKey = key.toString().replaceAll("\\s+", " ");
+                assertFalse("Input: " + input, normalisedKey.equals(key.toString()));
+                assertEquals("Input: " + input, getMetaDataKeyWithRegex(normalisedKey + " = Value"), actual);
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.redhat.contentspec.processor.enums;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+import org.jboss.pressgang.ccms.contentspec.constants.CSConstants;
+
+/**
+ * Tests that TopicIdKind classifies topic IDs in the same way as the topic ID regular expressions in CSConstants.
+ */
+public class TopicIdKindTest extends TestCase {
+    private static final int ITERATIONS = 100000;
+    private static final String ID_ALPHABET = "NCX0123456789x -";
+
+    /**
+     * Classifies a topic ID using the regular expressions that TopicIdKind replaced.
+     */
+    private static TopicIdKind classifyWithRegex(final String id) {
+        if (id.matches(CSConstants.NEW_TOPIC_ID_REGEX)) {
+            return TopicIdKind.NEW;
+        } else if (id.matches(CSConstants.EXISTING_TOPIC_ID_REGEX)) {
+            return TopicIdKind.EXISTING;
+        } else if (id.matches(CSConstants.CLONED_TOPIC_ID_REGEX)) {
+            return TopicIdKind.CLONED;
+        } else if (id.matches(CSConstants.DUPLICATE_TOPIC_ID_REGEX)) {
+            return TopicIdKind.DUPLICATE;
+        } else if (id.matches(CSConstants.CLONED_DUPLICATE_TOPIC_ID_REGEX)) {
+            return TopicIdKind.CLONED_DUPLICATE;
+        } else {
+            return TopicIdKind.INVALID;
+        }
+    }
+
+    /**
+     * Gets the numeric part of a topic ID by removing the prefix, in the same way as the original substring calls.
+     */
+    private static Integer getIdNumberWithRegex(final String id) {
+        if (classifyWithRegex(id) == TopicIdKind.INVALID) return null;
+
+        final String number = id.replaceFirst("^(XC|N|C|X)", "");
+        return number.isEmpty() ? null : Integer.parseInt(number);
+    }
+
+    public void testClassify() {
+        assertEquals(TopicIdKind.NEW, TopicIdKind.classify("N"));
+        assertEquals(TopicIdKind.NEW, TopicIdKind.classify("N12"));
+        assertEquals(TopicIdKind.EXISTING, TopicIdKind.classify("1245"));
+        assertEquals(TopicIdKind.CLONED, TopicIdKind.classify("C1245"));
+        assertEquals(TopicIdKind.DUPLICATE, TopicIdKind.classify("X1"));
+        assertEquals(TopicIdKind.CLONED_DUPLICATE, TopicIdKind.classify("XC1245"));
+        assertEquals(TopicIdKind.INVALID, TopicIdKind.classify("C"));
+        assertEquals(TopicIdKind.INVALID, TopicIdKind.classify("X"));
+        assertEquals(TopicIdKind.INVALID, TopicIdKind.classify("XC"));
+        assertEquals(TopicIdKind.INVALID, TopicIdKind.classify("NC1"));
+        assertEquals(TopicIdKind.INVALID, TopicIdKind.classify(""));
+        assertEquals(TopicIdKind.INVALID, TopicIdKind.classify(null));
+    }
+
+    public void testGetIdNumber() {
+        assertNull(TopicIdKind.getIdNumber("N"));
+        assertEquals(Integer.valueOf(12), TopicIdKind.getIdNumber("N12"));
+        assertEquals(Integer.valueOf(1245), TopicIdKind.getIdNumber("1245"));
+        assertEquals(Integer.valueOf(1245), TopicIdKind.getIdNumber("C1245"));
+        assertEquals(Integer.valueOf(1), TopicIdKind.getIdNumber("X1"));
+        assertEquals(Integer.valueOf(1245), TopicIdKind.getIdNumber("XC1245"));
+        assertNull(TopicIdKind.getIdNumber("C"));
+        assertNull(TopicIdKind.getIdNumber("Topic"));
+    }
+
+    public void testClassifyMatchesRegexImplementation() {
+        final Random random = new Random(42);
+        for (int i = 0; i < ITERATIONS; i++) {
+            final int length = random.nextInt(8);
+            final StringBuilder input = new StringBuilder(length);
+            for (int j = 0; j < length; j++) {
+                // Weight the first chars towards the prefixes, so that most of the IDs are close to being valid
+                final int bound = j < 2 && random.nextBoolean() ? 3 : ID_ALPHABET.length();
+                input.append(ID_ALPHABET.charAt(random.nextInt(bound)));
+            }
+
+            final String id = input.toString();
+            assertEquals("ID: " + id, classifyWithRegex(id), TopicIdKind.classify(id));
+            assertEquals("ID: " + id, getIdNumberWithRegex(id), TopicIdKind.getIdNumber(id));
+        }
+    }
+}
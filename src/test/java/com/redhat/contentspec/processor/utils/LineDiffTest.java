@@ -0,0 +1,42 @@
+package com.redhat.contentspec.processor.utils;
+
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the LineDiff.
+ */
+public class LineDiffTest extends TestCase {
+
+    public void testUnchangedLinesMapToThemselves() {
+        final List<String> lines = Arrays.asList("a", "b", "c");
+        assertTrue(Arrays.equals(new int[]{0, 1, 2}, LineDiff.mapUnchangedLines(lines, lines)));
+    }
+
+    public void testLinesAfterAnInsertionAreShifted() {
+        final List<String> previousLines = Arrays.asList("a", "b", "c", "d");
+        final List<String> lines = Arrays.asList("a", "x", "y", "b", "c", "d");
+        assertTrue(Arrays.equals(new int[]{0, 3, 4, 5}, LineDiff.mapUnchangedLines(previousLines, lines)));
+    }
+
+    public void testDeletedAndChangedLinesAreNotMapped() {
+        final List<String> previousLines = Arrays.asList("a", "b", "c", "d", "e");
+        final List<String> lines = Arrays.asList("a", "c", "x", "e");
+        assertTrue(Arrays.equals(new int[]{0, -1, 1, -1, 3}, LineDiff.mapUnchangedLines(previousLines, lines)));
+    }
+
+    public void testSeparateEditsAreMapped() {
+        final List<String> previousLines = Arrays.asList("a", "b", "c", "d", "e", "f");
+        final List<String> lines = Arrays.asList("x", "a", "b", "d", "e", "y", "f");
+        assertTrue(Arrays.equals(new int[]{1, 2, -1, 3, 4, 6}, LineDiff.mapUnchangedLines(previousLines, lines)));
+    }
+
+    public void testTooManyEditsAreNotCompared() {
+        final List<String> previousLines = Arrays.asList("a", "b", "c");
+        final List<String> lines = Arrays.asList("x", "y", "z");
+        assertNull(LineDiff.mapUnchangedLines(previousLines, lines, 5));
+        assertTrue(Arrays.equals(new int[]{-1, -1, -1}, LineDiff.mapUnchangedLines(previousLines, lines, 6)));
+    }
+}
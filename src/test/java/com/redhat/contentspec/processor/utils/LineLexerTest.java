@@ -0,0 +1,115 @@
+package com.redhat.contentspec.processor.utils;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.redhat.contentspec.processor.constants.ProcessorConstants;
+import junit.framework.TestCase;
+import org.jboss.pressgang.ccms.contentspec.enums.LevelType;
+
+/**
+ * Tests that the LineLexer classifies lines in the same way as the regular expressions that it replaced.
+ */
+public class LineLexerTest extends TestCase {
+    private static final int ITERATIONS = 100000;
+    private static final String[] LINE_FRAGMENTS = {"Chapter", "SECTION", "part", "Process", "Appendix", "preFace", "CS", "cs", "Title",
+            " ", "  ", "\t", ":", "=", "#", "[", "]", "R", "l", "P", "t", "B", "x", ".", "_", "1", "-", "\u0085"};
+
+    private static final Pattern META_DATA_LINE_PATTERN = Pattern.compile("^\\w[\\w\\.\\s]+=.*");
+    private static final Pattern LEVEL_PATTERN = Pattern.compile(ProcessorConstants.LEVEL_REGEX);
+
+    /**
+     * Classifies a line using the checks and regular expressions that the lexer replaced.
+     */
+    private static LineLexer.TokenType lexWithRegex(final String line) {
+        final String input = line.trim();
+        if (input.equals("")) {
+            return LineLexer.TokenType.BLANK;
+        } else if (input.startsWith("#")) {
+            return LineLexer.TokenType.COMMENT;
+        } else if (META_DATA_LINE_PATTERN.matcher(input).matches()) {
+            return LineLexer.TokenType.METADATA;
+        } else if (getLevelTypeWithRegex(input) != null) {
+            return LineLexer.TokenType.LEVEL;
+        } else if (input.toUpperCase().matches("^CS[ ]*:.*")) {
+            return LineLexer.TokenType.CS_INCLUDE;
+        } else if (input.indexOf('[') == 0) {
+            return LineLexer.TokenType.BASE_OPTIONS;
+        } else {
+            return LineLexer.TokenType.TOPIC;
+        }
+    }
+
+    private static LevelType getLevelTypeWithRegex(final String line) {
+        final Matcher matcher = LEVEL_PATTERN.matcher(line.trim().toUpperCase(Locale.ENGLISH));
+        return matcher.find() ? LevelType.valueOf(matcher.group(1)) : null;
+    }
+
+    private static int countIndentation(final String line) {
+        int count = 0;
+        for (final char c : line.toCharArray()) {
+            if (Character.isWhitespace(c)) {
+                count++;
+            } else break;
+        }
+        return count;
+    }
+
+    private static boolean isContinuationLineWithRegex(final String line, final char startDelim) {
+        return line.trim().toUpperCase().matches("^\\" + startDelim + "[ ]*(R|L|P|T|B).*");
+    }
+
+    public void testLex() {
+        final LineLexer lexer = new LineLexer();
+        assertEquals(LineLexer.TokenType.BLANK, lexer.lex("   "));
+        assertEquals(LineLexer.TokenType.COMMENT, lexer.lex("  # Comment"));
+        assertEquals(LineLexer.TokenType.METADATA, lexer.lex("Title = A Title"));
+        assertEquals(LineLexer.TokenType.LEVEL, lexer.lex("  Section: A Section"));
+        assertEquals(LevelType.SECTION, lexer.getLevelType());
+        assertEquals(2, lexer.getIndentation());
+        assertEquals(LineLexer.TokenType.CS_INCLUDE, lexer.lex("CS: 10"));
+        assertEquals(LineLexer.TokenType.BASE_OPTIONS, lexer.lex("[condition = test]"));
+        assertEquals(LineLexer.TokenType.TOPIC, lexer.lex("    Topic [N1, Concept]"));
+        assertEquals(4, lexer.getContentStart());
+        assertEquals(23, lexer.getContentEnd());
+        assertNull(lexer.getLevelType());
+    }
+
+    public void testLexMatchesRegexImplementation() {
+        final Random random = new Random(42);
+        final LineLexer lexer = new LineLexer();
+        for (int i = 0; i < ITERATIONS; i++) {
+            final String line = createLine(random);
+            final LineLexer.TokenType expected = lexWithRegex(line);
+
+            assertEquals("Line: " + line, expected, lexer.lex(line));
+            assertEquals("Line: " + line, countIndentation(line), lexer.getIndentation());
+            assertEquals("Line: " + line, line.trim(), line.substring(lexer.getContentStart(), lexer.getContentEnd()));
+            assertEquals("Line: " + line, META_DATA_LINE_PATTERN.matcher(line.trim()).matches(), LineLexer.isMetaData(line));
+            assertEquals("Line: " + line, getLevelTypeWithRegex(line), LineLexer.getLevelType(line));
+            if (expected == LineLexer.TokenType.LEVEL) {
+                assertEquals("Line: " + line, getLevelTypeWithRegex(line), lexer.getLevelType());
+            }
+        }
+    }
+
+    public void testIsContinuationLineMatchesRegexImplementation() {
+        final Random random = new Random(42);
+        assertFalse(LineLexer.isContinuationLine(null, '['));
+        for (int i = 0; i < ITERATIONS; i++) {
+            final String line = (random.nextBoolean() ? "[" : "") + createLine(random);
+            assertEquals("Line: " + line, isContinuationLineWithRegex(line, '['), LineLexer.isContinuationLine(line, '['));
+        }
+    }
+
+    private static String createLine(final Random random) {
+        final int fragments = random.nextInt(7);
+        final StringBuilder line = new StringBuilder();
+        for (int j = 0; j < fragments; j++) {
+            line.append(LINE_FRAGMENTS[random.nextInt(LINE_FRAGMENTS.length)]);
+        }
+        return line.toString();
+    }
+}
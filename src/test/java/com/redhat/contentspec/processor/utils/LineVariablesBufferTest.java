@@ -0,0 +1,74 @@
+package com.redhat.contentspec.processor.utils;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+import org.jboss.pressgang.ccms.utils.common.StringUtilities;
+
+/**
+ * Tests the LineVariablesBuffer.
+ */
+public class LineVariablesBufferTest extends TestCase {
+    private static final int ITERATIONS = 50000;
+    private static final String ALPHABET = "[],\\ \rR:1\u2028";
+
+    public void testUnclosedSetIsDetected() {
+        final LineVariablesBuffer buffer = new LineVariablesBuffer("Title [R: 1, 2", '[', ']', ',');
+        assertTrue(buffer.hasVariables());
+        assertTrue(buffer.isUnclosed());
+
+        buffer.appendLine("  3]");
+        assertFalse(buffer.isUnclosed());
+        assertEquals("Title [R: 1, 2\n  3]", buffer.toString());
+    }
+
+    public void testTrailingSeparatorIsDetected() {
+        final LineVariablesBuffer buffer = new LineVariablesBuffer("Title [N1, Concept] [R: 1,", '[', ']', ',');
+        assertTrue(buffer.endsWithSeparator());
+
+        buffer.appendLine("  ");
+        assertTrue(buffer.endsWithSeparator());
+
+        buffer.appendLine("2]");
+        assertFalse(buffer.endsWithSeparator());
+        assertFalse(new LineVariablesBuffer("Title [N1] Escaped\\,", '[', ']', ',').endsWithSeparator());
+        assertFalse(new LineVariablesBuffer("Title", '[', ']', ',').hasVariables());
+    }
+
+    public void testMatchesRegexImplementation() {
+        final Random random = new Random(42);
+        for (int i = 0; i < ITERATIONS; i++) {
+            final String input = randomString(random);
+            final LineVariablesBuffer buffer = new LineVariablesBuffer(input, '[', ']', ',');
+            String expected = input;
+            assertState(expected, buffer);
+
+            final int lineCount = random.nextInt(4);
+            for (int j = 0; j < lineCount; j++) {
+                final String line = randomString(random);
+                buffer.appendLine(line);
+                expected = expected + "\n" + line;
+                assertState(expected, buffer);
+            }
+        }
+    }
+
+    private static void assertState(final String input, final LineVariablesBuffer buffer) {
+        final int lastStartDelimPos = StringUtilities.lastIndexOf(input, '[');
+        final int lastEndDelimPos = StringUtilities.lastIndexOf(input, ']');
+
+        assertEquals("Input: " + input, input, buffer.toString());
+        assertEquals("Input: " + input, lastStartDelimPos != -1, buffer.hasVariables());
+        assertEquals("Input: " + input, lastEndDelimPos < lastStartDelimPos, buffer.isUnclosed());
+        assertEquals("Input: " + input, input.trim().matches("(.|\n|\r\n)*(?<!\\\\),$"), buffer.endsWithSeparator());
+    }
+
+    private static String randomString(final Random random) {
+        final int length = random.nextInt(8);
+        final StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,121 @@
+package com.redhat.contentspec.processor.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the LookaheadLineReader.
+ */
+public class LookaheadLineReaderTest extends TestCase {
+
+    public void testPeekAndPoll() throws IOException {
+        final LookaheadLineReader reader = new LookaheadLineReader(new StringReader("one\ntwo\nthree"));
+        assertEquals("one", reader.peek());
+        assertEquals("two", reader.peek(1));
+        assertEquals("three", reader.peek(2));
+        assertNull(reader.peek(3));
+
+        assertEquals("one", reader.poll());
+        assertEquals("two", reader.peek());
+        assertEquals("two", reader.poll());
+        assertEquals("three", reader.poll());
+        assertNull(reader.peek());
+        assertNull(reader.poll());
+    }
+
+    public void testOnlyTheLookaheadWindowIsRead() throws IOException {
+        final CountingReader input = new CountingReader(createLines(100));
+        final LookaheadLineReader reader = new LookaheadLineReader(input, 3);
+
+        assertEquals("Line 2", reader.peek(2));
+        assertEquals(3, input.linesRead);
+
+        // Polling a line that is already in the window shouldn't read any more lines
+        assertEquals("Line 0", reader.poll());
+        assertEquals(3, input.linesRead);
+
+        // Looking to the end of the window only reads the lines that have been freed up
+        assertEquals("Line 3", reader.peek(2));
+        assertEquals(4, input.linesRead);
+
+        for (int i = 1; i < 100; i++) {
+            assertEquals("Line " + i, reader.poll());
+            assertTrue(input.linesRead <= i + 3);
+        }
+        assertNull(reader.poll());
+    }
+
+    public void testPeekingPastTheWindowFails() throws IOException {
+        final LookaheadLineReader reader = new LookaheadLineReader(new StringReader(createLines(10)), 2);
+        assertEquals("Line 1", reader.peek(1));
+        try {
+            reader.peek(2);
+            fail("Peeking past the lookahead window should fail");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+        try {
+            reader.peek(-1);
+            fail("Peeking at a negative offset should fail");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    public void testLookaheadMustBePositive() {
+        try {
+            new LookaheadLineReader(new StringReader(""), 0);
+            fail("A lookahead window of zero lines should fail");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    public void testPrependedLinesAreReadFirst() throws IOException {
+        final CountingReader input = new CountingReader(createLines(100));
+        final LookaheadLineReader original = new LookaheadLineReader(input, 3);
+        assertEquals("Line 0", original.poll());
+        assertEquals("Line 1", original.poll());
+
+        final LookaheadLineReader reader = LookaheadLineReader.prepend("Line 0\nLine 1\n", original);
+        assertEquals("Line 0", reader.peek());
+        assertEquals("Line 2", reader.peek(2));
+        for (int i = 0; i < 100; i++) {
+            assertEquals("Line " + i, reader.poll());
+            // Both readers can fill their windows, but nothing past them is read
+            assertTrue(input.linesRead <= i + 6);
+        }
+        assertNull(reader.poll());
+    }
+
+    private static String createLines(final int count) {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.append("Line ").append(i).append("\n");
+        }
+        return builder.toString();
+    }
+
+    /**
+     * A reader that counts how many lines have been read from it.
+     */
+    private static class CountingReader extends BufferedReader {
+        private int linesRead = 0;
+
+        public CountingReader(final String text) {
+            super(new StringReader(text));
+        }
+
+        @Override
+        public String readLine() throws IOException {
+            final String line = super.readLine();
+            if (line != null) {
+                linesRead++;
+            }
+            return line;
+        }
+    }
+}
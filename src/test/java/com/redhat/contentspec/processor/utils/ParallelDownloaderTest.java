@@ -0,0 +1,180 @@
+package com.redhat.contentspec.processor.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+import org.apache.log4j.Logger;
+
+/**
+ * Tests the ParallelDownloader using a stub fetcher that injects latency, in place of a REST server.
+ */
+public class ParallelDownloaderTest extends TestCase {
+    private static final Logger LOG = Logger.getLogger(ParallelDownloaderTest.class);
+    private static final long LATENCY = 50;
+
+    private List<Integer> keys;
+
+    @Override
+    protected void setUp() throws Exception {
+        keys = new ArrayList<Integer>();
+        for (int i = 1; i <= 20; i++) {
+            keys.add(i);
+        }
+    }
+
+    public void testDownloadsAllKeysInOrder() {
+        final ParallelDownloader<Integer, String> downloader = new ParallelDownloader<Integer, String>(LOG, 4, 0, 0, 0,
+                new AtomicBoolean(false));
+        final Map<Integer, String> results = downloader.download(keys, new LatencyFetcher(LATENCY), "Downloading");
+
+        assertEquals(keys, new ArrayList<Integer>(results.keySet()));
+        assertEquals("Topic 7", results.get(7));
+    }
+
+    public void testConcurrencyReducesWallClockTime() {
+        final long serialTime = timeDownload(1);
+        final long parallelTime = timeDownload(5);
+
+        // 20 requests at 50ms should take ~1000ms serially and ~200ms with 5 threads, so allow plenty of slack
+        assertTrue("Serial: " + serialTime + "ms, Parallel: " + parallelTime + "ms", parallelTime * 2 < serialTime);
+    }
+
+    public void testFailedRequestsAreRetried() {
+        final ConcurrentHashMap<Integer, AtomicInteger> attempts = new ConcurrentHashMap<Integer, AtomicInteger>();
+        final ParallelDownloader.Fetcher<Integer, String> fetcher = new ParallelDownloader.Fetcher<Integer, String>() {
+            @Override
+            public String fetch(final Integer key) throws Exception {
+                attempts.putIfAbsent(key, new AtomicInteger(0));
+                if (attempts.get(key).incrementAndGet() < 3) {
+                    throw new Exception("Injected failure");
+                }
+                return "Topic " + key;
+            }
+        };
+
+        final ParallelDownloader<Integer, String> downloader = new ParallelDownloader<Integer, String>(LOG, 4, 0, 2, 1,
+                new AtomicBoolean(false));
+        final Map<Integer, String> results = downloader.download(keys, fetcher, "Downloading");
+
+        assertEquals(keys.size(), results.size());
+        assertEquals(3, attempts.get(1).get());
+    }
+
+    public void testTimedOutRequestsAreAbandoned() {
+        final ParallelDownloader.Fetcher<Integer, String> fetcher = new ParallelDownloader.Fetcher<Integer, String>() {
+            @Override
+            public String fetch(final Integer key) throws Exception {
+                Thread.sleep(key == 5 ? 10000 : 1);
+                return "Topic " + key;
+            }
+        };
+
+        final ParallelDownloader<Integer, String> downloader = new ParallelDownloader<Integer, String>(LOG, 4, 100, 1, 1,
+                new AtomicBoolean(false));
+        final long start = System.currentTimeMillis();
+        final Map<Integer, String> results = downloader.download(keys, fetcher, "Downloading");
+
+        assertTrue(System.currentTimeMillis() - start < 5000);
+        assertEquals(keys.size() - 1, results.size());
+        assertFalse(results.containsKey(5));
+    }
+
+    public void testTimedOutRequestsAreNotSentAgain() {
+        final ConcurrentHashMap<Integer, AtomicInteger> attempts = new ConcurrentHashMap<Integer, AtomicInteger>();
+        final ParallelDownloader.Fetcher<Integer, String> fetcher = new ParallelDownloader.Fetcher<Integer, String>() {
+            @Override
+            public String fetch(final Integer key) throws Exception {
+                attempts.putIfAbsent(key, new AtomicInteger(0));
+                attempts.get(key).incrementAndGet();
+                Thread.sleep(key == 5 ? 300 : 1);
+                return "Topic " + key;
+            }
+        };
+
+        // The slow request times out on the first two attempts and is then picked up by the third attempt
+        final ParallelDownloader<Integer, String> downloader = new ParallelDownloader<Integer, String>(LOG, 4, 100, 5, 1,
+                new AtomicBoolean(false));
+        final Map<Integer, String> results = downloader.download(keys, fetcher, "Downloading");
+
+        assertEquals(keys.size(), results.size());
+        assertEquals("Topic 5", results.get(5));
+        assertEquals(1, attempts.get(5).get());
+    }
+
+    public void testAbandonedRequestsDontExceedTheConcurrency() {
+        final AtomicInteger running = new AtomicInteger(0);
+        final AtomicInteger maxRunning = new AtomicInteger(0);
+        final ParallelDownloader.Fetcher<Integer, String> fetcher = new ParallelDownloader.Fetcher<Integer, String>() {
+            @Override
+            public String fetch(final Integer key) throws Exception {
+                final int current = running.incrementAndGet();
+                synchronized (maxRunning) {
+                    maxRunning.set(Math.max(maxRunning.get(), current));
+                }
+                try {
+                    // Ignore interrupts, like a request that is blocked on I/O
+                    final long end = System.currentTimeMillis() + (key % 3 == 0 ? 200 : 1);
+                    while (System.currentTimeMillis() < end) {
+                        Thread.yield();
+                    }
+                } finally {
+                    running.decrementAndGet();
+                }
+                return "Topic " + key;
+            }
+        };
+
+        final ParallelDownloader<Integer, String> downloader = new ParallelDownloader<Integer, String>(LOG, 3, 20, 0, 0,
+                new AtomicBoolean(false));
+        downloader.download(keys, fetcher, "Downloading");
+
+        assertTrue("Max running: " + maxRunning.get(), maxRunning.get() <= 3);
+    }
+
+    public void testShutdownCancelsTheDownload() {
+        final AtomicBoolean isShuttingDown = new AtomicBoolean(false);
+        final AtomicInteger fetched = new AtomicInteger(0);
+        final ParallelDownloader.Fetcher<Integer, String> fetcher = new ParallelDownloader.Fetcher<Integer, String>() {
+            @Override
+            public String fetch(final Integer key) throws Exception {
+                if (fetched.incrementAndGet() == 3) {
+                    isShuttingDown.set(true);
+                }
+                Thread.sleep(LATENCY);
+                return "Topic " + key;
+            }
+        };
+
+        final ParallelDownloader<Integer, String> downloader = new ParallelDownloader<Integer, String>(LOG, 1, 0, 0, 0, isShuttingDown);
+        final Map<Integer, String> results = downloader.download(keys, fetcher, "Downloading");
+
+        assertTrue(results.size() < keys.size());
+    }
+
+    private long timeDownload(final int concurrency) {
+        final ParallelDownloader<Integer, String> downloader = new ParallelDownloader<Integer, String>(LOG, concurrency, 0, 0, 0,
+                new AtomicBoolean(false));
+        final long start = System.currentTimeMillis();
+        downloader.download(keys, new LatencyFetcher(LATENCY), "Downloading");
+        return System.currentTimeMillis() - start;
+    }
+
+    private static class LatencyFetcher implements ParallelDownloader.Fetcher<Integer, String> {
+        private final long latency;
+
+        private LatencyFetcher(final long latency) {
+            this.latency = latency;
+        }
+
+        @Override
+        public String fetch(final Integer key) throws Exception {
+            Thread.sleep(latency);
+            return "Topic " + key;
+        }
+    }
+}
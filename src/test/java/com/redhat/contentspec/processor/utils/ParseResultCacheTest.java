@@ -0,0 +1,82 @@
+package com.redhat.contentspec.processor.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import com.redhat.contentspec.processor.ContentSpecParser;
+import com.redhat.contentspec.processor.structures.ParseResult;
+import junit.framework.TestCase;
+import org.jboss.pressgang.ccms.contentspec.ContentSpec;
+import org.jboss.pressgang.ccms.contentspec.Level;
+import org.jboss.pressgang.ccms.contentspec.Process;
+import org.jboss.pressgang.ccms.contentspec.SpecTopic;
+import org.jboss.pressgang.ccms.contentspec.entities.Relationship;
+
+/**
+ * Tests the ParseResultCache.
+ */
+public class ParseResultCacheTest extends TestCase {
+    private static final String SPEC = "Title = Test\nProduct = Product\nVersion = 1\n\nChapter: Test\n  Topic [1]\n";
+
+    public void testKeyNormalisesLineEndings() {
+        final String key = ParseResultCache.createKey(SPEC, "user", ContentSpecParser.ParsingMode.EITHER, null);
+        assertEquals(64, key.length());
+        assertEquals(key, ParseResultCache.createKey(SPEC.replace("\n", "\r\n"), "user", ContentSpecParser.ParsingMode.EITHER,
+                null));
+        assertEquals(key, ParseResultCache.createKey(SPEC.replace("\n", "\r"), "user", ContentSpecParser.ParsingMode.EITHER, null));
+    }
+
+    public void testKeyIncludesParameters() {
+        final String key = ParseResultCache.createKey(SPEC, "user", ContentSpecParser.ParsingMode.EITHER, null);
+        assertFalse(key.equals(ParseResultCache.createKey(SPEC + " ", "user", ContentSpecParser.ParsingMode.EITHER, null)));
+        assertFalse(key.equals(ParseResultCache.createKey(SPEC, "other", ContentSpecParser.ParsingMode.EITHER, null)));
+        assertFalse(key.equals(ParseResultCache.createKey(SPEC, "user", ContentSpecParser.ParsingMode.NEW, null)));
+        assertFalse(key.equals(ParseResultCache.createKey(SPEC, "user", ContentSpecParser.ParsingMode.EITHER, "de-DE")));
+        assertFalse(ParseResultCache.createKey("ab", "c", ContentSpecParser.ParsingMode.EITHER, null).equals(
+                ParseResultCache.createKey("a", "bc", ContentSpecParser.ParsingMode.EITHER, null)));
+    }
+
+    public void testLeastRecentlyUsedResultIsEvicted() {
+        final ParseResultCache cache = new ParseResultCache(2);
+        final ParseResult result1 = createResult();
+        final ParseResult result2 = createResult();
+        final ParseResult result3 = createResult();
+
+        cache.put("1", result1, new LogBuffer(), new LogBuffer());
+        cache.put("2", result2, new LogBuffer(), new LogBuffer());
+        assertSame(result1, cache.get("1").getResult());
+
+        // "2" is now the least recently used result
+        cache.put("3", result3, new LogBuffer(), new LogBuffer());
+        assertEquals(2, cache.getSize());
+        assertEquals(1, cache.getEvictionCount());
+        assertNull(cache.get("2"));
+        assertSame(result1, cache.get("1").getResult());
+        assertSame(result3, cache.get("3").getResult());
+    }
+
+    public void testHitRate() {
+        final ParseResultCache cache = new ParseResultCache(10);
+        assertEquals(0.0, cache.getHitRate());
+
+        cache.put("1", createResult(), new LogBuffer(), new LogBuffer());
+        cache.get("1");
+        cache.get("1");
+        cache.get("1");
+        cache.get("2");
+        assertEquals(3, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0.75, cache.getHitRate());
+
+        cache.clear();
+        assertEquals(0, cache.getSize());
+        assertNull(cache.get("1"));
+    }
+
+    private static ParseResult createResult() {
+        return new ParseResult(true, new ContentSpec(), new HashMap<String, SpecTopic>(), new HashMap<String, List<String>>(),
+                new HashMap<String, Level>(), new HashMap<String, SpecTopic>(), new HashMap<String, List<Relationship>>(),
+                new ArrayList<Process>());
+    }
+}
@@ -0,0 +1,114 @@
+package com.redhat.contentspec.processor.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.redhat.contentspec.processor.constants.ProcessorConstants;
+import junit.framework.TestCase;
+
+/**
+ * Tests the ProcessorUtilities string helpers.
+ */
+public class ProcessorUtilitiesTest extends TestCase {
+    private static final int ITERATIONS = 100000;
+    private static final String ESCAPE_ALPHABET = "\\\\\\[]():,=+-;ab \n";
+
+    /**
+     * The original multi pass implementation of replaceEscapeChars, that the single pass implementation must match.
+     */
+    private static final Pattern[] ESCAPE_PATTERNS = {Pattern.compile("\\\\\\["), Pattern.compile("\\\\\\]"), Pattern.compile("\\\\\\("),
+            Pattern.compile("\\\\\\)"), Pattern.compile("\\\\:"), Pattern.compile("\\\\,"), Pattern.compile("\\\\="),
+            Pattern.compile("\\\\\\+"), Pattern.compile("\\\\-")};
+    private static final String[] ESCAPE_REPLACEMENTS = {"[", "]", "(", ")", ":", ",", "=", "+", "-"};
+    private static final String BRACKET_ALPHABET = "[]\\ab\n\r\u2028";
+    private static final String WHITESPACE_ALPHABET = " \t\n\r\u000B\f\u2028a";
+
+    /**
+     * The original lazy bracket regex and variable whitespace regex, that the scanners must match.
+     */
+    private static final Pattern BRACKET_PATTERN = Pattern.compile("(?<!\\\\)\\[((.|\n)*?)(?<!\\\\)\\]");
+    private static final Pattern POSSESSIVE_BRACKET_PATTERN = Pattern.compile(String.format(ProcessorConstants.BRACKET_PATTERN, '[',
+            ']'));
+    private static final String VARIABLE_WHITESPACE_REGEX = "(^\\s*(\r?\n)*)|((\r?\n)*\\s*$)";
+
+    private static List<String> findBracketContentsWithRegex(final Pattern pattern, final String input) {
+        final List<String> retValue = new ArrayList<String>();
+        final Matcher matcher = pattern.matcher(input);
+        while (matcher.find()) {
+            retValue.add(matcher.group(1));
+        }
+        return retValue;
+    }
+
+    private static String randomString(final Random random, final String alphabet, final int maxLength) {
+        final int length = random.nextInt(maxLength);
+        final StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return builder.toString();
+    }
+
+    private static String replaceEscapeCharsWithRegex(final String input) {
+        String retValue = input;
+        for (int i = 0; i < ESCAPE_PATTERNS.length; i++) {
+            retValue = ESCAPE_PATTERNS[i].matcher(retValue).replaceAll(ESCAPE_REPLACEMENTS[i]);
+        }
+        return retValue;
+    }
+
+    public void testReplaceEscapeCharsReturnsUnescapedInputAsIs() {
+        final String input = "Configuring the installer (optional) [N1, Concept]";
+        assertSame(input, ProcessorUtilities.replaceEscapeChars(input));
+        assertNull(ProcessorUtilities.replaceEscapeChars(null));
+    }
+
+    public void testReplaceEscapeCharsReplacesAllEscapedChars() {
+        assertEquals("[]():,=+-", ProcessorUtilities.replaceEscapeChars("\\[\\]\\(\\)\\:\\,\\=\\+\\-"));
+        assertEquals("Part \\d [1]", ProcessorUtilities.replaceEscapeChars("Part \\d \\[1\\]"));
+        assertEquals("\\[", ProcessorUtilities.replaceEscapeChars("\\\\["));
+        assertEquals("trailing \\", ProcessorUtilities.replaceEscapeChars("trailing \\"));
+    }
+
+    public void testReplaceEscapeCharsMatchesRegexImplementation() {
+        final Random random = new Random(42);
+        for (int i = 0; i < ITERATIONS; i++) {
+            final int length = random.nextInt(20);
+            final StringBuilder input = new StringBuilder(length);
+            for (int j = 0; j < length; j++) {
+                input.append(ESCAPE_ALPHABET.charAt(random.nextInt(ESCAPE_ALPHABET.length())));
+            }
+
+            final String value = input.toString();
+            assertEquals("Input: " + value, replaceEscapeCharsWithRegex(value), ProcessorUtilities.replaceEscapeChars(value));
+        }
+    }
+
+    public void testFindBracketContents() {
+        final List<String> contents = ProcessorUtilities.findBracketContents("on [Concept, Task] \\[Escaped] [Ref\\]erence]", '[', ']');
+        assertEquals(2, contents.size());
+        assertEquals("Concept, Task", contents.get(0));
+        assertEquals("Ref\\]erence", contents.get(1));
+    }
+
+    public void testFindBracketContentsMatchesRegexImplementation() {
+        final Random random = new Random(42);
+        for (int i = 0; i < ITERATIONS; i++) {
+            final String value = randomString(random, BRACKET_ALPHABET, 16);
+            final List<String> expected = findBracketContentsWithRegex(BRACKET_PATTERN, value);
+            assertEquals("Input: " + value, expected, ProcessorUtilities.findBracketContents(value, '[', ']'));
+            assertEquals("Input: " + value, expected, findBracketContentsWithRegex(POSSESSIVE_BRACKET_PATTERN, value));
+        }
+    }
+
+    public void testTrimVariableMatchesRegexImplementation() {
+        final Random random = new Random(42);
+        for (int i = 0; i < ITERATIONS; i++) {
+            final String value = randomString(random, WHITESPACE_ALPHABET, 10);
+            assertEquals("Input: " + value, value.replaceAll(VARIABLE_WHITESPACE_REGEX, ""), ProcessorUtilities.trimVariable(value));
+        }
+    }
+}
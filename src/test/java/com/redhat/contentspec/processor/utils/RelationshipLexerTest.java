@@ -0,0 +1,108 @@
+package com.redhat.contentspec.processor.utils;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.redhat.contentspec.processor.constants.ProcessorConstants;
+import junit.framework.TestCase;
+import org.jboss.pressgang.ccms.contentspec.enums.RelationshipType;
+
+/**
+ * Tests the RelationshipLexer against the regular expressions that it replaces.
+ */
+public class RelationshipLexerTest extends TestCase {
+    private static final int ITERATIONS = 100000;
+    private static final String[] FRAGMENTS = {"R", "P", "L", "T", "N", "ET", "CS", "NEXT", "PREV", "RELATED-TO", "REFER-TO",
+            "PREREQUISITE", "LINK-LIST", "-", "_", ":", " ", "[", "]", "1", "23", "a", "\n", "\r", "\r\n", "\u2028"};
+
+    /**
+     * The original regexes, that the lexer must match.
+     */
+    private static final String ANY_LINES = "(.|(\r?\n))*$";
+    private static final String TARGET_BASE = "T(([0-9]+)|(\\-[ ]*[A-Za-z0-9\\-_]+))";
+    private static final String[] TYPE_REGEXES = {"^(R|RELATED-TO|REFER-TO)[ ]*:" + ANY_LINES, "^(P|PREREQUISITE)[ ]*:" + ANY_LINES,
+            "^NEXT[ ]*:" + ANY_LINES, "^PREV[ ]*:" + ANY_LINES, "^" + TARGET_BASE + "$", "^ET[0-9]+$",
+            "^CS[0-9]+[ ]*(:[ ]*[0-9]+)?$", "^(L|LINK-LIST)[ ]*:" + ANY_LINES};
+    private static final RelationshipType[] TYPES = {RelationshipType.REFER_TO, RelationshipType.PREREQUISITE,
+            RelationshipType.NEXT, RelationshipType.PREVIOUS, RelationshipType.TARGET, RelationshipType.EXTERNAL_TARGET,
+            RelationshipType.EXTERNAL_CONTENT_SPEC, RelationshipType.LINKLIST};
+    private static final String RELATION_ID_REGEX = "^(" + TARGET_BASE + ")|(N?[0-9]+)$";
+    private static final String RELATION_ID_LONG_REGEX = "^.*\\[((" + TARGET_BASE + ")|(N?[0-9]+))\\]$";
+    private static final Pattern RELATION_ID_LONG_PATTERN = Pattern.compile(
+            "^(?<TopicTitle>.*)[ ]*\\[(?<TopicID>(" + TARGET_BASE + ")|(N?[0-9]+))\\]$");
+    private static final String MULTIPLE_IDS_REGEX = "^(" + TARGET_BASE + "|[0-9]+).*?(" + TARGET_BASE + "|[0-9]+).*";
+
+    private static RelationshipType getRelationshipTypeWithRegex(final String variableSet) {
+        for (int i = 0; i < TYPE_REGEXES.length; i++) {
+            if (variableSet.matches(TYPE_REGEXES[i])) return TYPES[i];
+        }
+        return RelationshipType.NONE;
+    }
+
+    public void testGetRelationshipType() {
+        assertEquals(RelationshipType.REFER_TO, RelationshipLexer.getRelationshipType("R: 1, 2"));
+        assertEquals(RelationshipType.REFER_TO, RelationshipLexer.getRelationshipType("RELATED-TO : 1,\n 2"));
+        assertEquals(RelationshipType.PREREQUISITE, RelationshipLexer.getRelationshipType("P:1"));
+        assertEquals(RelationshipType.PREVIOUS, RelationshipLexer.getRelationshipType("PREV: 1"));
+        assertEquals(RelationshipType.TARGET, RelationshipLexer.getRelationshipType("T-  TARGET_1"));
+        assertEquals(RelationshipType.EXTERNAL_CONTENT_SPEC, RelationshipLexer.getRelationshipType("CS1 : 2"));
+        assertEquals(RelationshipType.LINKLIST, RelationshipLexer.getRelationshipType("LINK-LIST: 1"));
+        assertEquals(RelationshipType.NONE, RelationshipLexer.getRelationshipType("N1, CONCEPT"));
+        assertEquals(RelationshipType.NONE, RelationshipLexer.getRelationshipType("R: 1\u2028"));
+    }
+
+    public void testSplitLongRelationshipId() {
+        final String[] longId = RelationshipLexer.splitLongRelationshipId("Some [Title] [T-Target]");
+        assertEquals("Some [Title] ", longId[0]);
+        assertEquals("T-Target", longId[1]);
+        assertNull(RelationshipLexer.splitLongRelationshipId("Some Title [Target]"));
+        assertNull(RelationshipLexer.splitLongRelationshipId("Some\nTitle [1]"));
+    }
+
+    public void testMatchesRegexImplementation() {
+        final Random random = new Random(42);
+        for (int i = 0; i < ITERATIONS; i++) {
+            final StringBuilder builder = new StringBuilder();
+            final int fragments = random.nextInt(7);
+            for (int j = 0; j < fragments; j++) {
+                builder.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+            final String input = builder.toString();
+            final String message = "Input: " + input;
+
+            assertEquals(message, getRelationshipTypeWithRegex(input), RelationshipLexer.getRelationshipType(input));
+            assertEquals(message, input.matches(RELATION_ID_REGEX), RelationshipLexer.isRelationshipId(input));
+            assertEquals(message, input.matches(MULTIPLE_IDS_REGEX), RelationshipLexer.containsMultipleRelationshipIds(input));
+
+            final String[] longId = RelationshipLexer.splitLongRelationshipId(input);
+            if (input.matches(RELATION_ID_LONG_REGEX)) {
+                final Matcher matcher = RELATION_ID_LONG_PATTERN.matcher(input);
+                assertTrue(message, matcher.find());
+                assertNotNull(message, longId);
+                assertEquals(message, matcher.group("TopicTitle"), longId[0]);
+                assertEquals(message, matcher.group("TopicID"), longId[1]);
+            } else {
+                assertNull(message, longId);
+            }
+
+            // The possessive forms of the regexes must still match the same input
+            assertEquals(message, input.matches(TYPE_REGEXES[0]), input.matches(ProcessorConstants.RELATED_REGEX));
+            assertEquals(message, input.matches(TYPE_REGEXES[1]), input.matches(ProcessorConstants.PREREQUISITE_REGEX));
+            assertEquals(message, input.matches(TYPE_REGEXES[7]), input.matches(ProcessorConstants.LINK_LIST_REGEX));
+        }
+    }
+
+    public void testLongInputs() {
+        final StringBuilder builder = new StringBuilder("R: ");
+        for (int i = 0; i < 100000; i++) {
+            builder.append("1, ");
+        }
+        final String input = builder.toString();
+
+        assertEquals(RelationshipType.REFER_TO, RelationshipLexer.getRelationshipType(input));
+        assertTrue(input.matches(ProcessorConstants.RELATED_REGEX));
+        assertFalse(RelationshipLexer.isRelationshipId(input));
+        assertNull(RelationshipLexer.splitLongRelationshipId(input));
+    }
+}
@@ -0,0 +1,127 @@
+package com.redhat.contentspec.processor.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import junit.framework.TestCase;
+import org.apache.log4j.Logger;
+
+/**
+ * Tests the SourceUrlTitleResolver against a local HTTP server.
+ */
+public class SourceUrlTitleResolverTest extends TestCase {
+    private static final Logger LOG = Logger.getLogger(SourceUrlTitleResolverTest.class);
+    private static final long TTL = 60000;
+    private static final int TIMEOUT = 5000;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String baseUrl;
+    private File cacheFile;
+    private final AtomicInteger requestCount = new AtomicInteger(0);
+
+    @Override
+    protected void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                requestCount.incrementAndGet();
+                final String path = exchange.getRequestURI().getPath();
+                if (path.startsWith("/slow")) {
+                    try {
+                        Thread.sleep(5000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+
+                final byte[] body = ("<html><head><title>Title of " + path + "</title></head><body></body></html>").getBytes("UTF-8");
+                exchange.getResponseHeaders().add("Content-Type", "text/html; charset=UTF-8");
+                exchange.sendResponseHeaders(200, body.length);
+                final OutputStream os = exchange.getResponseBody();
+                os.write(body);
+                os.close();
+            }
+        });
+        // Handle requests concurrently, so that a slow request doesn't block the others
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        cacheFile = File.createTempFile("source-url-titles", ".properties");
+        cacheFile.delete();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+        cacheFile.delete();
+    }
+
+    public void testDuplicateUrlsAreOnlyFetchedOnce() {
+        final SourceUrlTitleResolver resolver = createResolver(false, TTL, null);
+        resolver.resolve(Arrays.asList(baseUrl + "/a", baseUrl + "/b", baseUrl + "/a"));
+
+        assertEquals(2, requestCount.get());
+        assertEquals("Title of /a", resolver.getTitle(baseUrl + "/a"));
+        assertEquals("Title of /b", resolver.getTitle(baseUrl + "/b"));
+    }
+
+    public void testCacheIsPersistedAcrossRuns() {
+        final List<String> urls = Arrays.asList(baseUrl + "/a", baseUrl + "/b");
+        createResolver(false, TTL, cacheFile).resolve(urls);
+        assertEquals(2, requestCount.get());
+
+        final SourceUrlTitleResolver resolver = createResolver(false, TTL, cacheFile);
+        resolver.resolve(urls);
+        assertEquals(2, requestCount.get());
+        assertEquals("Title of /b", resolver.getTitle(baseUrl + "/b"));
+    }
+
+    public void testExpiredTitlesAreFetchedAgain() {
+        final List<String> urls = Arrays.asList(baseUrl + "/a");
+        createResolver(false, TTL, cacheFile).resolve(urls);
+
+        createResolver(false, 0, cacheFile).resolve(urls);
+        assertEquals(2, requestCount.get());
+    }
+
+    public void testOfflineModeNeverFetches() {
+        createResolver(false, TTL, cacheFile).resolve(Arrays.asList(baseUrl + "/a"));
+
+        final SourceUrlTitleResolver resolver = createResolver(true, TTL, cacheFile);
+        resolver.resolve(Arrays.asList(baseUrl + "/a", baseUrl + "/c"));
+
+        assertEquals(1, requestCount.get());
+        assertEquals("Title of /a", resolver.getTitle(baseUrl + "/a"));
+        assertNull(resolver.getTitle(baseUrl + "/c"));
+    }
+
+    public void testSlowHostsTimeOut() {
+        final SourceUrlTitleResolver resolver = new SourceUrlTitleResolver(LOG, 4, 1000, TTL, false, null, new AtomicBoolean(false));
+        final long start = System.currentTimeMillis();
+        resolver.resolve(Arrays.asList(baseUrl + "/slow", baseUrl + "/a"));
+
+        assertTrue(System.currentTimeMillis() - start < 4000);
+        assertNull(resolver.getTitle(baseUrl + "/slow"));
+        assertEquals("Title of /a", resolver.getTitle(baseUrl + "/a"));
+    }
+
+    private SourceUrlTitleResolver createResolver(final boolean offline, final long ttl, final File cacheFile) {
+        return new SourceUrlTitleResolver(LOG, 4, TIMEOUT, ttl, offline, cacheFile, new AtomicBoolean(false));
+    }
+}
@@ -0,0 +1,135 @@
+package com.redhat.contentspec.processor.utils;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+import org.jboss.pressgang.ccms.contentspec.rest.RESTManager;
+import org.jboss.pressgang.ccms.contentspec.rest.RESTReader;
+import org.jboss.pressgang.ccms.rest.v1.entities.RESTTagV1;
+import org.jboss.pressgang.ccms.rest.v1.entities.join.RESTCategoryInTagV1;
+
+/**
+ * Tests the TagDictionary caching, using a dictionary that counts its lookups in place of a REST server.
+ */
+public class TagDictionaryTest extends TestCase {
+
+    public void testLookupsAreCached() {
+        final CountingTagDictionary dictionary = new CountingTagDictionary();
+        final List<RESTTagV1> tags = dictionary.getTagsByName("Tag");
+        assertSame(tags, dictionary.getTagsByName("Tag"));
+        assertSame(dictionary.getTypeByName("Type"), dictionary.getTypeByName("Type"));
+        assertSame(dictionary.getCategoryByTagId(5), dictionary.getCategoryByTagId(5));
+
+        assertEquals(1, dictionary.getLoadCount("tag:Tag"));
+        assertEquals(1, dictionary.getLoadCount("type:Type"));
+        assertEquals(1, dictionary.getLoadCount("category:5"));
+    }
+
+    public void testExpiredEntriesAreLoadedAgain() {
+        final CountingTagDictionary dictionary = new CountingTagDictionary();
+        dictionary.setTTL(0);
+        dictionary.getTagsByName("Tag");
+        dictionary.getTagsByName("Tag");
+        dictionary.getTypeByName("Type");
+        dictionary.getTypeByName("Type");
+        assertEquals(2, dictionary.getLoadCount("tag:Tag"));
+        assertEquals(2, dictionary.getLoadCount("type:Type"));
+
+        // The entry that was loaded last is valid again once the time to live is increased
+        dictionary.setTTL(TagDictionary.DEFAULT_TTL);
+        dictionary.getTagsByName("Tag");
+        assertEquals(2, dictionary.getLoadCount("tag:Tag"));
+    }
+
+    public void testInvalidateClearsTheCache() {
+        final CountingTagDictionary dictionary = new CountingTagDictionary();
+        dictionary.getTagsByName("Tag");
+        dictionary.getCategoryByTagId(5);
+
+        final long version = dictionary.getVersion();
+        dictionary.invalidate();
+        assertEquals(version + 1, dictionary.getVersion());
+
+        dictionary.getTagsByName("Tag");
+        dictionary.getCategoryByTagId(5);
+        assertEquals(2, dictionary.getLoadCount("tag:Tag"));
+        assertEquals(2, dictionary.getLoadCount("category:5"));
+    }
+
+    public void testPreloadOnlyLoadsMissingEntries() {
+        final CountingTagDictionary dictionary = new CountingTagDictionary();
+        dictionary.getTagsByName("Cached");
+
+        dictionary.preloadTags(Arrays.asList("Cached", "Tag 1", "Tag 2", "Tag 1", null), 2, new AtomicBoolean(false));
+        dictionary.preloadTypes(Arrays.asList("Type 1", "Type 2"), 2, new AtomicBoolean(false));
+        assertEquals(1, dictionary.getLoadCount("tag:Cached"));
+        assertEquals(1, dictionary.getLoadCount("tag:Tag 1"));
+        assertEquals(1, dictionary.getLoadCount("tag:Tag 2"));
+        assertEquals(1, dictionary.getLoadCount("type:Type 1"));
+
+        // The preloaded entries are read from the cache
+        dictionary.getTagsByName("Tag 1");
+        dictionary.getTypeByName("Type 2");
+        assertEquals(1, dictionary.getLoadCount("tag:Tag 1"));
+        assertEquals(1, dictionary.getLoadCount("type:Type 2"));
+    }
+
+    public void testSharedDictionariesDontKeepTheirReader() throws InterruptedException {
+        RESTReader reader = new RESTManager("http://localhost:8080/TopicIndex/").getReader();
+        assertSame(TagDictionary.getInstance(reader), TagDictionary.getInstance(reader));
+
+        final WeakReference<RESTReader> readerReference = new WeakReference<RESTReader>(reader);
+        reader = null;
+        for (int i = 0; i < 50 && readerReference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(readerReference.get());
+    }
+
+    /**
+     * A dictionary that counts how many times each entry is looked up, instead of looking it up through a reader.
+     */
+    private static class CountingTagDictionary extends TagDictionary {
+        private final ConcurrentHashMap<String, AtomicInteger> loadCounts = new ConcurrentHashMap<String, AtomicInteger>();
+
+        private CountingTagDictionary() {
+            super(null);
+        }
+
+        private int getLoadCount(final String key) {
+            final AtomicInteger count = loadCounts.get(key);
+            return count == null ? 0 : count.get();
+        }
+
+        private void countLoad(final String key) {
+            loadCounts.putIfAbsent(key, new AtomicInteger(0));
+            loadCounts.get(key).incrementAndGet();
+        }
+
+        @Override
+        protected List<RESTTagV1> loadTagsByName(final String name) {
+            countLoad("tag:" + name);
+            return new ArrayList<RESTTagV1>(Collections.singletonList(new RESTTagV1()));
+        }
+
+        @Override
+        protected RESTTagV1 loadTypeByName(final String name) {
+            countLoad("type:" + name);
+            return new RESTTagV1();
+        }
+
+        @Override
+        protected RESTCategoryInTagV1 loadCategoryByTagId(final Integer tagId) {
+            countLoad("category:" + tagId);
+            return new RESTCategoryInTagV1();
+        }
+    }
+}
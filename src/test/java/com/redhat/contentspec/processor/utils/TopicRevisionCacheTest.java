@@ -0,0 +1,253 @@
+package com.redhat.contentspec.processor.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+import org.apache.log4j.Logger;
+import org.jboss.pressgang.ccms.rest.v1.entities.RESTTopicV1;
+
+/**
+ * Tests the TopicRevisionCache against a temporary cache file.
+ */
+public class TopicRevisionCacheTest extends TestCase {
+    private static final Logger LOG = Logger.getLogger(TopicRevisionCacheTest.class);
+    private static final int DATA_LENGTH = 100;
+    // The size of a record for a topic that isn't translated, with DATA_LENGTH bytes of data
+    private static final int RECORD_LENGTH = 8 + 1 + 4 + 4 + 2 + DATA_LENGTH;
+
+    private File cacheFile;
+
+    @Override
+    protected void setUp() throws Exception {
+        cacheFile = File.createTempFile("topic-cache", ".bin");
+        cacheFile.delete();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        cacheFile.delete();
+        new File(cacheFile.getPath() + ".tmp").delete();
+        new File(cacheFile.getPath() + ".lock").delete();
+    }
+
+    public void testTopicsArePersisted() {
+        TopicRevisionCache cache = new TopicRevisionCache(LOG, cacheFile, Long.MAX_VALUE);
+        cache.put(1, 5, null, createData(1));
+        cache.put(1, 5, "de-DE", createData(2));
+        cache.close();
+
+        cache = new TopicRevisionCache(LOG, cacheFile, Long.MAX_VALUE);
+        assertEquals(2, cache.getTopicCount());
+        assertTrue(Arrays.equals(createData(1), cache.get(1, 5, null)));
+        assertTrue(Arrays.equals(createData(2), cache.get(1, 5, "de-DE")));
+        assertNull(cache.get(1, 6, null));
+        assertNull(cache.get(2, 5, null));
+        cache.close();
+    }
+
+    public void testLatestRevisionsAreNotCached() {
+        final TopicRevisionCache cache = new TopicRevisionCache(LOG, cacheFile, Long.MAX_VALUE);
+        cache.put(1, null, null, createData(1));
+
+        assertEquals(0, cache.getTopicCount());
+        assertNull(cache.get(1, null, null));
+        cache.close();
+    }
+
+    public void testLatestRevisionsAreReadOnceTheyAreSet() {
+        final TopicRevisionCache cache = new TopicRevisionCache(LOG, cacheFile, Long.MAX_VALUE);
+        cache.put(1, 5, null, createData(1));
+        cache.put(1, 5, "de-DE", createData(2));
+        assertFalse(cache.containsTopic(1, null, null));
+
+        cache.setLatestRevision(1, 5);
+        cache.setLatestRevision(2, 3);
+        assertTrue(cache.containsTopic(1, null, null));
+        assertTrue(Arrays.equals(createData(1), cache.get(1, null, null)));
+        assertNull(cache.get(1, null, "de-DE"));
+        assertNull(cache.get(2, null, null));
+
+        // Topics added for their latest revision are cached at their current revision
+        cache.put(2, null, null, createData(3));
+        assertTrue(Arrays.equals(createData(3), cache.get(2, 3, null)));
+
+        cache.clearLatestRevisions();
+        assertNull(cache.get(1, null, null));
+        assertTrue(Arrays.equals(createData(1), cache.get(1, 5, null)));
+        cache.close();
+    }
+
+    public void testLeastRecentlyUsedTopicsAreEvicted() {
+        final TopicRevisionCache cache = new TopicRevisionCache(LOG, cacheFile, 2 * RECORD_LENGTH);
+        cache.put(1, 1, null, createData(1));
+        cache.put(2, 1, null, createData(2));
+        assertNotNull(cache.get(1, 1, null));
+        cache.put(3, 1, null, createData(3));
+
+        assertEquals(2, cache.getTopicCount());
+        assertEquals(2 * RECORD_LENGTH, cache.getSize());
+        assertNotNull(cache.get(1, 1, null));
+        assertNull(cache.get(2, 1, null));
+        assertNotNull(cache.get(3, 1, null));
+        cache.close();
+    }
+
+    public void testRecentlyUsedTopicsArePersisted() {
+        TopicRevisionCache cache = new TopicRevisionCache(LOG, cacheFile, 2 * RECORD_LENGTH);
+        cache.put(1, 1, null, createData(1));
+        cache.put(2, 1, null, createData(2));
+        assertNotNull(cache.get(1, 1, null));
+        cache.close();
+
+        cache = new TopicRevisionCache(LOG, cacheFile, 2 * RECORD_LENGTH);
+        cache.put(3, 1, null, createData(3));
+
+        assertNotNull(cache.get(1, 1, null));
+        assertNull(cache.get(2, 1, null));
+        cache.close();
+    }
+
+    public void testCorruptRecordsAreDiscarded() throws IOException {
+        TopicRevisionCache cache = new TopicRevisionCache(LOG, cacheFile, Long.MAX_VALUE);
+        cache.put(1, 1, null, createData(1));
+        cache.put(2, 1, null, createData(2));
+        cache.close();
+
+        // Change a byte in the data of the first record
+        final RandomAccessFile file = new RandomAccessFile(cacheFile, "rw");
+        file.seek(8 + RECORD_LENGTH - 1);
+        file.write(0xFF);
+        file.close();
+
+        cache = new TopicRevisionCache(LOG, cacheFile, Long.MAX_VALUE);
+        assertNull(cache.get(1, 1, null));
+        assertTrue(Arrays.equals(createData(2), cache.get(2, 1, null)));
+        assertEquals(1, cache.getTopicCount());
+        cache.close();
+    }
+
+    public void testPartlyWrittenRecordsAreRemoved() throws IOException {
+        TopicRevisionCache cache = new TopicRevisionCache(LOG, cacheFile, Long.MAX_VALUE);
+        cache.put(1, 1, null, createData(1));
+        cache.close();
+
+        // Write the start of a record that is longer than the rest of the file
+        final RandomAccessFile file = new RandomAccessFile(cacheFile, "rw");
+        file.seek(file.length());
+        file.writeInt(RECORD_LENGTH);
+        file.writeInt(0);
+        file.write(1);
+        file.close();
+
+        cache = new TopicRevisionCache(LOG, cacheFile, Long.MAX_VALUE);
+        assertEquals(8 + RECORD_LENGTH, cacheFile.length());
+        cache.put(2, 1, null, createData(2));
+        cache.close();
+
+        cache = new TopicRevisionCache(LOG, cacheFile, Long.MAX_VALUE);
+        assertTrue(Arrays.equals(createData(1), cache.get(1, 1, null)));
+        assertTrue(Arrays.equals(createData(2), cache.get(2, 1, null)));
+        cache.close();
+    }
+
+    public void testInvalidFilesAreReplaced() throws IOException {
+        final RandomAccessFile file = new RandomAccessFile(cacheFile, "rw");
+        file.writeBytes("Not a topic cache");
+        file.close();
+
+        final TopicRevisionCache cache = new TopicRevisionCache(LOG, cacheFile, Long.MAX_VALUE);
+        assertEquals(0, cache.getTopicCount());
+        cache.put(1, 1, null, createData(1));
+        assertTrue(Arrays.equals(createData(1), cache.get(1, 1, null)));
+        cache.close();
+    }
+
+    public void testEvictedRecordsAreCompacted() {
+        TopicRevisionCache cache = new TopicRevisionCache(LOG, cacheFile, RECORD_LENGTH);
+        cache.put(1, 1, null, createData(1));
+        cache.put(2, 1, null, createData(2));
+        cache.put(3, 1, null, createData(3));
+        cache.flush();
+
+        assertEquals(8 + RECORD_LENGTH, cacheFile.length());
+        assertTrue(Arrays.equals(createData(3), cache.get(3, 1, null)));
+        cache.close();
+
+        cache = new TopicRevisionCache(LOG, cacheFile, RECORD_LENGTH);
+        assertEquals(1, cache.getTopicCount());
+        assertTrue(Arrays.equals(createData(3), cache.get(3, 1, null)));
+        cache.close();
+    }
+
+    public void testCacheFileInUseIsOnlyRead() {
+        final TopicRevisionCache cache = new TopicRevisionCache(LOG, cacheFile, Long.MAX_VALUE);
+        cache.put(1, 1, null, createData(1));
+        cache.flush();
+
+        TopicRevisionCache secondCache = new TopicRevisionCache(LOG, cacheFile, Long.MAX_VALUE);
+        assertFalse(cache.isReadOnly());
+        assertTrue(secondCache.isReadOnly());
+        assertTrue(Arrays.equals(createData(1), secondCache.get(1, 1, null)));
+        final long length = cacheFile.length();
+        secondCache.put(2, 1, null, createData(2));
+        assertNull(secondCache.get(2, 1, null));
+        secondCache.close();
+        assertEquals(length, cacheFile.length());
+
+        // The lock is released when the cache is closed
+        cache.put(3, 1, null, createData(3));
+        cache.close();
+        secondCache = new TopicRevisionCache(LOG, cacheFile, Long.MAX_VALUE);
+        assertFalse(secondCache.isReadOnly());
+        assertEquals(2, secondCache.getTopicCount());
+        assertTrue(Arrays.equals(createData(3), secondCache.get(3, 1, null)));
+        secondCache.close();
+    }
+
+    public void testTopicRoundTrip() {
+        final RESTTopicV1 topic = new RESTTopicV1();
+        topic.setId(10);
+        topic.setRevision(7);
+        topic.setTitle("Cached Topic");
+
+        TopicRevisionCache cache = new TopicRevisionCache(LOG, cacheFile, Long.MAX_VALUE);
+        cache.putTopic(10, 8, null, topic);
+        cache.close();
+
+        cache = new TopicRevisionCache(LOG, cacheFile, Long.MAX_VALUE);
+        final RESTTopicV1 cachedTopic = cache.getTopic(RESTTopicV1.class, 10, 8, null);
+        assertNotNull(cachedTopic);
+        assertEquals(Integer.valueOf(10), cachedTopic.getId());
+        assertEquals(Integer.valueOf(7), cachedTopic.getRevision());
+        assertEquals("Cached Topic", cachedTopic.getTitle());
+        assertNull(cache.getTopic(RESTTopicV1.class, 10, null, null));
+        cache.close();
+    }
+
+    public void testTopicContentCanBeLeftOut() {
+        final RESTTopicV1 topic = new RESTTopicV1();
+        topic.setId(10);
+        topic.setRevision(7);
+        topic.setTitle("Cached Topic");
+        topic.setXml("<section><title>Cached Topic</title></section>");
+
+        final TopicRevisionCache cache = new TopicRevisionCache(LOG, cacheFile, Long.MAX_VALUE);
+        cache.putTopic(10, 7, null, topic);
+
+        final RESTTopicV1 topicWithoutContent = cache.getTopic(RESTTopicV1.class, 10, 7, null, true);
+        assertEquals(Integer.valueOf(7), topicWithoutContent.getRevision());
+        assertEquals("Cached Topic", topicWithoutContent.getTitle());
+        assertNull(topicWithoutContent.getXml());
+        assertEquals(topic.getXml(), cache.getTopic(RESTTopicV1.class, 10, 7, null).getXml());
+        cache.close();
+    }
+
+    private byte[] createData(final int value) {
+        final byte[] data = new byte[DATA_LENGTH];
+        Arrays.fill(data, (byte) value);
+        return data;
+    }
+}
@@ -0,0 +1,133 @@
+package com.redhat.contentspec.processor.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.redhat.contentspec.processor.LocalTopicServer;
+import junit.framework.TestCase;
+import org.apache.log4j.Logger;
+import org.jboss.pressgang.ccms.contentspec.rest.RESTManager;
+import org.jboss.pressgang.ccms.rest.v1.collections.RESTTranslatedTopicCollectionV1;
+import org.jboss.pressgang.ccms.rest.v1.entities.RESTTopicV1;
+import org.jboss.pressgang.ccms.rest.v1.entities.RESTTranslatedTopicV1;
+import org.jboss.pressgang.ccms.utils.structures.Pair;
+
+/**
+ * Tests the TranslatedTopicCache, and that it downloads topics at a revision concurrently from a local REST server.
+ */
+public class TranslatedTopicCacheTest extends TestCase {
+    private static final Logger LOG = Logger.getLogger(TranslatedTopicCacheTest.class);
+    private static final long LATENCY = 150;
+    private static final int TOPIC_COUNT = 16;
+    private static final int DOWNLOAD_THREADS = 8;
+
+    public void testTranslationsAreCachedForEachLocale() {
+        final RESTTranslatedTopicV1 german = createTranslatedTopic("de-DE", 5);
+        final RESTTranslatedTopicV1 japanese = createTranslatedTopic("ja-JP", 5);
+        final TranslatedTopicCache cache = new TranslatedTopicCache();
+        cache.addTopic(createTopic(1, german, japanese), null);
+
+        assertSame(german, cache.getTranslatedTopic(1, null, "de-DE"));
+        assertSame(japanese, cache.getTranslatedTopic(1, null, "ja-JP"));
+        assertNull(cache.getTranslatedTopic(1, null, "fr-FR"));
+        assertNull(cache.getTranslatedTopic(2, null, "de-DE"));
+        assertNull(cache.getTranslatedTopic(1, 5, "de-DE"));
+    }
+
+    public void testLatestTranslationIsCached() {
+        final RESTTranslatedTopicV1 older = createTranslatedTopic("de-DE", 3);
+        final RESTTranslatedTopicV1 newer = createTranslatedTopic("de-DE", 7);
+        final TranslatedTopicCache cache = new TranslatedTopicCache();
+        cache.addTopic(createTopic(1, newer, older), null);
+
+        assertSame(newer, cache.getTranslatedTopic(1, null, "de-DE"));
+    }
+
+    public void testTranslationsAfterTheRequestedRevisionAreIgnored() {
+        final RESTTranslatedTopicV1 older = createTranslatedTopic("de-DE", 3);
+        final RESTTranslatedTopicV1 newer = createTranslatedTopic("de-DE", 7);
+        final TranslatedTopicCache cache = new TranslatedTopicCache();
+        cache.addTopic(createTopic(1, older, newer), 5);
+        cache.addTopic(createTopic(2, newer), 5);
+
+        assertSame(older, cache.getTranslatedTopic(1, 5, "de-DE"));
+        assertNull(cache.getTranslatedTopic(2, 5, "de-DE"));
+    }
+
+    public void testClear() {
+        final TranslatedTopicCache cache = new TranslatedTopicCache();
+        cache.addTopic(createTopic(1, createTranslatedTopic("de-DE", 1)), null);
+        cache.clear();
+
+        assertNull(cache.getTranslatedTopic(1, null, "de-DE"));
+    }
+
+    public void testRevisionTopicsAreDownloadedConcurrently() throws Exception {
+        final LocalTopicServer server = LocalTopicServer.start(LATENCY);
+        try {
+            final List<Pair<Integer, Integer>> revisionTopicIds = new ArrayList<Pair<Integer, Integer>>();
+            for (int topicId = 1; topicId <= TOPIC_COUNT; topicId++) {
+                server.addTopic(topicId, 2);
+                revisionTopicIds.add(new Pair<Integer, Integer>(topicId, 1));
+            }
+
+            final long sequentialTime = timeDownload(server, revisionTopicIds, 1);
+            assertEquals(1, server.getMaxActiveRequestCount());
+            assertEquals(TOPIC_COUNT, server.getRequestPaths().size());
+
+            server.clearRequests();
+            final long concurrentTime = timeDownload(server, revisionTopicIds, DOWNLOAD_THREADS);
+            assertTrue(server.getMaxActiveRequestCount() > 1);
+            assertEquals(TOPIC_COUNT, server.getRequestPaths().size());
+            assertTrue("Downloading with " + DOWNLOAD_THREADS + " threads took " + concurrentTime + "ms and with one thread took "
+                    + sequentialTime + "ms", concurrentTime * 2 < sequentialTime);
+        } finally {
+            server.stop();
+        }
+    }
+
+    /**
+     * Downloads the translations of topics at a revision from a server, with a reader for each download thread.
+     *
+     * @return The number of milliseconds the download took.
+     */
+    private long timeDownload(final LocalTopicServer server, final List<Pair<Integer, Integer>> revisionTopicIds,
+            final int downloadThreads) {
+        final TranslatedTopicCache cache = new TranslatedTopicCache();
+        final ParallelDownloader<Pair<Integer, Integer>, RESTTopicV1> downloader = new ParallelDownloader<Pair<Integer, Integer>,
+                RESTTopicV1>(LOG, downloadThreads, 0, 0, 0, new AtomicBoolean(false));
+        final long start = System.currentTimeMillis();
+        cache.download(new RESTManager(server.getUrl()).getReader(), new PerThreadReaders(server.getUrl()),
+                Collections.<Integer>emptyList(), revisionTopicIds, downloader);
+        final long time = System.currentTimeMillis() - start;
+
+        for (final Pair<Integer, Integer> topicToRevision : revisionTopicIds) {
+            final RESTTranslatedTopicV1 translatedTopic = cache.getTranslatedTopic(topicToRevision.getFirst(),
+                    topicToRevision.getSecond(), LocalTopicServer.TRANSLATION_LOCALE);
+            assertNotNull(translatedTopic);
+            assertEquals(topicToRevision.getSecond(), translatedTopic.getTopicRevision());
+        }
+        return time;
+    }
+
+    private RESTTopicV1 createTopic(final Integer id, final RESTTranslatedTopicV1... translatedTopics) {
+        final RESTTranslatedTopicCollectionV1 translatedTopicCollection = new RESTTranslatedTopicCollectionV1();
+        for (final RESTTranslatedTopicV1 translatedTopic : translatedTopics) {
+            translatedTopicCollection.addItem(translatedTopic);
+        }
+
+        final RESTTopicV1 topic = new RESTTopicV1();
+        topic.setId(id);
+        topic.setTranslatedTopics_OTM(translatedTopicCollection);
+        return topic;
+    }
+
+    private RESTTranslatedTopicV1 createTranslatedTopic(final String locale, final Integer topicRevision) {
+        final RESTTranslatedTopicV1 translatedTopic = new RESTTranslatedTopicV1();
+        translatedTopic.setLocale(locale);
+        translatedTopic.setTopicRevision(topicRevision);
+        return translatedTopic;
+    }
+}
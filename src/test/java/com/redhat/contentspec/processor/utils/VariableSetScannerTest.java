@@ -0,0 +1,82 @@
+package com.redhat.contentspec.processor.utils;
+
+import java.util.List;
+
+import com.redhat.contentspec.processor.structures.VariableSet;
+import junit.framework.TestCase;
+
+/**
+ * Tests the VariableSetScanner.
+ */
+public class VariableSetScannerTest extends TestCase {
+    public void testFindsAllSetsWithOffsets() {
+        final List<VariableSet> sets = new VariableSetScanner('[', ']').append("Title [N1, Concept] [T-target]").getVariableSets();
+
+        assertEquals(2, sets.size());
+        assertEquals("[N1, Concept]", sets.get(0).getContents());
+        assertEquals(Integer.valueOf(6), sets.get(0).getStartPos());
+        assertEquals(Integer.valueOf(18), sets.get(0).getEndPos());
+        assertEquals("[T-target]", sets.get(1).getContents());
+        assertEquals(Integer.valueOf(20), sets.get(1).getStartPos());
+    }
+
+    public void testNestedSetsArePartOfTheOuterSet() {
+        final List<VariableSet> sets = new VariableSetScanner('[', ']').append("Title [R: See [1], Also [[2]]] [3]").getVariableSets();
+
+        assertEquals(2, sets.size());
+        assertEquals("[R: See [1], Also [[2]]]", sets.get(0).getContents());
+        assertEquals("[3]", sets.get(1).getContents());
+    }
+
+    public void testEscapedDelimitersAreIgnored() {
+        final List<VariableSet> sets = new VariableSetScanner('[', ']').append("Title \\[Part 1\\] ] [N1, Tag\\]]").getVariableSets();
+
+        assertEquals(1, sets.size());
+        assertEquals("[N1, Tag\\]]", sets.get(0).getContents());
+    }
+
+    public void testUnclosedSetIsOpen() {
+        final VariableSetScanner scanner = new VariableSetScanner('[', ']').append("Title [N1] [R: 1,");
+
+        assertEquals(1, scanner.getVariableSets().size());
+        assertTrue(scanner.isOpen());
+        assertEquals("[R: 1,", scanner.getOpenSet().getContents());
+        assertNull(scanner.getOpenSet().getEndPos());
+    }
+
+    public void testAppendedLinesContinueTheOpenSet() {
+        final VariableSetScanner scanner = new VariableSetScanner('[', ']').append("Title [N1] [R: 1,");
+        scanner.append("\n").append("  2, See [3],");
+        assertTrue(scanner.isOpen());
+
+        scanner.append("\n").append("  4]");
+        assertFalse(scanner.isOpen());
+        assertNull(scanner.getOpenSet());
+
+        final List<VariableSet> sets = scanner.getVariableSets();
+        assertEquals(2, sets.size());
+        assertEquals("[R: 1,\n  2, See [3],\n  4]", sets.get(1).getContents());
+        assertEquals(Integer.valueOf(11), sets.get(1).getStartPos());
+        assertEquals(Integer.valueOf(scanner.getInput().length() - 1), sets.get(1).getEndPos());
+    }
+
+    public void testEscapeIsCarriedAcrossAppends() {
+        final VariableSetScanner scanner = new VariableSetScanner('[', ']').append("Title \\");
+        scanner.append("[not a set] [N1]");
+
+        assertEquals(1, scanner.getVariableSets().size());
+        assertEquals("[N1]", scanner.getVariableSets().get(0).getContents());
+    }
+
+    public void testFindVariableSetFromPosition() {
+        final VariableSet set = ProcessorUtilities.findVariableSet("[N1] [T-target] [R: 1", '[', ']', 4);
+        assertEquals("[T-target]", set.getContents());
+        assertEquals(Integer.valueOf(5), set.getStartPos());
+
+        final VariableSet openSet = ProcessorUtilities.findVariableSet("[N1] [T-target] [R: 1", '[', ']', 15);
+        assertEquals("[R: 1", openSet.getContents());
+        assertNull(openSet.getEndPos());
+
+        assertNull(ProcessorUtilities.findVariableSet("No sets", '[', ']', 0).getContents());
+    }
+}